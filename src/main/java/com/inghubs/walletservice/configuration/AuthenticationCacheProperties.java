@@ -0,0 +1,32 @@
+package com.inghubs.walletservice.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the authentication cache.
+ * Bound from the {@code wallet.security.auth-cache} prefix.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "wallet.security.auth-cache")
+public class AuthenticationCacheProperties {
+
+    /**
+     * Whether successful credential verifications are cached.
+     */
+    private boolean enabled = true;
+
+    /**
+     * How long a verified credential is trusted before bcrypt runs again.
+     */
+    private Duration ttl = Duration.ofMinutes(5);
+
+    /**
+     * Maximum number of cached users; least recently used entries are evicted first.
+     */
+    private long maxSize = 10_000;
+}
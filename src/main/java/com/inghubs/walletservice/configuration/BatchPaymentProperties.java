@@ -0,0 +1,20 @@
+package com.inghubs.walletservice.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for batch payment processing.
+ * Bound from the {@code wallet.batch} prefix.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "wallet.batch")
+public class BatchPaymentProperties {
+
+    /**
+     * Number of batch items applied in one database transaction.
+     */
+    private int chunkSize = 100;
+}
@@ -0,0 +1,20 @@
+package com.inghubs.walletservice.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for bulk approval of pending transactions.
+ * Bound from the {@code wallet.bulk-approval} prefix.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "wallet.bulk-approval")
+public class BulkApprovalProperties {
+
+    /**
+     * Number of transactions decided in one database transaction.
+     */
+    private int chunkSize = 100;
+}
@@ -0,0 +1,143 @@
+package com.inghubs.walletservice.configuration;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Data source that hands out at most a fixed number of connections at once and queues further callers on a
+ * fair semaphore, released when the connection is closed.
+ * <p>
+ * With requests on virtual threads nothing bounds how many of them reach for a connection at the same time.
+ * The permits keep thousands of them parked in arrival order instead of contending for the pool's hand-off,
+ * and let a caller give up after its own timeout.
+ */
+public class ConnectionPermitDataSource extends DelegatingDataSource implements MeterBinder {
+
+    private final Semaphore permits;
+    private final int connectionPermits;
+    private final long timeoutNanos;
+    private final LongAdder timeouts = new LongAdder();
+
+    public ConnectionPermitDataSource(DataSource target, int connectionPermits, Duration timeout) {
+        super(target);
+        this.permits = new Semaphore(connectionPermits, true);
+        this.connectionPermits = connectionPermits;
+        this.timeoutNanos = timeout.toNanos();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        return guarded(() -> super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        return guarded(() -> super.getConnection(username, password));
+    }
+
+    public int getConnectionPermits() {
+        return connectionPermits;
+    }
+
+    /**
+     * Returns the number of callers waiting for a permit.
+     *
+     * @return The estimated queue length.
+     */
+    public int getWaiting() {
+        return permits.getQueueLength();
+    }
+
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("wallet.database.permits.active", this, source -> source.connectionPermits - source.permits.availablePermits())
+                .description("Connections currently handed out under a permit")
+                .register(registry);
+        Gauge.builder("wallet.database.permits.waiting", this, ConnectionPermitDataSource::getWaiting)
+                .description("Callers waiting for a connection permit")
+                .register(registry);
+        FunctionCounter.builder("wallet.database.permits.timeouts", timeouts, LongAdder::sum)
+                .description("Connection attempts that gave up waiting for a permit")
+                .register(registry);
+    }
+
+    private void acquire() throws SQLException {
+        try {
+            if (!permits.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS)) {
+                timeouts.increment();
+                throw new SQLTransientConnectionException("Timed out waiting for a database connection permit");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a database connection permit", e);
+        }
+    }
+
+    /**
+     * Opens a connection under the permit just acquired, returning the permit if that fails.
+     */
+    private Connection guarded(ConnectionSupplier supplier) throws SQLException {
+        Connection connection;
+        try {
+            connection = supplier.get();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("close")) {
+                        // closing a closed connection has no effect, so the permit is returned only once
+                        if (released.compareAndSet(false, true)) {
+                            try {
+                                connection.close();
+                            } finally {
+                                permits.release();
+                            }
+                        }
+                        return null;
+                    }
+                    if (method.getName().equals("unwrap") && ((Class<?>) args[0]).isInstance(proxy)) {
+                        return proxy;
+                    }
+                    if (method.getName().equals("equals")) {
+                        return proxy == args[0];
+                    }
+                    if (method.getName().equals("hashCode")) {
+                        return System.identityHashCode(proxy);
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSupplier {
+        Connection get() throws SQLException;
+    }
+}
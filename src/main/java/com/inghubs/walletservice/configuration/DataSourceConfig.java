@@ -0,0 +1,55 @@
+package com.inghubs.walletservice.configuration;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Data source configuration class for the application.
+ * Puts the connection pool behind connection permits when {@code wallet.database.connection-permits} is set.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    /**
+     * Wraps the application's data source in a {@link ConnectionPermitDataSource} when permits are configured.
+     *
+     * @param properties The database properties, resolved when the data source is created.
+     * @return The post-processor that wraps the data source.
+     */
+    @Bean
+    public static BeanPostProcessor connectionPermitPostProcessor(ObjectProvider<DatabaseProperties> properties) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof ConnectionPermitDataSource) {
+                    return bean;
+                }
+                DatabaseProperties database = properties.getObject();
+                if (database.getConnectionPermits() <= 0) {
+                    return bean;
+                }
+                return new ConnectionPermitDataSource(dataSource, database.getConnectionPermits(), database.getPermitTimeout());
+            }
+        };
+    }
+
+    /**
+     * Publishes the connection permit metrics when the data source is behind connection permits.
+     *
+     * @param dataSource The application's data source.
+     * @return The binder of the permit metrics.
+     */
+    @Bean
+    public MeterBinder connectionPermitMetrics(ObjectProvider<DataSource> dataSource) {
+        return registry -> {
+            if (dataSource.getIfUnique() instanceof ConnectionPermitDataSource permits) {
+                permits.bindTo(registry);
+            }
+        };
+    }
+}
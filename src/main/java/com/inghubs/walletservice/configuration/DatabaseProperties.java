@@ -0,0 +1,28 @@
+package com.inghubs.walletservice.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for access to the database.
+ * Bound from the {@code wallet.database} prefix.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "wallet.database")
+public class DatabaseProperties {
+
+    /**
+     * Maximum number of connections handed out at once; callers beyond it queue in arrival order.
+     * Zero leaves the queueing to the connection pool.
+     */
+    private int connectionPermits = 0;
+
+    /**
+     * Maximum time a caller waits for a connection permit before the connection attempt fails.
+     */
+    private Duration permitTimeout = Duration.ofSeconds(5);
+}
@@ -0,0 +1,20 @@
+package com.inghubs.walletservice.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for transaction exports.
+ * Bound from the {@code wallet.export} prefix.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "wallet.export")
+public class ExportProperties {
+
+    /**
+     * Number of rows written between persistence context clears and response flushes.
+     */
+    private int clearInterval = 1_000;
+}
@@ -0,0 +1,49 @@
+package com.inghubs.walletservice.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Configuration properties for the write-ahead payment journal.
+ * Bound from the {@code wallet.journal} prefix.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "wallet.journal")
+public class JournalProperties {
+
+    /**
+     * Whether payments and approvals are acknowledged from the journal and written to the database asynchronously.
+     * The journal keeps the authoritative balances in memory, so only a single node may write while it is enabled.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Directory holding the journal segment files.
+     */
+    private Path directory = Path.of("journal");
+
+    /**
+     * Size of one memory-mapped segment file in bytes; a full segment is forced and a new one is started.
+     */
+    private int segmentSize = 64 * 1024 * 1024;
+
+    /**
+     * Number of appended records that triggers a group commit.
+     */
+    private int groupSize = 64;
+
+    /**
+     * Longest time an appended record waits for its group commit.
+     */
+    private Duration groupMaxLatency = Duration.ofMillis(2);
+
+    /**
+     * Maximum number of journal records written to the database in one transaction.
+     */
+    private int applyBatchSize = 500;
+}
@@ -0,0 +1,20 @@
+package com.inghubs.walletservice.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for the wallet ledger used by the LEDGER locking mode.
+ * Bound from the {@code wallet.ledger} prefix.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "wallet.ledger")
+public class LedgerProperties {
+
+    /**
+     * Number of ledger entries per wallet between two snapshots. Rebuilding a balance reads at most this many entries.
+     */
+    private int snapshotInterval = 100;
+}
@@ -0,0 +1,43 @@
+package com.inghubs.walletservice.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the wallet metrics.
+ * Bound from the {@code wallet.metrics} prefix.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "wallet.metrics")
+public class MetricsProperties {
+
+    /**
+     * How long the pending transaction totals are reused before they are queried again, so that scraping
+     * several gauges, or scraping often, costs at most one query per interval.
+     */
+    private Duration pendingRefreshInterval = Duration.ofSeconds(5);
+
+    /**
+     * Detection of virtual threads pinned to their carrier thread.
+     */
+    private Pinning pinning = new Pinning();
+
+    @Getter
+    @Setter
+    public static class Pinning {
+
+        /**
+         * Whether pinned virtual threads are recorded with JFR, counted and, when pinned in application code, logged.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Shortest pinned park that is recorded.
+         */
+        private Duration threshold = Duration.ofMillis(20);
+    }
+}
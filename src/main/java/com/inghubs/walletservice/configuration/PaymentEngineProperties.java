@@ -0,0 +1,83 @@
+package com.inghubs.walletservice.configuration;
+
+import com.inghubs.walletservice.service.engine.LockingMode;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the per-wallet payment engine.
+ * Bound from the {@code wallet.payment-engine} prefix.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "wallet.payment-engine")
+public class PaymentEngineProperties {
+
+    /**
+     * Number of lock stripes wallet IDs are hashed onto. Rounded up to the next power of two.
+     */
+    private int lockStripes = 1024;
+
+    /**
+     * Maximum time a payment waits for its wallet's stripe before it is rejected.
+     */
+    private Duration lockTimeout = Duration.ofSeconds(5);
+
+    /**
+     * How conflicting writes to the same wallet row are prevented at the database level.
+     */
+    private LockingMode lockingMode = LockingMode.CONDITIONAL_UPDATE;
+
+    /**
+     * Retry policy for transactions that fail because of a concurrent update.
+     */
+    private Retry retry = new Retry();
+
+    /**
+     * Coalescing of concurrent single payments into shared transactions.
+     */
+    private Coalescing coalescing = new Coalescing();
+
+    @Getter
+    @Setter
+    public static class Retry {
+
+        /**
+         * Maximum number of attempts, including the first one.
+         */
+        private int maxAttempts = 5;
+
+        /**
+         * Upper bound of the backoff before the first retry; doubled on every further retry.
+         */
+        private Duration initialBackoff = Duration.ofMillis(5);
+
+        /**
+         * Upper bound of any single backoff.
+         */
+        private Duration maxBackoff = Duration.ofMillis(200);
+    }
+
+    @Getter
+    @Setter
+    public static class Coalescing {
+
+        /**
+         * Whether concurrent deposits and withdrawals are committed in groups instead of one by one.
+         */
+        private boolean enabled = false;
+
+        /**
+         * How long the first payment of a group waits for others to join it.
+         */
+        private Duration window = Duration.ofMillis(1);
+
+        /**
+         * Number of payments that closes a group before its window has passed.
+         */
+        private int maxBatchSize = 64;
+    }
+}
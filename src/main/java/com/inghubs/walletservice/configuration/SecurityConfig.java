@@ -1,14 +1,26 @@
 package com.inghubs.walletservice.configuration;
 
+import com.inghubs.walletservice.security.AuthenticationCache;
+import com.inghubs.walletservice.security.CachingAuthenticationProvider;
+import com.inghubs.walletservice.security.SessionTokenAuthenticationFilter;
+import com.inghubs.walletservice.security.SessionTokenService;
 import com.inghubs.walletservice.service.impl.CustomUserDetailsService;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.ObservationAuthenticationManager;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.crypto.factory.PasswordEncoderFactories;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.www.BasicAuthenticationEntryPoint;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 
 
 /**
@@ -22,31 +34,65 @@ public class SecurityConfig {
 
     /**
      * Configures the security filter chain for the application.
+     * Requests authenticate either with a bearer session token, verified by signature only, or with HTTP Basic.
      *
      * @param http The HttpSecurity object used to configure security settings.
-     * @param userDetailsService Custom implementation of UserDetailsService for authentication.
+     * @param authenticationManager The manager that verifies username/password credentials.
+     * @param sessionTokenService The service that verifies bearer session tokens.
      * @return A configured SecurityFilterChain bean.
      * @throws Exception If an error occurs during configuration.
      */
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http,
-        CustomUserDetailsService userDetailsService) throws Exception {
+        AuthenticationManager authenticationManager, SessionTokenService sessionTokenService) throws Exception {
+      BasicAuthenticationEntryPoint entryPoint = new BasicAuthenticationEntryPoint();
+      entryPoint.setRealmName("Realm");
       http
           .csrf(csrf -> csrf.disable())
           .authorizeHttpRequests(auth -> auth
               .requestMatchers("/h2-console/**").permitAll()
+              .requestMatchers("/actuator/health").permitAll()
+              .requestMatchers("/actuator/**").hasRole("EMPLOYEE")
+              .requestMatchers("/api/auth/login").permitAll()
               .requestMatchers("/api/wallets/**").authenticated()
+              .requestMatchers("/api/transactions/**").authenticated()
               .anyRequest().permitAll()
           )
           .headers(headers -> headers
               .frameOptions(frameOptions -> frameOptions.sameOrigin())
           )
-          .userDetailsService(userDetailsService)
-          .httpBasic(httpBasic -> {
-          });
+          .authenticationManager(authenticationManager)
+          .addFilterBefore(new SessionTokenAuthenticationFilter(sessionTokenService, entryPoint),
+              BasicAuthenticationFilter.class)
+          .httpBasic(httpBasic -> httpBasic.authenticationEntryPoint(entryPoint));
       return http.build();
     }
 
+    /**
+     * Provides the username/password authentication manager, backed only by the caching provider.
+     * Recently verified credentials are answered from the cache; other attempts load the user and run
+     * the password encoder. The provider is not a bean of its own, so Spring Security does not also
+     * register it in the global authentication manager. Like the manager HttpSecurity would build, it is
+     * observed when an ObservationRegistry is available.
+     *
+     * @param userDetailsService Custom implementation of UserDetailsService for authentication.
+     * @param passwordEncoder The encoder used to verify passwords.
+     * @param authenticationCache The cache of verified credentials and loaded users.
+     * @param observationRegistry The registry that records authentication attempts, if any.
+     * @return The AuthenticationManager that delegates to the caching provider.
+     */
+    @Bean
+    public AuthenticationManager authenticationManager(CustomUserDetailsService userDetailsService,
+        PasswordEncoder passwordEncoder, AuthenticationCache authenticationCache,
+        ObjectProvider<ObservationRegistry> observationRegistry) {
+      DaoAuthenticationProvider daoProvider = new DaoAuthenticationProvider(userDetailsService);
+      daoProvider.setPasswordEncoder(passwordEncoder);
+      daoProvider.setUserCache(authenticationCache);
+      AuthenticationManager manager = new ProviderManager(new CachingAuthenticationProvider(daoProvider, authenticationCache));
+      ObservationRegistry registry = observationRegistry.getIfUnique(() -> ObservationRegistry.NOOP);
+      return registry.isNoop() ? manager : new ObservationAuthenticationManager(registry, manager);
+    }
+
     /**
      * Provides a PasswordEncoder bean for encoding passwords.
      *
@@ -0,0 +1,28 @@
+package com.inghubs.walletservice.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for signed session tokens.
+ * Bound from the {@code wallet.security.token} prefix.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "wallet.security.token")
+public class SessionTokenProperties {
+
+    /**
+     * Base64 encoded HMAC key shared by every node. When empty a random key is generated at startup,
+     * so tokens are only accepted by the node that issued them and do not survive a restart.
+     */
+    private String secret;
+
+    /**
+     * How long an issued token stays valid.
+     */
+    private Duration ttl = Duration.ofMinutes(30);
+}
@@ -0,0 +1,25 @@
+package com.inghubs.walletservice.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for paginated transaction history.
+ * Bound from the {@code wallet.transaction-history} prefix.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "wallet.transaction-history")
+public class TransactionHistoryProperties {
+
+    /**
+     * Page size used when the client does not ask for one.
+     */
+    private int defaultPageSize = 50;
+
+    /**
+     * Largest page size a client may ask for; larger requests are capped.
+     */
+    private int maxPageSize = 500;
+}
@@ -0,0 +1,61 @@
+package com.inghubs.walletservice.configuration;
+
+import com.inghubs.walletservice.model.dto.enums.TransactionType;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Configuration properties for velocity limits on payments.
+ * Bound from the {@code wallet.velocity} prefix.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "wallet.velocity")
+public class VelocityLimitProperties {
+
+    /**
+     * Whether payments are checked against the velocity limits.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Length of the sliding window the limits apply to.
+     */
+    private Duration window = Duration.ofMinutes(1);
+
+    /**
+     * Number of buckets the window is divided into; the window slides by one bucket at a time.
+     */
+    private int buckets = 20;
+
+    /**
+     * Limits per wallet, by transaction type. Types without a limit are not restricted.
+     */
+    private Map<TransactionType, Limit> wallet = new EnumMap<>(TransactionType.class);
+
+    /**
+     * Limits across all wallets of a customer, by transaction type. Types without a limit are not restricted.
+     */
+    private Map<TransactionType, Limit> customer = new EnumMap<>(TransactionType.class);
+
+    @Getter
+    @Setter
+    public static class Limit {
+
+        /**
+         * Maximum number of payments within the window; unlimited if not set.
+         */
+        private Long maxCount;
+
+        /**
+         * Maximum total amount of payments within the window; unlimited if not set.
+         */
+        private BigDecimal maxAmount;
+    }
+}
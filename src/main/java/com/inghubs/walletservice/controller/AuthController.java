@@ -0,0 +1,48 @@
+package com.inghubs.walletservice.controller;
+
+import com.inghubs.walletservice.model.dto.CustomUserDetails;
+import com.inghubs.walletservice.model.dto.LoginRequest;
+import com.inghubs.walletservice.model.dto.LoginResponse;
+import com.inghubs.walletservice.security.SessionToken;
+import com.inghubs.walletservice.security.SessionTokenService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Controller for issuing session tokens.
+ * Clients log in once with their password and send the returned token as {@code Authorization: Bearer}.
+ */
+@RestController
+@RequestMapping("/api/auth")
+@RequiredArgsConstructor
+public class AuthController {
+
+    private final AuthenticationManager authenticationManager;
+    private final SessionTokenService sessionTokenService;
+
+    /**
+     * Verifies the user's password and issues a signed session token.
+     *
+     * @param request The request object containing the username and password.
+     * @return A ResponseEntity containing the session token and its expiry.
+     */
+    @PostMapping("/login")
+    public ResponseEntity<LoginResponse> login(@RequestBody @Valid LoginRequest request) {
+        Authentication authentication = authenticationManager.authenticate(
+                UsernamePasswordAuthenticationToken.unauthenticated(request.getUsername(), request.getPassword()));
+        SessionToken token = sessionTokenService.issue((CustomUserDetails) authentication.getPrincipal());
+        return ResponseEntity.ok(LoginResponse.builder()
+                .token(token.value())
+                .tokenType("Bearer")
+                .expiresAt(token.expiresAt())
+                .build());
+    }
+}
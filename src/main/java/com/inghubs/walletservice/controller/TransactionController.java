@@ -1,8 +1,12 @@
 package com.inghubs.walletservice.controller;
 
+import com.inghubs.walletservice.model.dto.BulkApprovalRequest;
+import com.inghubs.walletservice.model.dto.BulkApprovalResponse;
 import com.inghubs.walletservice.model.dto.TransactionApprovalRequest;
+import com.inghubs.walletservice.model.dto.TransactionPageResponse;
 import com.inghubs.walletservice.model.dto.TransactionResponse;
 import com.inghubs.walletservice.service.TransactionService;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -12,7 +16,7 @@ import java.util.List;
 
 /**
  * Controller for handling transaction-related requests.
- * Provides endpoints for listing transactions by wallet and approving transactions.
+ * Provides endpoints for listing transactions by wallet and approving transactions, one by one or in bulk.
  */
 @RestController
 @RequestMapping("/api/transactions")
@@ -23,6 +27,7 @@ public class TransactionController {
 
     /**
      * Retrieves a list of transactions associated with a specific wallet.
+     * The whole history is returned at once; prefer {@link #listTransactionPage} for large wallets.
      *
      * @param walletId The ID of the wallet whose transactions are to be retrieved.
      * @return A ResponseEntity containing a list of TransactionResponse objects.
@@ -32,13 +37,35 @@ public class TransactionController {
     @GetMapping
     @PreAuthorize("""
                 hasRole('EMPLOYEE') or 
-                (hasRole('CUSTOMER') and @walletServiceImpl.isWalletOwnedBy(#walletId, principal.id))
+                (hasRole('CUSTOMER') and @walletAuthorization.isOwner(#walletId, principal.id))
             """)
     public ResponseEntity<List<TransactionResponse>> listTransactionsByWallet(@RequestParam Long walletId) {
         List<TransactionResponse> responseList = transactionService.findTransactionsByWalletId(walletId);
         return ResponseEntity.ok(responseList);
     }
 
+    /**
+     * Retrieves one page of the transactions of a specific wallet, newest first.
+     *
+     * @param walletId The ID of the wallet whose transactions are to be retrieved.
+     * @param cursor The nextCursor of the previous page; omit for the first page.
+     * @param size The page size (optional).
+     * @return A ResponseEntity containing the page and the cursor of the next page.
+     * @PreAuthorize Ensures that the user has the 'EMPLOYEE' role or is a 'CUSTOMER'
+     *               who owns the specified wallet.
+     */
+    @GetMapping("/page")
+    @PreAuthorize("""
+                hasRole('EMPLOYEE') or
+                (hasRole('CUSTOMER') and @walletAuthorization.isOwner(#walletId, principal.id))
+            """)
+    public ResponseEntity<TransactionPageResponse> listTransactionPage(@RequestParam Long walletId,
+                                                                       @RequestParam(required = false) String cursor,
+                                                                       @RequestParam(required = false) Integer size) {
+        TransactionPageResponse response = transactionService.findTransactionPage(walletId, cursor, size);
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * Approves a transaction based on the provided request data.
      *
@@ -52,4 +79,19 @@ public class TransactionController {
         TransactionResponse response = transactionService.approveTransaction(request);
         return ResponseEntity.ok(response);
     }
+
+    /**
+     * Decides many pending transactions at once, listed by ID or selected by criteria.
+     * Transactions that are no longer pending are left unchanged, so the request can safely be repeated.
+     *
+     * @param request The BulkApprovalRequest object containing the status and the transactions to decide.
+     * @return A ResponseEntity containing the summary of the decisions.
+     * @PreAuthorize Ensures that the user has the 'EMPLOYEE' role to approve transactions.
+     */
+    @PostMapping("/approve/bulk")
+    @PreAuthorize("hasRole('EMPLOYEE')")
+    public ResponseEntity<BulkApprovalResponse> approveTransactions(@RequestBody @Valid BulkApprovalRequest request) {
+        BulkApprovalResponse response = transactionService.approveTransactions(request);
+        return ResponseEntity.ok(response);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,50 @@
+package com.inghubs.walletservice.controller;
+
+import com.inghubs.walletservice.model.dto.enums.ExportFormat;
+import com.inghubs.walletservice.service.export.TransactionExporter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Controller for exporting the full transaction history of a wallet.
+ * The response is streamed row by row, so exports of any size run in constant memory.
+ */
+@RestController
+@RequestMapping("/api/transactions")
+@RequiredArgsConstructor
+public class TransactionExportController {
+
+    private final TransactionExporter transactionExporter;
+
+    /**
+     * Streams every transaction of a wallet, newest first.
+     *
+     * @param walletId The ID of the wallet whose transactions are to be exported.
+     * @param format The export format, NDJSON (default) or CSV.
+     * @return A ResponseEntity whose body writes the transactions as they are read from the database.
+     * @PreAuthorize Ensures that the user has the 'EMPLOYEE' role or is a 'CUSTOMER'
+     *               who owns the specified wallet.
+     */
+    @GetMapping("/export")
+    @PreAuthorize("""
+                hasRole('EMPLOYEE') or
+                (hasRole('CUSTOMER') and @walletAuthorization.isOwner(#walletId, principal.id))
+            """)
+    public ResponseEntity<StreamingResponseBody> exportTransactions(@RequestParam Long walletId,
+                                                                    @RequestParam(defaultValue = "NDJSON") ExportFormat format) {
+        String filename = "wallet-" + walletId + "-transactions." + format.name().toLowerCase();
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .body(outputStream -> transactionExporter.export(walletId, format, outputStream));
+    }
+}
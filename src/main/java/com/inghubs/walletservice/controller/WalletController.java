@@ -1,10 +1,15 @@
 package com.inghubs.walletservice.controller;
 
+import com.inghubs.walletservice.model.dto.BatchPaymentRequest;
+import com.inghubs.walletservice.model.dto.BatchPaymentResponse;
 import com.inghubs.walletservice.model.dto.CreateWalletRequest;
 import com.inghubs.walletservice.model.dto.CreateWalletResponse;
+import com.inghubs.walletservice.model.dto.CustomerBalanceResponse;
 import com.inghubs.walletservice.model.dto.PaymentRequest;
 import com.inghubs.walletservice.model.dto.PaymentResponse;
+import com.inghubs.walletservice.model.dto.WalletPageResponse;
 import com.inghubs.walletservice.model.dto.enums.Currency;
+import com.inghubs.walletservice.model.dto.enums.WalletSort;
 import com.inghubs.walletservice.service.WalletService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -64,6 +69,53 @@ public class WalletController {
         return ResponseEntity.ok(wallets);
     }
 
+    /**
+     * Searches wallets page by page, with the same optional filters as the wallet listing.
+     *
+     * @param customerId The ID of the customer whose wallets are to be searched (optional).
+     * @param currency   The currency type to filter wallets (optional).
+     * @param minAmount  The minimum balance to filter wallets (optional).
+     * @param maxAmount  The maximum balance to filter wallets (optional).
+     * @param sort       The order of the results (optional, ascending wallet ID by default).
+     * @param cursor     The nextCursor of the previous page; omit for the first page.
+     * @param size       The page size (optional).
+     * @return A ResponseEntity containing the page and the cursor of the next page.
+     * @PreAuthorize Ensures that the user has the 'EMPLOYEE' role or is a 'CUSTOMER' who owns the wallets.
+     */
+    @GetMapping("/search")
+    @PreAuthorize("""
+                hasRole('EMPLOYEE') or
+                (hasRole('CUSTOMER') and #customerId != null and #customerId == principal.id)
+            """)
+    public ResponseEntity<WalletPageResponse> searchWallets(
+            @RequestParam(required = false) Long customerId,
+            @RequestParam(required = false) Currency currency,
+            @RequestParam(required = false) BigDecimal minAmount,
+            @RequestParam(required = false) BigDecimal maxAmount,
+            @RequestParam(required = false) WalletSort sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        WalletPageResponse page = walletService.searchWallets(customerId, currency, minAmount, maxAmount, sort, cursor, size);
+        return ResponseEntity.ok(page);
+    }
+
+    /**
+     * Retrieves a customer's total and usable balance per currency across all of their wallets.
+     *
+     * @param customerId The ID of the customer.
+     * @return A ResponseEntity containing one balance summary per currency.
+     * @PreAuthorize Ensures that the user has the 'EMPLOYEE' role or is the 'CUSTOMER' in question.
+     */
+    @GetMapping("/balances")
+    @PreAuthorize("""
+                hasRole('EMPLOYEE') or
+                (hasRole('CUSTOMER') and #customerId == principal.id)
+            """)
+    public ResponseEntity<List<CustomerBalanceResponse>> getBalanceSummary(@RequestParam Long customerId) {
+        List<CustomerBalanceResponse> balances = walletService.getBalanceSummary(customerId);
+        return ResponseEntity.ok(balances);
+    }
+
     /**
      * Processes a deposit into a wallet.
      *
@@ -74,7 +126,7 @@ public class WalletController {
     @PostMapping("/deposit")
     @PreAuthorize("""
                 hasRole('EMPLOYEE') or 
-                (hasRole('CUSTOMER') and @walletRepository.findById(#request.walletId).get().customer.id == principal.id)
+                (hasRole('CUSTOMER') and @walletAuthorization.isOwner(#request.walletId, principal.id))
             """)
     public ResponseEntity<PaymentResponse> makeDeposit(@RequestBody @Valid PaymentRequest request) {
         PaymentResponse response = walletService.makeDeposit(request);
@@ -91,10 +143,24 @@ public class WalletController {
     @PostMapping("/withdraw")
     @PreAuthorize("""
                 hasRole('EMPLOYEE') or 
-                (hasRole('CUSTOMER') and @walletRepository.findById(#request.walletId).get().customer.id == principal.id)
+                (hasRole('CUSTOMER') and @walletAuthorization.isOwner(#request.walletId, principal.id))
             """)
     public ResponseEntity<PaymentResponse> makeWithdraw(@RequestBody @Valid PaymentRequest request) {
         PaymentResponse response = walletService.makeWithdraw(request);
         return ResponseEntity.ok(response);
     }
+
+    /**
+     * Processes a batch of deposits and withdrawals across wallets in a single request.
+     *
+     * @param request The request object containing the payments to apply.
+     * @return A ResponseEntity containing one result per payment, in request order.
+     * @PreAuthorize Ensures that the user has the 'EMPLOYEE' role.
+     */
+    @PostMapping("/payments:batch")
+    @PreAuthorize("hasRole('EMPLOYEE')")
+    public ResponseEntity<BatchPaymentResponse> makeBatchPayments(@RequestBody @Valid BatchPaymentRequest request) {
+        BatchPaymentResponse response = walletService.makeBatchPayments(request);
+        return ResponseEntity.ok(response);
+    }
 }
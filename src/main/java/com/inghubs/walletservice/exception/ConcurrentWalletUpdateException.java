@@ -0,0 +1,12 @@
+package com.inghubs.walletservice.exception;
+
+public class ConcurrentWalletUpdateException extends RuntimeException {
+
+    public ConcurrentWalletUpdateException(String message) {
+        super(message);
+    }
+
+    public ConcurrentWalletUpdateException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -1,8 +1,12 @@
 package com.inghubs.walletservice.exception;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.context.request.WebRequest;
@@ -13,11 +17,15 @@ import java.util.Map;
 
 /**
  * Global exception handler for the application.
- * Handles exceptions and provides consistent error responses.
+ * Handles exceptions and provides consistent error responses, and counts every handled exception
+ * by type and response status.
  */
 @ControllerAdvice
+@RequiredArgsConstructor
 public class GlobalExceptionHandler {
 
+    private final MeterRegistry meterRegistry;
+
     /**
      * Handles WalletTransactionException and returns a custom error response.
      *
@@ -33,6 +41,7 @@ public class GlobalExceptionHandler {
         errorDetails.put("message", ex.getMessage());
         errorDetails.put("status", HttpStatus.BAD_REQUEST.value());
         errorDetails.put("path", request.getDescription(false).replace("uri=", ""));
+        countError(ex, HttpStatus.BAD_REQUEST);
         return new ResponseEntity<>(errorDetails, HttpStatus.BAD_REQUEST);
     }
 
@@ -52,6 +61,7 @@ public class GlobalExceptionHandler {
         errorDetails.put("message", ex.getMessage());
         errorDetails.put("status", HttpStatus.NOT_FOUND.value());
         errorDetails.put("path", request.getDescription(false).replace("uri=", ""));
+        countError(ex, HttpStatus.NOT_FOUND);
         return new ResponseEntity<>(errorDetails, HttpStatus.NOT_FOUND);
     }
 
@@ -71,6 +81,7 @@ public class GlobalExceptionHandler {
         errorDetails.put("message", ex.getMessage());
         errorDetails.put("status", HttpStatus.NOT_FOUND.value());
         errorDetails.put("path", request.getDescription(false).replace("uri=", ""));
+        countError(ex, HttpStatus.NOT_FOUND);
         return new ResponseEntity<>(errorDetails, HttpStatus.NOT_FOUND);
     }
 
@@ -90,6 +101,7 @@ public class GlobalExceptionHandler {
         errorDetails.put("message", ex.getMessage());
         errorDetails.put("status", HttpStatus.FORBIDDEN.value());
         errorDetails.put("path", request.getDescription(false).replace("uri=", ""));
+        countError(ex, HttpStatus.FORBIDDEN);
         return new ResponseEntity<>(errorDetails, HttpStatus.FORBIDDEN);
     }
 
@@ -109,6 +121,7 @@ public class GlobalExceptionHandler {
         errorDetails.put("message", ex.getMessage());
         errorDetails.put("status", HttpStatus.BAD_REQUEST.value());
         errorDetails.put("path", request.getDescription(false).replace("uri=", ""));
+        countError(ex, HttpStatus.BAD_REQUEST);
         return new ResponseEntity<>(errorDetails, HttpStatus.BAD_REQUEST);
     }
 
@@ -128,9 +141,107 @@ public class GlobalExceptionHandler {
         errorDetails.put("message", ex.getMessage());
         errorDetails.put("status", HttpStatus.FORBIDDEN.value());
         errorDetails.put("path", request.getDescription(false).replace("uri=", ""));
+        countError(ex, HttpStatus.FORBIDDEN);
         return new ResponseEntity<>(errorDetails, HttpStatus.FORBIDDEN);
     }
 
+    /**
+     * Handles exceptions related to malformed pagination cursors.
+     * Provides custom error responses for these exceptions.
+     *
+     * @param ex The exception instance.
+     * @param request The WebRequest instance.
+     * @return A ResponseEntity containing the error details.
+     */
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<Map<String, Object>> handleInvalidCursorException(
+            InvalidCursorException ex, WebRequest request) {
+        Map<String, Object> errorDetails = new HashMap<>();
+        errorDetails.put("timestamp", LocalDateTime.now());
+        errorDetails.put("message", ex.getMessage());
+        errorDetails.put("status", HttpStatus.BAD_REQUEST.value());
+        errorDetails.put("path", request.getDescription(false).replace("uri=", ""));
+        countError(ex, HttpStatus.BAD_REQUEST);
+        return new ResponseEntity<>(errorDetails, HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Handles exceptions raised when a wallet could not be updated because of concurrent modifications.
+     * Provides custom error responses for these exceptions.
+     *
+     * @param ex The exception instance.
+     * @param request The WebRequest instance.
+     * @return A ResponseEntity containing the error details.
+     */
+    @ExceptionHandler(ConcurrentWalletUpdateException.class)
+    public ResponseEntity<Map<String, Object>> handleConcurrentWalletUpdateException(
+            ConcurrentWalletUpdateException ex, WebRequest request) {
+        Map<String, Object> errorDetails = new HashMap<>();
+        errorDetails.put("timestamp", LocalDateTime.now());
+        errorDetails.put("message", ex.getMessage());
+        errorDetails.put("status", HttpStatus.CONFLICT.value());
+        errorDetails.put("path", request.getDescription(false).replace("uri=", ""));
+        countError(ex, HttpStatus.CONFLICT);
+        return new ResponseEntity<>(errorDetails, HttpStatus.CONFLICT);
+    }
+
+    /**
+     * Handles exceptions raised when a payment could not be written to the payment journal.
+     *
+     * @param ex The PaymentJournalException instance.
+     * @param request The WebRequest instance.
+     * @return A ResponseEntity containing the error details.
+     */
+    @ExceptionHandler(PaymentJournalException.class)
+    public ResponseEntity<Map<String, Object>> handlePaymentJournalException(
+            PaymentJournalException ex, WebRequest request) {
+        Map<String, Object> errorDetails = new HashMap<>();
+        errorDetails.put("timestamp", LocalDateTime.now());
+        errorDetails.put("message", ex.getMessage());
+        errorDetails.put("status", HttpStatus.SERVICE_UNAVAILABLE.value());
+        errorDetails.put("path", request.getDescription(false).replace("uri=", ""));
+        countError(ex, HttpStatus.SERVICE_UNAVAILABLE);
+        return new ResponseEntity<>(errorDetails, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    /**
+     * Handles payments rejected by a velocity limit.
+     *
+     * @param ex The VelocityLimitExceededException instance.
+     * @param request The WebRequest instance.
+     * @return A ResponseEntity containing the error details.
+     */
+    @ExceptionHandler(VelocityLimitExceededException.class)
+    public ResponseEntity<Map<String, Object>> handleVelocityLimitExceededException(
+            VelocityLimitExceededException ex, WebRequest request) {
+        Map<String, Object> errorDetails = new HashMap<>();
+        errorDetails.put("timestamp", LocalDateTime.now());
+        errorDetails.put("message", ex.getMessage());
+        errorDetails.put("status", HttpStatus.TOO_MANY_REQUESTS.value());
+        errorDetails.put("path", request.getDescription(false).replace("uri=", ""));
+        countError(ex, HttpStatus.TOO_MANY_REQUESTS);
+        return new ResponseEntity<>(errorDetails, HttpStatus.TOO_MANY_REQUESTS);
+    }
+
+    /**
+     * Handles AuthenticationException raised by the login endpoint and returns a custom error response.
+     *
+     * @param ex The AuthenticationException instance.
+     * @param request The WebRequest instance.
+     * @return A ResponseEntity containing the error details.
+     */
+    @ExceptionHandler(AuthenticationException.class)
+    public ResponseEntity<Map<String, Object>> handleAuthenticationException(
+            AuthenticationException ex, WebRequest request) {
+        Map<String, Object> errorDetails = new HashMap<>();
+        errorDetails.put("timestamp", LocalDateTime.now());
+        errorDetails.put("message", "Invalid username or password");
+        errorDetails.put("status", HttpStatus.UNAUTHORIZED.value());
+        errorDetails.put("path", request.getDescription(false).replace("uri=", ""));
+        countError(ex, HttpStatus.UNAUTHORIZED);
+        return new ResponseEntity<>(errorDetails, HttpStatus.UNAUTHORIZED);
+    }
+
     /**
      * Handles AccessDeniedException and returns a custom error response.
      *
@@ -147,6 +258,7 @@ public class GlobalExceptionHandler {
         errorDetails.put("details", ex.getMessage());
         errorDetails.put("status", HttpStatus.FORBIDDEN.value());
         errorDetails.put("path", request.getDescription(false).replace("uri=", ""));
+        countError(ex, HttpStatus.FORBIDDEN);
         return new ResponseEntity<>(errorDetails, HttpStatus.FORBIDDEN);
     }
 
@@ -166,6 +278,22 @@ public class GlobalExceptionHandler {
         errorDetails.put("details", ex.getMessage());
         errorDetails.put("status", HttpStatus.INTERNAL_SERVER_ERROR.value());
         errorDetails.put("path", request.getDescription(false).replace("uri=", ""));
+        countError(ex, HttpStatus.INTERNAL_SERVER_ERROR);
         return new ResponseEntity<>(errorDetails, HttpStatus.INTERNAL_SERVER_ERROR);
     }
-}
\ No newline at end of file
+
+    /**
+     * Counts a handled exception by its type and the status it was answered with.
+     *
+     * @param ex The exception instance.
+     * @param status The response status.
+     */
+    private void countError(Exception ex, HttpStatus status) {
+        Counter.builder("wallet.errors")
+                .description("Exceptions answered by the global exception handler")
+                .tag("exception", ex.getClass().getSimpleName())
+                .tag("status", String.valueOf(status.value()))
+                .register(meterRegistry)
+                .increment();
+    }
+}
@@ -0,0 +1,12 @@
+package com.inghubs.walletservice.exception;
+
+public class PaymentJournalException extends RuntimeException {
+
+    public PaymentJournalException(String message) {
+        super(message);
+    }
+
+    public PaymentJournalException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
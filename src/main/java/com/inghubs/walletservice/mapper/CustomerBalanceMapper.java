@@ -0,0 +1,13 @@
+package com.inghubs.walletservice.mapper;
+
+import com.inghubs.walletservice.model.dto.CustomerBalanceResponse;
+import com.inghubs.walletservice.model.entity.CustomerBalance;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(componentModel = "spring")
+public interface CustomerBalanceMapper {
+
+    @Mapping(target = "totalBalance", source = "balance")
+    CustomerBalanceResponse toResponse(CustomerBalance customerBalance);
+}
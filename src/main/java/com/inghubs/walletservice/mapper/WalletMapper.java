@@ -2,16 +2,24 @@ package com.inghubs.walletservice.mapper;
 
 import com.inghubs.walletservice.model.dto.CreateWalletRequest;
 import com.inghubs.walletservice.model.dto.CreateWalletResponse;
+import com.inghubs.walletservice.model.dto.Money;
 import com.inghubs.walletservice.model.entity.Wallet;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 
-@Mapper(componentModel = "spring")
+@Mapper(componentModel = "spring", imports = Money.class)
 public interface WalletMapper {
 
     @Mapping(target = "id", ignore = true)
-    @Mapping(target = "balance", constant = "0.0")
-    @Mapping(target = "usableBalance", constant = "0.0")
+    @Mapping(target = "balance", expression = "java(Money.ZERO)")
+    @Mapping(target = "usableBalance", expression = "java(Money.ZERO)")
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "ledgerSequence", ignore = true)
+    @Mapping(target = "customer", ignore = true)
+    @Mapping(target = "createdDate", ignore = true)
+    @Mapping(target = "createdBy", ignore = true)
+    @Mapping(target = "updatedDate", ignore = true)
+    @Mapping(target = "updatedBy", ignore = true)
     Wallet toEntity(CreateWalletRequest request);
 
     @Mapping(target = "walletId", source = "id")
@@ -0,0 +1,26 @@
+package com.inghubs.walletservice.model.dto;
+
+import com.inghubs.walletservice.model.dto.enums.Currency;
+
+import java.math.BigDecimal;
+
+/**
+ * Change to apply to a customer's balance summary in one currency.
+ *
+ * @param customerId The ID of the customer.
+ * @param currency The currency of the changed wallets.
+ * @param balanceDelta The amount added to the total balance; negative for withdrawals.
+ * @param usableDelta The amount added to the usable balance; negative for withdrawals.
+ */
+public record BalanceChange(Long customerId, Currency currency, BigDecimal balanceDelta, BigDecimal usableDelta) {
+
+    /**
+     * Combines this change with another change of the same customer and currency.
+     *
+     * @param other The change to add.
+     * @return The combined change.
+     */
+    public BalanceChange plus(BalanceChange other) {
+        return new BalanceChange(customerId, currency, balanceDelta.add(other.balanceDelta), usableDelta.add(other.usableDelta));
+    }
+}
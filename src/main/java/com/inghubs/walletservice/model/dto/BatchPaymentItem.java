@@ -0,0 +1,38 @@
+package com.inghubs.walletservice.model.dto;
+
+import com.inghubs.walletservice.model.dto.enums.OppositePartyType;
+import com.inghubs.walletservice.model.dto.enums.TransactionType;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchPaymentItem {
+
+    @NotNull(message = "Type is required and must be either DEPOSIT or WITHDRAW")
+    private TransactionType type;
+
+    @NotNull(message = "Wallet ID is required")
+    private Long walletId;
+
+    @NotNull(message = "Amount is required")
+    private Money amount;
+
+    @NotNull(message = "Source is required and must be either IBAN or PAYMENT")
+    private OppositePartyType source;
+
+    @NotNull(message = "Opposite party is required")
+    private String oppositeParty;
+
+    public PaymentRequest toPaymentRequest() {
+        return PaymentRequest.builder()
+                .walletId(walletId)
+                .amount(amount)
+                .source(source)
+                .oppositeParty(oppositeParty)
+                .build();
+    }
+}
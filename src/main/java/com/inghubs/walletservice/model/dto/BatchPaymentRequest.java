@@ -0,0 +1,20 @@
+package com.inghubs.walletservice.model.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchPaymentRequest {
+
+    @NotEmpty(message = "At least one payment is required")
+    @Size(max = 1000, message = "A batch can contain at most 1000 payments")
+    private List<@Valid BatchPaymentItem> items;
+}
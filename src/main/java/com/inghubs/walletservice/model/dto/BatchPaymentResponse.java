@@ -0,0 +1,17 @@
+package com.inghubs.walletservice.model.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@Builder
+public class BatchPaymentResponse {
+    private int total;
+    private int succeeded;
+    private int failed;
+    private List<BatchPaymentResult> results;
+}
@@ -0,0 +1,18 @@
+package com.inghubs.walletservice.model.dto;
+
+import com.inghubs.walletservice.model.dto.enums.TransactionType;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Builder
+public class BatchPaymentResult {
+    private int index;
+    private Long walletId;
+    private TransactionType type;
+    private boolean succeeded;
+    private PaymentResponse payment;
+    private String error;
+}
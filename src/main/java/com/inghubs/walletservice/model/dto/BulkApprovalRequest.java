@@ -0,0 +1,44 @@
+package com.inghubs.walletservice.model.dto;
+
+import com.inghubs.walletservice.model.dto.enums.TransactionStatus;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Decides many pending transactions at once. The transactions are either listed by ID, or selected
+ * by criteria among all pending transactions; at least one of the two must be given.
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkApprovalRequest {
+
+    @NotNull(message = "Transaction status is required")
+    private TransactionStatus status;
+
+    @Size(max = 10000, message = "At most 10000 transaction IDs can be decided at once")
+    private List<Long> transactionIds;
+
+    private Long walletId;
+
+    private BigDecimal minAmount;
+
+    private BigDecimal maxAmount;
+
+    private LocalDateTime createdBefore;
+
+    public boolean hasTransactionIds() {
+        return transactionIds != null && !transactionIds.isEmpty();
+    }
+
+    public boolean hasCriteria() {
+        return walletId != null || minAmount != null || maxAmount != null || createdBefore != null;
+    }
+}
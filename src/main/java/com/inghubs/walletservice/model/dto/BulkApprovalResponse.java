@@ -0,0 +1,20 @@
+package com.inghubs.walletservice.model.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Summary of a bulk approval. Transactions that were no longer pending are counted, not changed,
+ * so repeating a bulk approval is harmless.
+ */
+@Getter
+@Setter
+@Builder
+public class BulkApprovalResponse {
+    private String status;
+    private int matched;
+    private int decided;
+    private int alreadyDecided;
+    private int notFound;
+}
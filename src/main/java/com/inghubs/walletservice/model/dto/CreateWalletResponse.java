@@ -4,8 +4,6 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.Setter;
 
-import java.math.BigDecimal;
-
 @Getter
 @Setter
 @Builder
@@ -16,7 +14,7 @@ public class CreateWalletResponse {
     private String currency;
     private Boolean activeForShopping;
     private Boolean activeForWithdraw;
-    private BigDecimal balance;
-    private BigDecimal usableBalance;
+    private Money balance;
+    private Money usableBalance;
     private Long customerId;
 }
\ No newline at end of file
@@ -0,0 +1,18 @@
+package com.inghubs.walletservice.model.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+@Getter
+@Setter
+@Builder
+public class CustomerBalanceResponse {
+
+    private Long customerId;
+    private String currency;
+    private BigDecimal totalBalance;
+    private BigDecimal usableBalance;
+}
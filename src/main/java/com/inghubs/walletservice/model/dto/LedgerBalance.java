@@ -0,0 +1,24 @@
+package com.inghubs.walletservice.model.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Balances of a wallet at a position of its ledger.
+ *
+ * @param sequence The position of the last ledger entry included, or the snapshot position if none follows it.
+ * @param balance The total balance.
+ * @param usableBalance The usable balance.
+ */
+public record LedgerBalance(long sequence, BigDecimal balance, BigDecimal usableBalance) {
+
+    /**
+     * Returns the balances after appending one more entry.
+     *
+     * @param balanceDelta The amount the entry adds to the total balance.
+     * @param usableDelta The amount the entry adds to the usable balance.
+     * @return The balances at the next ledger position.
+     */
+    public LedgerBalance plus(BigDecimal balanceDelta, BigDecimal usableDelta) {
+        return new LedgerBalance(sequence + 1, balance.add(balanceDelta), usableBalance.add(usableDelta));
+    }
+}
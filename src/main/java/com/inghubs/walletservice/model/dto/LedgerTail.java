@@ -0,0 +1,14 @@
+package com.inghubs.walletservice.model.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Projection summing the ledger entries a wallet has appended since its latest snapshot.
+ *
+ * @param walletId The ID of the wallet.
+ * @param sequence The position of the wallet's last ledger entry.
+ * @param balanceDelta The sum of the entries' total balance changes.
+ * @param usableDelta The sum of the entries' usable balance changes.
+ */
+public record LedgerTail(Long walletId, Long sequence, BigDecimal balanceDelta, BigDecimal usableDelta) {
+}
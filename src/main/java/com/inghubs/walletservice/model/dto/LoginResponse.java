@@ -0,0 +1,17 @@
+package com.inghubs.walletservice.model.dto;
+
+import lombok.*;
+
+import java.time.Instant;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoginResponse {
+
+    private String token;
+    private String tokenType;
+    private Instant expiresAt;
+}
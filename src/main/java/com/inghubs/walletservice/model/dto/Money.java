@@ -0,0 +1,199 @@
+package com.inghubs.walletservice.model.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * An amount of money held as a count of ten-thousandths, the scale of the balance and amount columns.
+ * <p>
+ * Adding, subtracting and comparing work on the {@code long} alone, without the allocations of
+ * {@link BigDecimal} arithmetic, and fail with an {@link ArithmeticException} instead of overflowing.
+ * Amounts with more than four decimals are rounded half up, as the database rounds them on insert.
+ * In JSON an amount is a plain number with four decimals, as a balance read from the database was.
+ *
+ * @param units The amount in ten-thousandths.
+ */
+@JsonSerialize(using = Money.Serializer.class)
+@JsonDeserialize(using = Money.Deserializer.class)
+public record Money(long units) implements Comparable<Money> {
+
+    /**
+     * The number of decimals of an amount.
+     */
+    public static final int SCALE = 4;
+
+    public static final Money ZERO = new Money(0);
+
+    private static final long UNITS_PER_WHOLE = 10_000;
+
+    /**
+     * Returns a whole amount.
+     *
+     * @param whole The amount without decimals.
+     * @return The amount.
+     * @throws ArithmeticException If the amount does not fit.
+     */
+    public static Money of(long whole) {
+        return new Money(Math.multiplyExact(whole, UNITS_PER_WHOLE));
+    }
+
+    /**
+     * Returns the amount of a decimal, rounded half up to four decimals.
+     *
+     * @param amount The decimal amount.
+     * @return The amount, or null if the decimal is null.
+     * @throws ArithmeticException If the amount does not fit.
+     */
+    public static Money of(BigDecimal amount) {
+        if (amount == null) {
+            return null;
+        }
+        return new Money(amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact());
+    }
+
+    /**
+     * Parses a decimal amount, such as {@code 12}, {@code -0.5} or {@code 1e3}, rounded half up to four decimals.
+     *
+     * @param text The decimal amount.
+     * @return The amount.
+     * @throws NumberFormatException If the text is not a decimal number.
+     * @throws ArithmeticException If the amount does not fit.
+     */
+    public static Money parse(String text) {
+        int length = text.length();
+        int i = length > 0 && (text.charAt(0) == '-' || text.charAt(0) == '+') ? 1 : 0;
+        boolean negative = i == 1 && text.charAt(0) == '-';
+        long units = 0;
+        int digits = 0;
+        int decimals = -1;
+        boolean roundUp = false;
+        for (; i < length; i++) {
+            char c = text.charAt(i);
+            if (c == '.' && decimals < 0) {
+                decimals = 0;
+            } else if (c >= '0' && c <= '9') {
+                digits++;
+                if (decimals < SCALE) {
+                    units = Math.addExact(Math.multiplyExact(units, 10), c - '0');
+                    if (decimals >= 0) {
+                        decimals++;
+                    }
+                } else if (decimals == SCALE) {
+                    roundUp = c >= '5';
+                    decimals++;
+                }
+            } else {
+                // exponents and other notations are left to BigDecimal
+                return of(new BigDecimal(text));
+            }
+        }
+        if (digits == 0) {
+            throw new NumberFormatException("Not a decimal amount: \"" + text + "\"");
+        }
+        for (int scale = Math.max(decimals, 0); scale < SCALE; scale++) {
+            units = Math.multiplyExact(units, 10);
+        }
+        if (roundUp) {
+            units = Math.incrementExact(units);
+        }
+        return new Money(negative ? -units : units);
+    }
+
+    public Money plus(Money other) {
+        return new Money(Math.addExact(units, other.units));
+    }
+
+    public Money minus(Money other) {
+        return new Money(Math.subtractExact(units, other.units));
+    }
+
+    public Money negate() {
+        return new Money(Math.negateExact(units));
+    }
+
+    public boolean isPositive() {
+        return units > 0;
+    }
+
+    public boolean isGreaterThan(Money other) {
+        return units > other.units;
+    }
+
+    public boolean isLessThan(Money other) {
+        return units < other.units;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(units, other.units);
+    }
+
+    /**
+     * Returns the amount as a decimal with four decimals.
+     *
+     * @return The decimal amount.
+     */
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(units, SCALE);
+    }
+
+    /**
+     * Returns the amount as a plain decimal with four decimals, such as {@code -12.5000}.
+     */
+    @Override
+    public String toString() {
+        long whole = units / UNITS_PER_WHOLE;
+        long fraction = Math.abs(units % UNITS_PER_WHOLE);
+        StringBuilder text = new StringBuilder(24);
+        if (units < 0 && whole == 0) {
+            text.append('-');
+        }
+        text.append(whole).append('.');
+        for (long digit = UNITS_PER_WHOLE / 10; digit > fraction && digit > 1; digit /= 10) {
+            text.append('0');
+        }
+        return text.append(fraction).toString();
+    }
+
+    /**
+     * Writes an amount as a JSON number with four decimals.
+     */
+    public static class Serializer extends JsonSerializer<Money> {
+
+        @Override
+        public void serialize(Money value, JsonGenerator generator, SerializerProvider serializers) throws IOException {
+            generator.writeNumber(value.toString());
+        }
+    }
+
+    /**
+     * Reads an amount from a JSON number, or a string holding one, without going through {@link BigDecimal}.
+     */
+    public static class Deserializer extends JsonDeserializer<Money> {
+
+        @Override
+        public Money deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            JsonToken token = parser.currentToken();
+            if (token != JsonToken.VALUE_NUMBER_INT && token != JsonToken.VALUE_NUMBER_FLOAT && token != JsonToken.VALUE_STRING) {
+                return (Money) context.handleUnexpectedToken(Money.class, parser);
+            }
+            String text = parser.getText().trim();
+            try {
+                return parse(text);
+            } catch (NumberFormatException | ArithmeticException e) {
+                return (Money) context.handleWeirdStringValue(Money.class, text, "not a decimal amount that fits in a balance");
+            }
+        }
+    }
+}
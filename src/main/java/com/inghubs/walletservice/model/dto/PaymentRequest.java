@@ -6,8 +6,6 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.Setter;
 
-import java.math.BigDecimal;
-
 @Getter
 @Setter
 @Builder
@@ -17,7 +15,7 @@ public class PaymentRequest {
     private Long walletId;
 
     @NotNull(message = "Amount is required")
-    private BigDecimal amount;
+    private Money amount;
 
     @NotNull(message = "Source is required and must be either IBAN or PAYMENT")
     private OppositePartyType source;
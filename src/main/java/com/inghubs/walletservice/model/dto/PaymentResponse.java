@@ -4,15 +4,13 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.Setter;
 
-import java.math.BigDecimal;
-
 @Getter
 @Setter
 @Builder
 public class PaymentResponse {
     private Long walletId;
     private String currency;
-    private BigDecimal totalBalance;
-    private BigDecimal usableBalance;
+    private Money totalBalance;
+    private Money usableBalance;
     private String transactionStatus;
 }
\ No newline at end of file
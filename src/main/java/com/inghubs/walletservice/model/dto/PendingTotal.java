@@ -0,0 +1,15 @@
+package com.inghubs.walletservice.model.dto;
+
+import com.inghubs.walletservice.model.dto.enums.Currency;
+
+import java.math.BigDecimal;
+
+/**
+ * Number and total amount of the pending transactions of the wallets in one currency.
+ *
+ * @param currency The currency of the wallets.
+ * @param count The number of pending transactions.
+ * @param amount The total amount of the pending transactions, deposits and withdrawals alike.
+ */
+public record PendingTotal(Currency currency, long count, BigDecimal amount) {
+}
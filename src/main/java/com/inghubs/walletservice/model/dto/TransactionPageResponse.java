@@ -0,0 +1,15 @@
+package com.inghubs.walletservice.model.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@Builder
+public class TransactionPageResponse {
+    private List<TransactionResponse> items;
+    private String nextCursor;
+}
@@ -5,7 +5,6 @@ import com.inghubs.walletservice.model.dto.enums.TransactionStatus;
 import com.inghubs.walletservice.model.dto.enums.TransactionType;
 import lombok.*;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Getter
@@ -16,7 +15,7 @@ import java.time.LocalDateTime;
 public class TransactionResponse {
     private Long id;
     private Long walletId;
-    private BigDecimal amount;
+    private Money amount;
     private TransactionType type;
     private OppositePartyType oppositePartyType;
     private String oppositeParty;
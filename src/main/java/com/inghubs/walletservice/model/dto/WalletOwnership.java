@@ -0,0 +1,10 @@
+package com.inghubs.walletservice.model.dto;
+
+/**
+ * Projection pairing a wallet with the customer that owns it.
+ *
+ * @param walletId The ID of the wallet.
+ * @param customerId The ID of the owning customer.
+ */
+public record WalletOwnership(Long walletId, Long customerId) {
+}
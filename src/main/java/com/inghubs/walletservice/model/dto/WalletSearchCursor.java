@@ -0,0 +1,10 @@
+package com.inghubs.walletservice.model.dto;
+
+/**
+ * Position of the last wallet of a search page; the next page starts right after it in sort order.
+ *
+ * @param balance The balance of the last wallet, only set when sorting by balance.
+ * @param id The ID of the last wallet.
+ */
+public record WalletSearchCursor(Money balance, Long id) {
+}
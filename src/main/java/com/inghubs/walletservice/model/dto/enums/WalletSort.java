@@ -0,0 +1,24 @@
+package com.inghubs.walletservice.model.dto.enums;
+
+public enum WalletSort {
+    ID_ASC(false, false),
+    ID_DESC(false, true),
+    BALANCE_ASC(true, false),
+    BALANCE_DESC(true, true);
+
+    private final boolean byBalance;
+    private final boolean descending;
+
+    WalletSort(boolean byBalance, boolean descending) {
+        this.byBalance = byBalance;
+        this.descending = descending;
+    }
+
+    public boolean isByBalance() {
+        return byBalance;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+}
@@ -26,17 +26,27 @@ public abstract class Auditable {
 
     @PrePersist
     protected void onCreate() {
-        this.createdDate = LocalDateTime.now();
-        this.createdBy = getCurrentUser();
+        // rows written from the payment journal keep the time and user of the original request
+        if (this.createdDate == null) {
+            this.createdDate = LocalDateTime.now();
+        }
+        if (this.createdBy == null) {
+            this.createdBy = currentUser();
+        }
     }
 
     @PreUpdate
     protected void onUpdate() {
         this.updatedDate = LocalDateTime.now();
-        this.updatedBy = getCurrentUser();
+        this.updatedBy = currentUser();
     }
 
-    private String getCurrentUser() {
+    /**
+     * Returns the username recorded in the audit columns for the current security context.
+     *
+     * @return The authenticated username, or "system" when there is none.
+     */
+    public static String currentUser() {
         var authentication = SecurityContextHolder.getContext().getAuthentication();
 
         if (authentication != null && authentication.getPrincipal() instanceof org.springframework.security.core.userdetails.UserDetails) {
@@ -0,0 +1,36 @@
+package com.inghubs.walletservice.model.entity;
+
+import com.inghubs.walletservice.model.dto.enums.Currency;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/**
+ * Running totals of a customer's wallets in one currency.
+ * Rows are only changed by delta updates issued in the same transaction as the wallet change they mirror.
+ */
+@Entity
+@Table(name = "customer_balance")
+@IdClass(CustomerBalanceId.class)
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class CustomerBalance {
+
+    @Id
+    @Column(name = "customer_id")
+    private Long customerId;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(length = 3)
+    private Currency currency;
+
+    @Column(precision = 19, scale = 4, nullable = false)
+    private BigDecimal balance;
+
+    @Column(precision = 19, scale = 4, nullable = false)
+    private BigDecimal usableBalance;
+}
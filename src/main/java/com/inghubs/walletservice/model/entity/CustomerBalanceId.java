@@ -0,0 +1,18 @@
+package com.inghubs.walletservice.model.entity;
+
+import com.inghubs.walletservice.model.dto.enums.Currency;
+import lombok.*;
+
+import java.io.Serializable;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@EqualsAndHashCode
+public class CustomerBalanceId implements Serializable {
+
+    private Long customerId;
+
+    private Currency currency;
+}
@@ -12,7 +12,8 @@ import lombok.*;
 public class Employee extends Auditable {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "employee_seq")
+  @SequenceGenerator(name = "employee_seq", sequenceName = "employee_seq", allocationSize = 50)
   private Long id;
 
   private String username;
@@ -0,0 +1,24 @@
+package com.inghubs.walletservice.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Position up to which a journal has been written to the database.
+ * Advanced in the same transaction as the records it covers, so a restart replays exactly the records after it.
+ */
+@Entity
+@Table(name = "journal_checkpoint")
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class JournalCheckpoint {
+
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    @Column(name = "applied_sequence", nullable = false)
+    private long appliedSequence;
+}
@@ -0,0 +1,56 @@
+package com.inghubs.walletservice.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One change to a wallet's balances, recorded at the next position of the wallet's ledger.
+ * Entries are only ever inserted; a wallet's balances are the sum of its entries.
+ */
+@Entity
+@Immutable
+@Table(name = "ledger_entry", uniqueConstraints = @UniqueConstraint(
+        name = LedgerEntry.POSITION_CONSTRAINT, columnNames = {"wallet_id", "sequence_number"}))
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class LedgerEntry {
+
+    /**
+     * Unique key on a wallet's ledger position; violated when two writers append after the same entry.
+     */
+    public static final String POSITION_CONSTRAINT = "uk_ledger_entry_wallet_sequence";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ledger_entry_seq")
+    @SequenceGenerator(name = "ledger_entry_seq", sequenceName = "ledger_entry_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
+    @JoinColumn(name = "wallet_id")
+    private Wallet wallet;
+
+    @Column(name = "sequence_number", nullable = false)
+    private long sequence;
+
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
+    @JoinColumn(name = "transaction_id")
+    private Transaction transaction;
+
+    @Column(precision = 19, scale = 4, nullable = false)
+    private BigDecimal balanceDelta;
+
+    @Column(precision = 19, scale = 4, nullable = false)
+    private BigDecimal usableDelta;
+
+    @Column(nullable = false)
+    private LocalDateTime createdDate;
+
+    @Column(nullable = false)
+    private String createdBy;
+}
@@ -1,13 +1,12 @@
 package com.inghubs.walletservice.model.entity;
 
+import com.inghubs.walletservice.model.dto.Money;
 import com.inghubs.walletservice.model.dto.enums.OppositePartyType;
 import com.inghubs.walletservice.model.dto.enums.TransactionStatus;
 import com.inghubs.walletservice.model.dto.enums.TransactionType;
 import jakarta.persistence.*;
 import lombok.*;
 
-import java.math.BigDecimal;
-
 @Entity
 @Table(name = "transaction")
 @NoArgsConstructor
@@ -17,15 +16,17 @@ import java.math.BigDecimal;
 public class Transaction extends Auditable {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transaction_seq")
+    @SequenceGenerator(name = "transaction_seq", sequenceName = "transaction_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne(optional = false)
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
     @JoinColumn(name = "wallet_id")
     private Wallet wallet;
 
     @Column(precision = 19, scale = 4, nullable = false)
-    private BigDecimal amount;
+    @Convert(converter = MoneyConverter.class)
+    private Money amount;
 
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
@@ -41,4 +42,7 @@ public class Transaction extends Auditable {
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private TransactionStatus status;
+
+    @Version
+    private Long version;
 }
@@ -1,11 +1,10 @@
 package com.inghubs.walletservice.model.entity;
 
+import com.inghubs.walletservice.model.dto.Money;
 import com.inghubs.walletservice.model.dto.enums.Currency;
 import jakarta.persistence.*;
 import lombok.*;
 
-import java.math.BigDecimal;
-
 @Entity
 @Table(name = "wallet")
 @NoArgsConstructor
@@ -15,10 +14,11 @@ import java.math.BigDecimal;
 public class Wallet extends Auditable {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "wallet_seq")
+    @SequenceGenerator(name = "wallet_seq", sequenceName = "wallet_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne(optional = false)
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
     @JoinColumn(name = "customer_id")
     private Customer customer;
 
@@ -33,8 +33,16 @@ public class Wallet extends Auditable {
     private boolean activeForWithdraw;
 
     @Column(precision = 19, scale = 4)
-    private BigDecimal balance;
+    @Convert(converter = MoneyConverter.class)
+    private Money balance;
 
     @Column(precision = 19, scale = 4)
-    private BigDecimal usableBalance;
+    @Convert(converter = MoneyConverter.class)
+    private Money usableBalance;
+
+    @Column(nullable = false)
+    private long ledgerSequence; // ledger position the balances reflect, in LEDGER mode
+
+    @Version
+    private Long version;
 }
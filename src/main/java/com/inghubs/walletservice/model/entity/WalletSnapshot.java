@@ -0,0 +1,43 @@
+package com.inghubs.walletservice.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Balances of a wallet as of a position in its ledger, taken every configured number of entries.
+ * Snapshots are never changed; the latest one is also copied onto the wallet row.
+ */
+@Entity
+@Immutable
+@Table(name = "wallet_snapshot")
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class WalletSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "wallet_snapshot_seq")
+    @SequenceGenerator(name = "wallet_snapshot_seq", sequenceName = "wallet_snapshot_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
+    @JoinColumn(name = "wallet_id")
+    private Wallet wallet;
+
+    @Column(name = "sequence_number", nullable = false)
+    private long sequence;
+
+    @Column(precision = 19, scale = 4, nullable = false)
+    private BigDecimal balance;
+
+    @Column(precision = 19, scale = 4, nullable = false)
+    private BigDecimal usableBalance;
+
+    @Column(nullable = false)
+    private LocalDateTime createdDate;
+}
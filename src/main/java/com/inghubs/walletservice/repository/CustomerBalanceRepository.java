@@ -0,0 +1,54 @@
+package com.inghubs.walletservice.repository;
+
+import com.inghubs.walletservice.model.dto.enums.Currency;
+import com.inghubs.walletservice.model.entity.CustomerBalance;
+import com.inghubs.walletservice.model.entity.CustomerBalanceId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Repository
+public interface CustomerBalanceRepository extends JpaRepository<CustomerBalance, CustomerBalanceId> {
+
+    List<CustomerBalance> findByCustomerIdOrderByCurrency(Long customerId);
+
+    @Transactional
+    @Modifying
+    @Query(value = """
+            insert into customer_balance (customer_id, currency, balance, usable_balance)
+            select :customerId, :currency, 0, 0
+            where not exists (select 1 from customer_balance where customer_id = :customerId and currency = :currency)
+            """, nativeQuery = true)
+    int insertIfAbsent(@Param("customerId") Long customerId, @Param("currency") String currency);
+
+    @Modifying
+    @Query("""
+            update CustomerBalance b
+            set b.balance = b.balance + :balanceDelta,
+                b.usableBalance = b.usableBalance + :usableDelta
+            where b.customerId = :customerId
+              and b.currency = :currency
+            """)
+    int addToBalances(@Param("customerId") Long customerId,
+                      @Param("currency") Currency currency,
+                      @Param("balanceDelta") BigDecimal balanceDelta,
+                      @Param("usableDelta") BigDecimal usableDelta);
+
+    @Modifying
+    @Query("""
+            update CustomerBalance b
+            set b.balance = b.balance + :balanceDelta,
+                b.usableBalance = b.usableBalance + :usableDelta
+            where b.customerId = (select w.customer.id from Wallet w where w.id = :walletId)
+              and b.currency = (select w.currency from Wallet w where w.id = :walletId)
+            """)
+    int addToBalancesOfWallet(@Param("walletId") Long walletId,
+                              @Param("balanceDelta") BigDecimal balanceDelta,
+                              @Param("usableDelta") BigDecimal usableDelta);
+}
@@ -0,0 +1,36 @@
+package com.inghubs.walletservice.repository;
+
+import com.inghubs.walletservice.model.entity.JournalCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+@Repository
+public interface JournalCheckpointRepository extends JpaRepository<JournalCheckpoint, String> {
+
+    @Transactional
+    @Modifying
+    @Query(value = """
+            insert into journal_checkpoint (name, applied_sequence)
+            select :name, 0
+            where not exists (select 1 from journal_checkpoint where name = :name)
+            """, nativeQuery = true)
+    int insertIfAbsent(@Param("name") String name);
+
+    @Query("select c.appliedSequence from JournalCheckpoint c where c.name = :name")
+    Optional<Long> findAppliedSequence(@Param("name") String name);
+
+    @Modifying
+    @Query("""
+            update JournalCheckpoint c
+            set c.appliedSequence = :to
+            where c.name = :name
+              and c.appliedSequence < :from
+            """)
+    int advance(@Param("name") String name, @Param("from") long from, @Param("to") long to);
+}
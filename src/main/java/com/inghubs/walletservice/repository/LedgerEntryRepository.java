@@ -0,0 +1,34 @@
+package com.inghubs.walletservice.repository;
+
+import com.inghubs.walletservice.model.dto.LedgerTail;
+import com.inghubs.walletservice.model.entity.LedgerEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface LedgerEntryRepository extends JpaRepository<LedgerEntry, Long> {
+
+    @Query("""
+            select new com.inghubs.walletservice.model.dto.LedgerTail(e.wallet.id, max(e.sequence), sum(e.balanceDelta), sum(e.usableDelta))
+            from LedgerEntry e
+            where e.wallet.id = :walletId
+              and e.sequence > :after
+            group by e.wallet.id
+            """)
+    Optional<LedgerTail> sumAfter(@Param("walletId") Long walletId, @Param("after") long after);
+
+    @Query("""
+            select new com.inghubs.walletservice.model.dto.LedgerTail(w.id, max(e.sequence), sum(e.balanceDelta), sum(e.usableDelta))
+            from Wallet w
+            join LedgerEntry e on e.wallet.id = w.id and e.sequence > w.ledgerSequence
+            where w.id in :walletIds
+            group by w.id
+            """)
+    List<LedgerTail> sumAfterSnapshots(@Param("walletIds") Collection<Long> walletIds);
+}
@@ -1,15 +1,133 @@
 package com.inghubs.walletservice.repository;
 
+import com.inghubs.walletservice.model.dto.BalanceChange;
+import com.inghubs.walletservice.model.dto.PendingTotal;
+import com.inghubs.walletservice.model.dto.TransactionResponse;
+import com.inghubs.walletservice.model.dto.enums.TransactionStatus;
 import com.inghubs.walletservice.model.entity.Transaction;
+import com.inghubs.walletservice.repository.criteria.TransactionRepositoryCriteria;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface TransactionRepository extends JpaRepository<Transaction, Long> {
+public interface TransactionRepository extends JpaRepository<Transaction, Long>, TransactionRepositoryCriteria {
 
     List<Transaction> findByWalletId(Long walletId);
 
+    @Query("""
+            select new com.inghubs.walletservice.model.dto.TransactionResponse(
+                t.id, t.wallet.id, t.amount, t.type, t.oppositePartyType, t.oppositeParty, t.status,
+                t.createdDate, t.createdBy, t.updatedDate, t.updatedBy)
+            from Transaction t
+            where t.wallet.id = :walletId
+            """)
+    List<TransactionResponse> findResponsesByWalletId(@Param("walletId") Long walletId);
+
+    @Query("select t from Transaction t where t.wallet.id = :walletId order by t.wallet.id, t.id desc")
+    List<Transaction> findByWalletIdOrderByIdDesc(@Param("walletId") Long walletId, Limit limit);
+
+    @Query("select t from Transaction t where t.wallet.id = :walletId and t.id < :id order by t.wallet.id, t.id desc")
+    List<Transaction> findByWalletIdAndIdLessThanOrderByIdDesc(@Param("walletId") Long walletId, @Param("id") Long id, Limit limit);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("select t from Transaction t where t.wallet.id = :walletId order by t.wallet.id, t.id desc")
+    Stream<Transaction> streamByWalletId(@Param("walletId") Long walletId);
+
     Transaction findByWalletIdAndId(Long walletId, Long transactionId);
+
+    /**
+     * Loads a transaction together with its wallet, in one statement.
+     */
+    @Query("select t from Transaction t join fetch t.wallet where t.id = :id")
+    Optional<Transaction> findWithWalletById(@Param("id") Long id);
+
+    @Query("select t.wallet.id from Transaction t where t.id = :id")
+    Optional<Long> findWalletIdById(@Param("id") Long id);
+
+    @Query("select t.status from Transaction t where t.id = :id")
+    Optional<TransactionStatus> findStatusById(@Param("id") Long id);
+
+    long countByIdIn(Collection<Long> ids);
+
+    @Query("select coalesce(max(t.id), 0) from Transaction t")
+    long findMaxId();
+
+    /**
+     * Counts and sums the pending transactions per wallet currency.
+     */
+    @Query("""
+            select new com.inghubs.walletservice.model.dto.PendingTotal(w.currency, count(t), coalesce(sum(t.amount), 0))
+            from Transaction t join t.wallet w
+            where t.status = com.inghubs.walletservice.model.dto.enums.TransactionStatus.PENDING
+            group by w.currency
+            """)
+    List<PendingTotal> sumPendingByCurrency();
+
+    /**
+     * Locks the still pending transactions among the given ones until the end of the current transaction.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select t.id from Transaction t where t.id in :ids and t.status = com.inghubs.walletservice.model.dto.enums.TransactionStatus.PENDING")
+    List<Long> lockPendingIds(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("""
+            update Transaction t
+            set t.status = :status,
+                t.version = t.version + 1,
+                t.updatedDate = :updatedDate,
+                t.updatedBy = :updatedBy
+            where t.id in :ids
+            """)
+    int updateStatuses(@Param("ids") Collection<Long> ids,
+                       @Param("status") TransactionStatus status,
+                       @Param("updatedDate") LocalDateTime updatedDate,
+                       @Param("updatedBy") String updatedBy);
+
+    /**
+     * Sums the usable balance changes of approving the given transactions per customer and currency.
+     */
+    @Query("""
+            select new com.inghubs.walletservice.model.dto.BalanceChange(
+                w.customer.id, w.currency, 0bd,
+                sum(case when t.type = com.inghubs.walletservice.model.dto.enums.TransactionType.DEPOSIT then t.amount
+                         else -t.amount end))
+            from Transaction t join t.wallet w
+            where t.id in :ids
+            group by w.customer.id, w.currency
+            """)
+    List<BalanceChange> sumApprovalChanges(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("""
+            update Transaction t
+            set t.status = :status,
+                t.version = t.version + 1,
+                t.updatedDate = :updatedDate,
+                t.updatedBy = :updatedBy
+            where t.id = :id
+            """)
+    int updateStatus(@Param("id") Long id,
+                     @Param("status") TransactionStatus status,
+                     @Param("updatedDate") LocalDateTime updatedDate,
+                     @Param("updatedBy") String updatedBy);
 }
\ No newline at end of file
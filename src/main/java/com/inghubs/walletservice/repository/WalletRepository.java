@@ -1,10 +1,104 @@
 package com.inghubs.walletservice.repository;
 
+import com.inghubs.walletservice.model.dto.Money;
+import com.inghubs.walletservice.model.dto.WalletOwnership;
 import com.inghubs.walletservice.model.entity.Wallet;
 import com.inghubs.walletservice.repository.criteria.WalletRepositoryCriteria;
+import com.inghubs.walletservice.service.journal.JournaledWallet;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface WalletRepository extends JpaRepository<Wallet, Long>, WalletRepositoryCriteria {
-}
\ No newline at end of file
+
+    @Query("select w.customer.id from Wallet w where w.id = :id")
+    Optional<Long> findCustomerIdById(@Param("id") Long id);
+
+    @Query("select new com.inghubs.walletservice.model.dto.WalletOwnership(w.id, w.customer.id) from Wallet w")
+    List<WalletOwnership> findAllOwnerships();
+
+    /**
+     * Reads the journaled state of a wallet straight from its row, never from an entity already loaded by the
+     * caller's persistence context.
+     */
+    @Query("""
+            select new com.inghubs.walletservice.service.journal.JournaledWallet(w.id, w.customer.id, w.currency,
+                   w.activeForWithdraw, w.balance, w.usableBalance)
+            from Wallet w
+            where w.id = :id
+            """)
+    Optional<JournaledWallet> findJournaledById(@Param("id") Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select w from Wallet w where w.id = :id")
+    Optional<Wallet> findByIdForUpdate(@Param("id") Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select w from Wallet w where w.id in :ids order by w.id")
+    List<Wallet> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("""
+            update Wallet w
+            set w.balance = w.balance + :amount,
+                w.usableBalance = w.usableBalance + :usableAmount,
+                w.version = w.version + 1,
+                w.updatedDate = :updatedDate,
+                w.updatedBy = :updatedBy
+            where w.id = :id
+            """)
+    int addToBalance(@Param("id") Long id,
+                     @Param("amount") Money amount,
+                     @Param("usableAmount") Money usableAmount,
+                     @Param("updatedDate") LocalDateTime updatedDate,
+                     @Param("updatedBy") String updatedBy);
+
+    @Modifying
+    @Query("""
+            update Wallet w
+            set w.balance = w.balance - :amount,
+                w.usableBalance = w.usableBalance - :usableAmount,
+                w.version = w.version + 1,
+                w.updatedDate = :updatedDate,
+                w.updatedBy = :updatedBy
+            where w.id = :id
+              and w.activeForWithdraw = true
+              and w.usableBalance >= :amount
+            """)
+    int subtractFromBalanceIfAvailable(@Param("id") Long id,
+                                       @Param("amount") Money amount,
+                                       @Param("usableAmount") Money usableAmount,
+                                       @Param("updatedDate") LocalDateTime updatedDate,
+                                       @Param("updatedBy") String updatedBy);
+
+    /**
+     * Adds the usable balance changes of approving the given transactions to their wallets, all wallets in
+     * one statement. The transactions must already be approved by the current transaction.
+     */
+    @Modifying
+    @Query("""
+            update Wallet w
+            set w.usableBalance = w.usableBalance + (
+                    select sum(case when t.type = com.inghubs.walletservice.model.dto.enums.TransactionType.DEPOSIT then t.amount
+                                    else -t.amount end)
+                    from Transaction t
+                    where t.wallet = w and t.id in :transactionIds),
+                w.version = w.version + 1,
+                w.updatedDate = :updatedDate,
+                w.updatedBy = :updatedBy
+            where w.id in (select t.wallet.id from Transaction t where t.id in :transactionIds)
+            """)
+    int addApprovedAmounts(@Param("transactionIds") Collection<Long> transactionIds,
+                           @Param("updatedDate") LocalDateTime updatedDate,
+                           @Param("updatedBy") String updatedBy);
+}
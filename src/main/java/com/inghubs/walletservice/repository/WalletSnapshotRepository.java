@@ -0,0 +1,9 @@
+package com.inghubs.walletservice.repository;
+
+import com.inghubs.walletservice.model.entity.WalletSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface WalletSnapshotRepository extends JpaRepository<WalletSnapshot, Long> {
+}
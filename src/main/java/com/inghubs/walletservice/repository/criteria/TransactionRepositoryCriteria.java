@@ -0,0 +1,13 @@
+package com.inghubs.walletservice.repository.criteria;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+
+public interface TransactionRepositoryCriteria {
+
+    List<Long> findPendingIds(Long walletId, BigDecimal minAmount, BigDecimal maxAmount, LocalDateTime createdBefore,
+                              long afterId, long upToId, int limit);
+
+}
@@ -0,0 +1,65 @@
+package com.inghubs.walletservice.repository.criteria;
+
+import com.inghubs.walletservice.model.dto.enums.TransactionStatus;
+import com.inghubs.walletservice.model.entity.Transaction;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.*;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Implementation of the TransactionRepositoryCriteria interface.
+ * Provides methods for selecting transactions based on optional filters using JPA Criteria API.
+ */
+@Repository
+public class TransactionRepositoryCriteriaImpl implements TransactionRepositoryCriteria {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Finds the IDs of pending transactions matching the provided filters, in ID order.
+     * Only the id column is selected, by keyset on the (status, id) index, so no Transaction entity is loaded.
+     *
+     * @param walletId The ID of the wallet of the transactions (optional).
+     * @param minAmount The minimum transaction amount (optional).
+     * @param maxAmount The maximum transaction amount (optional).
+     * @param createdBefore Only transactions created before this time (optional).
+     * @param afterId Only transactions with a greater ID.
+     * @param upToId Only transactions with this or a smaller ID.
+     * @param limit The maximum number of IDs to return.
+     * @return The matching transaction IDs, ascending.
+     */
+    @Override
+    public List<Long> findPendingIds(Long walletId, BigDecimal minAmount, BigDecimal maxAmount, LocalDateTime createdBefore,
+                                     long afterId, long upToId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Transaction> transaction = query.from(Transaction.class);
+        Path<Long> id = transaction.get("id");
+
+        Predicate predicate = cb.and(
+                cb.equal(transaction.get("status"), TransactionStatus.PENDING),
+                cb.greaterThan(id, afterId),
+                cb.lessThanOrEqualTo(id, upToId));
+        if (walletId != null) {
+            predicate = cb.and(predicate, cb.equal(transaction.get("wallet").get("id"), walletId));
+        }
+        if (minAmount != null) {
+            predicate = cb.and(predicate, cb.greaterThanOrEqualTo(transaction.get("amount"), minAmount));
+        }
+        if (maxAmount != null) {
+            predicate = cb.and(predicate, cb.lessThanOrEqualTo(transaction.get("amount"), maxAmount));
+        }
+        if (createdBefore != null) {
+            predicate = cb.and(predicate, cb.lessThan(transaction.get("createdDate"), createdBefore));
+        }
+
+        query.select(id).where(predicate).orderBy(cb.asc(id));
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+}
@@ -1,7 +1,9 @@
 package com.inghubs.walletservice.repository.criteria;
 
+import com.inghubs.walletservice.model.dto.CreateWalletResponse;
+import com.inghubs.walletservice.model.dto.WalletSearchCursor;
 import com.inghubs.walletservice.model.dto.enums.Currency;
-import com.inghubs.walletservice.model.entity.Wallet;
+import com.inghubs.walletservice.model.dto.enums.WalletSort;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -9,6 +11,9 @@ import java.util.List;
 
 public interface WalletRepositoryCriteria {
 
-    List<Wallet> findWalletsByFilters(Long customerId, Currency currency, BigDecimal minAmount, BigDecimal maxAmount);
+    List<CreateWalletResponse> findWalletResponsesByFilters(Long customerId, Currency currency, BigDecimal minAmount, BigDecimal maxAmount);
+
+    List<CreateWalletResponse> searchWallets(Long customerId, Currency currency, BigDecimal minAmount, BigDecimal maxAmount,
+                                             WalletSort sort, WalletSearchCursor after, int limit);
 
 }
\ No newline at end of file
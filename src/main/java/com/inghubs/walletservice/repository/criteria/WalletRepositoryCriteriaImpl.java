@@ -1,13 +1,20 @@
 package com.inghubs.walletservice.repository.criteria;
 
+import com.inghubs.walletservice.model.dto.CreateWalletResponse;
+import com.inghubs.walletservice.model.dto.Money;
+import com.inghubs.walletservice.model.dto.WalletSearchCursor;
+import com.inghubs.walletservice.model.dto.enums.WalletSort;
 import com.inghubs.walletservice.model.entity.Wallet;
 import com.inghubs.walletservice.model.dto.enums.Currency;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
 import jakarta.persistence.criteria.*;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -22,19 +29,81 @@ public class WalletRepositoryCriteriaImpl implements WalletRepositoryCriteria {
 
     /**
      * Finds wallets based on the provided filters such as customer ID, currency, and balance range.
+     * The selected columns are read as tuples, including the customer_id foreign key, so neither
+     * Wallet nor Customer entities are loaded.
      *
      * @param customerId The ID of the customer whose wallets are to be retrieved (optional).
      * @param currency The currency type to filter wallets (optional).
      * @param minAmount The minimum balance to filter wallets (optional).
      * @param maxAmount The maximum balance to filter wallets (optional).
-     * @return A list of Wallet entities matching the specified filters.
+     * @return A list of wallet responses matching the specified filters.
      */
     @Override
-    public List<Wallet> findWalletsByFilters(Long customerId, Currency currency, BigDecimal minAmount, BigDecimal maxAmount) {
+    public List<CreateWalletResponse> findWalletResponsesByFilters(Long customerId, Currency currency, BigDecimal minAmount, BigDecimal maxAmount) {
         CriteriaBuilder cb = entityManager.getCriteriaBuilder();
-        CriteriaQuery<Wallet> query = cb.createQuery(Wallet.class);
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
         Root<Wallet> wallet = query.from(Wallet.class);
 
+        query.multiselect(responseColumns(wallet));
+        query.where(filters(cb, wallet, customerId, currency, minAmount, maxAmount));
+
+        return entityManager.createQuery(query).getResultList().stream()
+                .map(WalletRepositoryCriteriaImpl::toResponse)
+                .toList();
+    }
+
+    /**
+     * Finds one page of wallets matching the provided filters, in the requested order.
+     * Pages continue by keyset from the last wallet of the previous page, and the columns filtered by
+     * equality lead the ORDER BY so that H2 reads the rows already sorted from one of the wallet search
+     * indexes instead of sorting every match.
+     *
+     * @param customerId The ID of the customer whose wallets are to be retrieved (optional).
+     * @param currency The currency type to filter wallets (optional).
+     * @param minAmount The minimum balance to filter wallets (optional).
+     * @param maxAmount The maximum balance to filter wallets (optional).
+     * @param sort The order of the results.
+     * @param after The last wallet of the previous page, or null for the first page.
+     * @param limit The maximum number of wallets to return.
+     * @return A list of wallet responses matching the specified filters, in the requested order.
+     */
+    @Override
+    public List<CreateWalletResponse> searchWallets(Long customerId, Currency currency, BigDecimal minAmount, BigDecimal maxAmount,
+                                                    WalletSort sort, WalletSearchCursor after, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Wallet> wallet = query.from(Wallet.class);
+
+        Predicate predicate = filters(cb, wallet, customerId, currency, minAmount, maxAmount);
+        if (after != null) {
+            predicate = cb.and(predicate, continuation(cb, wallet, sort, after));
+        }
+
+        List<Expression<?>> orderColumns = new ArrayList<>();
+        if (customerId != null) {
+            orderColumns.add(wallet.get("customer").get("id"));
+        }
+        if (currency != null) {
+            orderColumns.add(wallet.get("currency"));
+        }
+        if (sort.isByBalance()) {
+            orderColumns.add(wallet.get("balance"));
+        }
+        orderColumns.add(wallet.get("id"));
+
+        query.multiselect(responseColumns(wallet));
+        query.where(predicate);
+        query.orderBy(orderColumns.stream()
+                .map(column -> sort.isDescending() ? cb.desc(column) : cb.asc(column))
+                .toList());
+
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList().stream()
+                .map(WalletRepositoryCriteriaImpl::toResponse)
+                .toList();
+    }
+
+    private static Predicate filters(CriteriaBuilder cb, Root<Wallet> wallet, Long customerId, Currency currency,
+                                     BigDecimal minAmount, BigDecimal maxAmount) {
         Predicate predicate = cb.conjunction();
 
         if (customerId != null) {
@@ -43,15 +112,59 @@ public class WalletRepositoryCriteriaImpl implements WalletRepositoryCriteria {
         if (currency != null) {
             predicate = cb.and(predicate, cb.equal(wallet.get("currency"), currency));
         }
+        // balances have four decimals, so bounds with more are narrowed to the nearest balance inside them
         if (minAmount != null) {
-            predicate = cb.and(predicate, cb.greaterThanOrEqualTo(wallet.get("balance"), minAmount));
+            predicate = cb.and(predicate, cb.greaterThanOrEqualTo(wallet.get("balance"),
+                    Money.of(minAmount.setScale(Money.SCALE, RoundingMode.CEILING))));
         }
         if (maxAmount != null) {
-            predicate = cb.and(predicate, cb.lessThanOrEqualTo(wallet.get("balance"), maxAmount));
+            predicate = cb.and(predicate, cb.lessThanOrEqualTo(wallet.get("balance"),
+                    Money.of(maxAmount.setScale(Money.SCALE, RoundingMode.FLOOR))));
         }
+        return predicate;
+    }
 
-        query.where(predicate);
+    /**
+     * Restricts the results to the wallets after the cursor in sort order. For balance sorts the
+     * redundant bound on balance alone lets the index range scan start at the cursor instead of
+     * skipping over every earlier row.
+     */
+    private static Predicate continuation(CriteriaBuilder cb, Root<Wallet> wallet, WalletSort sort, WalletSearchCursor after) {
+        Path<Long> id = wallet.get("id");
+        Predicate afterId = sort.isDescending() ? cb.lessThan(id, after.id()) : cb.greaterThan(id, after.id());
+        if (!sort.isByBalance()) {
+            return afterId;
+        }
+        Path<Money> balance = wallet.get("balance");
+        return sort.isDescending()
+                ? cb.and(cb.lessThanOrEqualTo(balance, after.balance()),
+                         cb.or(cb.lessThan(balance, after.balance()), afterId))
+                : cb.and(cb.greaterThanOrEqualTo(balance, after.balance()),
+                         cb.or(cb.greaterThan(balance, after.balance()), afterId));
+    }
+
+    private static List<Selection<?>> responseColumns(Root<Wallet> wallet) {
+        return List.of(
+                wallet.get("id"),
+                wallet.get("walletName"),
+                wallet.get("currency"),
+                wallet.get("activeForShopping"),
+                wallet.get("activeForWithdraw"),
+                wallet.get("balance"),
+                wallet.get("usableBalance"),
+                wallet.get("customer").get("id"));
+    }
 
-        return entityManager.createQuery(query).getResultList();
+    private static CreateWalletResponse toResponse(Tuple row) {
+        return CreateWalletResponse.builder()
+                .walletId(row.get(0, Long.class))
+                .walletName(row.get(1, String.class))
+                .currency(row.get(2, Currency.class).name())
+                .activeForShopping(row.get(3, Boolean.class))
+                .activeForWithdraw(row.get(4, Boolean.class))
+                .balance(row.get(5, Money.class))
+                .usableBalance(row.get(6, Money.class))
+                .customerId(row.get(7, Long.class))
+                .build();
     }
 }
\ No newline at end of file
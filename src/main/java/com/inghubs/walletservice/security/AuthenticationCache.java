@@ -0,0 +1,154 @@
+package com.inghubs.walletservice.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.inghubs.walletservice.configuration.AuthenticationCacheProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Optional;
+
+/**
+ * Remembers recently verified credentials so repeated HTTP Basic requests skip bcrypt and the
+ * user lookup. Only a keyed digest of the presented password is kept; the key is random per
+ * process, so the digests are useless outside this JVM.
+ * <p>
+ * Entries expire after the configured TTL and are evicted by size. They are dropped at once when a
+ * {@link PasswordChangedEvent} is published for the user.
+ * The cache also serves as the {@link UserCache} of the user lookups.
+ */
+@Component
+public class AuthenticationCache implements UserCache, MeterBinder {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final boolean enabled;
+    private final Cache<String, Verification> verifications;
+    private final Cache<String, UserDetails> users;
+    private final SecretKeySpec digestKey;
+
+    public AuthenticationCache(AuthenticationCacheProperties properties) {
+        this.enabled = properties.isEnabled();
+        this.verifications = Caffeine.newBuilder()
+                .expireAfterWrite(properties.getTtl())
+                .maximumSize(properties.getMaxSize())
+                .recordStats()
+                .build();
+        this.users = Caffeine.newBuilder()
+                .expireAfterWrite(properties.getTtl())
+                .maximumSize(properties.getMaxSize())
+                .recordStats()
+                .build();
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        this.digestKey = new SecretKeySpec(key, HMAC_ALGORITHM);
+    }
+
+    /**
+     * Returns the cached user if the presented password matches a recent successful verification.
+     *
+     * @param username The presented username.
+     * @param password The presented raw password.
+     * @return The cached user details, or empty if the credentials must be verified again.
+     */
+    public Optional<UserDetails> findVerified(String username, String password) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        Verification verification = verifications.getIfPresent(username);
+        if (verification == null || !MessageDigest.isEqual(verification.digest(), digest(username, password))) {
+            return Optional.empty();
+        }
+        return Optional.of(verification.user());
+    }
+
+    /**
+     * Records a successful verification of the presented credentials.
+     *
+     * @param username The verified username.
+     * @param password The verified raw password.
+     * @param user The authenticated user details.
+     */
+    public void putVerified(String username, String password, UserDetails user) {
+        if (enabled) {
+            verifications.put(username, new Verification(digest(username, password), user));
+        }
+    }
+
+    /**
+     * Drops every cached entry of a user.
+     *
+     * @param username The username to invalidate.
+     */
+    public void invalidate(String username) {
+        verifications.invalidate(username);
+        users.invalidate(username);
+    }
+
+    @EventListener
+    public void onPasswordChanged(PasswordChangedEvent event) {
+        invalidate(event.username());
+    }
+
+    @Override
+    public UserDetails getUserFromCache(String username) {
+        return enabled ? users.getIfPresent(username) : null;
+    }
+
+    @Override
+    public void putUserInCache(UserDetails user) {
+        if (enabled) {
+            users.put(user.getUsername(), user);
+        }
+    }
+
+    @Override
+    public void removeUserFromCache(String username) {
+        invalidate(username);
+    }
+
+    /**
+     * Returns the share of verification lookups that skipped bcrypt.
+     *
+     * @return The hit ratio between 0 and 1.
+     */
+    public double hitRatio() {
+        return verifications.stats().hitRate();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, verifications, "auth.verifications");
+        CaffeineCacheMetrics.monitor(registry, users, "auth.users");
+        Gauge.builder("wallet.auth.cache.hit.ratio", this, AuthenticationCache::hitRatio)
+                .description("Share of authentications served without bcrypt")
+                .register(registry);
+    }
+
+    private byte[] digest(String username, String password) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(digestKey);
+            mac.update(username.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            return mac.doFinal(password.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot compute credential digest", e);
+        }
+    }
+
+    private record Verification(byte[] digest, UserDetails user) {
+    }
+}
@@ -0,0 +1,110 @@
+package com.inghubs.walletservice.security;
+
+/**
+ * Open-addressing hash map from positive {@code long} keys to {@code long} values.
+ * <p>
+ * Keys and values are interleaved in a single array, so a lookup touches one cache line and never
+ * boxes. Zero marks an empty slot, so zero keys are rejected. The map is unsynchronized: the table
+ * and its slots are plain fields, so a {@link #get} that races a {@link #put} may return a stale or
+ * wrong value. It reads one table reference and probes at most its capacity, so such a read still
+ * ends without throwing, but callers must validate it afterwards and retry under a lock, as the
+ * optimistic reads of {@link WalletOwnershipIndex} do.
+ */
+final class LongLongHashMap {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] table;
+    private int size;
+
+    LongLongHashMap(int expectedSize) {
+        this.table = new long[2 * tableCapacity(expectedSize)];
+    }
+
+    /**
+     * Returns the value mapped to a key.
+     *
+     * @param key The key to look up.
+     * @param missing The value returned when the key is absent.
+     * @return The mapped value, or {@code missing}.
+     */
+    long get(long key, long missing) {
+        long[] t = table;
+        int mask = (t.length >>> 1) - 1;
+        for (int slot = mix(key) & mask, probes = 0; probes <= mask; slot = (slot + 1) & mask, probes++) {
+            long candidate = t[slot << 1];
+            if (candidate == key) {
+                return t[(slot << 1) + 1];
+            }
+            if (candidate == 0) {
+                return missing;
+            }
+        }
+        return missing;
+    }
+
+    /**
+     * Maps a key to a value, replacing any previous value.
+     *
+     * @param key The key; must be positive.
+     * @param value The value.
+     */
+    void put(long key, long value) {
+        if (key <= 0) {
+            throw new IllegalArgumentException("Key must be positive: " + key);
+        }
+        if (2 * (size + 1) > table.length >>> 1) {
+            resize();
+        }
+        if (insert(table, key, value)) {
+            size++;
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void resize() {
+        long[] old = table;
+        long[] grown = new long[old.length * 2];
+        for (int i = 0; i < old.length; i += 2) {
+            if (old[i] != 0) {
+                insert(grown, old[i], old[i + 1]);
+            }
+        }
+        table = grown;
+    }
+
+    private static boolean insert(long[] t, long key, long value) {
+        int mask = (t.length >>> 1) - 1;
+        int slot = mix(key) & mask;
+        while (true) {
+            long candidate = t[slot << 1];
+            if (candidate == key) {
+                t[(slot << 1) + 1] = value;
+                return false;
+            }
+            if (candidate == 0) {
+                // plain stores: a racing reader may see the key without its value, see the class comment
+                t[(slot << 1) + 1] = value;
+                t[slot << 1] = key;
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static int tableCapacity(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < 2L * expectedSize) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+}
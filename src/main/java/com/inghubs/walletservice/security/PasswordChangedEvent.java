@@ -0,0 +1,9 @@
+package com.inghubs.walletservice.security;
+
+/**
+ * Published when a user's password changes, so cached verifications of the old password are dropped.
+ *
+ * @param username The username whose password changed.
+ */
+public record PasswordChangedEvent(String username) {
+}
@@ -0,0 +1,12 @@
+package com.inghubs.walletservice.security;
+
+import java.time.Instant;
+
+/**
+ * A signed session token together with its expiry.
+ *
+ * @param value The encoded token.
+ * @param expiresAt The instant after which the token is rejected.
+ */
+public record SessionToken(String value, Instant expiresAt) {
+}
@@ -0,0 +1,117 @@
+package com.inghubs.walletservice.security;
+
+import com.inghubs.walletservice.configuration.SessionTokenProperties;
+import com.inghubs.walletservice.model.dto.CustomUserDetails;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Issues and verifies stateless session tokens.
+ * <p>
+ * A token is {@code base64url(id:role:expiry:username) "." base64url(HMAC-SHA256)}. Verifying it
+ * needs only the key: there is no user lookup and no password hashing, so it costs microseconds.
+ * Tokens cannot be revoked before they expire; keep {@code wallet.security.token.ttl} short.
+ */
+@Component
+public class SessionTokenService {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec signingKey;
+    private final SessionTokenProperties properties;
+    private final Clock clock;
+
+    @Autowired
+    public SessionTokenService(SessionTokenProperties properties) {
+        this(properties, Clock.systemUTC());
+    }
+
+    SessionTokenService(SessionTokenProperties properties, Clock clock) {
+        this.properties = properties;
+        this.clock = clock;
+        this.signingKey = new SecretKeySpec(resolveKey(properties.getSecret()), HMAC_ALGORITHM);
+    }
+
+    /**
+     * Issues a token for an authenticated user.
+     *
+     * @param user The authenticated user.
+     * @return The signed token and its expiry.
+     */
+    public SessionToken issue(CustomUserDetails user) {
+        Instant expiresAt = clock.instant().plus(properties.getTtl());
+        String payload = user.getId() + ":" + user.getRole() + ":" + expiresAt.getEpochSecond() + ":" + user.getUsername();
+        String encodedPayload = ENCODER.encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+        String signature = ENCODER.encodeToString(sign(encodedPayload));
+        return new SessionToken(encodedPayload + "." + signature, expiresAt);
+    }
+
+    /**
+     * Verifies a token and rebuilds the user it was issued for.
+     *
+     * @param token The encoded token.
+     * @return The user details carried by the token, or empty if the token is malformed, forged or expired.
+     */
+    public Optional<CustomUserDetails> verify(String token) {
+        int separator = token.indexOf('.');
+        if (separator <= 0 || separator == token.length() - 1) {
+            return Optional.empty();
+        }
+        String encodedPayload = token.substring(0, separator);
+        try {
+            byte[] signature = DECODER.decode(token.substring(separator + 1));
+            if (!MessageDigest.isEqual(signature, sign(encodedPayload))) {
+                return Optional.empty();
+            }
+            String[] fields = new String(DECODER.decode(encodedPayload), StandardCharsets.UTF_8).split(":", 4);
+            if (fields.length != 4 || Long.parseLong(fields[2]) <= clock.instant().getEpochSecond()) {
+                return Optional.empty();
+            }
+            String role = fields[1];
+            return Optional.of(new CustomUserDetails(
+                    Long.parseLong(fields[0]),
+                    fields[3],
+                    null,
+                    List.of(new SimpleGrantedAuthority("ROLE_" + role)),
+                    role
+            ));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    private byte[] sign(String encodedPayload) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(signingKey);
+            return mac.doFinal(encodedPayload.getBytes(StandardCharsets.US_ASCII));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot sign session token", e);
+        }
+    }
+
+    private static byte[] resolveKey(String secret) {
+        if (StringUtils.hasText(secret)) {
+            return Base64.getDecoder().decode(secret);
+        }
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        return key;
+    }
+}
@@ -0,0 +1,26 @@
+package com.inghubs.walletservice.security;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Authorization bean for wallet-scoped {@code @PreAuthorize} expressions.
+ * Answers ownership questions from the {@link WalletOwnershipIndex} instead of loading wallets.
+ */
+@Component("walletAuthorization")
+@RequiredArgsConstructor
+public class WalletAuthorization {
+
+    private final WalletOwnershipIndex walletOwnershipIndex;
+
+    /**
+     * Checks if a customer owns a wallet.
+     *
+     * @param walletId The ID of the wallet.
+     * @param customerId The ID of the authenticated customer.
+     * @return True if the wallet exists and belongs to the customer, false otherwise.
+     */
+    public boolean isOwner(Long walletId, Long customerId) {
+        return walletOwnershipIndex.isOwnedBy(walletId, customerId);
+    }
+}
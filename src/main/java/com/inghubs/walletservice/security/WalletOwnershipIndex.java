@@ -0,0 +1,140 @@
+package com.inghubs.walletservice.security;
+
+import com.inghubs.walletservice.model.dto.WalletOwnership;
+import com.inghubs.walletservice.repository.WalletRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * In-memory index of which customer owns which wallet, used by ownership checks instead of loading
+ * the wallet entity.
+ * <p>
+ * The index is loaded once at startup, before the web server accepts requests, and extended as
+ * wallets are created. Ownership never changes and wallet ids are never reused, so an entry can
+ * never become wrong. Wallets created by another node are not in the index yet; they are looked up
+ * once and then cached.
+ */
+@Component
+public class WalletOwnershipIndex implements SmartInitializingSingleton, MeterBinder {
+
+    private static final long MISSING = 0L;
+
+    private final WalletRepository walletRepository;
+    private final StampedLock lock = new StampedLock();
+    private final LongLongHashMap owners = new LongLongHashMap(1024);
+    private final LongAdder fallbacks = new LongAdder();
+
+    public WalletOwnershipIndex(WalletRepository walletRepository) {
+        this.walletRepository = walletRepository;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        List<WalletOwnership> ownerships = walletRepository.findAllOwnerships();
+        long stamp = lock.writeLock();
+        try {
+            ownerships.forEach(ownership -> owners.put(ownership.walletId(), ownership.customerId()));
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Records the owner of a wallet.
+     *
+     * @param walletId The ID of the wallet.
+     * @param customerId The ID of the owning customer.
+     */
+    public void register(Long walletId, Long customerId) {
+        long stamp = lock.writeLock();
+        try {
+            owners.put(walletId, customerId);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Checks if a wallet is owned by a specific customer.
+     *
+     * @param walletId The ID of the wallet.
+     * @param customerId The ID of the customer.
+     * @return True if the wallet exists and is owned by the customer, false otherwise.
+     */
+    public boolean isOwnedBy(Long walletId, Long customerId) {
+        if (customerId == null) {
+            return false;
+        }
+        Long owner = ownerOf(walletId);
+        return owner != null && owner.longValue() == customerId;
+    }
+
+    /**
+     * Returns the ID of the customer owning a wallet.
+     *
+     * @param walletId The ID of the wallet.
+     * @return The ID of the owning customer, or null if the wallet does not exist.
+     */
+    public Long ownerOf(Long walletId) {
+        if (walletId == null || walletId <= 0) {
+            return null;
+        }
+        long owner = lookup(walletId);
+        if (owner == MISSING) {
+            fallbacks.increment();
+            Long loaded = walletRepository.findCustomerIdById(walletId).orElse(null);
+            if (loaded == null) {
+                return null;
+            }
+            register(walletId, loaded);
+            return loaded;
+        }
+        return owner;
+    }
+
+    /**
+     * Returns the number of indexed wallets.
+     *
+     * @return The number of wallets in the index.
+     */
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return owners.size();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("wallet.ownership.index.size", this, WalletOwnershipIndex::size)
+                .description("Wallets held in the in-memory ownership index")
+                .register(registry);
+        FunctionCounter.builder("wallet.ownership.index.fallbacks", fallbacks, LongAdder::sum)
+                .description("Ownership checks that had to query the database")
+                .register(registry);
+    }
+
+    private long lookup(long walletId) {
+        long stamp = lock.tryOptimisticRead();
+        long owner = owners.get(walletId, MISSING);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                owner = owners.get(walletId, MISSING);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return owner;
+    }
+}
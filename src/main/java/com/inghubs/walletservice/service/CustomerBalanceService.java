@@ -0,0 +1,22 @@
+package com.inghubs.walletservice.service;
+
+import com.inghubs.walletservice.model.dto.BalanceChange;
+import com.inghubs.walletservice.model.dto.CustomerBalanceResponse;
+import com.inghubs.walletservice.model.dto.enums.Currency;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+
+public interface CustomerBalanceService {
+
+    void openBalance(Long customerId, Currency currency);
+
+    void applyChange(BalanceChange change);
+
+    void applyChanges(Collection<BalanceChange> changes);
+
+    void applyWalletChange(Long walletId, BigDecimal balanceDelta, BigDecimal usableDelta);
+
+    List<CustomerBalanceResponse> findBalances(Long customerId);
+}
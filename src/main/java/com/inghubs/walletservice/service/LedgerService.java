@@ -0,0 +1,19 @@
+package com.inghubs.walletservice.service;
+
+import com.inghubs.walletservice.model.dto.LedgerBalance;
+import com.inghubs.walletservice.model.entity.Transaction;
+import com.inghubs.walletservice.model.entity.Wallet;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Map;
+
+public interface LedgerService {
+
+    LedgerBalance currentBalance(Wallet wallet);
+
+    Map<Long, LedgerBalance> currentBalances(Collection<Wallet> wallets);
+
+    LedgerBalance append(Wallet wallet, LedgerBalance current, Transaction transaction,
+                         BigDecimal balanceDelta, BigDecimal usableDelta);
+}
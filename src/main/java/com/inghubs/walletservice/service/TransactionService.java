@@ -1,7 +1,10 @@
 package com.inghubs.walletservice.service;
 
+import com.inghubs.walletservice.model.dto.BulkApprovalRequest;
+import com.inghubs.walletservice.model.dto.BulkApprovalResponse;
 import com.inghubs.walletservice.model.dto.PaymentRequest;
 import com.inghubs.walletservice.model.dto.TransactionApprovalRequest;
+import com.inghubs.walletservice.model.dto.TransactionPageResponse;
 import com.inghubs.walletservice.model.dto.TransactionResponse;
 import com.inghubs.walletservice.model.dto.enums.TransactionStatus;
 import com.inghubs.walletservice.model.dto.enums.TransactionType;
@@ -18,5 +21,9 @@ public interface TransactionService {
 
     List<TransactionResponse> findTransactionsByWalletId(Long walletId);
 
+    TransactionPageResponse findTransactionPage(Long walletId, String cursor, Integer size);
+
     TransactionResponse approveTransaction(TransactionApprovalRequest request);
+
+    BulkApprovalResponse approveTransactions(BulkApprovalRequest request);
 }
\ No newline at end of file
@@ -1,10 +1,15 @@
 package com.inghubs.walletservice.service;
 
+import com.inghubs.walletservice.model.dto.BatchPaymentRequest;
+import com.inghubs.walletservice.model.dto.BatchPaymentResponse;
 import com.inghubs.walletservice.model.dto.CreateWalletRequest;
 import com.inghubs.walletservice.model.dto.CreateWalletResponse;
+import com.inghubs.walletservice.model.dto.CustomerBalanceResponse;
 import com.inghubs.walletservice.model.dto.PaymentRequest;
 import com.inghubs.walletservice.model.dto.PaymentResponse;
+import com.inghubs.walletservice.model.dto.WalletPageResponse;
 import com.inghubs.walletservice.model.dto.enums.Currency;
+import com.inghubs.walletservice.model.dto.enums.WalletSort;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -15,7 +20,14 @@ public interface WalletService {
 
     List<CreateWalletResponse> listWallets(Long userId, Currency currency, BigDecimal minAmount, BigDecimal maxAmount);
 
+    WalletPageResponse searchWallets(Long customerId, Currency currency, BigDecimal minAmount, BigDecimal maxAmount,
+                                     WalletSort sort, String cursor, Integer size);
+
+    List<CustomerBalanceResponse> getBalanceSummary(Long customerId);
+
     PaymentResponse makeDeposit(PaymentRequest request);
 
     PaymentResponse makeWithdraw(PaymentRequest request);
+
+    BatchPaymentResponse makeBatchPayments(BatchPaymentRequest request);
 }
@@ -0,0 +1,17 @@
+package com.inghubs.walletservice.service.engine;
+
+import com.inghubs.walletservice.model.dto.PaymentRequest;
+import com.inghubs.walletservice.model.dto.PaymentResponse;
+import com.inghubs.walletservice.model.dto.enums.TransactionType;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A single payment waiting in a group of the {@link PaymentCoalescer}.
+ *
+ * @param request The payment request.
+ * @param type The type of the payment (DEPOSIT or WITHDRAW).
+ * @param response Completed with the payment's response, or exceptionally with its rejection.
+ */
+public record CoalescedPayment(PaymentRequest request, TransactionType type, CompletableFuture<PaymentResponse> response) {
+}
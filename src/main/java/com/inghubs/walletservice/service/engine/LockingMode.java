@@ -0,0 +1,41 @@
+package com.inghubs.walletservice.service.engine;
+
+/**
+ * Strategy used to protect a wallet's balances against conflicting writes from other transactions.
+ */
+public enum LockingMode {
+
+    /**
+     * Reads the wallet without a row lock and detects conflicting writes through its version column.
+     */
+    OPTIMISTIC,
+
+    /**
+     * Reads the wallet with {@code SELECT ... FOR UPDATE}, holding the row lock until commit.
+     */
+    PESSIMISTIC,
+
+    /**
+     * Applies the balance delta with a single conditional {@code UPDATE} that checks the withdraw
+     * rules in its {@code WHERE} clause. The database serializes the update itself, so no
+     * in-process wallet lock is taken.
+     */
+    CONDITIONAL_UPDATE,
+
+    /**
+     * Appends every balance change to the wallet's ledger instead of updating the wallet row. The
+     * balances are rebuilt from the wallet row, which holds the latest snapshot, plus the ledger entries
+     * after it, and the row is only rewritten when a new snapshot is taken. Two writers appending at the
+     * same ledger position collide on its unique key and the later one is retried.
+     */
+    LEDGER;
+
+    /**
+     * Whether payments on the same wallet are serialized by the in-process lock stripes.
+     *
+     * @return True if the mode relies on reading the wallet before updating it.
+     */
+    public boolean serializesInProcess() {
+        return this != CONDITIONAL_UPDATE;
+    }
+}
@@ -0,0 +1,151 @@
+package com.inghubs.walletservice.service.engine;
+
+import com.inghubs.walletservice.configuration.PaymentEngineProperties;
+import com.inghubs.walletservice.exception.ConcurrentWalletUpdateException;
+import com.inghubs.walletservice.model.dto.PaymentRequest;
+import com.inghubs.walletservice.model.dto.PaymentResponse;
+import com.inghubs.walletservice.model.dto.enums.TransactionType;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Groups payments that arrive at about the same time, so that they are committed in one database
+ * transaction instead of one transaction each.
+ * <p>
+ * The first payment that finds no open group opens one and leads it: it waits until the configured
+ * window has passed or the group is full, closes the group and processes all of its payments on its
+ * own thread. The other payments of the group wait for their individual results. Several groups can be
+ * processed at the same time, each by its leader, while the next group is already filling up.
+ */
+@Component
+public class PaymentCoalescer implements MeterBinder {
+
+    private final boolean enabled;
+    private final long windowNanos;
+    private final int maxBatchSize;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private Group open;
+
+    private final LongAdder groups = new LongAdder();
+    private final LongAdder payments = new LongAdder();
+
+    public PaymentCoalescer(PaymentEngineProperties properties) {
+        PaymentEngineProperties.Coalescing coalescing = properties.getCoalescing();
+        this.enabled = coalescing.isEnabled();
+        this.windowNanos = coalescing.getWindow().toNanos();
+        this.maxBatchSize = Math.max(1, coalescing.getMaxBatchSize());
+    }
+
+    /**
+     * Returns whether single payments should be submitted to this coalescer.
+     *
+     * @return True if coalescing is enabled.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Adds a payment to the open group and waits until the group has been processed.
+     * All callers are expected to pass the same processor; a group is processed by the one its leader passed.
+     *
+     * @param request The payment request.
+     * @param type The type of the payment (DEPOSIT or WITHDRAW).
+     * @param processor Processes a closed group, completing the response of each of its payments.
+     * @return The response of the payment.
+     * @throws RuntimeException The rejection of the payment, as completed by the processor.
+     */
+    public PaymentResponse submit(PaymentRequest request, TransactionType type, Consumer<List<CoalescedPayment>> processor) {
+        CoalescedPayment payment = new CoalescedPayment(request, type, new CompletableFuture<>());
+        Group group;
+        boolean leader;
+        lock.lock();
+        try {
+            leader = open == null;
+            if (leader) {
+                open = new Group(lock.newCondition());
+            }
+            group = open;
+            group.payments.add(payment);
+            if (group.payments.size() >= maxBatchSize) {
+                open = null;
+                group.closed.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (leader) {
+            lead(group, processor);
+        }
+        try {
+            return payment.response().join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("wallet.payment.coalescer.groups", groups, LongAdder::sum)
+                .description("Groups of coalesced payments processed")
+                .register(registry);
+        FunctionCounter.builder("wallet.payment.coalescer.payments", payments, LongAdder::sum)
+                .description("Payments processed as part of a coalesced group")
+                .register(registry);
+    }
+
+    /**
+     * Waits for the group to close, then processes it. Payments the processor leaves incomplete are failed,
+     * so that no member of the group waits forever.
+     */
+    private void lead(Group group, Consumer<List<CoalescedPayment>> processor) {
+        long deadline = System.nanoTime() + windowNanos;
+        lock.lock();
+        try {
+            long remaining;
+            while (open == group && (remaining = deadline - System.nanoTime()) > 0) {
+                group.closed.awaitNanos(remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (open == group) {
+                open = null;
+            }
+            lock.unlock();
+        }
+
+        groups.increment();
+        payments.add(group.payments.size());
+        try {
+            processor.accept(group.payments);
+        } catch (RuntimeException e) {
+            group.payments.forEach(payment -> payment.response().completeExceptionally(e));
+        }
+        group.payments.forEach(payment -> payment.response().completeExceptionally(
+                new ConcurrentWalletUpdateException("Payment was not processed, please retry")));
+    }
+
+    private static final class Group {
+
+        private final List<CoalescedPayment> payments = new ArrayList<>();
+        private final Condition closed;
+
+        private Group(Condition closed) {
+            this.closed = closed;
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.inghubs.walletservice.service.engine;
+
+import com.inghubs.walletservice.configuration.PaymentEngineProperties;
+import com.inghubs.walletservice.exception.ConcurrentWalletUpdateException;
+import com.inghubs.walletservice.model.entity.LedgerEntry;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Serializes balance mutations per wallet while letting different wallets proceed in parallel.
+ * Wallet IDs are hashed onto a fixed set of lock stripes; a mutation holds its wallet's stripe
+ * for the whole database transaction, so the read-modify-write of the balances is committed
+ * before the next writer of the same wallet reads them.
+ * <p>
+ * The stripes only coordinate writers inside this process. Writers in other instances are
+ * detected by the configured {@link LockingMode} and the failed transaction is re-run by the
+ * {@link RetryExecutor}.
+ */
+@Component
+public class PaymentEngine implements MeterBinder {
+
+    private final ReentrantLock[] stripes;
+    private final int mask;
+    private final long lockTimeoutNanos;
+    private final TransactionTemplate transactionTemplate;
+    private final RetryExecutor retryExecutor;
+    private final LockingMode lockingMode;
+
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder contendedAcquisitions = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder totalLockWaitNanos = new LongAdder();
+    private final AtomicLong maxLockWaitNanos = new AtomicLong();
+
+    public PaymentEngine(PlatformTransactionManager transactionManager, RetryExecutor retryExecutor,
+                         PaymentEngineProperties properties) {
+        int requested = properties.getLockStripes();
+        int size = requested <= 1 ? 1 : Integer.highestOneBit(requested - 1) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+        this.lockTimeoutNanos = properties.getLockTimeout().toNanos();
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.retryExecutor = retryExecutor;
+        this.lockingMode = properties.getLockingMode();
+    }
+
+    /**
+     * Runs a balance mutation for a wallet in its own transaction while holding the wallet's stripe.
+     * The transaction is re-run if it fails because of a concurrent update from another instance.
+     * In {@link LockingMode#CONDITIONAL_UPDATE} mode no stripe is taken.
+     *
+     * @param walletId The ID of the wallet being mutated.
+     * @param action The mutation to run.
+     * @return The result of the mutation.
+     * @throws ConcurrentWalletUpdateException If the stripe could not be acquired within the lock timeout
+     *                                         or the retries were exhausted.
+     */
+    public <T> T execute(Long walletId, Supplier<T> action) {
+        if (!lockingMode.serializesInProcess()) {
+            return execute(action);
+        }
+        return retryExecutor.execute(() -> {
+            ReentrantLock lock = stripeFor(walletId);
+            acquire(lock);
+            try {
+                return inTransaction(action);
+            } finally {
+                lock.unlock();
+            }
+        });
+    }
+
+    /**
+     * Runs a mutation whose wallet is not known up front in its own transaction, without a stripe.
+     * Conflicts with concurrent payments are detected by the locking mode and retried.
+     *
+     * @param action The mutation to run.
+     * @return The result of the mutation.
+     * @throws ConcurrentWalletUpdateException If the retries were exhausted.
+     */
+    public <T> T execute(Supplier<T> action) {
+        return retryExecutor.execute(() -> inTransaction(action));
+    }
+
+    /**
+     * Returns the configured database locking mode.
+     *
+     * @return The locking mode used when reading wallets for update.
+     */
+    public LockingMode lockingMode() {
+        return lockingMode;
+    }
+
+    /**
+     * Returns a snapshot of the lock statistics.
+     *
+     * @return The current engine statistics.
+     */
+    public PaymentEngineStats stats() {
+        return PaymentEngineStats.builder()
+                .acquisitions(acquisitions.sum())
+                .contendedAcquisitions(contendedAcquisitions.sum())
+                .timeouts(timeouts.sum())
+                .totalLockWaitNanos(totalLockWaitNanos.sum())
+                .maxLockWaitNanos(maxLockWaitNanos.get())
+                .queueDepth(queueDepth())
+                .lockStripes(stripes.length)
+                .build();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("wallet.payment.engine.acquisitions", acquisitions, LongAdder::sum)
+                .description("Wallet stripe lock acquisitions")
+                .register(registry);
+        FunctionCounter.builder("wallet.payment.engine.contended", contendedAcquisitions, LongAdder::sum)
+                .description("Wallet stripe lock acquisitions that had to wait")
+                .register(registry);
+        FunctionCounter.builder("wallet.payment.engine.timeouts", timeouts, LongAdder::sum)
+                .description("Payments rejected because the wallet stripe was busy")
+                .register(registry);
+        FunctionCounter.builder("wallet.payment.engine.lock.wait", totalLockWaitNanos, adder -> adder.sum() / 1_000_000.0)
+                .description("Total time spent waiting for wallet stripe locks")
+                .baseUnit("milliseconds")
+                .register(registry);
+        Gauge.builder("wallet.payment.engine.lock.wait.max", maxLockWaitNanos, max -> max.get() / 1_000_000.0)
+                .description("Longest single wait for a wallet stripe lock")
+                .baseUnit("milliseconds")
+                .register(registry);
+        Gauge.builder("wallet.payment.engine.queue.depth", this, PaymentEngine::queueDepth)
+                .description("Payments currently waiting for a wallet stripe lock")
+                .register(registry);
+    }
+
+    /**
+     * Runs an action in a new transaction. In {@link LockingMode#LEDGER} mode, a commit that fails because
+     * another writer appended at the same ledger position is reported as a concurrency failure, so that
+     * the action is retried against the new ledger tail.
+     */
+    private <T> T inTransaction(Supplier<T> action) {
+        try {
+            return transactionTemplate.execute(status -> action.get());
+        } catch (DataIntegrityViolationException e) {
+            if (lockingMode == LockingMode.LEDGER && isLedgerPositionConflict(e)) {
+                throw new OptimisticLockingFailureException("Wallet ledger was appended concurrently", e);
+            }
+            throw e;
+        }
+    }
+
+    private static boolean isLedgerPositionConflict(DataIntegrityViolationException e) {
+        String message = e.getMostSpecificCause().getMessage();
+        return message != null && message.toLowerCase(Locale.ROOT).contains(LedgerEntry.POSITION_CONSTRAINT);
+    }
+
+    private void acquire(ReentrantLock lock) {
+        long start = System.nanoTime();
+        if (!lock.tryLock()) {
+            contendedAcquisitions.increment();
+            try {
+                if (!lock.tryLock(lockTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                    timeouts.increment();
+                    throw new ConcurrentWalletUpdateException("Wallet is busy, please retry");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ConcurrentWalletUpdateException("Interrupted while waiting for wallet", e);
+            }
+        }
+        long waited = System.nanoTime() - start;
+        acquisitions.increment();
+        totalLockWaitNanos.add(waited);
+        maxLockWaitNanos.accumulateAndGet(waited, Math::max);
+    }
+
+    private ReentrantLock stripeFor(Long walletId) {
+        int h = walletId.hashCode();
+        return stripes[(h ^ (h >>> 16)) & mask];
+    }
+
+    private int queueDepth() {
+        int depth = 0;
+        for (ReentrantLock stripe : stripes) {
+            depth += stripe.getQueueLength();
+        }
+        return depth;
+    }
+}
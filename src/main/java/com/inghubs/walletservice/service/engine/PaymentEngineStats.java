@@ -0,0 +1,19 @@
+package com.inghubs.walletservice.service.engine;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Point-in-time snapshot of the payment engine's lock statistics.
+ */
+@Getter
+@Builder
+public class PaymentEngineStats {
+    private long acquisitions;
+    private long contendedAcquisitions;
+    private long timeouts;
+    private long totalLockWaitNanos;
+    private long maxLockWaitNanos;
+    private int queueDepth;
+    private int lockStripes;
+}
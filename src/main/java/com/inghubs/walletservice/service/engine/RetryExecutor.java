@@ -0,0 +1,90 @@
+package com.inghubs.walletservice.service.engine;
+
+import com.inghubs.walletservice.configuration.PaymentEngineProperties;
+import com.inghubs.walletservice.exception.ConcurrentWalletUpdateException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Re-runs an action that failed because of a conflicting concurrent write, such as an
+ * optimistic version mismatch or a pessimistic lock timeout. Retries are bounded and spaced
+ * with exponential backoff and full jitter so that colliding writers spread out.
+ */
+@Component
+public class RetryExecutor implements MeterBinder {
+
+    private final int maxAttempts;
+    private final long initialBackoffNanos;
+    private final long maxBackoffNanos;
+
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder exhausted = new LongAdder();
+
+    public RetryExecutor(PaymentEngineProperties properties) {
+        PaymentEngineProperties.Retry retry = properties.getRetry();
+        this.maxAttempts = Math.max(1, retry.getMaxAttempts());
+        this.initialBackoffNanos = retry.getInitialBackoff().toNanos();
+        this.maxBackoffNanos = retry.getMaxBackoff().toNanos();
+    }
+
+    /**
+     * Runs the action, retrying it on concurrency failures until it succeeds or the attempts run out.
+     *
+     * @param action The action to run. Each attempt must start its own transaction.
+     * @return The result of the first successful attempt.
+     * @throws ConcurrentWalletUpdateException If every attempt failed because of a concurrent update.
+     */
+    public <T> T execute(Supplier<T> action) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return action.get();
+            } catch (ConcurrencyFailureException e) {
+                if (attempt >= maxAttempts) {
+                    exhausted.increment();
+                    throw new ConcurrentWalletUpdateException("Wallet was modified concurrently, please retry", e);
+                }
+                retries.increment();
+                backoff(attempt);
+            }
+        }
+    }
+
+    public long getRetries() {
+        return retries.sum();
+    }
+
+    public long getExhausted() {
+        return exhausted.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("wallet.payment.retry.retries", retries, LongAdder::sum)
+                .description("Transactions retried after a concurrent update conflict")
+                .register(registry);
+        FunctionCounter.builder("wallet.payment.retry.exhausted", exhausted, LongAdder::sum)
+                .description("Transactions that gave up after exhausting their retry attempts")
+                .register(registry);
+    }
+
+    private void backoff(int attempt) {
+        long ceiling = Math.min(maxBackoffNanos, initialBackoffNanos << Math.min(attempt - 1, 20));
+        if (ceiling <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConcurrentWalletUpdateException("Interrupted while retrying wallet update", e);
+        }
+    }
+}
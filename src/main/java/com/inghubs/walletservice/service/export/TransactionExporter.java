@@ -0,0 +1,146 @@
+package com.inghubs.walletservice.service.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.inghubs.walletservice.configuration.ExportProperties;
+import com.inghubs.walletservice.mapper.TransactionMapper;
+import com.inghubs.walletservice.model.dto.TransactionResponse;
+import com.inghubs.walletservice.model.dto.enums.ExportFormat;
+import com.inghubs.walletservice.model.entity.Transaction;
+import com.inghubs.walletservice.repository.TransactionRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Streams every transaction of a wallet to an output stream as NDJSON or CSV.
+ * <p>
+ * Rows come from a forward-only database cursor and are written as they are read. The
+ * persistence context is cleared and the output flushed every {@code wallet.export.clear-interval}
+ * rows, so heap usage does not grow with the size of the history.
+ */
+@Component
+public class TransactionExporter {
+
+    private static final String CSV_HEADER =
+            "id,walletId,amount,type,oppositePartyType,oppositeParty,status,createdDate,createdBy,updatedDate,updatedBy";
+
+    private final TransactionRepository transactionRepository;
+    private final TransactionMapper transactionMapper;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectWriter jsonWriter;
+    private final int clearInterval;
+
+    public TransactionExporter(TransactionRepository transactionRepository, TransactionMapper transactionMapper,
+                               EntityManager entityManager, PlatformTransactionManager transactionManager,
+                               ObjectMapper objectMapper, ExportProperties properties) {
+        this.transactionRepository = transactionRepository;
+        this.transactionMapper = transactionMapper;
+        this.entityManager = entityManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.jsonWriter = objectMapper.writerFor(TransactionResponse.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.clearInterval = Math.max(1, properties.getClearInterval());
+    }
+
+    /**
+     * Writes every transaction of a wallet, newest first.
+     *
+     * @param walletId The ID of the wallet.
+     * @param format The output format.
+     * @param outputStream The stream to write to; it is flushed but not closed.
+     * @return The number of exported transactions.
+     */
+    public long export(Long walletId, ExportFormat format, OutputStream outputStream) {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        Long exported = readOnlyTransaction.execute(status -> {
+            try (Stream<Transaction> transactions = transactionRepository.streamByWalletId(walletId)) {
+                return writeRows(transactions.iterator(), format, writer);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return exported == null ? 0 : exported;
+    }
+
+    private long writeRows(Iterator<Transaction> transactions, ExportFormat format, Writer writer) throws IOException {
+        if (format == ExportFormat.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+        long count = 0;
+        while (transactions.hasNext()) {
+            TransactionResponse row = transactionMapper.toTransactionResponse(transactions.next());
+            if (format == ExportFormat.CSV) {
+                writeCsv(row, writer);
+            } else {
+                jsonWriter.writeValue(writer, row);
+            }
+            writer.write('\n');
+            if (++count % clearInterval == 0) {
+                entityManager.clear();
+                writer.flush();
+            }
+        }
+        writer.flush();
+        return count;
+    }
+
+    private static void writeCsv(TransactionResponse row, Writer writer) throws IOException {
+        writer.write(csv(row.getId()));
+        writer.write(',');
+        writer.write(csv(row.getWalletId()));
+        writer.write(',');
+        writer.write(row.getAmount() == null ? "" : row.getAmount().toString());
+        writer.write(',');
+        writer.write(csv(row.getType()));
+        writer.write(',');
+        writer.write(csv(row.getOppositePartyType()));
+        writer.write(',');
+        writer.write(csv(row.getOppositeParty()));
+        writer.write(',');
+        writer.write(csv(row.getStatus()));
+        writer.write(',');
+        writer.write(csv(row.getCreatedDate()));
+        writer.write(',');
+        writer.write(csv(row.getCreatedBy()));
+        writer.write(',');
+        writer.write(csv(row.getUpdatedDate()));
+        writer.write(',');
+        writer.write(csv(row.getUpdatedBy()));
+    }
+
+    /**
+     * Escapes a CSV cell. A cell a spreadsheet would read as a formula is prefixed with a quote and quoted,
+     * so free text such as the opposite party cannot inject one.
+     */
+    private static String csv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (!text.isEmpty() && "=+-@\t\r".indexOf(text.charAt(0)) >= 0) {
+            return "\"'" + text.replace("\"", "\"\"") + '"';
+        }
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,108 @@
+package com.inghubs.walletservice.service.impl;
+
+import com.inghubs.walletservice.mapper.CustomerBalanceMapper;
+import com.inghubs.walletservice.model.dto.BalanceChange;
+import com.inghubs.walletservice.model.dto.CustomerBalanceResponse;
+import com.inghubs.walletservice.model.dto.enums.Currency;
+import com.inghubs.walletservice.model.entity.CustomerBalanceId;
+import com.inghubs.walletservice.repository.CustomerBalanceRepository;
+import com.inghubs.walletservice.service.CustomerBalanceService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Implementation of the CustomerBalanceService interface.
+ * Maintains each customer's total and usable balance per currency with delta updates that run in the
+ * caller's transaction, so a summary row commits or rolls back together with the wallet change it mirrors.
+ * Concurrent changes of the same row are serialized by the database's row lock until commit.
+ */
+@Service
+@RequiredArgsConstructor
+public class CustomerBalanceServiceImpl implements CustomerBalanceService {
+
+    private static final Comparator<CustomerBalanceId> KEY_ORDER = Comparator
+            .comparing(CustomerBalanceId::getCustomerId)
+            .thenComparing(CustomerBalanceId::getCurrency);
+
+    private final CustomerBalanceRepository customerBalanceRepository;
+    private final CustomerBalanceMapper customerBalanceMapper;
+
+    /**
+     * Creates the empty summary row of a customer and currency unless it already exists.
+     *
+     * @param customerId The ID of the customer.
+     * @param currency The currency.
+     */
+    @Override
+    public void openBalance(Long customerId, Currency currency) {
+        try {
+            customerBalanceRepository.insertIfAbsent(customerId, currency.name());
+        } catch (DataIntegrityViolationException e) {
+            // a concurrent wallet creation inserted the same row first
+        }
+    }
+
+    /**
+     * Adds a change to a customer's summary within the current transaction.
+     * The row was opened when the customer's first wallet in that currency was created.
+     *
+     * @param change The change to apply.
+     */
+    @Override
+    public void applyChange(BalanceChange change) {
+        if (change.balanceDelta().signum() == 0 && change.usableDelta().signum() == 0) {
+            return;
+        }
+        customerBalanceRepository.addToBalances(change.customerId(), change.currency(),
+                change.balanceDelta(), change.usableDelta());
+    }
+
+    /**
+     * Adds several changes within the current transaction. Changes of the same row are combined first,
+     * and rows are updated in key order so that concurrent callers always lock them in the same order.
+     *
+     * @param changes The changes to apply.
+     */
+    @Override
+    public void applyChanges(Collection<BalanceChange> changes) {
+        Map<CustomerBalanceId, BalanceChange> combined = new TreeMap<>(KEY_ORDER);
+        for (BalanceChange change : changes) {
+            combined.merge(new CustomerBalanceId(change.customerId(), change.currency()), change, BalanceChange::plus);
+        }
+        combined.values().forEach(this::applyChange);
+    }
+
+    /**
+     * Adds a change of one wallet to its owner's summary within the current transaction, without
+     * loading the wallet.
+     *
+     * @param walletId The ID of the changed wallet.
+     * @param balanceDelta The amount added to the total balance.
+     * @param usableDelta The amount added to the usable balance.
+     */
+    @Override
+    public void applyWalletChange(Long walletId, BigDecimal balanceDelta, BigDecimal usableDelta) {
+        customerBalanceRepository.addToBalancesOfWallet(walletId, balanceDelta, usableDelta);
+    }
+
+    /**
+     * Finds a customer's balance summary, one entry per currency the customer holds wallets in.
+     *
+     * @param customerId The ID of the customer.
+     * @return The summaries ordered by currency.
+     */
+    @Override
+    public List<CustomerBalanceResponse> findBalances(Long customerId) {
+        return customerBalanceRepository.findByCustomerIdOrderByCurrency(customerId).stream()
+                .map(customerBalanceMapper::toResponse)
+                .toList();
+    }
+}
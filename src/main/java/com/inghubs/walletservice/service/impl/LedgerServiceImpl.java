@@ -0,0 +1,136 @@
+package com.inghubs.walletservice.service.impl;
+
+import com.inghubs.walletservice.configuration.LedgerProperties;
+import com.inghubs.walletservice.model.dto.BalanceChange;
+import com.inghubs.walletservice.model.dto.LedgerBalance;
+import com.inghubs.walletservice.model.dto.LedgerTail;
+import com.inghubs.walletservice.model.dto.Money;
+import com.inghubs.walletservice.model.entity.Auditable;
+import com.inghubs.walletservice.model.entity.LedgerEntry;
+import com.inghubs.walletservice.model.entity.Transaction;
+import com.inghubs.walletservice.model.entity.Wallet;
+import com.inghubs.walletservice.model.entity.WalletSnapshot;
+import com.inghubs.walletservice.repository.LedgerEntryRepository;
+import com.inghubs.walletservice.repository.WalletSnapshotRepository;
+import com.inghubs.walletservice.service.CustomerBalanceService;
+import com.inghubs.walletservice.service.LedgerService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Implementation of the LedgerService interface.
+ * Keeps wallet balances as an append-only ledger: every change is inserted as a new entry at the next
+ * position of the wallet's ledger, and every configured number of entries the balances are written
+ * to a snapshot and copied onto the wallet row. Rebuilding a balance therefore reads the wallet row
+ * and the entries after its snapshot, never the whole history.
+ */
+@Service
+@RequiredArgsConstructor
+public class LedgerServiceImpl implements LedgerService {
+
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final WalletSnapshotRepository walletSnapshotRepository;
+    private final CustomerBalanceService customerBalanceService;
+    private final LedgerProperties ledgerProperties;
+
+    /**
+     * Rebuilds a wallet's balances from its latest snapshot and the ledger entries after it.
+     *
+     * @param wallet The wallet, as loaded in the current transaction.
+     * @return The balances at the wallet's last ledger position.
+     */
+    @Override
+    public LedgerBalance currentBalance(Wallet wallet) {
+        return withTail(wallet, ledgerEntryRepository.sumAfter(wallet.getId(), wallet.getLedgerSequence()).orElse(null));
+    }
+
+    /**
+     * Rebuilds the balances of several wallets with one query.
+     *
+     * @param wallets The wallets, as loaded in the current transaction.
+     * @return The balances at each wallet's last ledger position, by wallet ID.
+     */
+    @Override
+    public Map<Long, LedgerBalance> currentBalances(Collection<Wallet> wallets) {
+        if (wallets.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, LedgerTail> tails = ledgerEntryRepository.sumAfterSnapshots(wallets.stream().map(Wallet::getId).toList())
+                .stream()
+                .collect(Collectors.toMap(LedgerTail::walletId, Function.identity()));
+        Map<Long, LedgerBalance> balances = new HashMap<>();
+        for (Wallet wallet : wallets) {
+            balances.put(wallet.getId(), withTail(wallet, tails.get(wallet.getId())));
+        }
+        return balances;
+    }
+
+    /**
+     * Appends a balance change at the next position of a wallet's ledger, within the current transaction,
+     * and adds it to the owner's balance summary. When the new position is a multiple of the snapshot
+     * interval, the balances are also snapshotted and copied onto the wallet.
+     *
+     * @param wallet The wallet, as loaded in the current transaction.
+     * @param current The wallet's balances at its last ledger position.
+     * @param transaction The transaction causing the change.
+     * @param balanceDelta The amount added to the total balance.
+     * @param usableDelta The amount added to the usable balance.
+     * @return The balances at the new ledger position.
+     */
+    @Override
+    public LedgerBalance append(Wallet wallet, LedgerBalance current, Transaction transaction,
+                                BigDecimal balanceDelta, BigDecimal usableDelta) {
+        LedgerBalance next = current.plus(balanceDelta, usableDelta);
+
+        // the summary row before the wallet row, which a snapshot updates, as the other modes lock them
+        customerBalanceService.applyChange(new BalanceChange(wallet.getCustomer().getId(), wallet.getCurrency(),
+                balanceDelta, usableDelta));
+
+        LedgerEntry entry = new LedgerEntry();
+        entry.setWallet(wallet);
+        entry.setSequence(next.sequence());
+        entry.setTransaction(transaction);
+        entry.setBalanceDelta(balanceDelta);
+        entry.setUsableDelta(usableDelta);
+        entry.setCreatedDate(LocalDateTime.now());
+        entry.setCreatedBy(Auditable.currentUser());
+        ledgerEntryRepository.save(entry);
+
+        if (next.sequence() % Math.max(1, ledgerProperties.getSnapshotInterval()) == 0) {
+            takeSnapshot(wallet, next);
+        }
+        return next;
+    }
+
+    private void takeSnapshot(Wallet wallet, LedgerBalance balance) {
+        WalletSnapshot snapshot = new WalletSnapshot();
+        snapshot.setWallet(wallet);
+        snapshot.setSequence(balance.sequence());
+        snapshot.setBalance(balance.balance());
+        snapshot.setUsableBalance(balance.usableBalance());
+        snapshot.setCreatedDate(LocalDateTime.now());
+        walletSnapshotRepository.save(snapshot);
+
+        wallet.setBalance(Money.of(balance.balance()));
+        wallet.setUsableBalance(Money.of(balance.usableBalance()));
+        wallet.setLedgerSequence(balance.sequence());
+    }
+
+    private static LedgerBalance withTail(Wallet wallet, LedgerTail tail) {
+        LedgerBalance snapshot = new LedgerBalance(wallet.getLedgerSequence(), wallet.getBalance().toBigDecimal(),
+                wallet.getUsableBalance().toBigDecimal());
+        if (tail == null) {
+            return snapshot;
+        }
+        return new LedgerBalance(tail.sequence(), snapshot.balance().add(tail.balanceDelta()),
+                snapshot.usableBalance().add(tail.usableDelta()));
+    }
+}
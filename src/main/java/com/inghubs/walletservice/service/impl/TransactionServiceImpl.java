@@ -1,21 +1,47 @@
 package com.inghubs.walletservice.service.impl;
 
+import com.inghubs.walletservice.configuration.BulkApprovalProperties;
+import com.inghubs.walletservice.configuration.TransactionHistoryProperties;
+import com.inghubs.walletservice.exception.InvalidCursorException;
 import com.inghubs.walletservice.exception.WalletNotFoundException;
+import com.inghubs.walletservice.exception.WalletTransactionException;
 import com.inghubs.walletservice.mapper.TransactionMapper;
+import com.inghubs.walletservice.model.dto.BalanceChange;
+import com.inghubs.walletservice.model.dto.BulkApprovalRequest;
+import com.inghubs.walletservice.model.dto.BulkApprovalResponse;
+import com.inghubs.walletservice.model.dto.Money;
 import com.inghubs.walletservice.model.dto.PaymentRequest;
 import com.inghubs.walletservice.model.dto.TransactionApprovalRequest;
+import com.inghubs.walletservice.model.dto.TransactionPageResponse;
 import com.inghubs.walletservice.model.dto.TransactionResponse;
 import com.inghubs.walletservice.model.dto.enums.TransactionStatus;
 import com.inghubs.walletservice.model.dto.enums.TransactionType;
+import com.inghubs.walletservice.model.entity.Auditable;
 import com.inghubs.walletservice.model.entity.Transaction;
 import com.inghubs.walletservice.model.entity.Wallet;
 import com.inghubs.walletservice.repository.TransactionRepository;
 import com.inghubs.walletservice.repository.WalletRepository;
+import com.inghubs.walletservice.service.CustomerBalanceService;
+import com.inghubs.walletservice.service.LedgerService;
 import com.inghubs.walletservice.service.TransactionService;
+import com.inghubs.walletservice.service.engine.LockingMode;
+import com.inghubs.walletservice.service.engine.PaymentEngine;
+import com.inghubs.walletservice.service.journal.JournalDecision;
+import com.inghubs.walletservice.service.journal.PaymentJournal;
+import com.inghubs.walletservice.service.metrics.PaymentMetrics;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Implementation of the TransactionService interface.
@@ -28,6 +54,13 @@ public class TransactionServiceImpl implements TransactionService {
     private final TransactionRepository transactionRepository;
     private final WalletRepository walletRepository;
     private final TransactionMapper transactionMapper;
+    private final PaymentEngine paymentEngine;
+    private final TransactionHistoryProperties transactionHistoryProperties;
+    private final CustomerBalanceService customerBalanceService;
+    private final LedgerService ledgerService;
+    private final PaymentJournal paymentJournal;
+    private final BulkApprovalProperties bulkApprovalProperties;
+    private final PaymentMetrics paymentMetrics;
 
     /**
      * Creates a new transaction and saves it to the repository.
@@ -64,15 +97,41 @@ public class TransactionServiceImpl implements TransactionService {
 
     /**
      * Finds all transactions associated with a specific wallet ID.
+     * The rows are projected straight into responses, so no Transaction or Wallet entity is loaded.
      *
      * @param walletId The ID of the wallet.
-     * @return A list of transaction responses mapped from the transactions.
+     * @return A list of transaction responses for the wallet.
      */
     @Override
     public List<TransactionResponse> findTransactionsByWalletId(Long walletId) {
-        return transactionRepository.findByWalletId(walletId).stream()
-                .map(transactionMapper::toTransactionResponse)
-                .toList();
+        return transactionRepository.findResponsesByWalletId(walletId);
+    }
+
+    /**
+     * Finds one page of a wallet's transactions, newest first.
+     * Pages are addressed by keyset on the transaction id, so every page costs the same index range
+     * scan on (wallet_id, id) no matter how deep it is.
+     *
+     * @param walletId The ID of the wallet.
+     * @param cursor The cursor returned with the previous page, or null for the first page.
+     * @param size The requested page size, or null for the default; capped at the configured maximum.
+     * @return The page of transactions and the cursor of the next page, which is null on the last page.
+     * @throws InvalidCursorException If the cursor is malformed.
+     */
+    @Override
+    public TransactionPageResponse findTransactionPage(Long walletId, String cursor, Integer size) {
+        int pageSize = resolvePageSize(size);
+        Limit limit = Limit.of(pageSize + 1);
+        List<Transaction> transactions = cursor == null || cursor.isBlank()
+                ? transactionRepository.findByWalletIdOrderByIdDesc(walletId, limit)
+                : transactionRepository.findByWalletIdAndIdLessThanOrderByIdDesc(walletId, decodeCursor(cursor), limit);
+
+        boolean hasNext = transactions.size() > pageSize;
+        List<Transaction> page = hasNext ? transactions.subList(0, pageSize) : transactions;
+        return TransactionPageResponse.builder()
+                .items(page.stream().map(transactionMapper::toTransactionResponse).toList())
+                .nextCursor(hasNext ? encodeCursor(page.get(pageSize - 1).getId()) : null)
+                .build();
     }
 
     /**
@@ -88,32 +147,309 @@ public class TransactionServiceImpl implements TransactionService {
     }
 
     /**
-     * Approves a transaction and updates the wallet balance accordingly.
+     * Approves a transaction and updates the wallet balance and its owner's balance summary accordingly.
+     * In LEDGER mode the usable balance change is appended to the wallet's ledger instead; with the payment
+     * journal enabled the decision is journaled and written to the database asynchronously.
+     * Runs in its own transaction; a conflicting concurrent update of the wallet or the
+     * transaction is detected by the payment engine's locking mode and the approval is retried.
+     * A transaction that was already decided keeps its earlier status and leaves the balances unchanged.
      *
      * @param request The transaction approval request containing the transaction ID and status.
      * @return The updated transaction response.
      * @throws WalletNotFoundException If the transaction is not found.
      */
     @Override
+    @Timed("wallet.service")
     public TransactionResponse approveTransaction(TransactionApprovalRequest request) {
-        Transaction transaction = transactionRepository.findById(request.getTransactionId())
+        if (paymentJournal.isEnabled()) {
+            return journalApproval(request);
+        }
+        Approval approval;
+        if (paymentEngine.lockingMode() == LockingMode.LEDGER) {
+            // take the wallet's stripe so the approval does not race the wallet's payments for the next ledger position
+            Long walletId = transactionRepository.findWalletIdById(request.getTransactionId())
+                    .orElseThrow(() -> new WalletNotFoundException("Transaction not found"));
+            approval = paymentEngine.execute(walletId, () -> applyApproval(request));
+        } else {
+            approval = paymentEngine.execute(() -> applyApproval(request));
+        }
+        // counted once the approval committed, so that retried attempts are not counted
+        paymentMetrics.recordDecisions(request.getStatus(), approval.decided() ? 1 : 0);
+        return approval.response();
+    }
+
+    /**
+     * Decides many pending transactions at once, one database transaction per chunk.
+     * Listed IDs are decided in request order; criteria select among the transactions that are pending when
+     * the request starts, walking them by ID. A chunk locks its still pending transactions and updates their
+     * statuses with one statement; approvals then add the resulting usable balance changes to the balance
+     * summaries, and to all affected wallets with one statement, so a chunk costs a handful of statements
+     * however many transactions it decides. Transactions that are no longer pending are counted and left
+     * unchanged, which makes the request idempotent.
+     * In LEDGER mode and with the payment journal enabled, every approval is its own ledger entry or journal
+     * record, so the transactions of a chunk are decided one by one.
+     *
+     * @param request The bulk approval request containing the status and the transactions to decide.
+     * @return The summary of the decisions.
+     * @throws WalletTransactionException If the request selects no transactions, selects them both ways,
+     *                                    or asks for the PENDING status.
+     */
+    @Override
+    @Timed("wallet.service")
+    public BulkApprovalResponse approveTransactions(BulkApprovalRequest request) {
+        if (request.hasTransactionIds() == request.hasCriteria()) {
+            throw new WalletTransactionException("Either transaction IDs or selection criteria are required");
+        }
+        if (request.getStatus() == TransactionStatus.PENDING) {
+            throw new WalletTransactionException("Transactions can only be approved or denied");
+        }
+
+        int chunkSize = Math.max(1, bulkApprovalProperties.getChunkSize());
+        int matched = 0;
+        int existing = 0;
+        int decided = 0;
+        if (request.hasTransactionIds()) {
+            List<Long> ids = request.getTransactionIds().stream().distinct().toList();
+            for (int from = 0; from < ids.size(); from += chunkSize) {
+                List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + chunkSize));
+                existing += (int) transactionRepository.countByIdIn(chunk);
+                decided += decideChunk(chunk, request.getStatus());
+            }
+            matched = ids.size();
+        } else {
+            long upToId = transactionRepository.findMaxId();
+            long afterId = 0;
+            List<Long> chunk;
+            while (!(chunk = transactionRepository.findPendingIds(request.getWalletId(), request.getMinAmount(),
+                    request.getMaxAmount(), request.getCreatedBefore(), afterId, upToId, chunkSize)).isEmpty()) {
+                matched += chunk.size();
+                existing += chunk.size();
+                decided += decideChunk(chunk, request.getStatus());
+                afterId = chunk.get(chunk.size() - 1);
+            }
+        }
+
+        paymentMetrics.recordDecisions(request.getStatus(), decided);
+        return BulkApprovalResponse.builder()
+                .status(request.getStatus().name())
+                .matched(matched)
+                .decided(decided)
+                .alreadyDecided(existing - decided)
+                .notFound(matched - existing)
+                .build();
+    }
+
+    /**
+     * Decides the still pending transactions of one chunk.
+     *
+     * @param ids The IDs of the chunk's transactions.
+     * @param status The decided status.
+     * @return The number of transactions this call decided.
+     */
+    private int decideChunk(List<Long> ids, TransactionStatus status) {
+        if (paymentJournal.isEnabled()) {
+            return journalDecisions(ids, status);
+        }
+        if (paymentEngine.lockingMode() == LockingMode.LEDGER) {
+            int decided = 0;
+            for (Long id : ids) {
+                decided += decideInLedger(id, status) ? 1 : 0;
+            }
+            return decided;
+        }
+        return paymentEngine.execute(() -> applyDecisions(ids, status));
+    }
+
+    /**
+     * Decides the still pending transactions among the given ones within the current transaction,
+     * with set-based statements.
+     *
+     * @param ids The IDs of the transactions.
+     * @param status The decided status.
+     * @return The number of transactions decided.
+     */
+    private int applyDecisions(List<Long> ids, TransactionStatus status) {
+        List<Long> pending = transactionRepository.lockPendingIds(ids);
+        if (pending.isEmpty()) {
+            return 0;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        String user = Auditable.currentUser();
+        transactionRepository.updateStatuses(pending, status, now, user);
+        if (status == TransactionStatus.APPROVED) {
+            // take the wallet and summary rows in the order this mode's payments take them
+            if (paymentEngine.lockingMode() == LockingMode.PESSIMISTIC) {
+                walletRepository.addApprovedAmounts(pending, now, user);
+                customerBalanceService.applyChanges(transactionRepository.sumApprovalChanges(pending));
+            } else {
+                customerBalanceService.applyChanges(transactionRepository.sumApprovalChanges(pending));
+                walletRepository.addApprovedAmounts(pending, now, user);
+            }
+        }
+        return pending.size();
+    }
+
+    /**
+     * Decides a pending transaction by appending its usable balance change to the wallet's ledger,
+     * holding the wallet's stripe like the wallet's payments do.
+     *
+     * @param transactionId The ID of the transaction.
+     * @param status The decided status.
+     * @return True if the transaction was pending and is now decided.
+     */
+    private boolean decideInLedger(Long transactionId, TransactionStatus status) {
+        Optional<Long> walletId = transactionRepository.findWalletIdById(transactionId);
+        if (walletId.isEmpty()) {
+            return false;
+        }
+        return paymentEngine.execute(walletId.get(), () -> {
+            Transaction transaction = transactionRepository.findById(transactionId)
+                    .orElseThrow(() -> new WalletNotFoundException("Transaction not found"));
+            if (transaction.getStatus() != TransactionStatus.PENDING) {
+                return false;
+            }
+            if (status == TransactionStatus.APPROVED) {
+                Wallet wallet = transaction.getWallet();
+                ledgerService.append(wallet, ledgerService.currentBalance(wallet), transaction, BigDecimal.ZERO,
+                        usableDeltaOf(transaction).toBigDecimal());
+            }
+            transaction.setStatus(status);
+            return true;
+        });
+    }
+
+    /**
+     * Journals the decisions of the pending transactions among the given ones, then waits for all of them,
+     * so that they share group commits.
+     *
+     * @param ids The IDs of the transactions.
+     * @param status The decided status.
+     * @return The number of transactions this call decided.
+     */
+    private int journalDecisions(List<Long> ids, TransactionStatus status) {
+        List<CompletableFuture<JournalDecision>> decisions = new ArrayList<>(ids.size());
+        for (Transaction transaction : transactionRepository.findAllById(ids)) {
+            if (transaction.getStatus() == TransactionStatus.PENDING) {
+                Money usableDelta = status == TransactionStatus.APPROVED ? usableDeltaOf(transaction) : Money.ZERO;
+                decisions.add(paymentJournal.appendDecision(transaction.getWallet().getId(), transaction.getId(),
+                        status, usableDelta));
+            }
+        }
+        int decided = 0;
+        for (CompletableFuture<JournalDecision> decision : decisions) {
+            decided += PaymentJournal.await(decision).appended() ? 1 : 0;
+        }
+        return decided;
+    }
+
+    /**
+     * Applies an approval decision to a transaction and its wallet within the current transaction.
+     *
+     * @param request The transaction approval request containing the transaction ID and status.
+     * @return The updated transaction response, and whether this call decided the transaction.
+     * @throws WalletNotFoundException If the transaction is not found.
+     */
+    private Approval applyApproval(TransactionApprovalRequest request) {
+        if (paymentEngine.lockingMode() == LockingMode.PESSIMISTIC) {
+            // lock the wallet row first so the wallet loaded with the transaction is the locked one
+            transactionRepository.findWalletIdById(request.getTransactionId())
+                    .ifPresent(walletRepository::findByIdForUpdate);
+        }
+
+        Transaction transaction = transactionRepository.findWithWalletById(request.getTransactionId())
                 .orElseThrow(() -> new WalletNotFoundException("Transaction not found"));
+        if (transaction.getStatus() != TransactionStatus.PENDING) {
+            // a concurrent or repeated approval already decided it, so its balance change must not apply twice
+            return new Approval(transactionMapper.toTransactionResponse(transaction), false);
+        }
 
         Wallet wallet = transaction.getWallet();
 
         if (request.getStatus() == TransactionStatus.APPROVED) {
-            if (transaction.getType() == TransactionType.DEPOSIT) {
-                wallet.setUsableBalance(wallet.getUsableBalance().add(transaction.getAmount()));
-            } else if (transaction.getType() == TransactionType.WITHDRAW) {
-                wallet.setUsableBalance(wallet.getUsableBalance().subtract(transaction.getAmount()));
+            Money usableDelta = usableDeltaOf(transaction);
+            if (paymentEngine.lockingMode() == LockingMode.LEDGER) {
+                ledgerService.append(wallet, ledgerService.currentBalance(wallet), transaction, BigDecimal.ZERO,
+                        usableDelta.toBigDecimal());
+            } else {
+                wallet.setUsableBalance(wallet.getUsableBalance().plus(usableDelta));
+                customerBalanceService.applyChange(new BalanceChange(wallet.getCustomer().getId(), wallet.getCurrency(),
+                        BigDecimal.ZERO, usableDelta.toBigDecimal()));
             }
         }
 
         transaction.setStatus(request.getStatus());
         walletRepository.save(wallet);
-        transactionRepository.save(transaction);
+        // flushed here rather than at commit so that the response carries the audit fields of the update
+        transactionRepository.saveAndFlush(transaction);
+
+        return new Approval(transactionMapper.toTransactionResponse(transaction), true);
+    }
+
+    /**
+     * Journals an approval decision and returns once it is durable. The transaction must already have been
+     * written to the database; a transaction that was already decided keeps its earlier status.
+     *
+     * @param request The transaction approval request containing the transaction ID and status.
+     * @return The transaction response with the transaction's status.
+     * @throws WalletNotFoundException If the transaction is not found.
+     */
+    private TransactionResponse journalApproval(TransactionApprovalRequest request) {
+        Transaction transaction = transactionRepository.findById(request.getTransactionId())
+                .orElseThrow(() -> new WalletNotFoundException("Transaction not found"));
+        Money usableDelta = request.getStatus() == TransactionStatus.APPROVED ? usableDeltaOf(transaction) : Money.ZERO;
 
-        return findTransaction(wallet.getId(), transaction.getId());
+        JournalDecision decision = PaymentJournal.await(paymentJournal.appendDecision(transaction.getWallet().getId(),
+                transaction.getId(), request.getStatus(), usableDelta));
+        paymentMetrics.recordDecisions(request.getStatus(), decision.appended() ? 1 : 0);
+        transaction.setStatus(decision.status());
+        return transactionMapper.toTransactionResponse(transaction);
     }
 
-}
\ No newline at end of file
+    /**
+     * Computes the change an approval makes to the usable balance of the transaction's wallet.
+     *
+     * @param transaction The approved transaction.
+     * @return The transaction amount, negated for withdrawals.
+     */
+    private static Money usableDeltaOf(Transaction transaction) {
+        if (transaction.getType() == TransactionType.DEPOSIT) {
+            return transaction.getAmount();
+        }
+        if (transaction.getType() == TransactionType.WITHDRAW) {
+            return transaction.getAmount().negate();
+        }
+        return Money.ZERO;
+    }
+
+    /**
+     * Resolves the effective page size from the requested one.
+     *
+     * @param size The requested page size, or null.
+     * @return The page size between 1 and the configured maximum.
+     */
+    private int resolvePageSize(Integer size) {
+        if (size == null) {
+            return transactionHistoryProperties.getDefaultPageSize();
+        }
+        return Math.max(1, Math.min(size, transactionHistoryProperties.getMaxPageSize()));
+    }
+
+    private static String encodeCursor(Long lastId) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(lastId.toString().getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static Long decodeCursor(String cursor) {
+        try {
+            return Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Invalid cursor");
+        }
+    }
+
+    /**
+     * The outcome of a single approval: the transaction's response, and whether this approval decided it.
+     */
+    private record Approval(TransactionResponse response, boolean decided) {
+    }
+}
@@ -1,25 +1,60 @@
 package com.inghubs.walletservice.service.impl;
 
 import com.inghubs.walletservice.exception.*;
+import com.inghubs.walletservice.configuration.BatchPaymentProperties;
+import com.inghubs.walletservice.configuration.WalletSearchProperties;
 import com.inghubs.walletservice.mapper.WalletMapper;
+import com.inghubs.walletservice.model.dto.BalanceChange;
+import com.inghubs.walletservice.model.dto.BatchPaymentItem;
+import com.inghubs.walletservice.model.dto.BatchPaymentRequest;
+import com.inghubs.walletservice.model.dto.BatchPaymentResponse;
+import com.inghubs.walletservice.model.dto.BatchPaymentResult;
 import com.inghubs.walletservice.model.dto.CreateWalletRequest;
 import com.inghubs.walletservice.model.dto.CreateWalletResponse;
+import com.inghubs.walletservice.model.dto.CustomerBalanceResponse;
+import com.inghubs.walletservice.model.dto.LedgerBalance;
+import com.inghubs.walletservice.model.dto.Money;
 import com.inghubs.walletservice.model.dto.PaymentRequest;
 import com.inghubs.walletservice.model.dto.PaymentResponse;
+import com.inghubs.walletservice.model.dto.WalletPageResponse;
+import com.inghubs.walletservice.model.dto.WalletSearchCursor;
 import com.inghubs.walletservice.model.dto.enums.Currency;
 import com.inghubs.walletservice.model.dto.enums.TransactionStatus;
 import com.inghubs.walletservice.model.dto.enums.TransactionType;
+import com.inghubs.walletservice.model.dto.enums.WalletSort;
+import com.inghubs.walletservice.model.entity.Auditable;
 import com.inghubs.walletservice.model.entity.Customer;
+import com.inghubs.walletservice.model.entity.Transaction;
 import com.inghubs.walletservice.model.entity.Wallet;
 import com.inghubs.walletservice.repository.CustomerRepository;
 import com.inghubs.walletservice.repository.WalletRepository;
+import com.inghubs.walletservice.security.WalletOwnershipIndex;
+import com.inghubs.walletservice.service.CustomerBalanceService;
+import com.inghubs.walletservice.service.LedgerService;
 import com.inghubs.walletservice.service.TransactionService;
 import com.inghubs.walletservice.service.WalletService;
+import com.inghubs.walletservice.service.engine.CoalescedPayment;
+import com.inghubs.walletservice.service.engine.LockingMode;
+import com.inghubs.walletservice.service.engine.PaymentCoalescer;
+import com.inghubs.walletservice.service.engine.PaymentEngine;
+import com.inghubs.walletservice.service.journal.JournalReceipt;
+import com.inghubs.walletservice.service.journal.JournalRecord;
+import com.inghubs.walletservice.service.journal.PaymentJournal;
+import com.inghubs.walletservice.service.limit.VelocityLimiter;
+import com.inghubs.walletservice.service.limit.VelocityPermit;
+import com.inghubs.walletservice.service.metrics.PaymentMetrics;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
-import java.util.List;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Implementation of the WalletService interface.
@@ -29,29 +64,48 @@ import java.util.List;
 @RequiredArgsConstructor
 public class WalletServiceImpl implements WalletService {
 
+    /**
+     * Payments above this amount wait for approval before they reach the usable balance.
+     */
+    private static final Money APPROVAL_THRESHOLD = Money.of(1000);
+
     private final WalletRepository walletRepository;
     private final CustomerRepository customerRepository;
     private final TransactionService transactionService;
     private final WalletMapper walletMapper;
+    private final PaymentEngine paymentEngine;
+    private final BatchPaymentProperties batchPaymentProperties;
+    private final WalletOwnershipIndex walletOwnershipIndex;
+    private final WalletSearchProperties walletSearchProperties;
+    private final CustomerBalanceService customerBalanceService;
+    private final LedgerService ledgerService;
+    private final PaymentJournal paymentJournal;
+    private final PaymentCoalescer paymentCoalescer;
+    private final VelocityLimiter velocityLimiter;
+    private final PaymentMetrics paymentMetrics;
 
     /**
      * Creates a new wallet for a customer.
+     * The customer's balance summary row for the wallet's currency is opened if it does not exist yet.
      *
      * @param request The request containing wallet details and customer ID.
      * @return The response containing the created wallet details.
      * @throws CustomerNotFoundException If the customer is not found.
      */
     @Override
+    @Timed("wallet.service")
     public CreateWalletResponse createWallet(CreateWalletRequest request) {
         Customer customer = customerRepository.findById(request.getCustomerId())
                 .orElseThrow(() -> new CustomerNotFoundException("Customer not found"));
 
         Wallet wallet = walletMapper.toEntity(request);
         wallet.setCustomer(customer);
-        wallet.setBalance(BigDecimal.ZERO);
-        wallet.setUsableBalance(BigDecimal.ZERO);
+        wallet.setBalance(Money.ZERO);
+        wallet.setUsableBalance(Money.ZERO);
 
+        customerBalanceService.openBalance(customer.getId(), wallet.getCurrency());
         Wallet saved = walletRepository.save(wallet);
+        walletOwnershipIndex.register(saved.getId(), customer.getId());
         return walletMapper.toResponse(saved);
     }
 
@@ -65,47 +119,442 @@ public class WalletServiceImpl implements WalletService {
      * @return A list of wallet responses matching the filters.
      */
     @Override
+    @Timed("wallet.service")
     public List<CreateWalletResponse> listWallets(Long customerId, Currency currency, BigDecimal minAmount, BigDecimal maxAmount) {
-        List<Wallet> wallets = walletRepository.findWalletsByFilters(customerId, currency, minAmount, maxAmount);
-        return wallets.stream()
-                .map(walletMapper::toResponse)
-                .toList();
+        return walletRepository.findWalletResponsesByFilters(customerId, currency, minAmount, maxAmount);
+    }
+
+    /**
+     * Finds one page of wallets matching the filters, in the requested order.
+     * Pages are addressed by keyset on the sort columns, so a deep page costs the same index range
+     * scan as the first one.
+     *
+     * @param customerId The ID of the customer (optional).
+     * @param currency The currency of the wallets (optional).
+     * @param minAmount The minimum balance of the wallets (optional).
+     * @param maxAmount The maximum balance of the wallets (optional).
+     * @param sort The order of the results, or null for ascending wallet ID.
+     * @param cursor The cursor returned with the previous page, or null for the first page.
+     * @param size The requested page size, or null for the default; capped at the configured maximum.
+     * @return The page of wallets and the cursor of the next page, which is null on the last page.
+     * @throws InvalidCursorException If the cursor is malformed or was issued for another sort.
+     */
+    @Override
+    public WalletPageResponse searchWallets(Long customerId, Currency currency, BigDecimal minAmount, BigDecimal maxAmount,
+                                            WalletSort sort, String cursor, Integer size) {
+        WalletSort order = sort == null ? WalletSort.ID_ASC : sort;
+        int pageSize = resolvePageSize(size);
+        WalletSearchCursor after = cursor == null || cursor.isBlank() ? null : decodeCursor(cursor, order);
+        List<CreateWalletResponse> wallets = walletRepository.searchWallets(customerId, currency, minAmount, maxAmount,
+                order, after, pageSize + 1);
+
+        boolean hasNext = wallets.size() > pageSize;
+        List<CreateWalletResponse> page = hasNext ? wallets.subList(0, pageSize) : wallets;
+        return WalletPageResponse.builder()
+                .items(page)
+                .nextCursor(hasNext ? encodeCursor(page.get(pageSize - 1), order) : null)
+                .build();
+    }
+
+    /**
+     * Returns a customer's total and usable balance per currency.
+     * The totals are read from the incrementally maintained summary, so the cost does not grow with
+     * the number of wallets the customer holds.
+     *
+     * @param customerId The ID of the customer.
+     * @return One balance summary per currency the customer holds wallets in.
+     */
+    @Override
+    public List<CustomerBalanceResponse> getBalanceSummary(Long customerId) {
+        return customerBalanceService.findBalances(customerId);
     }
 
     /**
      * Processes a deposit transaction for a wallet.
+     * Concurrent payments on the same wallet are coordinated by the payment engine's locking mode,
+     * or by the payment journal when it is enabled. With coalescing enabled, the deposit is committed
+     * together with other payments that arrive at about the same time.
      *
      * @param request The payment request containing wallet ID and amount.
      * @return The response containing updated wallet details and transaction status.
+     * @throws VelocityLimitExceededException If the deposit would exceed a velocity limit.
      */
     @Override
+    @Timed("wallet.service")
     public PaymentResponse makeDeposit(PaymentRequest request) {
-        return processPayment(request, TransactionType.DEPOSIT, true);
+        return recordPayment(TransactionType.DEPOSIT, routePayment(request, TransactionType.DEPOSIT));
     }
 
     /**
      * Processes a withdrawal transaction for a wallet.
+     * The payment engine's locking mode guarantees that the balance check and the balance update
+     * see the same state, even with concurrent payments on the same wallet. With the payment journal
+     * enabled, the withdrawal is checked against the wallet's journaled balances instead. With coalescing
+     * enabled, the withdrawal is committed together with other payments that arrive at about the same time.
      *
      * @param request The payment request containing wallet ID and amount.
      * @return The response containing updated wallet details and transaction status.
      * @throws WalletNotFoundException If the wallet is not found.
      * @throws WithdrawNotAllowedException If the withdrawal is not allowed.
      * @throws InsufficientBalanceException If the wallet has insufficient balance for withdrawal.
+     * @throws VelocityLimitExceededException If the withdrawal would exceed a velocity limit.
      */
     @Override
+    @Timed("wallet.service")
     public PaymentResponse makeWithdraw(PaymentRequest request) {
-        Wallet wallet = walletRepository.findById(request.getWalletId())
-                .orElseThrow(() -> new WalletNotFoundException("Wallet not found"));
+        return recordPayment(TransactionType.WITHDRAW, routePayment(request, TransactionType.WITHDRAW));
+    }
 
-        if (!wallet.isActiveForWithdraw()) {
-            throw new WithdrawNotAllowedException("Withdraw is not allowed for this wallet");
+    /**
+     * Processes a batch of deposits and withdrawals, possibly across many wallets.
+     * Items are applied in request order, one database transaction per chunk. All wallets of a
+     * chunk are loaded with one query and their updates and transaction inserts are flushed
+     * together at commit, using JDBC batching. A rejected item does not affect the other items;
+     * a chunk whose commit keeps conflicting with concurrent updates fails as a whole.
+     * With the payment journal enabled, all items are journaled first and then awaited together.
+     * With velocity limits enabled, items that would exceed a limit fail without being applied.
+     *
+     * @param request The batch request containing the payments.
+     * @return The response containing one result per item, in request order.
+     */
+    @Override
+    @Timed("wallet.service")
+    public BatchPaymentResponse makeBatchPayments(BatchPaymentRequest request) {
+        List<BatchPaymentItem> items = request.getItems();
+        List<BatchPaymentResult> results = velocityLimiter.isEnabled() ? processLimitedBatch(items) : processBatch(items);
+        for (BatchPaymentResult result : results) {
+            if (result.isSucceeded()) {
+                recordPayment(result.getType(), result.getPayment());
+            }
         }
 
-        if (wallet.getUsableBalance().compareTo(request.getAmount()) < 0) {
-            throw new InsufficientBalanceException("Insufficient balance for withdrawal");
+        int succeeded = (int) results.stream().filter(BatchPaymentResult::isSucceeded).count();
+        return BatchPaymentResponse.builder()
+                .total(results.size())
+                .succeeded(succeeded)
+                .failed(results.size() - succeeded)
+                .results(results)
+                .build();
+    }
+
+    /**
+     * Applies the items of a batch, journaled or one database transaction per chunk.
+     *
+     * @param items The items of the batch.
+     * @return The results of the items, in order.
+     */
+    private List<BatchPaymentResult> processBatch(List<BatchPaymentItem> items) {
+        if (paymentJournal.isEnabled()) {
+            return processJournaledBatch(items);
+        }
+        int chunkSize = Math.max(1, batchPaymentProperties.getChunkSize());
+        List<BatchPaymentResult> results = new ArrayList<>(items.size());
+        for (int from = 0; from < items.size(); from += chunkSize) {
+            int offset = from;
+            List<BatchPaymentItem> chunk = items.subList(from, Math.min(items.size(), from + chunkSize));
+            try {
+                results.addAll(paymentEngine.execute(() -> processChunk(chunk, offset)));
+            } catch (ConcurrentWalletUpdateException | DataAccessException e) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    results.add(failedResult(offset + i, chunk.get(i), e.getMessage()));
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Counts the items of a batch against the velocity limits and applies the admitted ones.
+     * Items over a limit fail; admitted items that fail no longer count against the limits.
+     *
+     * @param items The items of the batch.
+     * @return The results of the items, in request order.
+     */
+    private List<BatchPaymentResult> processLimitedBatch(List<BatchPaymentItem> items) {
+        BatchPaymentResult[] results = new BatchPaymentResult[items.size()];
+        List<BatchPaymentItem> admitted = new ArrayList<>(items.size());
+        List<Integer> admittedIndexes = new ArrayList<>(items.size());
+        List<VelocityPermit> permits = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            BatchPaymentItem item = items.get(i);
+            try {
+                permits.add(velocityLimiter.acquire(item.getWalletId(), item.getType(), item.getAmount()));
+                admitted.add(item);
+                admittedIndexes.add(i);
+            } catch (VelocityLimitExceededException e) {
+                results[i] = failedResult(i, item, e.getMessage());
+            }
+        }
+
+        for (BatchPaymentResult result : processBatch(admitted)) {
+            if (!result.isSucceeded()) {
+                permits.get(result.getIndex()).release();
+            }
+            result.setIndex(admittedIndexes.get(result.getIndex()));
+            results[result.getIndex()] = result;
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Applies one chunk of a batch within the current transaction.
+     *
+     * @param chunk The items of the chunk.
+     * @param offset The index of the chunk's first item within the batch.
+     * @return The results of the chunk's items, in order.
+     */
+    private List<BatchPaymentResult> processChunk(List<BatchPaymentItem> chunk, int offset) {
+        List<PaymentOutcome> outcomes = applyChunk(chunk);
+        List<BatchPaymentResult> results = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            BatchPaymentItem item = chunk.get(i);
+            PaymentOutcome outcome = outcomes.get(i);
+            results.add(outcome.rejection() != null
+                    ? failedResult(offset + i, item, outcome.rejection().getMessage())
+                    : BatchPaymentResult.builder()
+                            .index(offset + i)
+                            .walletId(item.getWalletId())
+                            .type(item.getType())
+                            .succeeded(true)
+                            .payment(outcome.payment())
+                            .build());
+        }
+        return results;
+    }
+
+    /**
+     * Commits a group of coalesced payments in one transaction, then completes each payment's response.
+     * A payment rejected by its wallet does not affect the others. If the group as a whole cannot be
+     * committed, each payment is retried in a transaction of its own, so that no payment fails
+     * because of another member of its group.
+     *
+     * @param payments The payments of the group, in arrival order.
+     */
+    private void processCoalescedPayments(List<CoalescedPayment> payments) {
+        if (payments.size() == 1) {
+            completeAlone(payments.get(0));
+            return;
+        }
+
+        List<BatchPaymentItem> items = payments.stream()
+                .map(payment -> BatchPaymentItem.builder()
+                        .type(payment.type())
+                        .walletId(payment.request().getWalletId())
+                        .amount(payment.request().getAmount())
+                        .source(payment.request().getSource())
+                        .oppositeParty(payment.request().getOppositeParty())
+                        .build())
+                .toList();
+        List<PaymentOutcome> outcomes;
+        try {
+            outcomes = paymentEngine.execute(() -> applyChunk(items));
+        } catch (ConcurrentWalletUpdateException | DataAccessException e) {
+            payments.forEach(this::completeAlone);
+            return;
+        }
+        for (int i = 0; i < payments.size(); i++) {
+            PaymentOutcome outcome = outcomes.get(i);
+            if (outcome.rejection() != null) {
+                payments.get(i).response().completeExceptionally(outcome.rejection());
+            } else {
+                payments.get(i).response().complete(outcome.payment());
+            }
+        }
+    }
+
+    private void completeAlone(CoalescedPayment payment) {
+        try {
+            payment.response().complete(executePayment(payment.request(), payment.type()));
+        } catch (RuntimeException e) {
+            payment.response().completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Applies a list of payments within the current transaction. Wallets are loaded with one query and
+     * their updates and transaction inserts are flushed together at commit, using JDBC batching.
+     *
+     * @param chunk The payments.
+     * @return The outcome of each payment, in order.
+     */
+    private List<PaymentOutcome> applyChunk(List<BatchPaymentItem> chunk) {
+        Set<Long> walletIds = chunk.stream().map(BatchPaymentItem::getWalletId).collect(Collectors.toSet());
+        List<Wallet> loaded = paymentEngine.lockingMode() == LockingMode.PESSIMISTIC
+                ? walletRepository.findAllByIdForUpdate(walletIds)
+                : walletRepository.findAllById(walletIds);
+        Map<Long, Wallet> wallets = loaded.stream().collect(Collectors.toMap(Wallet::getId, Function.identity()));
+        boolean ledger = paymentEngine.lockingMode() == LockingMode.LEDGER;
+        // read every ledger tail before the first append, so the entries of the chunk are flushed together at commit
+        Map<Long, LedgerBalance> ledgerBalances = ledger ? new HashMap<>(ledgerService.currentBalances(loaded)) : Map.of();
+
+        List<PaymentOutcome> outcomes = new ArrayList<>(chunk.size());
+        List<BalanceChange> balanceChanges = new ArrayList<>(chunk.size());
+        for (BatchPaymentItem item : chunk) {
+            try {
+                Wallet wallet = wallets.get(item.getWalletId());
+                PaymentResponse payment;
+                if (ledger) {
+                    payment = processLedgerBatchItem(wallet, item, ledgerBalances);
+                } else {
+                    payment = processBatchItem(wallet, item);
+                    balanceChanges.add(balanceChange(wallet, item.getAmount(), item.getType() == TransactionType.DEPOSIT));
+                }
+                outcomes.add(new PaymentOutcome(payment, null));
+            } catch (InvalidPaymentAmountException | WalletNotFoundException
+                     | WithdrawNotAllowedException | InsufficientBalanceException e) {
+                outcomes.add(new PaymentOutcome(null, e));
+            }
+        }
+        if (!ledger) {
+            customerBalanceService.applyChanges(balanceChanges);
+        }
+        return outcomes;
+    }
+
+    /**
+     * Applies a single batch item to its already loaded wallet.
+     *
+     * @param wallet The wallet of the item, or null if it does not exist.
+     * @param item The batch item.
+     * @return The response containing updated wallet details and transaction status.
+     */
+    private PaymentResponse processBatchItem(Wallet wallet, BatchPaymentItem item) {
+        validateAmount(item.getAmount());
+        if (wallet == null) {
+            throw new WalletNotFoundException("Wallet not found");
         }
 
-        return processPayment(wallet, request, TransactionType.WITHDRAW, false);
+        boolean isAddition = item.getType() == TransactionType.DEPOSIT;
+        if (!isAddition) {
+            validateWithdraw(wallet, item.getAmount());
+        }
+
+        return processPayment(wallet, item.toPaymentRequest(), item.getType(), isAddition);
+    }
+
+    /**
+     * Applies a single batch item by appending it to its wallet's ledger.
+     *
+     * @param wallet The wallet of the item, or null if it does not exist.
+     * @param item The batch item.
+     * @param ledgerBalances The current ledger balances of the chunk's wallets, advanced by each applied item.
+     * @return The response containing updated wallet details and transaction status.
+     */
+    private PaymentResponse processLedgerBatchItem(Wallet wallet, BatchPaymentItem item, Map<Long, LedgerBalance> ledgerBalances) {
+        validateAmount(item.getAmount());
+        if (wallet == null) {
+            throw new WalletNotFoundException("Wallet not found");
+        }
+
+        PaymentRequest request = item.toPaymentRequest();
+        TransactionStatus transactionStatus = resolveTransactionStatus(request.getAmount());
+        LedgerBalance balance = appendPayment(wallet, ledgerBalances.get(wallet.getId()), request,
+                item.getType(), item.getType() == TransactionType.DEPOSIT);
+        ledgerBalances.put(wallet.getId(), balance);
+        return toPaymentResponse(wallet, balance, transactionStatus);
+    }
+
+    /**
+     * Journals every item of a batch before waiting for any of them, so that the items share group
+     * commits instead of each waiting for its own.
+     *
+     * @param items The items of the batch.
+     * @return The results of the items, in request order.
+     */
+    private List<BatchPaymentResult> processJournaledBatch(List<BatchPaymentItem> items) {
+        List<CompletableFuture<JournalReceipt>> receipts = new ArrayList<>(items.size());
+        String[] errors = new String[items.size()];
+        for (int i = 0; i < items.size(); i++) {
+            BatchPaymentItem item = items.get(i);
+            try {
+                validateAmount(item.getAmount());
+                receipts.add(journalPayment(item.toPaymentRequest(), item.getType(), item.getType() == TransactionType.DEPOSIT));
+            } catch (InvalidPaymentAmountException | WalletNotFoundException | WithdrawNotAllowedException
+                     | InsufficientBalanceException | PaymentJournalException e) {
+                receipts.add(null);
+                errors[i] = e.getMessage();
+            }
+        }
+
+        List<BatchPaymentResult> results = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            BatchPaymentItem item = items.get(i);
+            if (receipts.get(i) == null) {
+                results.add(failedResult(i, item, errors[i]));
+                continue;
+            }
+            try {
+                JournalReceipt receipt = PaymentJournal.await(receipts.get(i));
+                results.add(BatchPaymentResult.builder()
+                        .index(i)
+                        .walletId(item.getWalletId())
+                        .type(item.getType())
+                        .succeeded(true)
+                        .payment(toPaymentResponse(receipt, resolveTransactionStatus(item.getAmount())))
+                        .build());
+            } catch (PaymentJournalException e) {
+                results.add(failedResult(i, item, e.getMessage()));
+            }
+        }
+        return results;
+    }
+
+    private BatchPaymentResult failedResult(int index, BatchPaymentItem item, String error) {
+        return BatchPaymentResult.builder()
+                .index(index)
+                .walletId(item.getWalletId())
+                .type(item.getType())
+                .succeeded(false)
+                .error(error)
+                .build();
+    }
+
+    /**
+     * Counts a completed payment by the status its transaction was recorded with.
+     *
+     * @param type The type of the payment.
+     * @param response The response of the payment.
+     * @return The response, unchanged.
+     */
+    private PaymentResponse recordPayment(TransactionType type, PaymentResponse response) {
+        paymentMetrics.recordPayment(type, TransactionStatus.valueOf(response.getTransactionStatus()));
+        return response;
+    }
+
+    /**
+     * Counts a single payment against the velocity limits, then processes it journaled, coalesced or in its
+     * own transaction. A payment that fails no longer counts against the limits.
+     *
+     * @param request The payment request containing wallet ID and amount.
+     * @param type The type of transaction (DEPOSIT or WITHDRAW).
+     * @return The response containing updated wallet details and transaction status.
+     */
+    private PaymentResponse routePayment(PaymentRequest request, TransactionType type) {
+        VelocityPermit permit = velocityLimiter.acquire(request.getWalletId(), type, request.getAmount());
+        try {
+            if (paymentJournal.isEnabled()) {
+                return processJournaledPayment(request, type, type == TransactionType.DEPOSIT);
+            }
+            if (paymentCoalescer.isEnabled()) {
+                return paymentCoalescer.submit(request, type, this::processCoalescedPayments);
+            }
+            return executePayment(request, type);
+        } catch (RuntimeException e) {
+            permit.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Processes a single payment in its own transaction, coordinated by the payment engine's locking mode.
+     *
+     * @param request The payment request containing wallet ID and amount.
+     * @param type The type of transaction (DEPOSIT or WITHDRAW).
+     * @return The response containing updated wallet details and transaction status.
+     */
+    private PaymentResponse executePayment(PaymentRequest request, TransactionType type) {
+        return paymentEngine.execute(request.getWalletId(),
+                () -> processPayment(request, type, type == TransactionType.DEPOSIT));
     }
 
     /**
@@ -117,16 +566,108 @@ public class WalletServiceImpl implements WalletService {
      * @return The response containing updated wallet details and transaction status.
      * @throws InvalidPaymentAmountException If the payment amount is invalid (less than or equal to zero).
      * @throws WalletNotFoundException If the wallet is not found.
+     * @throws WithdrawNotAllowedException If the withdrawal is not allowed.
+     * @throws InsufficientBalanceException If the wallet has insufficient balance for withdrawal.
      */
     private PaymentResponse processPayment(PaymentRequest request, TransactionType type, boolean isAddition) {
-        if (request.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
+        validateAmount(request.getAmount());
+
+        if (paymentEngine.lockingMode() == LockingMode.CONDITIONAL_UPDATE) {
+            return processConditionalPayment(request, type, isAddition);
+        }
+        if (paymentEngine.lockingMode() == LockingMode.LEDGER) {
+            return processLedgerPayment(request, type, isAddition);
+        }
+
+        Wallet wallet = loadWalletForUpdate(request.getWalletId());
+
+        if (!isAddition) {
+            validateWithdraw(wallet, request.getAmount());
+        }
+
+        PaymentResponse response = processPayment(wallet, request, type, isAddition);
+        customerBalanceService.applyChange(balanceChange(wallet, request.getAmount(), isAddition));
+        return response;
+    }
+
+    /**
+     * Decides a payment against the wallet's journaled balances and returns once its journal record
+     * is durable. The transaction and the balance updates reach the database later, from the journal.
+     *
+     * @param request The payment request containing wallet ID and amount.
+     * @param type The type of transaction (DEPOSIT or WITHDRAW).
+     * @param isAddition Indicates whether the transaction adds to the balance (true for deposit, false for withdraw).
+     * @return The response containing updated wallet details and transaction status.
+     * @throws PaymentJournalException If the payment could not be journaled.
+     */
+    private PaymentResponse processJournaledPayment(PaymentRequest request, TransactionType type, boolean isAddition) {
+        validateAmount(request.getAmount());
+        JournalReceipt receipt = PaymentJournal.await(journalPayment(request, type, isAddition));
+        return toPaymentResponse(receipt, resolveTransactionStatus(request.getAmount()));
+    }
+
+    /**
+     * Validates a payment against its wallet's journaled balances and appends it to the payment journal.
+     *
+     * @param request The payment request containing wallet ID and amount.
+     * @param type The type of transaction (DEPOSIT or WITHDRAW).
+     * @param isAddition Indicates whether the transaction adds to the balance (true for deposit, false for withdraw).
+     * @return A future completed with the wallet's balances after the payment once its record is durable.
+     */
+    private CompletableFuture<JournalReceipt> journalPayment(PaymentRequest request, TransactionType type, boolean isAddition) {
+        Money amount = request.getAmount();
+        TransactionStatus transactionStatus = resolveTransactionStatus(amount);
+        Money delta = isAddition ? amount : amount.negate();
+        Money usableDelta = transactionStatus == TransactionStatus.APPROVED ? delta : Money.ZERO;
+        return paymentJournal.append(request.getWalletId(), wallet -> {
+            if (!isAddition) {
+                validateWithdraw(wallet.isActiveForWithdraw(), wallet.getUsableBalance(), amount);
+            }
+            return JournalRecord.payment(wallet, request, type, transactionStatus, delta, usableDelta);
+        });
+    }
+
+    /**
+     * Ensures a payment amount is positive.
+     *
+     * @param amount The payment amount.
+     * @throws InvalidPaymentAmountException If the amount is less than or equal to zero.
+     */
+    private void validateAmount(Money amount) {
+        if (!amount.isPositive()) {
             throw new InvalidPaymentAmountException("Payment amount must be greater than zero.");
         }
+    }
 
-        Wallet wallet = walletRepository.findById(request.getWalletId())
-                .orElseThrow(() -> new WalletNotFoundException("Wallet not found"));
+    /**
+     * Ensures a withdrawal is allowed for a wallet and covered by its usable balance.
+     *
+     * @param wallet The wallet to withdraw from.
+     * @param amount The withdrawal amount.
+     * @throws WithdrawNotAllowedException If the withdrawal is not allowed.
+     * @throws InsufficientBalanceException If the wallet has insufficient balance for withdrawal.
+     */
+    private void validateWithdraw(Wallet wallet, Money amount) {
+        validateWithdraw(wallet.isActiveForWithdraw(), wallet.getUsableBalance(), amount);
+    }
 
-        return processPayment(wallet, request, type, isAddition);
+    /**
+     * Ensures a withdrawal is allowed and covered by the given usable balance.
+     *
+     * @param activeForWithdraw Whether the wallet allows withdrawals.
+     * @param usableBalance The wallet's current usable balance.
+     * @param amount The withdrawal amount.
+     * @throws WithdrawNotAllowedException If the withdrawal is not allowed.
+     * @throws InsufficientBalanceException If the wallet has insufficient balance for withdrawal.
+     */
+    private void validateWithdraw(boolean activeForWithdraw, Money usableBalance, Money amount) {
+        if (!activeForWithdraw) {
+            throw new WithdrawNotAllowedException("Withdraw is not allowed for this wallet");
+        }
+
+        if (usableBalance.isLessThan(amount)) {
+            throw new InsufficientBalanceException("Insufficient balance for withdrawal");
+        }
     }
 
     /**
@@ -139,31 +680,151 @@ public class WalletServiceImpl implements WalletService {
      * @return The response containing updated wallet details and transaction status.
      */
     private PaymentResponse processPayment(Wallet wallet, PaymentRequest request, TransactionType type, boolean isAddition) {
-        TransactionStatus transactionStatus;
+        TransactionStatus transactionStatus = resolveTransactionStatus(request.getAmount());
 
-        if (request.getAmount().compareTo(BigDecimal.valueOf(1000)) > 0) {
-            transactionStatus = TransactionStatus.PENDING;
-        } else {
-            transactionStatus = TransactionStatus.APPROVED;
-        }
-
-        BigDecimal amount = request.getAmount();
+        Money amount = request.getAmount();
 
         if (isAddition) {
-            wallet.setBalance(wallet.getBalance().add(amount));
+            wallet.setBalance(wallet.getBalance().plus(amount));
             if (transactionStatus == TransactionStatus.APPROVED) {
-                wallet.setUsableBalance(wallet.getUsableBalance().add(amount));
+                wallet.setUsableBalance(wallet.getUsableBalance().plus(amount));
             }
         } else {
-            wallet.setBalance(wallet.getBalance().subtract(amount));
+            wallet.setBalance(wallet.getBalance().minus(amount));
             if (transactionStatus == TransactionStatus.APPROVED) {
-                wallet.setUsableBalance(wallet.getUsableBalance().subtract(amount));
+                wallet.setUsableBalance(wallet.getUsableBalance().minus(amount));
             }
         }
 
         transactionService.processTransaction(wallet, request, transactionStatus, type);
         walletRepository.save(wallet);
 
+        return toPaymentResponse(wallet, transactionStatus);
+    }
+
+    /**
+     * Processes a payment by applying the balance delta with a single conditional update.
+     * The withdraw rules are evaluated by the update itself; the wallet is only read to build
+     * the response, or to tell why the update matched no row.
+     *
+     * @param request The payment request containing transaction details.
+     * @param type The type of transaction (DEPOSIT or WITHDRAW).
+     * @param isAddition Indicates whether the transaction adds to the balance (true for deposit, false for withdraw).
+     * @return The response containing updated wallet details and transaction status.
+     */
+    private PaymentResponse processConditionalPayment(PaymentRequest request, TransactionType type, boolean isAddition) {
+        TransactionStatus transactionStatus = resolveTransactionStatus(request.getAmount());
+        Money amount = request.getAmount();
+        Money usableAmount = transactionStatus == TransactionStatus.APPROVED ? amount : Money.ZERO;
+        LocalDateTime now = LocalDateTime.now();
+        String user = Auditable.currentUser();
+
+        // lock the summary row before the wallet row; batches and approvals flush their wallets at commit, after the summary
+        customerBalanceService.applyWalletChange(request.getWalletId(), (isAddition ? amount : amount.negate()).toBigDecimal(),
+                (isAddition ? usableAmount : usableAmount.negate()).toBigDecimal());
+        int updated = isAddition
+                ? walletRepository.addToBalance(request.getWalletId(), amount, usableAmount, now, user)
+                : walletRepository.subtractFromBalanceIfAvailable(request.getWalletId(), amount, usableAmount, now, user);
+
+        if (updated == 0) {
+            throw rejectionFor(request.getWalletId(), isAddition);
+        }
+
+        Wallet wallet = walletRepository.getReferenceById(request.getWalletId());
+        transactionService.processTransaction(wallet, request, transactionStatus, type);
+
+        return toPaymentResponse(wallet, transactionStatus);
+    }
+
+    /**
+     * Processes a payment by appending it to the wallet's ledger. The wallet row is read for its
+     * snapshot and withdraw flag but not updated, unless the new entry completes a snapshot interval.
+     *
+     * @param request The payment request containing transaction details.
+     * @param type The type of transaction (DEPOSIT or WITHDRAW).
+     * @param isAddition Indicates whether the transaction adds to the balance (true for deposit, false for withdraw).
+     * @return The response containing updated wallet details and transaction status.
+     */
+    private PaymentResponse processLedgerPayment(PaymentRequest request, TransactionType type, boolean isAddition) {
+        Wallet wallet = walletRepository.findById(request.getWalletId())
+                .orElseThrow(() -> new WalletNotFoundException("Wallet not found"));
+
+        LedgerBalance balance = appendPayment(wallet, ledgerService.currentBalance(wallet), request, type, isAddition);
+        return toPaymentResponse(wallet, balance, resolveTransactionStatus(request.getAmount()));
+    }
+
+    /**
+     * Validates a payment against a wallet's ledger balances, then records its transaction and ledger entry.
+     *
+     * @param wallet The wallet associated with the transaction.
+     * @param current The wallet's balances at its last ledger position.
+     * @param request The payment request containing transaction details.
+     * @param type The type of transaction (DEPOSIT or WITHDRAW).
+     * @param isAddition Indicates whether the transaction adds to the balance (true for deposit, false for withdraw).
+     * @return The wallet's balances after the payment.
+     */
+    private LedgerBalance appendPayment(Wallet wallet, LedgerBalance current, PaymentRequest request,
+                                        TransactionType type, boolean isAddition) {
+        Money amount = request.getAmount();
+        if (!isAddition) {
+            validateWithdraw(wallet.isActiveForWithdraw(), Money.of(current.usableBalance()), amount);
+        }
+
+        TransactionStatus transactionStatus = resolveTransactionStatus(amount);
+        Money delta = isAddition ? amount : amount.negate();
+        Money usableDelta = transactionStatus == TransactionStatus.APPROVED ? delta : Money.ZERO;
+
+        Transaction transaction = transactionService.processTransaction(wallet, request, transactionStatus, type);
+        return ledgerService.append(wallet, current, transaction, delta.toBigDecimal(), usableDelta.toBigDecimal());
+    }
+
+    /**
+     * Determines why a conditional balance update matched no wallet row.
+     *
+     * @param walletId The ID of the wallet.
+     * @param isAddition Indicates whether the rejected payment was a deposit.
+     * @return The exception describing the rejection.
+     */
+    private RuntimeException rejectionFor(Long walletId, boolean isAddition) {
+        Optional<Wallet> wallet = walletRepository.findById(walletId);
+        if (wallet.isEmpty()) {
+            return new WalletNotFoundException("Wallet not found");
+        }
+        if (!isAddition && !wallet.get().isActiveForWithdraw()) {
+            return new WithdrawNotAllowedException("Withdraw is not allowed for this wallet");
+        }
+        return new InsufficientBalanceException("Insufficient balance for withdrawal");
+    }
+
+    /**
+     * Determines the status of a new transaction; large amounts need an employee's approval.
+     *
+     * @param amount The payment amount.
+     * @return PENDING for amounts above the approval threshold, APPROVED otherwise.
+     */
+    private TransactionStatus resolveTransactionStatus(Money amount) {
+        if (amount.isGreaterThan(APPROVAL_THRESHOLD)) {
+            return TransactionStatus.PENDING;
+        }
+        return TransactionStatus.APPROVED;
+    }
+
+    /**
+     * Computes the change a payment makes to its wallet owner's balance summary.
+     *
+     * @param wallet The wallet of the payment.
+     * @param amount The payment amount.
+     * @param isAddition Indicates whether the payment adds to the balance.
+     * @return The balance summary change; pending payments do not change the usable balance.
+     */
+    private BalanceChange balanceChange(Wallet wallet, Money amount, boolean isAddition) {
+        Money delta = isAddition ? amount : amount.negate();
+        Money usableDelta = resolveTransactionStatus(amount) == TransactionStatus.APPROVED ? delta : Money.ZERO;
+        return new BalanceChange(wallet.getCustomer().getId(), wallet.getCurrency(), delta.toBigDecimal(),
+                usableDelta.toBigDecimal());
+    }
+
+    private PaymentResponse toPaymentResponse(Wallet wallet, TransactionStatus transactionStatus) {
         return PaymentResponse.builder()
                 .walletId(wallet.getId())
                 .currency(wallet.getCurrency().name())
@@ -173,6 +834,40 @@ public class WalletServiceImpl implements WalletService {
                 .build();
     }
 
+    private PaymentResponse toPaymentResponse(Wallet wallet, LedgerBalance balance, TransactionStatus transactionStatus) {
+        return PaymentResponse.builder()
+                .walletId(wallet.getId())
+                .currency(wallet.getCurrency().name())
+                .totalBalance(Money.of(balance.balance()))
+                .usableBalance(Money.of(balance.usableBalance()))
+                .transactionStatus(transactionStatus.name())
+                .build();
+    }
+
+    private PaymentResponse toPaymentResponse(JournalReceipt receipt, TransactionStatus transactionStatus) {
+        return PaymentResponse.builder()
+                .walletId(receipt.walletId())
+                .currency(receipt.currency().name())
+                .totalBalance(receipt.balance())
+                .usableBalance(receipt.usableBalance())
+                .transactionStatus(transactionStatus.name())
+                .build();
+    }
+
+    /**
+     * Loads a wallet that is about to be mutated, taking a row lock when running in pessimistic mode.
+     *
+     * @param walletId The ID of the wallet.
+     * @return The wallet entity.
+     * @throws WalletNotFoundException If the wallet is not found.
+     */
+    private Wallet loadWalletForUpdate(Long walletId) {
+        Optional<Wallet> wallet = paymentEngine.lockingMode() == LockingMode.PESSIMISTIC
+                ? walletRepository.findByIdForUpdate(walletId)
+                : walletRepository.findById(walletId);
+        return wallet.orElseThrow(() -> new WalletNotFoundException("Wallet not found"));
+    }
+
     /**
      * Checks if a wallet is owned by a specific customer.
      *
@@ -181,9 +876,40 @@ public class WalletServiceImpl implements WalletService {
      * @return True if the wallet is owned by the customer, false otherwise.
      */
     public boolean isWalletOwnedBy(Long walletId, Long customerId) {
-        return walletRepository.findById(walletId)
-                .map(w -> w.getCustomer().getId().equals(customerId))
-                .orElse(false);
+        return walletOwnershipIndex.isOwnedBy(walletId, customerId);
     }
 
+    private int resolvePageSize(Integer size) {
+        if (size == null) {
+            return walletSearchProperties.getDefaultPageSize();
+        }
+        return Math.max(1, Math.min(size, walletSearchProperties.getMaxPageSize()));
+    }
+
+    private static String encodeCursor(CreateWalletResponse last, WalletSort sort) {
+        String position = sort.isByBalance()
+                ? sort.name() + ":" + last.getBalance() + ":" + last.getWalletId()
+                : sort.name() + ":" + last.getWalletId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static WalletSearchCursor decodeCursor(String cursor, WalletSort sort) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII).split(":");
+            if (!parts[0].equals(sort.name()) || parts.length != (sort.isByBalance() ? 3 : 2)) {
+                throw new InvalidCursorException("Invalid cursor");
+            }
+            return sort.isByBalance()
+                    ? new WalletSearchCursor(Money.parse(parts[1]), Long.parseLong(parts[2]))
+                    : new WalletSearchCursor(null, Long.parseLong(parts[1]));
+        } catch (IllegalArgumentException | ArithmeticException e) {
+            throw new InvalidCursorException("Invalid cursor");
+        }
+    }
+
+    /**
+     * The outcome of one payment applied as part of a chunk: its response, or the reason it was rejected.
+     */
+    private record PaymentOutcome(PaymentResponse payment, RuntimeException rejection) {
+    }
 }
@@ -0,0 +1,107 @@
+package com.inghubs.walletservice.service.journal;
+
+import com.inghubs.walletservice.model.dto.BalanceChange;
+import com.inghubs.walletservice.model.dto.Money;
+import com.inghubs.walletservice.model.entity.Transaction;
+import com.inghubs.walletservice.repository.JournalCheckpointRepository;
+import com.inghubs.walletservice.repository.TransactionRepository;
+import com.inghubs.walletservice.repository.WalletRepository;
+import com.inghubs.walletservice.service.CustomerBalanceService;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Writes durable journal records to the database, one transaction per group of records.
+ * The balance changes of a group are combined per wallet and per balance summary row, so a wallet that
+ * received many payments since the last group is updated once. The journal checkpoint is advanced in the
+ * same transaction, which makes writing a group exactly-once across crashes.
+ */
+@Component
+public class JournalApplier {
+
+    static final String CHECKPOINT = "payments";
+
+    private final TransactionRepository transactionRepository;
+    private final WalletRepository walletRepository;
+    private final CustomerBalanceService customerBalanceService;
+    private final JournalCheckpointRepository journalCheckpointRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public JournalApplier(TransactionRepository transactionRepository, WalletRepository walletRepository,
+                          CustomerBalanceService customerBalanceService,
+                          JournalCheckpointRepository journalCheckpointRepository,
+                          PlatformTransactionManager transactionManager) {
+        this.transactionRepository = transactionRepository;
+        this.walletRepository = walletRepository;
+        this.customerBalanceService = customerBalanceService;
+        this.journalCheckpointRepository = journalCheckpointRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Returns the last journal sequence written to the database, creating the checkpoint if needed.
+     *
+     * @return The applied sequence, or 0 if nothing was written yet.
+     */
+    public long appliedSequence() {
+        journalCheckpointRepository.insertIfAbsent(CHECKPOINT);
+        return journalCheckpointRepository.findAppliedSequence(CHECKPOINT).orElse(0L);
+    }
+
+    /**
+     * Writes a group of consecutive journal records to the database in one transaction.
+     *
+     * @param entries The records, in sequence order.
+     * @throws IllegalStateException If the checkpoint already covers the group, i.e. it was written before.
+     */
+    public void apply(List<JournalEntry> entries) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Map<Long, BalanceChange> walletChanges = new TreeMap<>();
+            JournalRecord last = entries.get(entries.size() - 1).record();
+
+            for (JournalEntry entry : entries) {
+                JournalRecord record = entry.record();
+                if (record.isApproval()) {
+                    transactionRepository.updateStatus(record.transactionId(), record.status(), record.timestamp(), record.user());
+                } else {
+                    transactionRepository.save(toTransaction(record));
+                }
+                walletChanges.merge(record.walletId(), new BalanceChange(record.customerId(), record.currency(),
+                        record.balanceDelta().toBigDecimal(), record.usableDelta().toBigDecimal()), BalanceChange::plus);
+            }
+
+            // summary rows before wallet rows, in key order, as the synchronous payment paths do
+            customerBalanceService.applyChanges(walletChanges.values());
+            walletChanges.forEach((walletId, change) -> {
+                if (change.balanceDelta().signum() != 0 || change.usableDelta().signum() != 0) {
+                    walletRepository.addToBalance(walletId, Money.of(change.balanceDelta()), Money.of(change.usableDelta()),
+                            last.timestamp(), last.user());
+                }
+            });
+
+            long from = entries.get(0).sequence();
+            long to = entries.get(entries.size() - 1).sequence();
+            if (journalCheckpointRepository.advance(CHECKPOINT, from, to) == 0) {
+                throw new IllegalStateException("Journal records " + from + ".." + to + " were already applied");
+            }
+        });
+    }
+
+    private Transaction toTransaction(JournalRecord record) {
+        Transaction transaction = new Transaction();
+        transaction.setWallet(walletRepository.getReferenceById(record.walletId()));
+        transaction.setType(record.type());
+        transaction.setAmount(record.amount());
+        transaction.setOppositePartyType(record.source());
+        transaction.setOppositeParty(record.oppositeParty());
+        transaction.setStatus(record.status());
+        transaction.setCreatedDate(record.timestamp());
+        transaction.setCreatedBy(record.user());
+        return transaction;
+    }
+}
@@ -0,0 +1,12 @@
+package com.inghubs.walletservice.service.journal;
+
+import com.inghubs.walletservice.model.dto.enums.TransactionStatus;
+
+/**
+ * Acknowledgement of a journaled decision of a pending transaction.
+ *
+ * @param status The transaction's status.
+ * @param appended True if this decision was appended, false if the transaction had been decided before.
+ */
+public record JournalDecision(TransactionStatus status, boolean appended) {
+}
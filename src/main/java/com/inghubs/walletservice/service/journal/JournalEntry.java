@@ -0,0 +1,10 @@
+package com.inghubs.walletservice.service.journal;
+
+/**
+ * Journal record together with its position in the journal.
+ *
+ * @param sequence The gapless, increasing position of the record.
+ * @param record The journaled record.
+ */
+public record JournalEntry(long sequence, JournalRecord record) {
+}
@@ -0,0 +1,474 @@
+package com.inghubs.walletservice.service.journal;
+
+import com.inghubs.walletservice.exception.PaymentJournalException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of journal records in memory-mapped segment files, made durable by group commit.
+ * <p>
+ * Appenders copy their record into the current segment and get a future; a flusher thread forces the
+ * written range to disk once {@code groupSize} records are waiting or the oldest one has waited
+ * {@code groupMaxLatency}, then completes the futures of the whole group with a single fsync and hands
+ * the records on. Each record is framed as {@code [length][crc32c][sequence][payload]}; a record whose
+ * frame does not check out ends the log, which discards a write torn by a crash.
+ * <p>
+ * Segments are named after their first sequence. A full segment is forced before the next one is
+ * started, so only the last segment can end in a torn write.
+ */
+final class JournalLog implements Closeable {
+
+    static final String SEGMENT_PREFIX = "payments-";
+    static final String SEGMENT_SUFFIX = ".journal";
+    private static final int HEADER = Integer.BYTES * 2 + Long.BYTES;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final int groupSize;
+    private final long groupMaxLatencyNanos;
+    private final ArrayDeque<Segment> segments;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appended = lock.newCondition();
+    private final AtomicLong durableSequence;
+    private final LongAdder appends = new LongAdder();
+    private final LongAdder groupCommits = new LongAdder();
+    private Consumer<List<JournalEntry>> onDurable;
+    private Thread flusher;
+    private Segment current;
+    private int dirtyFrom;
+    private long lastSequence;
+    private List<Pending> pending = new ArrayList<>();
+    private long oldestPendingNanos;
+    private boolean closed;
+    private volatile RuntimeException failure;
+
+    private JournalLog(Path directory, int segmentSize, int groupSize, Duration groupMaxLatency,
+                       ArrayDeque<Segment> segments, long lastSequence) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.groupSize = Math.max(1, groupSize);
+        this.groupMaxLatencyNanos = groupMaxLatency.toNanos();
+        this.segments = segments;
+        this.current = segments.peekLast();
+        this.dirtyFrom = current == null ? 0 : current.position;
+        this.lastSequence = lastSequence;
+        this.durableSequence = new AtomicLong(lastSequence);
+    }
+
+    /**
+     * Opens the log in a directory, recovering the records of existing segments. Sequences continue
+     * after the last recovered record, or after {@code appliedSequence} if that is higher.
+     *
+     * @param directory The directory of the segment files; created if missing.
+     * @param segmentSize The size of new segment files in bytes.
+     * @param groupSize The number of waiting records that triggers a group commit.
+     * @param groupMaxLatency The longest time a record waits for its group commit.
+     * @param appliedSequence The last sequence already written to the database.
+     * @return The opened log; {@link #start(Consumer)} must be called before appending.
+     * @throws IOException If a segment file cannot be read or mapped.
+     */
+    static JournalLog open(Path directory, int segmentSize, int groupSize, Duration groupMaxLatency,
+                           long appliedSequence) throws IOException {
+        Files.createDirectories(directory);
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(JournalLog::isSegment).sorted().toList();
+        }
+        ArrayDeque<Segment> segments = new ArrayDeque<>();
+        long last = 0;
+        for (Path file : files) {
+            Segment segment = Segment.open(file);
+            if (!segments.isEmpty() && segment.firstSequence <= last) {
+                throw new IllegalStateException("Journal segment " + file + " overlaps the previous segment");
+            }
+            segments.add(segment);
+            last = Math.max(last, segment.lastSequence());
+        }
+        if (!segments.isEmpty() && segments.peekLast().records == 0) {
+            // a crash right after a roll can leave an empty, possibly unsized segment; it is recreated below
+            segments.pollLast().delete();
+        }
+        long lastSequence = Math.max(last, appliedSequence);
+        if (segments.isEmpty() || segments.peekLast().lastSequence() < lastSequence) {
+            segments.add(Segment.create(directory, lastSequence + 1, segmentSize));
+        }
+        JournalLog log = new JournalLog(directory, segmentSize, groupSize, groupMaxLatency, segments, lastSequence);
+        log.release(appliedSequence);
+        return log;
+    }
+
+    /**
+     * Calls the consumer with every recovered record after the given sequence, in order.
+     * Must be called before {@link #start(Consumer)}.
+     *
+     * @param after The last sequence to skip.
+     * @param consumer The consumer of the records.
+     */
+    void forEachAfter(long after, Consumer<JournalEntry> consumer) {
+        for (Segment segment : segments) {
+            if (segment.lastSequence() > after) {
+                segment.forEach(entry -> {
+                    if (entry.sequence() > after) {
+                        consumer.accept(entry);
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * Starts the group commit thread.
+     *
+     * @param onDurable Receives every group of records once it is durable, in sequence order, on the flusher thread.
+     */
+    void start(Consumer<List<JournalEntry>> onDurable) {
+        this.onDurable = onDurable;
+        this.flusher = new Thread(this::flushLoop, "payment-journal-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Appends a record to the current segment. The record is visible to a crash recovery only once the
+     * returned future has completed.
+     *
+     * @param record The record to append.
+     * @return A future completed with the record's sequence when it is durable.
+     * @throws PaymentJournalException If the log is closed or an earlier group commit failed.
+     */
+    CompletableFuture<Long> append(JournalRecord record) {
+        byte[] payload = record.encode();
+        lock.lock();
+        try {
+            if (failure != null) {
+                throw new PaymentJournalException("Payment journal is unavailable", failure);
+            }
+            if (closed) {
+                throw new PaymentJournalException("Payment journal is closed");
+            }
+            long sequence = lastSequence + 1;
+            if (!current.tryAppend(sequence, payload)) {
+                roll(sequence);
+                if (!current.tryAppend(sequence, payload)) {
+                    throw new PaymentJournalException("Journal record does not fit into a segment");
+                }
+            }
+            lastSequence = sequence;
+            appends.increment();
+            Pending waiting = new Pending(new JournalEntry(sequence, record), new CompletableFuture<>());
+            pending.add(waiting);
+            if (pending.size() == 1) {
+                oldestPendingNanos = System.nanoTime();
+                appended.signal();
+            } else if (pending.size() >= groupSize) {
+                appended.signal();
+            }
+            return waiting.durable;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Deletes the segments whose records have all been written to the database. The current segment is kept.
+     *
+     * @param appliedSequence The last sequence written to the database.
+     */
+    void release(long appliedSequence) {
+        lock.lock();
+        try {
+            while (segments.size() > 1 && segments.peekFirst().lastSequence() <= appliedSequence) {
+                segments.pollFirst().delete();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long lastSequence() {
+        lock.lock();
+        try {
+            return lastSequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long durableSequence() {
+        return durableSequence.get();
+    }
+
+    long appends() {
+        return appends.sum();
+    }
+
+    long groupCommits() {
+        return groupCommits.sum();
+    }
+
+    int segmentCount() {
+        lock.lock();
+        try {
+            return segments.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Commits the records that are still waiting, stops the flusher and closes the segment files.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            appended.signal();
+        } finally {
+            lock.unlock();
+        }
+        if (flusher != null) {
+            try {
+                flusher.join(TimeUnit.SECONDS.toMillis(30));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        lock.lock();
+        try {
+            segments.forEach(Segment::close);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Forces the full current segment and starts a new one at the given sequence. Called with the lock held.
+     */
+    private void roll(long sequence) {
+        current.force(0, current.position);
+        current = Segment.create(directory, sequence, segmentSize);
+        segments.add(current);
+        dirtyFrom = 0;
+    }
+
+    private void flushLoop() {
+        while (true) {
+            List<Pending> group;
+            Segment segment;
+            int from;
+            int to;
+            lock.lock();
+            try {
+                while (pending.isEmpty() && !closed) {
+                    appended.awaitUninterruptibly();
+                }
+                if (pending.isEmpty()) {
+                    return;
+                }
+                long deadline = oldestPendingNanos + groupMaxLatencyNanos;
+                long remaining;
+                while (pending.size() < groupSize && !closed && (remaining = deadline - System.nanoTime()) > 0) {
+                    try {
+                        appended.awaitNanos(remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+                group = pending;
+                pending = new ArrayList<>();
+                segment = current;
+                from = dirtyFrom;
+                to = current.position;
+                dirtyFrom = to;
+            } finally {
+                lock.unlock();
+            }
+            commit(group, segment, from, to);
+        }
+    }
+
+    private void commit(List<Pending> group, Segment segment, int from, int to) {
+        try {
+            segment.force(from, to);
+        } catch (RuntimeException e) {
+            // the records may or may not have reached the disk; stop accepting new ones rather than guess
+            failure = e;
+            group.forEach(waiting -> waiting.durable.completeExceptionally(
+                    new PaymentJournalException("Payment journal could not be forced to disk", e)));
+            return;
+        }
+        groupCommits.increment();
+        durableSequence.set(group.get(group.size() - 1).entry.sequence());
+        onDurable.accept(group.stream().map(Pending::entry).toList());
+        group.forEach(waiting -> waiting.durable.complete(waiting.entry.sequence()));
+    }
+
+    private static boolean isSegment(Path file) {
+        String name = file.getFileName().toString();
+        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+    }
+
+    private record Pending(JournalEntry entry, CompletableFuture<Long> durable) {
+    }
+
+    /**
+     * One memory-mapped segment file.
+     */
+    private static final class Segment {
+
+        private final Path path;
+        private final long firstSequence;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private int position;
+        private int records;
+
+        private Segment(Path path, long firstSequence, FileChannel channel, MappedByteBuffer buffer) {
+            this.path = path;
+            this.firstSequence = firstSequence;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        static Segment create(Path directory, long firstSequence, int size) {
+            Path path = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+            try {
+                FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                        StandardOpenOption.READ, StandardOpenOption.WRITE);
+                Segment segment = new Segment(path, firstSequence, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+                // make the new file itself durable, so that a recovery finds it
+                channel.force(true);
+                return segment;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        static Segment open(Path path) throws IOException {
+            String name = path.getFileName().toString();
+            long firstSequence = Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            Segment segment = new Segment(path, firstSequence, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size()));
+            segment.recover();
+            return segment;
+        }
+
+        long lastSequence() {
+            return firstSequence + records - 1;
+        }
+
+        boolean tryAppend(long sequence, byte[] payload) {
+            int end = position + HEADER + payload.length;
+            if (end > buffer.capacity()) {
+                return false;
+            }
+            CRC32C crc = new CRC32C();
+            crc.update(longBytes(sequence));
+            crc.update(payload);
+            buffer.putInt(position + Integer.BYTES, (int) crc.getValue());
+            buffer.putLong(position + Integer.BYTES * 2, sequence);
+            buffer.put(position + HEADER, payload);
+            buffer.putInt(position, payload.length);
+            position = end;
+            records++;
+            return true;
+        }
+
+        void force(int from, int to) {
+            if (to > from) {
+                buffer.force(from, to - from);
+            }
+        }
+
+        void forEach(Consumer<JournalEntry> consumer) {
+            int offset = 0;
+            for (int i = 0; i < records; i++) {
+                int length = buffer.getInt(offset);
+                byte[] payload = new byte[length];
+                buffer.get(offset + HEADER, payload);
+                consumer.accept(new JournalEntry(buffer.getLong(offset + Integer.BYTES * 2), JournalRecord.decode(payload)));
+                offset += HEADER + length;
+            }
+        }
+
+        /**
+         * Finds the end of the valid records and clears anything written after it.
+         */
+        private void recover() {
+            int offset = 0;
+            while (offset + HEADER <= buffer.capacity()) {
+                int length = buffer.getInt(offset);
+                if (length <= 0 || offset + HEADER + length > buffer.capacity()) {
+                    break;
+                }
+                long sequence = buffer.getLong(offset + Integer.BYTES * 2);
+                byte[] payload = new byte[length];
+                buffer.get(offset + HEADER, payload);
+                CRC32C crc = new CRC32C();
+                crc.update(longBytes(sequence));
+                crc.update(payload);
+                if (sequence != firstSequence + records || buffer.getInt(offset + Integer.BYTES) != (int) crc.getValue()) {
+                    break;
+                }
+                records++;
+                offset += HEADER + length;
+            }
+            position = offset;
+            if (position + Integer.BYTES <= buffer.capacity() && buffer.getInt(position) != 0) {
+                byte[] zeros = new byte[64 * 1024];
+                for (int at = position; at < buffer.capacity(); at += zeros.length) {
+                    buffer.put(at, zeros, 0, Math.min(zeros.length, buffer.capacity() - at));
+                }
+                buffer.force();
+            }
+        }
+
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void delete() {
+            close();
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private static byte[] longBytes(long value) {
+            byte[] bytes = new byte[Long.BYTES];
+            for (int i = Long.BYTES - 1; i >= 0; i--) {
+                bytes[i] = (byte) value;
+                value >>>= 8;
+            }
+            return bytes;
+        }
+    }
+}
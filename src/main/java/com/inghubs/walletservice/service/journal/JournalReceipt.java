@@ -0,0 +1,16 @@
+package com.inghubs.walletservice.service.journal;
+
+import com.inghubs.walletservice.model.dto.Money;
+import com.inghubs.walletservice.model.dto.enums.Currency;
+
+/**
+ * Acknowledgement of a durably journaled record.
+ *
+ * @param sequence The position of the record in the journal.
+ * @param walletId The ID of the wallet.
+ * @param currency The currency of the wallet.
+ * @param balance The wallet's balance after the record.
+ * @param usableBalance The wallet's usable balance after the record.
+ */
+public record JournalReceipt(long sequence, Long walletId, Currency currency, Money balance, Money usableBalance) {
+}
@@ -0,0 +1,144 @@
+package com.inghubs.walletservice.service.journal;
+
+import com.inghubs.walletservice.model.dto.Money;
+import com.inghubs.walletservice.model.dto.PaymentRequest;
+import com.inghubs.walletservice.model.dto.enums.Currency;
+import com.inghubs.walletservice.model.dto.enums.OppositePartyType;
+import com.inghubs.walletservice.model.dto.enums.TransactionStatus;
+import com.inghubs.walletservice.model.dto.enums.TransactionType;
+import com.inghubs.walletservice.model.entity.Auditable;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Accepted outcome of a payment or an approval decision, as written to the payment journal.
+ * A record carries everything needed to write it to the database later, so replaying it does not
+ * depend on any state that was only held in memory.
+ *
+ * @param walletId The ID of the wallet.
+ * @param customerId The ID of the wallet's owner, for the balance summary.
+ * @param currency The currency of the wallet, for the balance summary.
+ * @param transactionId The ID of the decided transaction for approvals; null for payments.
+ * @param type The type of a payment; null for approvals.
+ * @param amount The amount of a payment; null for approvals.
+ * @param source The opposite party type of a payment; null for approvals.
+ * @param oppositeParty The opposite party of a payment; null for approvals.
+ * @param status The status of the new transaction, or the decided status of an approval.
+ * @param balanceDelta The amount added to the wallet's balance.
+ * @param usableDelta The amount added to the wallet's usable balance.
+ * @param user The username recorded in the audit columns.
+ * @param timestamp The time recorded in the audit columns.
+ */
+public record JournalRecord(Long walletId, Long customerId, Currency currency, Long transactionId,
+                            TransactionType type, Money amount, OppositePartyType source, String oppositeParty,
+                            TransactionStatus status, Money balanceDelta, Money usableDelta,
+                            String user, LocalDateTime timestamp) {
+
+    /**
+     * Creates the record of an accepted payment, audited as the current user.
+     *
+     * @param wallet The wallet's state before the payment.
+     * @param request The payment request.
+     * @param type The type of transaction (DEPOSIT or WITHDRAW).
+     * @param status The status of the new transaction.
+     * @param balanceDelta The amount added to the wallet's balance.
+     * @param usableDelta The amount added to the wallet's usable balance.
+     * @return The journal record.
+     */
+    public static JournalRecord payment(JournaledWallet wallet, PaymentRequest request, TransactionType type,
+                                        TransactionStatus status, Money balanceDelta, Money usableDelta) {
+        return new JournalRecord(wallet.getId(), wallet.getCustomerId(), wallet.getCurrency(), null,
+                type, request.getAmount(), request.getSource(), request.getOppositeParty(),
+                status, balanceDelta, usableDelta, Auditable.currentUser(), LocalDateTime.now());
+    }
+
+    /**
+     * Creates the record of an approval decision, audited as the current user.
+     *
+     * @param wallet The wallet's state before the decision.
+     * @param transactionId The ID of the decided transaction.
+     * @param status The decided status.
+     * @param usableDelta The amount added to the wallet's usable balance.
+     * @return The journal record.
+     */
+    public static JournalRecord approval(JournaledWallet wallet, Long transactionId, TransactionStatus status,
+                                         Money usableDelta) {
+        return new JournalRecord(wallet.getId(), wallet.getCustomerId(), wallet.getCurrency(), transactionId,
+                null, null, null, null, status, Money.ZERO, usableDelta, Auditable.currentUser(), LocalDateTime.now());
+    }
+
+    /**
+     * Tells whether this record decides an existing transaction rather than creating one.
+     *
+     * @return True for approval decisions.
+     */
+    public boolean isApproval() {
+        return transactionId != null;
+    }
+
+    byte[] encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(160);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeLong(walletId);
+            out.writeLong(customerId);
+            out.writeUTF(currency.name());
+            out.writeLong(transactionId == null ? 0L : transactionId);
+            writeNullable(out, type == null ? null : type.name());
+            writeNullable(out, amount == null ? null : amount.toString());
+            writeNullable(out, source == null ? null : source.name());
+            writeNullable(out, oppositeParty);
+            out.writeUTF(status.name());
+            out.writeUTF(balanceDelta.toString());
+            out.writeUTF(usableDelta.toString());
+            out.writeUTF(user);
+            out.writeLong(timestamp.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(timestamp.getNano());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static JournalRecord decode(byte[] payload) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            Long walletId = in.readLong();
+            Long customerId = in.readLong();
+            Currency currency = Currency.valueOf(in.readUTF());
+            long transactionId = in.readLong();
+            String type = readNullable(in);
+            String amount = readNullable(in);
+            String source = readNullable(in);
+            String oppositeParty = readNullable(in);
+            TransactionStatus status = TransactionStatus.valueOf(in.readUTF());
+            Money balanceDelta = Money.parse(in.readUTF());
+            Money usableDelta = Money.parse(in.readUTF());
+            String user = in.readUTF();
+            LocalDateTime timestamp = LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+            return new JournalRecord(walletId, customerId, currency, transactionId == 0L ? null : transactionId,
+                    type == null ? null : TransactionType.valueOf(type),
+                    amount == null ? null : Money.parse(amount),
+                    source == null ? null : OppositePartyType.valueOf(source),
+                    oppositeParty, status, balanceDelta, usableDelta, user, timestamp);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
@@ -0,0 +1,98 @@
+package com.inghubs.walletservice.service.journal;
+
+import com.inghubs.walletservice.model.dto.Money;
+import com.inghubs.walletservice.model.dto.enums.Currency;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory state of a wallet while the payment journal is enabled. It is loaded from the database on
+ * the wallet's first journaled payment and from then on includes every journaled record, whether or not
+ * that record has reached the database yet. Payments of the wallet are decided against this state.
+ * Once every record of the wallet has reached the database the state may be evicted; an evicted state
+ * accepts no further records and the wallet is loaded again on its next payment.
+ */
+public class JournaledWallet {
+
+    private final Long id;
+    private final Long customerId;
+    private final Currency currency;
+    private final boolean activeForWithdraw;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final AtomicInteger unapplied = new AtomicInteger();
+    private Money balance;
+    private Money usableBalance;
+    private boolean evicted;
+
+    public JournaledWallet(Long id, Long customerId, Currency currency, boolean activeForWithdraw, Money balance,
+                           Money usableBalance) {
+        this.id = id;
+        this.customerId = customerId;
+        this.currency = currency;
+        this.activeForWithdraw = activeForWithdraw;
+        this.balance = balance;
+        this.usableBalance = usableBalance;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getCustomerId() {
+        return customerId;
+    }
+
+    public Currency getCurrency() {
+        return currency;
+    }
+
+    public boolean isActiveForWithdraw() {
+        return activeForWithdraw;
+    }
+
+    public Money getBalance() {
+        return balance;
+    }
+
+    public Money getUsableBalance() {
+        return usableBalance;
+    }
+
+    ReentrantLock lock() {
+        return lock;
+    }
+
+    void apply(JournalRecord record) {
+        balance = balance.plus(record.balanceDelta());
+        usableBalance = usableBalance.plus(record.usableDelta());
+        unapplied.incrementAndGet();
+    }
+
+    /**
+     * Counts one record of this wallet as written to the database. Called by the applier, which may run
+     * before the appending thread has counted the record, so the count only settles under the lock.
+     */
+    void applied() {
+        unapplied.decrementAndGet();
+    }
+
+    /**
+     * Tells whether every record applied to this state has been written to the database.
+     * Must be called with the lock held.
+     */
+    boolean isFullyApplied() {
+        return unapplied.get() == 0;
+    }
+
+    /**
+     * Tells whether this state was evicted and must not take further records. Must be called with the lock held.
+     */
+    boolean isEvicted() {
+        return evicted;
+    }
+
+    void evict() {
+        evicted = true;
+    }
+}
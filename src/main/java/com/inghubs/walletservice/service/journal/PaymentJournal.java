@@ -0,0 +1,431 @@
+package com.inghubs.walletservice.service.journal;
+
+import com.inghubs.walletservice.configuration.JournalProperties;
+import com.inghubs.walletservice.configuration.PaymentEngineProperties;
+import com.inghubs.walletservice.exception.PaymentJournalException;
+import com.inghubs.walletservice.exception.WalletNotFoundException;
+import com.inghubs.walletservice.model.dto.Money;
+import com.inghubs.walletservice.model.dto.enums.Currency;
+import com.inghubs.walletservice.model.dto.enums.TransactionStatus;
+import com.inghubs.walletservice.repository.TransactionRepository;
+import com.inghubs.walletservice.repository.WalletRepository;
+import com.inghubs.walletservice.service.engine.LockingMode;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Write-ahead journal for payments and approval decisions.
+ * <p>
+ * When enabled, a payment is decided against the wallet's in-memory state, appended to the
+ * {@link JournalLog} and acknowledged as soon as its group commit has forced it to disk. The database is
+ * written afterwards by a single applier thread, in groups of records, through the {@link JournalApplier}.
+ * On startup the records after the database's journal checkpoint are replayed before any request is served.
+ * <p>
+ * The in-memory state of a wallet is loaded on its first journaled change and then includes records that
+ * have not reached the database yet, so it is authoritative only as long as this node is the only writer
+ * of balances. Once all of a wallet's records have been written to the database and no change of it is
+ * running, the applier evicts its state, so memory holds only the wallets with records in flight.
+ * Listings and the balance summary read the database and lag the journal by the applier's backlog.
+ */
+@Slf4j
+@Component
+public class PaymentJournal implements SmartInitializingSingleton, DisposableBean, MeterBinder {
+
+    private final JournalProperties properties;
+    private final LockingMode lockingMode;
+    private final WalletRepository walletRepository;
+    private final TransactionRepository transactionRepository;
+    private final JournalApplier journalApplier;
+    private final ConcurrentHashMap<Long, JournaledWallet> wallets = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, CompletableFuture<TransactionStatus>> decisions = new ConcurrentHashMap<>();
+    private final LinkedBlockingQueue<JournalEntry> durable = new LinkedBlockingQueue<>();
+    private final AtomicLong appliedSequence = new AtomicLong();
+    private final LongAdder replayed = new LongAdder();
+    private volatile JournalLog journal;
+    private volatile boolean closing;
+    private Thread applier;
+
+    public PaymentJournal(JournalProperties properties, PaymentEngineProperties paymentEngineProperties,
+                          WalletRepository walletRepository, TransactionRepository transactionRepository,
+                          JournalApplier journalApplier) {
+        this.properties = properties;
+        this.lockingMode = paymentEngineProperties.getLockingMode();
+        this.walletRepository = walletRepository;
+        this.transactionRepository = transactionRepository;
+        this.journalApplier = journalApplier;
+    }
+
+    /**
+     * Opens the journal, writes the records after the checkpoint to the database and starts the flusher
+     * and applier threads.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        if (lockingMode == LockingMode.LEDGER) {
+            throw new IllegalStateException("The payment journal cannot be combined with the LEDGER locking mode");
+        }
+        long applied = journalApplier.appliedSequence();
+        try {
+            journal = JournalLog.open(properties.getDirectory(), properties.getSegmentSize(), properties.getGroupSize(),
+                    properties.getGroupMaxLatency(), applied);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open the payment journal in " + properties.getDirectory(), e);
+        }
+        appliedSequence.set(applied);
+
+        List<JournalEntry> group = new ArrayList<>();
+        journal.forEachAfter(applied, entry -> {
+            group.add(entry);
+            if (group.size() >= applyBatchSize()) {
+                replay(group);
+            }
+        });
+        if (!group.isEmpty()) {
+            replay(group);
+        }
+        if (replayed.sum() > 0) {
+            log.info("Replayed {} payment journal records up to sequence {}", replayed.sum(), appliedSequence.get());
+        }
+
+        journal.start(durable::addAll);
+        applier = new Thread(this::applyLoop, "payment-journal-applier");
+        applier.setDaemon(true);
+        applier.start();
+    }
+
+    /**
+     * Tells whether payments go through the journal.
+     *
+     * @return True if the journal is enabled.
+     */
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Decides and journals a change of a wallet. The decision runs while no other change of the same wallet
+     * can run and sees every earlier journaled change; it may reject the change by throwing.
+     *
+     * @param walletId The ID of the wallet.
+     * @param decision Builds the record of the change from the wallet's current state.
+     * @return A future completed with the wallet's balances after the change once the record is durable.
+     * @throws WalletNotFoundException If the wallet is not found.
+     * @throws PaymentJournalException If the journal is not accepting records.
+     */
+    public CompletableFuture<JournalReceipt> append(Long walletId, Function<JournaledWallet, JournalRecord> decision) {
+        JournalLog open = openJournal();
+        JournaledWallet wallet = lockWallet(walletId);
+        try {
+            JournalRecord record = decision.apply(wallet);
+            CompletableFuture<Long> committed = open.append(record);
+            wallet.apply(record);
+            Long id = wallet.getId();
+            Currency currency = wallet.getCurrency();
+            Money balance = wallet.getBalance();
+            Money usableBalance = wallet.getUsableBalance();
+            return committed.thenApply(sequence -> new JournalReceipt(sequence, id, currency, balance, usableBalance));
+        } finally {
+            wallet.lock().unlock();
+        }
+    }
+
+    /**
+     * Journals the decision of a pending transaction and its change of the wallet's usable balance.
+     * A transaction is decided once: if it was decided before, by a journaled record or in the database,
+     * that earlier status is returned and nothing is appended. This keeps a decision that has not reached
+     * the database yet from being applied twice by a caller that still reads the transaction as pending.
+     *
+     * @param walletId The ID of the transaction's wallet.
+     * @param transactionId The ID of the transaction.
+     * @param status The decided status.
+     * @param usableDelta The amount the decision adds to the wallet's usable balance.
+     * @return A future completed with the transaction's status, and whether this call decided it, once the deciding record is durable.
+     * @throws WalletNotFoundException If the wallet or the transaction is not found.
+     * @throws PaymentJournalException If the journal is not accepting records.
+     */
+    public CompletableFuture<JournalDecision> appendDecision(Long walletId, Long transactionId, TransactionStatus status,
+                                                               Money usableDelta) {
+        JournalLog open = openJournal();
+        JournaledWallet wallet = lockWallet(walletId);
+        try {
+            CompletableFuture<TransactionStatus> earlier = decisions.get(transactionId);
+            if (earlier != null) {
+                return earlier.thenApply(decided -> new JournalDecision(decided, false));
+            }
+            // read after taking the lock: the applier forgets a decision only once its status is committed
+            TransactionStatus current = transactionRepository.findStatusById(transactionId)
+                    .orElseThrow(() -> new WalletNotFoundException("Transaction not found"));
+            if (current != TransactionStatus.PENDING) {
+                return CompletableFuture.completedFuture(new JournalDecision(current, false));
+            }
+            JournalRecord record = JournalRecord.approval(wallet, transactionId, status, usableDelta);
+            CompletableFuture<TransactionStatus> decided = open.append(record).thenApply(sequence -> status);
+            wallet.apply(record);
+            decisions.put(transactionId, decided);
+            return decided.thenApply(appended -> new JournalDecision(appended, true));
+        } finally {
+            wallet.lock().unlock();
+        }
+    }
+
+    /**
+     * Waits until a journaled change is durable.
+     *
+     * @param acknowledgement A future returned by this journal.
+     * @return The value of the future.
+     * @throws PaymentJournalException If the record could not be made durable.
+     */
+    public static <T> T await(CompletableFuture<T> acknowledgement) {
+        try {
+            return acknowledgement.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new PaymentJournalException("Payment journal record was not committed", e.getCause());
+        }
+    }
+
+    /**
+     * Returns the last journal sequence written to the database.
+     *
+     * @return The applied sequence.
+     */
+    public long appliedSequence() {
+        return appliedSequence.get();
+    }
+
+    /**
+     * Returns the number of records written to the database by the startup replay.
+     *
+     * @return The replayed record count.
+     */
+    public long replayedRecords() {
+        return replayed.sum();
+    }
+
+    /**
+     * Waits until every record acknowledged so far has been written to the database.
+     *
+     * @param timeoutMillis The longest time to wait.
+     * @return True if the database caught up within the timeout.
+     */
+    public boolean awaitApplied(long timeoutMillis) throws InterruptedException {
+        JournalLog open = journal;
+        if (open == null) {
+            return true;
+        }
+        long target = open.durableSequence();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (appliedSequence.get() < target) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            Thread.sleep(1);
+        }
+        return true;
+    }
+
+    /**
+     * Commits the records still waiting for their group, then lets the applier write the backlog to
+     * the database before the data source goes away. Whatever is left is replayed on the next start.
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        JournalLog open = journal;
+        if (open == null) {
+            return;
+        }
+        open.close();
+        closing = true;
+        applier.join(TimeUnit.SECONDS.toMillis(30));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("wallet.journal.appends", this, PaymentJournal::appends)
+                .description("Records appended to the payment journal")
+                .register(registry);
+        FunctionCounter.builder("wallet.journal.group.commits", this, PaymentJournal::groupCommits)
+                .description("Group commits of the payment journal, one fsync each")
+                .register(registry);
+        Gauge.builder("wallet.journal.apply.lag", this, PaymentJournal::applyLag)
+                .description("Durable journal records not yet written to the database")
+                .register(registry);
+    }
+
+    private JournalLog openJournal() {
+        JournalLog open = journal;
+        if (open == null) {
+            throw new PaymentJournalException("Payment journal is not open");
+        }
+        return open;
+    }
+
+    /**
+     * Returns the in-memory state of a wallet with its lock held, loading it on the wallet's first journaled
+     * change. A state the applier evicted between the lookup and the lock is skipped and looked up again.
+     */
+    private JournaledWallet lockWallet(Long walletId) {
+        while (true) {
+            JournaledWallet wallet = walletState(walletId);
+            wallet.lock().lock();
+            if (!wallet.isEvicted()) {
+                return wallet;
+            }
+            wallet.lock().unlock();
+        }
+    }
+
+    /**
+     * Returns the in-memory state of a wallet. The row is read inside computeIfAbsent so that a state
+     * loaded before an eviction cannot be published after it, and read with a projection so that a wallet
+     * entity the caller loaded earlier cannot stand in for it: the database holds all of an evicted
+     * wallet's records, and only the state in the map takes new ones.
+     */
+    private JournaledWallet walletState(Long walletId) {
+        JournaledWallet wallet = wallets.get(walletId);
+        if (wallet != null) {
+            return wallet;
+        }
+        return wallets.computeIfAbsent(walletId, id -> walletRepository.findJournaledById(id)
+                .orElseThrow(() -> new WalletNotFoundException("Wallet not found")));
+    }
+
+    /**
+     * Tells whether the in-memory state of a wallet is currently held.
+     *
+     * @param walletId The ID of the wallet.
+     * @return True if the wallet's state is held.
+     */
+    boolean holdsWallet(Long walletId) {
+        return wallets.containsKey(walletId);
+    }
+
+    private double appends() {
+        JournalLog open = journal;
+        return open == null ? 0 : open.appends();
+    }
+
+    private double groupCommits() {
+        JournalLog open = journal;
+        return open == null ? 0 : open.groupCommits();
+    }
+
+    private double applyLag() {
+        JournalLog open = journal;
+        return open == null ? 0 : open.durableSequence() - appliedSequence.get();
+    }
+
+    private void replay(List<JournalEntry> group) {
+        journalApplier.apply(group);
+        replayed.add(group.size());
+        appliedSequence.set(group.get(group.size() - 1).sequence());
+        group.clear();
+    }
+
+    /**
+     * Counts the written records against their wallets and evicts the states whose records have all been
+     * written. A wallet whose lock is taken is busy with a new change and is left for a later group.
+     */
+    private void evictAppliedWallets(List<JournalEntry> group) {
+        Set<JournaledWallet> touched = new HashSet<>();
+        for (JournalEntry entry : group) {
+            JournaledWallet wallet = wallets.get(entry.record().walletId());
+            if (wallet != null) {
+                wallet.applied();
+                touched.add(wallet);
+            }
+        }
+        for (JournaledWallet wallet : touched) {
+            if (!wallet.lock().tryLock()) {
+                continue;
+            }
+            try {
+                if (wallet.isFullyApplied() && !wallet.isEvicted()) {
+                    wallet.evict();
+                    wallets.remove(wallet.getId(), wallet);
+                }
+            } finally {
+                wallet.lock().unlock();
+            }
+        }
+    }
+
+    private void forgetDecisions(List<JournalEntry> group) {
+        for (JournalEntry entry : group) {
+            if (entry.record().isApproval()) {
+                decisions.remove(entry.record().transactionId());
+            }
+        }
+    }
+
+    private int applyBatchSize() {
+        return Math.max(1, properties.getApplyBatchSize());
+    }
+
+    private void applyLoop() {
+        List<JournalEntry> group = new ArrayList<>(applyBatchSize());
+        long backoffMillis = 10;
+        while (!(closing && durable.isEmpty() && group.isEmpty())) {
+            try {
+                if (group.isEmpty()) {
+                    JournalEntry first = durable.poll(50, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    group.add(first);
+                    durable.drainTo(group, applyBatchSize() - 1);
+                }
+                journalApplier.apply(group);
+                evictAppliedWallets(group);
+                long last = group.get(group.size() - 1).sequence();
+                appliedSequence.set(last);
+                journal.release(last);
+                forgetDecisions(group);
+                group.clear();
+                backoffMillis = 10;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                if (closing) {
+                    log.warn("Leaving {} payment journal records for the next start: {}", group.size() + durable.size(), e.getMessage());
+                    return;
+                }
+                log.warn("Writing payment journal records to the database failed, retrying in {} ms", backoffMillis, e);
+                try {
+                    Thread.sleep(backoffMillis);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                backoffMillis = Math.min(1_000, backoffMillis * 2);
+            }
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.inghubs.walletservice.service.limit;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Count and amount of the payments of one key within a sliding window, kept in a ring of buckets.
+ * <p>
+ * The ring is a single array of {tick, count, amount} triples, so a check reads a few adjacent cache lines
+ * and allocates nothing. Payments are added without locks: a payment is added to the bucket of the current
+ * tick first and the window is summed afterwards; if the sum exceeds a limit, the payment is taken out again
+ * and rejected. The sum therefore never stays above a limit. Payments that race each other for the last room
+ * under a limit may both be rejected, which errs on the safe side. A bucket that is being cleared for a new
+ * tick is waited for; clearing takes two writes.
+ */
+final class SlidingWindow {
+
+    private static final int TICK = 0;
+    private static final int COUNT = 1;
+    private static final int AMOUNT = 2;
+    private static final int STRIDE = 3;
+
+    /**
+     * Marks a bucket that is being cleared. Ticks are positive, so no bucket is ever at this tick.
+     */
+    private static final long CLEARING = Long.MIN_VALUE;
+
+    private final AtomicLongArray buckets;
+    private final int size;
+
+    SlidingWindow(int size) {
+        this.size = size;
+        this.buckets = new AtomicLongArray(size * STRIDE);
+    }
+
+    /**
+     * Adds a payment if the window stays within both limits.
+     *
+     * @param tick The current tick, positive.
+     * @param amount The amount of the payment, in minor units.
+     * @param maxCount The maximum number of payments within the window.
+     * @param maxAmount The maximum total amount within the window, in minor units.
+     * @return True if the payment was added, false if it was rejected.
+     */
+    boolean tryAdd(long tick, long amount, long maxCount, long maxAmount) {
+        int base = claim(tick);
+        buckets.incrementAndGet(base + COUNT);
+        buckets.addAndGet(base + AMOUNT, amount);
+
+        long count = 0;
+        long total = 0;
+        long oldest = tick - size;
+        for (int i = 0; i < buckets.length(); i += STRIDE) {
+            if (buckets.get(i + TICK) > oldest) {
+                count += buckets.get(i + COUNT);
+                total += buckets.get(i + AMOUNT);
+            }
+        }
+        if (count > maxCount || total > maxAmount) {
+            remove(base, amount);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether no bucket of this window is within the window ending at the given tick.
+     *
+     * @param tick The current tick.
+     * @return True if the window holds no payment that still counts.
+     */
+    boolean isIdle(long tick) {
+        long oldest = tick - size;
+        for (int i = 0; i < buckets.length(); i += STRIDE) {
+            long bucketTick = buckets.get(i + TICK);
+            if (bucketTick > oldest || bucketTick == CLEARING) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Takes a payment added at the given tick out again. Has no effect once its bucket has left the window.
+     *
+     * @param tick The tick the payment was added at.
+     * @param amount The amount of the payment, in minor units.
+     */
+    void remove(long tick, long amount) {
+        int base = base(tick);
+        if (buckets.get(base + TICK) == tick) {
+            remove(base, amount);
+        }
+    }
+
+    private void remove(int base, long amount) {
+        buckets.decrementAndGet(base + COUNT);
+        buckets.addAndGet(base + AMOUNT, -amount);
+    }
+
+    /**
+     * Returns the offset of the bucket of the given tick, clearing it first if it still holds an earlier tick.
+     */
+    private int claim(long tick) {
+        int base = base(tick);
+        while (true) {
+            long current = buckets.get(base + TICK);
+            if (current >= tick) {
+                return base;
+            }
+            if (current == CLEARING) {
+                Thread.onSpinWait();
+            } else if (buckets.compareAndSet(base + TICK, current, CLEARING)) {
+                buckets.set(base + COUNT, 0);
+                buckets.set(base + AMOUNT, 0);
+                buckets.set(base + TICK, tick);
+                return base;
+            }
+        }
+    }
+
+    private int base(long tick) {
+        return (int) (tick % size) * STRIDE;
+    }
+}
@@ -0,0 +1,219 @@
+package com.inghubs.walletservice.service.limit;
+
+import com.inghubs.walletservice.configuration.VelocityLimitProperties;
+import com.inghubs.walletservice.exception.VelocityLimitExceededException;
+import com.inghubs.walletservice.model.dto.Money;
+import com.inghubs.walletservice.model.dto.enums.TransactionType;
+import com.inghubs.walletservice.security.WalletOwnershipIndex;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.math.RoundingMode;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Enforces the configured velocity limits: the maximum number and total amount of payments per wallet and
+ * per customer, by transaction type, within a sliding window.
+ * <p>
+ * The counters live in memory, in one {@link SlidingWindow} per key and limited transaction type, and are
+ * updated with atomic adds only, so a check costs no database access, no lock and no allocation beyond its
+ * permit. Windows that no longer hold a counting payment are swept now and then by a randomly chosen check.
+ * The counters are local to a node: with several nodes, every node enforces the limits on the payments it
+ * receives.
+ */
+@Component
+public class VelocityLimiter implements MeterBinder {
+
+    private static final VelocityPermit UNLIMITED = () -> { };
+
+    /**
+     * On average one check in this many sweeps idle windows; a power of two minus one.
+     */
+    private static final int SWEEP_MASK = (1 << 16) - 1;
+
+    private final boolean enabled;
+    private final int buckets;
+    private final long bucketNanos;
+    private final long[][] walletLimits;
+    private final long[][] customerLimits;
+    private final Map<Long, SlidingWindow[]> walletWindows = new ConcurrentHashMap<>();
+    private final Map<Long, SlidingWindow[]> customerWindows = new ConcurrentHashMap<>();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+    private final WalletOwnershipIndex walletOwnershipIndex;
+    private final LongSupplier clock;
+
+    private final LongAdder walletRejections = new LongAdder();
+    private final LongAdder customerRejections = new LongAdder();
+
+    @Autowired
+    public VelocityLimiter(VelocityLimitProperties properties, WalletOwnershipIndex walletOwnershipIndex) {
+        this(properties, walletOwnershipIndex, System::nanoTime);
+    }
+
+    /**
+     * Creates a limiter that reads the time from the given clock.
+     *
+     * @param clock Returns the current time in nanoseconds, like {@link System#nanoTime()}.
+     */
+    VelocityLimiter(VelocityLimitProperties properties, WalletOwnershipIndex walletOwnershipIndex, LongSupplier clock) {
+        this.enabled = properties.isEnabled();
+        this.buckets = Math.max(1, properties.getBuckets());
+        this.bucketNanos = Math.max(1, properties.getWindow().toNanos() / buckets);
+        this.walletLimits = limits(properties.getWallet());
+        this.customerLimits = limits(properties.getCustomer());
+        this.walletOwnershipIndex = walletOwnershipIndex;
+        long origin = clock.getAsLong();
+        // ticks start at the number of buckets, so that the ring's initial tick of zero is outside every window
+        this.clock = () -> (clock.getAsLong() - origin) / bucketNanos + buckets;
+    }
+
+    /**
+     * Returns whether payments are checked against the velocity limits.
+     *
+     * @return True if velocity limits are enabled.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Counts a payment against the limits of its wallet and of the wallet's owner.
+     * Payments without a positive amount are not counted; they are rejected by the payment itself.
+     *
+     * @param walletId The ID of the wallet.
+     * @param type The type of the payment (DEPOSIT or WITHDRAW).
+     * @param amount The amount of the payment.
+     * @return A permit to release if the payment does not go through, so that it no longer counts.
+     * @throws VelocityLimitExceededException If the payment would exceed a limit.
+     */
+    public VelocityPermit acquire(Long walletId, TransactionType type, Money amount) {
+        if (!enabled || walletId == null || amount == null || !amount.isPositive()) {
+            return UNLIMITED;
+        }
+        long minorUnits = amount.units();
+        long tick = clock.getAsLong();
+        if ((ThreadLocalRandom.current().nextInt() & SWEEP_MASK) == 0) {
+            sweep(tick);
+        }
+
+        SlidingWindow walletWindow = null;
+        long[] walletLimit = walletLimits[type.ordinal()];
+        if (walletLimit != null) {
+            walletWindow = window(walletWindows, walletId, type);
+            if (!walletWindow.tryAdd(tick, minorUnits, walletLimit[0], walletLimit[1])) {
+                walletRejections.increment();
+                throw new VelocityLimitExceededException("Wallet " + type.name().toLowerCase() + " limit exceeded, please retry later");
+            }
+        }
+
+        SlidingWindow customerWindow = null;
+        long[] customerLimit = customerLimits[type.ordinal()];
+        Long customerId = customerLimit == null ? null : walletOwnershipIndex.ownerOf(walletId);
+        if (customerId != null) {
+            customerWindow = window(customerWindows, customerId, type);
+            if (!customerWindow.tryAdd(tick, minorUnits, customerLimit[0], customerLimit[1])) {
+                if (walletWindow != null) {
+                    walletWindow.remove(tick, minorUnits);
+                }
+                customerRejections.increment();
+                throw new VelocityLimitExceededException("Customer " + type.name().toLowerCase() + " limit exceeded, please retry later");
+            }
+        }
+
+        if (walletWindow == null && customerWindow == null) {
+            return UNLIMITED;
+        }
+        SlidingWindow countedForWallet = walletWindow;
+        SlidingWindow countedForCustomer = customerWindow;
+        return () -> {
+            if (countedForWallet != null) {
+                countedForWallet.remove(tick, minorUnits);
+            }
+            if (countedForCustomer != null) {
+                countedForCustomer.remove(tick, minorUnits);
+            }
+        };
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("wallet.velocity.rejections", walletRejections, LongAdder::sum)
+                .description("Payments rejected by a velocity limit")
+                .tag("scope", "wallet")
+                .register(registry);
+        FunctionCounter.builder("wallet.velocity.rejections", customerRejections, LongAdder::sum)
+                .description("Payments rejected by a velocity limit")
+                .tag("scope", "customer")
+                .register(registry);
+    }
+
+    private SlidingWindow window(Map<Long, SlidingWindow[]> windows, Long key, TransactionType type) {
+        SlidingWindow[] byType = windows.get(key);
+        if (byType == null) {
+            long[][] limits = windows == walletWindows ? walletLimits : customerLimits;
+            byType = windows.computeIfAbsent(key, ignored -> newWindows(limits));
+        }
+        return byType[type.ordinal()];
+    }
+
+    /**
+     * Removes the windows of keys without a payment that still counts. A payment racing the removal of its
+     * key's windows is counted in the removed windows only; as the key was idle for a whole window, that
+     * payment is the only one it can miss.
+     */
+    private void sweep(long tick) {
+        if (!sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            walletWindows.values().removeIf(byType -> isIdle(byType, tick));
+            customerWindows.values().removeIf(byType -> isIdle(byType, tick));
+        } finally {
+            sweeping.set(false);
+        }
+    }
+
+    private static boolean isIdle(SlidingWindow[] byType, long tick) {
+        for (SlidingWindow window : byType) {
+            if (window != null && !window.isIdle(tick)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private SlidingWindow[] newWindows(long[][] limits) {
+        SlidingWindow[] byType = new SlidingWindow[limits.length];
+        for (int i = 0; i < byType.length; i++) {
+            byType[i] = limits[i] == null ? null : new SlidingWindow(buckets);
+        }
+        return byType;
+    }
+
+    /**
+     * Converts configured limits to {maxCount, maxAmount in minor units} per transaction type, null where unlimited.
+     */
+    private static long[][] limits(Map<TransactionType, VelocityLimitProperties.Limit> configured) {
+        long[][] limits = new long[TransactionType.values().length][];
+        configured.forEach((type, limit) -> {
+            if (limit.getMaxCount() == null && limit.getMaxAmount() == null) {
+                return;
+            }
+            limits[type.ordinal()] = new long[]{
+                    limit.getMaxCount() == null ? Long.MAX_VALUE : limit.getMaxCount(),
+                    limit.getMaxAmount() == null ? Long.MAX_VALUE
+                            : limit.getMaxAmount().setScale(Money.SCALE, RoundingMode.FLOOR).unscaledValue().longValueExact()
+            };
+        });
+        return limits;
+    }
+
+}
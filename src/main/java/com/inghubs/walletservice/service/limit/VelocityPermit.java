@@ -0,0 +1,13 @@
+package com.inghubs.walletservice.service.limit;
+
+/**
+ * A payment counted against the velocity limits by {@link VelocityLimiter#acquire}.
+ */
+@FunctionalInterface
+public interface VelocityPermit {
+
+    /**
+     * Stops counting the payment, because it did not go through.
+     */
+    void release();
+}
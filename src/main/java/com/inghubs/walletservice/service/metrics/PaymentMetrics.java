@@ -0,0 +1,84 @@
+package com.inghubs.walletservice.service.metrics;
+
+import com.inghubs.walletservice.model.dto.enums.TransactionStatus;
+import com.inghubs.walletservice.model.dto.enums.TransactionType;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the outcomes of payments and approval decisions: the status every deposit and withdrawal was
+ * recorded with, and the status every pending transaction was decided with. Counting is a single atomic add,
+ * so it can be done on the payment path.
+ */
+@Component
+public class PaymentMetrics implements MeterBinder {
+
+    private final LongAdder[][] payments = new LongAdder[TransactionType.values().length][TransactionStatus.values().length];
+    private final LongAdder[] decisions = new LongAdder[TransactionStatus.values().length];
+
+    public PaymentMetrics() {
+        for (LongAdder[] byStatus : payments) {
+            fill(byStatus);
+        }
+        fill(decisions);
+    }
+
+    /**
+     * Counts a payment by the status it was recorded with.
+     *
+     * @param type The type of the payment.
+     * @param status The status of the payment's transaction.
+     */
+    public void recordPayment(TransactionType type, TransactionStatus status) {
+        payments[type.ordinal()][status.ordinal()].increment();
+    }
+
+    /**
+     * Counts pending transactions decided with a status.
+     *
+     * @param status The decided status.
+     * @param count The number of transactions decided.
+     */
+    public void recordDecisions(TransactionStatus status, int count) {
+        decisions[status.ordinal()].add(count);
+    }
+
+    public long getPayments(TransactionType type, TransactionStatus status) {
+        return payments[type.ordinal()][status.ordinal()].sum();
+    }
+
+    public long getDecisions(TransactionStatus status) {
+        return decisions[status.ordinal()].sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (TransactionType type : TransactionType.values()) {
+            for (TransactionStatus status : TransactionStatus.values()) {
+                FunctionCounter.builder("wallet.payments", payments[type.ordinal()][status.ordinal()], LongAdder::sum)
+                        .description("Payments by type and the status they were recorded with")
+                        .tag("type", type.name())
+                        .tag("status", status.name())
+                        .register(registry);
+            }
+        }
+        for (TransactionStatus status : TransactionStatus.values()) {
+            if (status != TransactionStatus.PENDING) {
+                FunctionCounter.builder("wallet.approvals", decisions[status.ordinal()], LongAdder::sum)
+                        .description("Pending transactions decided, by decided status")
+                        .tag("status", status.name())
+                        .register(registry);
+            }
+        }
+    }
+
+    private static void fill(LongAdder[] adders) {
+        for (int i = 0; i < adders.length; i++) {
+            adders[i] = new LongAdder();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.inghubs.walletservice.service.metrics;
+
+import com.inghubs.walletservice.configuration.MetricsProperties;
+import com.inghubs.walletservice.model.dto.PendingTotal;
+import com.inghubs.walletservice.model.dto.enums.Currency;
+import com.inghubs.walletservice.repository.TransactionRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Publishes the number and total amount of the transactions awaiting approval, per wallet currency.
+ * <p>
+ * The totals are read with one aggregate query when a gauge is scraped, and reused by every gauge scraped
+ * within the refresh interval. With the payment journal enabled they only include the journaled payments
+ * already written to the database.
+ */
+@Component
+public class PendingTransactionMetrics implements MeterBinder {
+
+    private final TransactionRepository transactionRepository;
+    private final long refreshNanos;
+    private final LongSupplier clock;
+
+    private volatile Snapshot snapshot;
+
+    @Autowired
+    public PendingTransactionMetrics(TransactionRepository transactionRepository, MetricsProperties properties) {
+        this(transactionRepository, properties, System::nanoTime);
+    }
+
+    PendingTransactionMetrics(TransactionRepository transactionRepository, MetricsProperties properties, LongSupplier clock) {
+        this.transactionRepository = transactionRepository;
+        this.refreshNanos = properties.getPendingRefreshInterval().toNanos();
+        this.clock = clock;
+    }
+
+    /**
+     * Returns the pending totals of a currency, querying them again if the last query is older than the
+     * refresh interval.
+     *
+     * @param currency The currency of the wallets.
+     * @return The number and total amount of the currency's pending transactions.
+     */
+    public PendingTotal pendingTotal(Currency currency) {
+        long now = clock.getAsLong();
+        Snapshot current = snapshot;
+        if (current == null || now - current.takenAt() >= refreshNanos) {
+            Map<Currency, PendingTotal> totals = new EnumMap<>(Currency.class);
+            for (PendingTotal total : transactionRepository.sumPendingByCurrency()) {
+                totals.put(total.currency(), total);
+            }
+            current = new Snapshot(now, totals);
+            snapshot = current;
+        }
+        PendingTotal total = current.totals().get(currency);
+        return total != null ? total : new PendingTotal(currency, 0, BigDecimal.ZERO);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Currency currency : Currency.values()) {
+            Gauge.builder("wallet.transactions.pending", this, metrics -> metrics.pendingTotal(currency).count())
+                    .description("Transactions awaiting approval")
+                    .tag("currency", currency.name())
+                    .register(registry);
+            Gauge.builder("wallet.transactions.pending.amount", this,
+                            metrics -> metrics.pendingTotal(currency).amount().doubleValue())
+                    .description("Total amount of the transactions awaiting approval")
+                    .tag("currency", currency.name())
+                    .register(registry);
+        }
+    }
+
+    private record Snapshot(long takenAt, Map<Currency, PendingTotal> totals) {
+    }
+}
@@ -0,0 +1,127 @@
+package com.inghubs.walletservice.service.metrics;
+
+import com.inghubs.walletservice.configuration.MetricsProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Detects virtual threads that block while pinned to their carrier thread, for example inside a
+ * {@code synchronized} block, by streaming JFR's {@code jdk.VirtualThreadPinned} events.
+ * <p>
+ * Every pinned park longer than the threshold is counted. A park is attributed to the application when the
+ * innermost frame outside the JDK belongs to it, which is where a monitor held around a lock, a sleep or I/O
+ * in this code base shows up; those are also logged with their stack. Pinning inside libraries, such as a
+ * JDBC driver, is counted but left to the library.
+ */
+@Slf4j
+@Component
+public class VirtualThreadPinningMonitor implements SmartInitializingSingleton, DisposableBean, MeterBinder {
+
+    private static final String EVENT = "jdk.VirtualThreadPinned";
+    private static final String APPLICATION_PACKAGE = "com.inghubs.";
+    private static final List<String> JDK_PACKAGES = List.of("java.", "javax.", "jdk.", "sun.", "com.sun.");
+
+    private final MetricsProperties.Pinning properties;
+    private final LongAdder pinned = new LongAdder();
+    private final LongAdder pinnedInApplication = new LongAdder();
+
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(MetricsProperties properties) {
+        this.properties = properties.getPinning();
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        stream = new RecordingStream();
+        stream.enable(EVENT).withThreshold(properties.getThreshold()).withStackTrace();
+        stream.onEvent(EVENT, this::record);
+        stream.startAsync();
+    }
+
+    @Override
+    public void destroy() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    /**
+     * Tells whether pinned virtual threads are being recorded.
+     *
+     * @return True if the monitor is enabled.
+     */
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public long getPinned() {
+        return pinned.sum();
+    }
+
+    public long getPinnedInApplication() {
+        return pinnedInApplication.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("wallet.virtual-threads.pinned", pinned, LongAdder::sum)
+                .description("Virtual threads that blocked while pinned to their carrier thread")
+                .tag("location", "any")
+                .register(registry);
+        FunctionCounter.builder("wallet.virtual-threads.pinned", pinnedInApplication, LongAdder::sum)
+                .description("Virtual threads that blocked while pinned to their carrier thread")
+                .tag("location", "application")
+                .register(registry);
+    }
+
+    private void record(RecordedEvent event) {
+        pinned.increment();
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        if (stackTrace == null || !pinnedInApplication(stackTrace.getFrames())) {
+            return;
+        }
+        pinnedInApplication.increment();
+        log.warn("Virtual thread pinned for {} ms in application code:\n{}", event.getDuration().toMillis(),
+                stackTrace.getFrames().stream()
+                        .filter(RecordedFrame::isJavaFrame)
+                        .map(frame -> "\tat " + frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                                + "(line " + frame.getLineNumber() + ")")
+                        .collect(Collectors.joining("\n")));
+    }
+
+    /**
+     * Tells whether the innermost frame outside the JDK belongs to the application.
+     *
+     * @param frames The frames of the pinned park, innermost first.
+     * @return True if the application blocked while pinned.
+     */
+    static boolean pinnedInApplication(List<RecordedFrame> frames) {
+        for (RecordedFrame frame : frames) {
+            if (!frame.isJavaFrame()) {
+                continue;
+            }
+            String type = frame.getMethod().getType().getName();
+            if (JDK_PACKAGES.stream().noneMatch(type::startsWith)) {
+                return type.startsWith(APPLICATION_PACKAGE);
+            }
+        }
+        return false;
+    }
+}
@@ -1,6 +1,15 @@
+-- Entity ids are allocated from these sequences in blocks of INCREMENT BY values (pooled-lo),
+-- so inserts can be batched. Changing an increment here changes the allocation size as well.
+CREATE SEQUENCE customer_seq START WITH 100 INCREMENT BY 50;
+CREATE SEQUENCE employee_seq START WITH 100 INCREMENT BY 50;
+CREATE SEQUENCE wallet_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE transaction_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE ledger_entry_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE wallet_snapshot_seq START WITH 1 INCREMENT BY 50;
+
 CREATE TABLE customer
 (
-    id           BIGINT AUTO_INCREMENT PRIMARY KEY,
+    id           BIGINT PRIMARY KEY,
     username     VARCHAR(255) UNIQUE NOT NULL,
     password     VARCHAR(255)        NOT NULL,
     firstname    VARCHAR(255),
@@ -14,7 +23,7 @@ CREATE TABLE customer
 
 CREATE TABLE employee
 (
-    id           BIGINT AUTO_INCREMENT PRIMARY KEY,
+    id           BIGINT PRIMARY KEY,
     username     VARCHAR(255) UNIQUE NOT NULL,
     password     VARCHAR(255)        NOT NULL,
     firstname    VARCHAR(255),
@@ -25,3 +34,94 @@ CREATE TABLE employee
     updated_date TIMESTAMP,
     updated_by   VARCHAR(255)
 );
+
+CREATE TABLE wallet
+(
+    id                  BIGINT PRIMARY KEY,
+    customer_id         BIGINT                      NOT NULL REFERENCES customer (id),
+    wallet_name         VARCHAR(255),
+    currency            ENUM ('EUR', 'TRY', 'USD')  NOT NULL,
+    active_for_shopping BOOLEAN                     NOT NULL,
+    active_for_withdraw BOOLEAN                     NOT NULL,
+    balance             NUMERIC(19, 4),
+    usable_balance      NUMERIC(19, 4),
+    ledger_sequence     BIGINT DEFAULT 0            NOT NULL,
+    version             BIGINT,
+    created_date        TIMESTAMP                   NOT NULL,
+    created_by          VARCHAR(255)                NOT NULL,
+    updated_date        TIMESTAMP,
+    updated_by          VARCHAR(255)
+);
+
+-- Wallet search indexes. Each one ends in id so that it also serves the keyset tie-breaker, and H2 walks
+-- them backwards for descending sorts. The two balance indexes are rewritten on every balance change.
+CREATE INDEX idx_wallet_customer_id_id ON wallet (customer_id, id);
+CREATE INDEX idx_wallet_currency_id ON wallet (currency, id);
+CREATE INDEX idx_wallet_currency_balance_id ON wallet (currency, balance, id);
+CREATE INDEX idx_wallet_balance_id ON wallet (balance, id);
+
+CREATE TABLE transaction
+(
+    id                  BIGINT PRIMARY KEY,
+    wallet_id           BIGINT                                  NOT NULL REFERENCES wallet (id),
+    amount              NUMERIC(19, 4)                          NOT NULL,
+    type                ENUM ('DEPOSIT', 'WITHDRAW')            NOT NULL,
+    opposite_party_type ENUM ('IBAN', 'PAYMENT')                NOT NULL,
+    opposite_party      VARCHAR(255)                            NOT NULL,
+    status              ENUM ('APPROVED', 'DENIED', 'PENDING')  NOT NULL,
+    version             BIGINT,
+    created_date        TIMESTAMP                               NOT NULL,
+    created_by          VARCHAR(255)                            NOT NULL,
+    updated_date        TIMESTAMP,
+    updated_by          VARCHAR(255)
+);
+
+-- Transaction history is read newest first per wallet, by keyset on id.
+CREATE INDEX idx_transaction_wallet_id_id ON transaction (wallet_id, id DESC);
+-- Bulk approval walks the pending transactions by keyset on id.
+CREATE INDEX idx_transaction_status_id ON transaction (status, id);
+
+-- Per customer and currency totals of the wallet balances, kept in step by delta updates in the payment transactions.
+CREATE TABLE customer_balance
+(
+    customer_id    BIGINT                      NOT NULL REFERENCES customer (id),
+    currency       ENUM ('EUR', 'TRY', 'USD')  NOT NULL,
+    balance        NUMERIC(19, 4)              NOT NULL,
+    usable_balance NUMERIC(19, 4)              NOT NULL,
+    PRIMARY KEY (customer_id, currency)
+);
+
+-- Balance changes of the LEDGER locking mode. Entries are only ever inserted, at gapless positions per wallet;
+-- two writers that read the same ledger tail collide on the unique position instead of both appending.
+-- The unique index also serves the range read of the entries after a wallet's snapshot.
+CREATE TABLE ledger_entry
+(
+    id              BIGINT PRIMARY KEY,
+    wallet_id       BIGINT          NOT NULL REFERENCES wallet (id),
+    sequence_number BIGINT          NOT NULL,
+    transaction_id  BIGINT          NOT NULL REFERENCES transaction (id),
+    balance_delta   NUMERIC(19, 4)  NOT NULL,
+    usable_delta    NUMERIC(19, 4)  NOT NULL,
+    created_date    TIMESTAMP       NOT NULL,
+    created_by      VARCHAR(255)    NOT NULL,
+    CONSTRAINT uk_ledger_entry_wallet_sequence UNIQUE (wallet_id, sequence_number)
+);
+
+-- Balances of a wallet every snapshot-interval ledger entries; the latest one is also copied onto the wallet row.
+CREATE TABLE wallet_snapshot
+(
+    id              BIGINT PRIMARY KEY,
+    wallet_id       BIGINT          NOT NULL REFERENCES wallet (id),
+    sequence_number BIGINT          NOT NULL,
+    balance         NUMERIC(19, 4)  NOT NULL,
+    usable_balance  NUMERIC(19, 4)  NOT NULL,
+    created_date    TIMESTAMP       NOT NULL,
+    CONSTRAINT uk_wallet_snapshot_wallet_sequence UNIQUE (wallet_id, sequence_number)
+);
+
+-- Last payment journal position written to the database, advanced in the transaction that writes the records.
+CREATE TABLE journal_checkpoint
+(
+    name             VARCHAR(64) PRIMARY KEY,
+    applied_sequence BIGINT       NOT NULL
+);
@@ -0,0 +1,93 @@
+package com.inghubs.walletservice.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Measures authenticated requests per second for each way a client can authenticate:
+ * HTTP Basic with the credential cache off, HTTP Basic with it on, and a bearer session token.
+ * The endpoint is a cheap read, so the numbers are dominated by authentication cost.
+ */
+@Tag("benchmark")
+class AuthenticationBenchmark {
+
+    private static final int THREADS = 8;
+    private static final int REQUESTS_PER_THREAD = 50;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Test
+    @DisplayName("authenticated requests per second for basic, cached basic and bearer token")
+    void authenticatedThroughput() throws Exception {
+        BenchmarkSupport.Result uncached = measure(false, false);
+        BenchmarkSupport.Result cached = measure(true, false);
+        BenchmarkSupport.Result bearer = measure(false, true);
+
+        System.out.printf("basic, cache off: %8.1f req/s (mean %.2f ms, failures=%d)%n",
+                uncached.opsPerSecond(), uncached.meanMillis(), uncached.failures());
+        System.out.printf("basic, cache on:  %8.1f req/s (mean %.2f ms, failures=%d)%n",
+                cached.opsPerSecond(), cached.meanMillis(), cached.failures());
+        System.out.printf("bearer token:     %8.1f req/s (mean %.2f ms, failures=%d)%n",
+                bearer.opsPerSecond(), bearer.meanMillis(), bearer.failures());
+
+        assertEquals(0, uncached.failures());
+        assertEquals(0, cached.failures());
+        assertEquals(0, bearer.failures());
+    }
+
+    private BenchmarkSupport.Result measure(boolean cacheEnabled, boolean bearerToken) throws Exception {
+        try (ConfigurableApplicationContext node = BenchmarkSupport.startWebNode(
+                "auth-" + cacheEnabled + "-" + bearerToken,
+                "wallet.security.auth-cache.enabled=" + cacheEnabled)) {
+            String baseUrl = BenchmarkSupport.baseUrl(node);
+            String url = baseUrl + "/api/wallets?customerId=1";
+            String auth = bearerToken
+                    ? "Bearer " + login(node.getBean(ObjectMapper.class), baseUrl)
+                    : BenchmarkSupport.basicAuth("customer1", "password");
+            // warm up the connection pool and, when enabled, the cache
+            send(url, auth);
+            return BenchmarkSupport.run(THREADS, REQUESTS_PER_THREAD, (thread, i) -> {
+                HttpResponse<String> response = send(url, auth);
+                if (response.statusCode() != 200) {
+                    throw new IllegalStateException(response.statusCode() + " " + response.body());
+                }
+            });
+        }
+    }
+
+    private String login(ObjectMapper mapper, String baseUrl) throws Exception {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/login"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(mapper.writeValueAsString(
+                                Map.of("username", "customer1", "password", "password"))))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(response.statusCode() + " " + response.body());
+        }
+        return mapper.readTree(response.body()).get("token").asText();
+    }
+
+    private HttpResponse<String> send(String url, String auth) {
+        try {
+            return client.send(HttpRequest.newBuilder(URI.create(url))
+                            .header("Authorization", auth)
+                            .GET()
+                            .build(),
+                    HttpResponse.BodyHandlers.ofString());
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
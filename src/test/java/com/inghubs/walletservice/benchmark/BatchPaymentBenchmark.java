@@ -0,0 +1,132 @@
+package com.inghubs.walletservice.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inghubs.walletservice.model.dto.BatchPaymentItem;
+import com.inghubs.walletservice.model.dto.BatchPaymentRequest;
+import com.inghubs.walletservice.model.dto.CreateWalletRequest;
+import com.inghubs.walletservice.model.dto.Money;
+import com.inghubs.walletservice.model.dto.enums.Currency;
+import com.inghubs.walletservice.model.dto.enums.OppositePartyType;
+import com.inghubs.walletservice.model.dto.enums.TransactionType;
+import com.inghubs.walletservice.service.WalletService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares settlement throughput over HTTP: individual deposit calls versus the batch endpoint.
+ * Both paths pay for HTTP Basic authentication; the batch path pays for it once per batch.
+ */
+@Tag("benchmark")
+class BatchPaymentBenchmark {
+
+    private static final int WALLETS = 100;
+    private static final int PAYMENTS = 1_000;
+    private static final int THREADS = 8;
+    private static final int BATCH_SIZE = 500;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Test
+    @DisplayName("batch endpoint versus individual deposit calls")
+    void batchVersusSingleCalls() throws Exception {
+        try (ConfigurableApplicationContext node = BenchmarkSupport.startWebNode("batch-payments")) {
+            ObjectMapper mapper = node.getBean(ObjectMapper.class);
+            WalletService walletService = node.getBean(WalletService.class);
+            List<Long> walletIds = IntStream.range(0, WALLETS)
+                    .mapToObj(i -> walletService.createWallet(CreateWalletRequest.builder()
+                            .customerId(1L)
+                            .walletName("Settlement " + i)
+                            .currency(Currency.TRY)
+                            .activeForShopping(true)
+                            .activeForWithdraw(true)
+                            .build()).getWalletId())
+                    .toList();
+            String url = BenchmarkSupport.baseUrl(node);
+            String auth = BenchmarkSupport.basicAuth("admin", "password");
+
+            BenchmarkSupport.Result single = BenchmarkSupport.run(THREADS, PAYMENTS / THREADS, (thread, i) -> {
+                Long walletId = walletIds.get((thread * PAYMENTS / THREADS + i) % WALLETS);
+                String body = write(mapper, Map.of(
+                        "walletId", walletId,
+                        "amount", BigDecimal.TEN,
+                        "source", OppositePartyType.IBAN,
+                        "oppositeParty", "TR1234567890987654321"));
+                HttpResponse<String> response = post(url + "/api/wallets/deposit", auth, body);
+                if (response.statusCode() != 200) {
+                    throw new IllegalStateException(response.body());
+                }
+            });
+
+            int batches = PAYMENTS / BATCH_SIZE;
+            BenchmarkSupport.Result batch = BenchmarkSupport.run(1, batches, (thread, b) -> {
+                List<BatchPaymentItem> items = IntStream.range(0, BATCH_SIZE)
+                        .mapToObj(i -> BatchPaymentItem.builder()
+                                .type(TransactionType.DEPOSIT)
+                                .walletId(walletIds.get((b * BATCH_SIZE + i) % WALLETS))
+                                .amount(Money.of(10))
+                                .source(OppositePartyType.IBAN)
+                                .oppositeParty("TR1234567890987654321")
+                                .build())
+                        .toList();
+                HttpResponse<String> response = post(url + "/api/wallets/payments:batch", auth,
+                        write(mapper, BatchPaymentRequest.builder().items(items).build()));
+                JsonNode json = read(mapper, response.body());
+                if (response.statusCode() != 200 || json.get("succeeded").asInt() != BATCH_SIZE) {
+                    throw new IllegalStateException(response.body());
+                }
+            });
+
+            double batchPaymentsPerSecond = PAYMENTS / (batch.elapsedNanos() / 1e9);
+            System.out.printf("single calls: %8.1f payments/s (%d threads, failures=%d)%n",
+                    single.opsPerSecond(), THREADS, single.failures());
+            System.out.printf("batch calls:  %8.1f payments/s (1 thread, %d items per batch, failures=%d)%n",
+                    batchPaymentsPerSecond, BATCH_SIZE, batch.failures());
+
+            assertEquals(0, single.failures());
+            assertEquals(0, batch.failures());
+        }
+    }
+
+    private HttpResponse<String> post(String url, String auth, String body) {
+        try {
+            return client.send(HttpRequest.newBuilder(URI.create(url))
+                            .header("Content-Type", "application/json")
+                            .header("Authorization", auth)
+                            .POST(HttpRequest.BodyPublishers.ofString(body))
+                            .build(),
+                    HttpResponse.BodyHandlers.ofString());
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String write(ObjectMapper mapper, Object value) {
+        try {
+            return mapper.writeValueAsString(value);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static JsonNode read(ObjectMapper mapper, String body) {
+        try {
+            return mapper.readTree(body);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
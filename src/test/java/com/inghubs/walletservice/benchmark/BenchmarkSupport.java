@@ -0,0 +1,141 @@
+package com.inghubs.walletservice.benchmark;
+
+import com.inghubs.walletservice.InghubsWalletServiceApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Helpers shared by the throughput benchmarks in this package and the JMH benchmarks in {@code benchmark.jmh}.
+ * Benchmarks are tagged {@code benchmark} and only run with {@code mvn test -Pbenchmark}, or {@code -Pjmh}.
+ */
+public final class BenchmarkSupport {
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * Boots the application without a web server against the given in-memory database.
+     *
+     * @param database The name of the H2 in-memory database; nodes using the same name share it.
+     * @param initializeSchema Whether this node runs schema.sql and data.sql.
+     * @param properties Additional application properties.
+     * @return The running application context.
+     */
+    public static ConfigurableApplicationContext startNode(String database, boolean initializeSchema, String... properties) {
+        return startNode(WebApplicationType.NONE, database, initializeSchema, properties);
+    }
+
+    /**
+     * Boots the application with an embedded web server on a random port.
+     *
+     * @param database The name of the H2 in-memory database.
+     * @param properties Additional application properties.
+     * @return The running application context; see {@link #baseUrl(ConfigurableApplicationContext)}.
+     */
+    static ConfigurableApplicationContext startWebNode(String database, String... properties) {
+        List<String> all = new ArrayList<>(List.of(properties));
+        all.add("server.port=0");
+        return startNode(WebApplicationType.SERVLET, database, true, all.toArray(String[]::new));
+    }
+
+    /**
+     * Returns the base URL of a node started with {@link #startWebNode(String, String...)}.
+     *
+     * @param context The running application context.
+     * @return The URL of the embedded web server.
+     */
+    static String baseUrl(ConfigurableApplicationContext context) {
+        return "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+    }
+
+    /**
+     * Returns an HTTP Basic authorization header value.
+     *
+     * @param username The username.
+     * @param password The password.
+     * @return The header value.
+     */
+    static String basicAuth(String username, String password) {
+        return "Basic " + Base64.getEncoder().encodeToString((username + ":" + password).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static ConfigurableApplicationContext startNode(WebApplicationType type, String database,
+                                                            boolean initializeSchema, String... properties) {
+        List<String> all = new ArrayList<>(List.of(
+                "spring.datasource.url=jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1",
+                "spring.sql.init.mode=" + (initializeSchema ? "always" : "never"),
+                "spring.jmx.enabled=false",
+                "spring.main.banner-mode=off",
+                "logging.level.root=WARN"));
+        all.addAll(List.of(properties));
+        // later entries win; passed as command line arguments so they also override application.yml
+        Map<String, String> byKey = new LinkedHashMap<>();
+        all.forEach(property -> byKey.put(property.substring(0, property.indexOf('=')), property));
+        return new SpringApplicationBuilder(InghubsWalletServiceApplication.class)
+                .web(type)
+                .run(byKey.values().stream().map(property -> "--" + property).toArray(String[]::new));
+    }
+
+    /**
+     * Runs an operation from several threads at once and measures the achieved throughput.
+     *
+     * @param threads The number of concurrent threads.
+     * @param opsPerThread The number of operations each thread performs.
+     * @param operation The operation, receiving the thread index and the operation index.
+     * @return The measured result.
+     */
+    static Result run(int threads, int opsPerThread, Operation operation) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        LongAdder failures = new LongAdder();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < opsPerThread; i++) {
+                    try {
+                        operation.run(thread, i);
+                    } catch (RuntimeException e) {
+                        failures.increment();
+                    }
+                }
+                return null;
+            }));
+        }
+        long began = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.MINUTES);
+        }
+        long elapsed = System.nanoTime() - began;
+        executor.shutdown();
+        return new Result((long) threads * opsPerThread, failures.sum(), elapsed);
+    }
+
+    @FunctionalInterface
+    interface Operation {
+        void run(int thread, int index);
+    }
+
+    record Result(long operations, long failures, long elapsedNanos) {
+
+        double opsPerSecond() {
+            return operations / (elapsedNanos / 1e9);
+        }
+
+        double meanMillis() {
+            return elapsedNanos / 1e6 / operations;
+        }
+    }
+}
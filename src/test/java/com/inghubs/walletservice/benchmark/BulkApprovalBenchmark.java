@@ -0,0 +1,105 @@
+package com.inghubs.walletservice.benchmark;
+
+import com.inghubs.walletservice.model.dto.BulkApprovalRequest;
+import com.inghubs.walletservice.model.dto.BulkApprovalResponse;
+import com.inghubs.walletservice.model.dto.CreateWalletRequest;
+import com.inghubs.walletservice.model.dto.Money;
+import com.inghubs.walletservice.model.dto.PaymentRequest;
+import com.inghubs.walletservice.model.dto.TransactionApprovalRequest;
+import com.inghubs.walletservice.model.dto.enums.Currency;
+import com.inghubs.walletservice.model.dto.enums.OppositePartyType;
+import com.inghubs.walletservice.model.dto.enums.TransactionStatus;
+import com.inghubs.walletservice.service.TransactionService;
+import com.inghubs.walletservice.service.WalletService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares approving pending deposits one request per transaction with approving them in one bulk request,
+ * on a file database.
+ */
+@Tag("benchmark")
+class BulkApprovalBenchmark {
+
+    private static final int WALLETS = 50;
+    private static final int PENDING = 5_000;
+
+    @TempDir
+    Path directory;
+
+    @ParameterizedTest(name = "bulk: {0}, chunk size {1}")
+    @CsvSource({
+            "false, 100",
+            "true, 100",
+            "true, 500",
+            "true, 2000"
+    })
+    @DisplayName("approval throughput, one by one and in bulk")
+    void approvalThroughput(boolean bulk, int chunkSize) {
+        try (ConfigurableApplicationContext node = BenchmarkSupport.startNode("bulk-approval", true,
+                "spring.datasource.url=jdbc:h2:file:" + directory.resolve("wallet"),
+                "wallet.bulk-approval.chunk-size=" + chunkSize)) {
+            WalletService walletService = node.getBean(WalletService.class);
+            TransactionService transactionService = node.getBean(TransactionService.class);
+            JdbcTemplate jdbcTemplate = node.getBean(JdbcTemplate.class);
+            List<Long> walletIds = IntStream.range(0, WALLETS)
+                    .mapToObj(i -> walletService.createWallet(CreateWalletRequest.builder()
+                            .customerId(1L)
+                            .walletName("Bulk " + i)
+                            .currency(Currency.TRY)
+                            .activeForShopping(true)
+                            .activeForWithdraw(true)
+                            .build()).getWalletId())
+                    .toList();
+            for (int i = 0; i < PENDING; i++) {
+                walletService.makeDeposit(PaymentRequest.builder()
+                        .walletId(walletIds.get(i % WALLETS))
+                        .amount(Money.of(1_001))
+                        .source(OppositePartyType.IBAN)
+                        .oppositeParty("TR1234567890987654321")
+                        .build());
+            }
+            List<Long> pending = jdbcTemplate.queryForList(
+                    "select id from transaction where status = 'PENDING' order by id", Long.class);
+
+            long began = System.nanoTime();
+            int decided;
+            if (bulk) {
+                BulkApprovalResponse response = transactionService.approveTransactions(BulkApprovalRequest.builder()
+                        .status(TransactionStatus.APPROVED)
+                        .transactionIds(pending)
+                        .build());
+                decided = response.getDecided();
+            } else {
+                for (Long transactionId : pending) {
+                    TransactionApprovalRequest request = new TransactionApprovalRequest();
+                    request.setTransactionId(transactionId);
+                    request.setStatus(TransactionStatus.APPROVED);
+                    transactionService.approveTransaction(request);
+                }
+                decided = pending.size();
+            }
+            double seconds = (System.nanoTime() - began) / 1e9;
+            System.out.printf("bulk=%-5s chunk=%5d approvals=%d elapsed=%8.3f s approvals/s=%10.1f%n",
+                    bulk, chunkSize, decided, seconds, decided / seconds);
+
+            BigDecimal usable = jdbcTemplate.queryForObject(
+                    "select sum(usable_balance) from wallet where id between ? and ?", BigDecimal.class,
+                    walletIds.get(0), walletIds.get(WALLETS - 1));
+            assertEquals(PENDING, decided);
+            assertEquals(0, BigDecimal.valueOf(1_001L * PENDING).compareTo(usable));
+        }
+    }
+}
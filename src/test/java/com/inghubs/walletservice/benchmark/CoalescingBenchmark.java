@@ -0,0 +1,99 @@
+package com.inghubs.walletservice.benchmark;
+
+import com.inghubs.walletservice.model.dto.CreateWalletRequest;
+import com.inghubs.walletservice.model.dto.Money;
+import com.inghubs.walletservice.model.dto.PaymentRequest;
+import com.inghubs.walletservice.model.dto.enums.Currency;
+import com.inghubs.walletservice.model.dto.enums.OppositePartyType;
+import com.inghubs.walletservice.model.entity.Wallet;
+import com.inghubs.walletservice.repository.WalletRepository;
+import com.inghubs.walletservice.service.WalletService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Shows the throughput and latency trade-off of payment coalescing across window sizes, on a file database.
+ * A longer window forms larger groups and so fewer commits, at the cost of the time the first payment of
+ * each group waits for the others.
+ */
+@Tag("benchmark")
+class CoalescingBenchmark {
+
+    private static final int THREADS = 32;
+    private static final int OPS_PER_THREAD = 300;
+    private static final int WALLETS = 200;
+
+    @TempDir
+    Path directory;
+
+    @ParameterizedTest(name = "coalescing {0}, window {1}")
+    @CsvSource({
+            "false, 0ms",
+            "true, 0ms",
+            "true, 500us",
+            "true, 1ms",
+            "true, 2ms",
+            "true, 5ms"
+    })
+    @DisplayName("deposit throughput and latency across coalescing windows")
+    void depositThroughput(boolean coalescing, String window) throws Exception {
+        try (ConfigurableApplicationContext node = BenchmarkSupport.startNode("coalescing", true,
+                "spring.datasource.url=jdbc:h2:file:" + directory.resolve("wallet"),
+                "wallet.payment-engine.coalescing.enabled=" + coalescing,
+                "wallet.payment-engine.coalescing.window=" + window)) {
+            WalletService walletService = node.getBean(WalletService.class);
+            List<Long> walletIds = IntStream.range(0, WALLETS)
+                    .mapToObj(i -> walletService.createWallet(CreateWalletRequest.builder()
+                            .customerId(1L)
+                            .walletName("Coalesced " + i)
+                            .currency(Currency.TRY)
+                            .activeForShopping(true)
+                            .activeForWithdraw(true)
+                            .build()).getWalletId())
+                    .toList();
+            double[][] millis = new double[THREADS][OPS_PER_THREAD];
+
+            BenchmarkSupport.Result result = BenchmarkSupport.run(THREADS, OPS_PER_THREAD, (thread, i) -> {
+                Long walletId = walletIds.get(ThreadLocalRandom.current().nextInt(walletIds.size()));
+                long began = System.nanoTime();
+                walletService.makeDeposit(PaymentRequest.builder()
+                        .walletId(walletId)
+                        .amount(Money.of(10))
+                        .source(OppositePartyType.IBAN)
+                        .oppositeParty("TR1234567890987654321")
+                        .build());
+                millis[thread][i] = (System.nanoTime() - began) / 1e6;
+            });
+
+            MeterRegistry registry = node.getBean(MeterRegistry.class);
+            double groups = registry.get("wallet.payment.coalescer.groups").functionCounter().count();
+            double[] sorted = Arrays.stream(millis).flatMapToDouble(Arrays::stream).sorted().toArray();
+            System.out.printf("coalescing=%-5s window=%-5s ops/s=%9.1f p50=%7.3f ms p99=%8.3f ms mean group=%6.1f failures=%d%n",
+                    coalescing, window, result.opsPerSecond(), percentile(sorted, 50), percentile(sorted, 99),
+                    groups == 0 ? 1 : result.operations() / groups, result.failures());
+
+            Money total = node.getBean(WalletRepository.class).findAllById(walletIds).stream()
+                    .map(Wallet::getBalance)
+                    .reduce(Money.ZERO, Money::plus);
+            assertEquals(0, result.failures());
+            assertEquals(0, Money.of(10 * result.operations()).compareTo(total));
+        }
+    }
+
+    private static double percentile(double[] sorted, int percentile) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(percentile / 100.0 * sorted.length) - 1)];
+    }
+}
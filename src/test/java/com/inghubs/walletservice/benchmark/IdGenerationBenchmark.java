@@ -0,0 +1,114 @@
+package com.inghubs.walletservice.benchmark;
+
+import com.inghubs.walletservice.model.dto.CreateWalletRequest;
+import com.inghubs.walletservice.model.dto.Money;
+import com.inghubs.walletservice.model.dto.enums.Currency;
+import com.inghubs.walletservice.model.dto.enums.OppositePartyType;
+import com.inghubs.walletservice.model.dto.enums.TransactionStatus;
+import com.inghubs.walletservice.model.dto.enums.TransactionType;
+import com.inghubs.walletservice.model.entity.Transaction;
+import com.inghubs.walletservice.model.entity.Wallet;
+import com.inghubs.walletservice.repository.TransactionRepository;
+import com.inghubs.walletservice.repository.WalletRepository;
+import com.inghubs.walletservice.service.TransactionService;
+import com.inghubs.walletservice.service.WalletService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.h2.tools.Server;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Measures transaction insert throughput with pooled sequence ids versus IDENTITY ids.
+ * The IDENTITY baseline overrides the Transaction mapping with an orm.xml file, so both runs
+ * persist the same entity through {@link TransactionService#createTransaction(Transaction)}.
+ * The database is reached over a local H2 TCP server so every statement pays a real round trip.
+ * The row count defaults to one million and can be lowered with {@code -Dbenchmark.rows}.
+ */
+@Tag("benchmark")
+class IdGenerationBenchmark {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 1_000_000);
+    private static final int ROWS_PER_TRANSACTION = 1_000;
+
+    private static Server server;
+
+    @BeforeAll
+    static void startDatabaseServer() throws Exception {
+        server = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+    }
+
+    @AfterAll
+    static void stopDatabaseServer() {
+        server.stop();
+    }
+
+    @ParameterizedTest(name = "{0} ids")
+    @ValueSource(strings = {"SEQUENCE", "IDENTITY"})
+    @DisplayName("insert throughput per id generation strategy")
+    void insertThroughput(String strategy) {
+        List<String> properties = new ArrayList<>(List.of(
+                "spring.datasource.url=jdbc:h2:tcp://localhost:" + server.getPort() + "/mem:ids-" + strategy + ";DB_CLOSE_DELAY=-1",
+                "spring.jpa.properties.hibernate.generate_statistics=true"));
+        if (strategy.equals("IDENTITY")) {
+            properties.add("spring.jpa.mapping-resources=benchmark/identity-ids-orm.xml");
+        }
+        try (ConfigurableApplicationContext node = BenchmarkSupport.startNode("ids-" + strategy, true, properties.toArray(String[]::new))) {
+            Long walletId = node.getBean(WalletService.class).createWallet(CreateWalletRequest.builder()
+                    .customerId(1L)
+                    .walletName("Bulk")
+                    .currency(Currency.TRY)
+                    .activeForShopping(true)
+                    .activeForWithdraw(true)
+                    .build()).getWalletId();
+            TransactionService transactionService = node.getBean(TransactionService.class);
+            WalletRepository walletRepository = node.getBean(WalletRepository.class);
+            EntityManager entityManager = SharedEntityManagerCreator.createSharedEntityManager(
+                    node.getBean(EntityManagerFactory.class));
+            TransactionTemplate transactionTemplate = new TransactionTemplate(node.getBean(PlatformTransactionManager.class));
+            Statistics statistics = node.getBean(EntityManagerFactory.class)
+                    .unwrap(SessionFactory.class).getStatistics();
+            statistics.clear();
+
+            long began = System.nanoTime();
+            for (int done = 0; done < ROWS; done += ROWS_PER_TRANSACTION) {
+                int count = Math.min(ROWS_PER_TRANSACTION, ROWS - done);
+                transactionTemplate.executeWithoutResult(status -> {
+                    Wallet wallet = walletRepository.getReferenceById(walletId);
+                    for (int i = 0; i < count; i++) {
+                        Transaction transaction = new Transaction();
+                        transaction.setWallet(wallet);
+                        transaction.setAmount(Money.of(10));
+                        transaction.setType(TransactionType.DEPOSIT);
+                        transaction.setOppositePartyType(OppositePartyType.IBAN);
+                        transaction.setOppositeParty("TR1234567890987654321");
+                        transaction.setStatus(TransactionStatus.APPROVED);
+                        transactionService.createTransaction(transaction);
+                    }
+                    entityManager.flush();
+                    entityManager.clear();
+                });
+            }
+            double seconds = (System.nanoTime() - began) / 1e9;
+
+            System.out.printf("%-8s ids: %,d rows in %6.1f s = %,10.0f rows/s, statements prepared=%,d%n",
+                    strategy, ROWS, seconds, ROWS / seconds, statistics.getPrepareStatementCount());
+            assertEquals(ROWS, node.getBean(TransactionRepository.class).count());
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.inghubs.walletservice.benchmark;
+
+import com.inghubs.walletservice.model.dto.CreateWalletRequest;
+import com.inghubs.walletservice.model.dto.Money;
+import com.inghubs.walletservice.model.dto.PaymentRequest;
+import com.inghubs.walletservice.model.dto.enums.Currency;
+import com.inghubs.walletservice.model.dto.enums.OppositePartyType;
+import com.inghubs.walletservice.model.entity.Wallet;
+import com.inghubs.walletservice.repository.WalletRepository;
+import com.inghubs.walletservice.service.WalletService;
+import com.inghubs.walletservice.service.journal.PaymentJournal;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares deposit throughput and latency with and without the payment journal, on a file database.
+ * With the journal a deposit is acknowledged once its record is synced with a group commit; the database
+ * is written afterwards by the applier, which is included in the measurement by waiting for it to catch up.
+ */
+@Tag("benchmark")
+class JournalBenchmark {
+
+    private static final int THREADS = 16;
+    private static final int OPS_PER_THREAD = 500;
+    private static final int WALLETS = 50;
+
+    @TempDir
+    Path directory;
+
+    @ParameterizedTest(name = "journal enabled: {0}")
+    @CsvSource({"false", "true"})
+    @DisplayName("deposit throughput and latency with and without the payment journal")
+    void depositThroughput(boolean journalEnabled) throws Exception {
+        try (ConfigurableApplicationContext node = BenchmarkSupport.startNode("journal", true,
+                "spring.datasource.url=jdbc:h2:file:" + directory.resolve("wallet"),
+                "wallet.journal.enabled=" + journalEnabled,
+                "wallet.journal.directory=" + directory.resolve("journal"))) {
+            WalletService walletService = node.getBean(WalletService.class);
+            List<Long> walletIds = IntStream.range(0, WALLETS)
+                    .mapToObj(i -> walletService.createWallet(CreateWalletRequest.builder()
+                            .customerId(1L)
+                            .walletName("Journal " + i)
+                            .currency(Currency.TRY)
+                            .activeForShopping(true)
+                            .activeForWithdraw(true)
+                            .build()).getWalletId())
+                    .toList();
+            double[][] millis = new double[THREADS][OPS_PER_THREAD];
+
+            BenchmarkSupport.Result result = BenchmarkSupport.run(THREADS, OPS_PER_THREAD, (thread, i) -> {
+                Long walletId = walletIds.get(ThreadLocalRandom.current().nextInt(walletIds.size()));
+                long began = System.nanoTime();
+                walletService.makeDeposit(PaymentRequest.builder()
+                        .walletId(walletId)
+                        .amount(Money.of(10))
+                        .source(OppositePartyType.IBAN)
+                        .oppositeParty("TR1234567890987654321")
+                        .build());
+                millis[thread][i] = (System.nanoTime() - began) / 1e6;
+            });
+            long began = System.nanoTime();
+            PaymentJournal paymentJournal = node.getBean(PaymentJournal.class);
+            assertTrue(!journalEnabled || paymentJournal.awaitApplied(120_000));
+            double catchUpMillis = (System.nanoTime() - began) / 1e6;
+
+            double[] sorted = Arrays.stream(millis).flatMapToDouble(Arrays::stream).sorted().toArray();
+            System.out.printf("journal=%-5s ops/s=%10.1f p50=%7.3f ms p99=%7.3f ms max=%8.3f ms catch-up=%8.1f ms failures=%d%n",
+                    journalEnabled, result.opsPerSecond(), percentile(sorted, 50), percentile(sorted, 99),
+                    sorted[sorted.length - 1], catchUpMillis, result.failures());
+
+            Money total = node.getBean(WalletRepository.class).findAllById(walletIds).stream()
+                    .map(Wallet::getBalance)
+                    .reduce(Money.ZERO, Money::plus);
+            assertEquals(0, result.failures());
+            assertEquals(0, Money.of(10 * result.operations()).compareTo(total));
+        }
+    }
+
+    private static double percentile(double[] sorted, int percentile) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(percentile / 100.0 * sorted.length) - 1)];
+    }
+}
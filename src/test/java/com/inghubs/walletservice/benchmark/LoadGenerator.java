@@ -0,0 +1,329 @@
+package com.inghubs.walletservice.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drives a mix of wallet traffic over HTTP against a running node, one virtual thread per simulated user,
+ * and records a latency histogram and the outcomes of every endpoint.
+ * <p>
+ * Customers deposit into, withdraw from and list their own wallets; an employee approves the pending deposits
+ * those customers make, finding them through the transaction history of wallets that received one. Deposits
+ * above the approval threshold stay pending, so the share of large deposits feeds the approvals.
+ */
+final class LoadGenerator {
+
+    /**
+     * The operations a simulated user performs, drawn at random by their weight in the traffic mix.
+     */
+    enum Operation {
+        DEPOSIT, WITHDRAW, LIST, APPROVE
+    }
+
+    /**
+     * A customer taking part in the load and the wallets they own.
+     *
+     * @param customerId The ID of the customer.
+     * @param authorization The customer's authorization header value.
+     * @param walletIds The IDs of the customer's wallets.
+     */
+    record Account(long customerId, String authorization, List<Long> walletIds) {
+    }
+
+    /**
+     * Latency percentiles and outcomes of one endpoint.
+     *
+     * @param endpoint The name of the endpoint.
+     * @param requests The number of requests sent.
+     * @param rejected The number of requests answered with a client error, such as an insufficient balance.
+     * @param errors The number of requests answered with a server error or not answered at all.
+     * @param p50Millis The median latency in milliseconds.
+     * @param p99Millis The 99th percentile latency in milliseconds.
+     * @param p999Millis The 99.9th percentile latency in milliseconds.
+     * @param maxMillis The highest latency in milliseconds.
+     */
+    record EndpointReport(String endpoint, long requests, long rejected, long errors,
+                          double p50Millis, double p99Millis, double p999Millis, double maxMillis) {
+    }
+
+    private static final double[] PERCENTILES = {0.5, 0.99, 0.999};
+    private static final BigDecimal APPROVAL_THRESHOLD = BigDecimal.valueOf(1_000);
+
+    /**
+     * The bcrypt hash of "password", as used by the customers of data.sql.
+     */
+    private static final String PASSWORD_HASH = "{bcrypt}$2a$10$/FFxtj2BeQziZZIO0pA18e2st8V4W.kaJbqIbrYL1dJHtlINRQwBK";
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    private final Queue<Long> walletsWithPending = new ConcurrentLinkedQueue<>();
+    private final String baseUrl;
+    private final ObjectMapper mapper;
+    private final String employeeAuthorization;
+
+    LoadGenerator(String baseUrl, ObjectMapper mapper, String employeeAuthorization) {
+        this.baseUrl = baseUrl;
+        this.mapper = mapper;
+        this.employeeAuthorization = employeeAuthorization;
+    }
+
+    /**
+     * Inserts customers named {@code load0}, {@code load1} and so on, all with the password "password".
+     * The API has no customer endpoint, so the customers are inserted directly.
+     *
+     * @param jdbcTemplate The JDBC template of the node.
+     * @param firstCustomer The ID of the first customer; the {@code load} number is added to it.
+     * @param customers The number of customers.
+     */
+    static void insertCustomers(JdbcTemplate jdbcTemplate, long firstCustomer, int customers) {
+        jdbcTemplate.update("""
+                insert into customer (id, username, password, firstname, lastname, tckn, created_date, created_by)
+                select ? + x, 'load' || x, ?, 'Load', 'Customer', lpad(cast(x as varchar), 11, '0'),
+                       current_timestamp, 'benchmark'
+                from system_range(0, ?)
+                """, firstCustomer, PASSWORD_HASH, customers - 1);
+    }
+
+    /**
+     * Creates wallets for a customer through the wallet endpoint, authenticated as that customer.
+     *
+     * @param customerId The ID of the customer.
+     * @param authorization The customer's authorization header value.
+     * @param wallets The number of wallets to create.
+     * @return The customer with the created wallets.
+     */
+    Account createAccount(long customerId, String authorization, int wallets) {
+        List<Long> walletIds = new ArrayList<>();
+        for (int i = 0; i < wallets; i++) {
+            JsonNode wallet = expectOk(send("create", "POST", "/api/wallets", authorization, Map.of(
+                    "customerId", customerId,
+                    "walletName", "Load " + i,
+                    "currency", "TRY",
+                    "activeForShopping", true,
+                    "activeForWithdraw", true)));
+            walletIds.add(wallet.get("walletId").asLong());
+        }
+        return new Account(customerId, authorization, walletIds);
+    }
+
+    /**
+     * Runs the traffic mix until the duration has passed.
+     *
+     * @param accounts The customers and wallets to spread the traffic over.
+     * @param mix The weight of every operation in the traffic mix.
+     * @param users The number of concurrent simulated users.
+     * @param duration How long to run.
+     * @return The number of operations performed.
+     */
+    long run(List<Account> accounts, Map<Operation, Integer> mix, int users, Duration duration) throws Exception {
+        Operation[] weighted = weighted(mix);
+        long deadline = System.nanoTime() + duration.toNanos();
+        List<Future<Long>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int user = 0; user < users; user++) {
+                futures.add(executor.submit(() -> {
+                    long operations = 0;
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < deadline) {
+                        Account account = accounts.get(random.nextInt(accounts.size()));
+                        perform(weighted[random.nextInt(weighted.length)], account, random);
+                        operations++;
+                    }
+                    return operations;
+                }));
+            }
+            long operations = 0;
+            for (Future<Long> future : futures) {
+                operations += future.get(duration.toMillis() + TimeUnit.MINUTES.toMillis(5), TimeUnit.MILLISECONDS);
+            }
+            return operations;
+        }
+    }
+
+    /**
+     * Returns the latency percentiles and outcomes of every endpoint that received requests.
+     *
+     * @return One report per endpoint, ordered by name.
+     */
+    List<EndpointReport> report() {
+        return registry.find("load.requests").timers().stream()
+                .map(timer -> {
+                    String endpoint = timer.getId().getTag("endpoint");
+                    HistogramSnapshot snapshot = timer.takeSnapshot();
+                    double[] millis = new double[PERCENTILES.length];
+                    for (ValueAtPercentile value : snapshot.percentileValues()) {
+                        for (int i = 0; i < PERCENTILES.length; i++) {
+                            if (value.percentile() == PERCENTILES[i]) {
+                                millis[i] = value.value(TimeUnit.MILLISECONDS);
+                            }
+                        }
+                    }
+                    return new EndpointReport(endpoint, timer.count(), outcomes(endpoint, "rejected"), outcomes(endpoint, "error"),
+                            millis[0], millis[1], millis[2], snapshot.max(TimeUnit.MILLISECONDS));
+                })
+                .sorted((a, b) -> a.endpoint().compareTo(b.endpoint()))
+                .toList();
+    }
+
+    private void perform(Operation operation, Account account, ThreadLocalRandom random) {
+        Long walletId = account.walletIds().get(random.nextInt(account.walletIds().size()));
+        switch (operation) {
+            case DEPOSIT -> {
+                // one deposit in ten is above the approval threshold and stays pending
+                BigDecimal amount = random.nextInt(10) == 0
+                        ? APPROVAL_THRESHOLD.add(BigDecimal.valueOf(random.nextInt(1, 4_000)))
+                        : BigDecimal.valueOf(random.nextInt(1, 100_000), 2);
+                HttpResponse<String> response = send("deposit", "POST", "/api/wallets/deposit", account.authorization(),
+                        payment(walletId, amount));
+                if (amount.compareTo(APPROVAL_THRESHOLD) > 0 && response != null && response.statusCode() == 200) {
+                    walletsWithPending.add(walletId);
+                }
+            }
+            case WITHDRAW -> send("withdraw", "POST", "/api/wallets/withdraw", account.authorization(),
+                    payment(walletId, BigDecimal.valueOf(random.nextInt(1, 50_000), 2)));
+            case LIST -> send("list", "GET", "/api/wallets?customerId=" + account.customerId(), account.authorization(), null);
+            case APPROVE -> approvePending();
+        }
+    }
+
+    /**
+     * Approves the pending transactions on the first page of the history of a wallet that received a pending
+     * deposit, as an employee reviewing that wallet would.
+     */
+    private void approvePending() {
+        Long walletId = walletsWithPending.poll();
+        if (walletId == null) {
+            return;
+        }
+        HttpResponse<String> page = send("history", "GET", "/api/transactions/page?walletId=" + walletId,
+                employeeAuthorization, null);
+        if (page == null || page.statusCode() != 200) {
+            return;
+        }
+        for (JsonNode transaction : read(page.body()).get("items")) {
+            if ("PENDING".equals(transaction.get("status").asText())) {
+                send("approve", "POST", "/api/transactions/approve", employeeAuthorization, Map.of(
+                        "transactionId", transaction.get("id").asLong(),
+                        "status", "APPROVED"));
+            }
+        }
+    }
+
+    private static Map<String, Object> payment(Long walletId, BigDecimal amount) {
+        return Map.of(
+                "walletId", walletId,
+                "amount", amount,
+                "source", "IBAN",
+                "oppositeParty", "TR1234567890987654321");
+    }
+
+    /**
+     * Sends a request and records its latency and outcome under the endpoint's name.
+     *
+     * @return The response, or null if none was received.
+     */
+    private HttpResponse<String> send(String endpoint, String method, String path, String authorization, Object body) {
+        long start = System.nanoTime();
+        HttpResponse<String> response = null;
+        try {
+            HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Authorization", authorization);
+            if (body == null) {
+                request.GET();
+            } else {
+                request.header("Content-Type", "application/json")
+                        .method(method, HttpRequest.BodyPublishers.ofString(mapper.writeValueAsString(body)));
+            }
+            response = client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+            return response;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (Exception e) {
+            return null;
+        } finally {
+            timer(endpoint).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (response == null || response.statusCode() >= 500) {
+                outcome(endpoint, "error").increment();
+            } else if (response.statusCode() >= 400) {
+                outcome(endpoint, "rejected").increment();
+            }
+        }
+    }
+
+    private Timer timer(String endpoint) {
+        return Timer.builder("load.requests")
+                .tag("endpoint", endpoint)
+                .publishPercentiles(PERCENTILES)
+                // keep every sample of the run in the histogram instead of a rolling window
+                .distributionStatisticExpiry(Duration.ofDays(1))
+                .distributionStatisticBufferLength(1)
+                .register(registry);
+    }
+
+    private Counter outcome(String endpoint, String outcome) {
+        return Counter.builder("load.outcomes").tag("endpoint", endpoint).tag("outcome", outcome).register(registry);
+    }
+
+    private long outcomes(String endpoint, String outcome) {
+        Counter counter = registry.find("load.outcomes").tag("endpoint", endpoint).tag("outcome", outcome).counter();
+        return counter == null ? 0 : (long) counter.count();
+    }
+
+    private JsonNode expectOk(HttpResponse<String> response) {
+        if (response == null || response.statusCode() != 200 && response.statusCode() != 201) {
+            throw new IllegalStateException(response == null ? "no response" : response.statusCode() + " " + response.body());
+        }
+        return read(response.body());
+    }
+
+    private JsonNode read(String body) {
+        try {
+            return mapper.readTree(body);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Operation[] weighted(Map<Operation, Integer> mix) {
+        List<Operation> weighted = new ArrayList<>();
+        new EnumMap<>(mix).forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                weighted.add(operation);
+            }
+        });
+        if (weighted.isEmpty()) {
+            throw new IllegalArgumentException("The traffic mix is empty");
+        }
+        return weighted.toArray(Operation[]::new);
+    }
+}
@@ -0,0 +1,185 @@
+package com.inghubs.walletservice.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inghubs.walletservice.model.dto.LedgerBalance;
+import com.inghubs.walletservice.repository.WalletRepository;
+import com.inghubs.walletservice.service.LedgerService;
+import com.inghubs.walletservice.service.engine.LockingMode;
+import com.inghubs.walletservice.service.engine.PaymentEngine;
+import com.inghubs.walletservice.service.journal.PaymentJournal;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Drives a mix of deposits, withdraws, wallet lists and approvals over HTTP against a node, reports the latency
+ * percentiles, throughput and error rate of every endpoint, and then checks that no update was lost: every
+ * wallet's balance equals the sum of its approved and pending transactions, its usable balance the sum of its
+ * approved ones, and every balance summary the sum of its wallets. In ledger mode the wallet rows only
+ * hold the latest snapshots, so the balances are read from the ledger.
+ * <p>
+ * The load is tuned with system properties: {@code benchmark.load.customers} (default 20),
+ * {@code benchmark.load.wallets} per customer (5), {@code benchmark.load.users}, the number of concurrent virtual
+ * threads (64), {@code benchmark.load.seconds} (30), {@code benchmark.load.mix}, the weight of every operation
+ * ({@code deposit=40,withdraw=30,list=20,approve=10}), and {@code benchmark.load.properties}, application
+ * properties separated by semicolons, e.g. {@code wallet.payment-engine.locking-mode=PESSIMISTIC}.
+ * Traffic only approves pending deposits: a denied deposit keeps its amount in the wallet's balance.
+ */
+@Tag("benchmark")
+class LoadTestBenchmark {
+
+    private static final long FIRST_CUSTOMER = 1_000;
+    private static final int CUSTOMERS = Integer.getInteger("benchmark.load.customers", 20);
+    private static final int WALLETS_PER_CUSTOMER = Integer.getInteger("benchmark.load.wallets", 5);
+    private static final int USERS = Integer.getInteger("benchmark.load.users", 64);
+    private static final int SECONDS = Integer.getInteger("benchmark.load.seconds", 30);
+    private static final String MIX = System.getProperty("benchmark.load.mix", "deposit=40,withdraw=30,list=20,approve=10");
+    private static final String PROPERTIES = System.getProperty("benchmark.load.properties", "");
+
+    @Test
+    @DisplayName("mixed HTTP traffic keeps every balance equal to its transactions")
+    void mixedTrafficKeepsBalancesConsistent() throws Exception {
+        try (ConfigurableApplicationContext node = BenchmarkSupport.startWebNode("load",
+                Arrays.stream(PROPERTIES.split(";")).filter(property -> !property.isBlank()).toArray(String[]::new))) {
+            JdbcTemplate jdbcTemplate = node.getBean(JdbcTemplate.class);
+            LoadGenerator.insertCustomers(jdbcTemplate, FIRST_CUSTOMER, CUSTOMERS);
+
+            LoadGenerator generator = new LoadGenerator(BenchmarkSupport.baseUrl(node), node.getBean(ObjectMapper.class),
+                    BenchmarkSupport.basicAuth("admin", "password"));
+            List<LoadGenerator.Account> accounts = new ArrayList<>();
+            for (int i = 0; i < CUSTOMERS; i++) {
+                accounts.add(generator.createAccount(FIRST_CUSTOMER + i, BenchmarkSupport.basicAuth("load" + i, "password"),
+                        WALLETS_PER_CUSTOMER));
+            }
+
+            long began = System.nanoTime();
+            long operations = generator.run(accounts, mix(), USERS, Duration.ofSeconds(SECONDS));
+            double seconds = (System.nanoTime() - began) / 1e9;
+
+            System.out.printf("%d users, %d wallets, %.0f s: %d operations, %.1f ops/s%n",
+                    USERS, CUSTOMERS * WALLETS_PER_CUSTOMER, seconds, operations, operations / seconds);
+            System.out.printf("%-10s %9s %9s %8s %8s %9s %9s %9s %9s%n",
+                    "endpoint", "requests", "req/s", "rejected", "errors", "p50 ms", "p99 ms", "p999 ms", "max ms");
+            long errors = 0;
+            for (LoadGenerator.EndpointReport report : generator.report()) {
+                System.out.printf("%-10s %9d %9.1f %8d %8d %9.2f %9.2f %9.2f %9.2f%n",
+                        report.endpoint(), report.requests(), report.requests() / seconds, report.rejected(), report.errors(),
+                        report.p50Millis(), report.p99Millis(), report.p999Millis(), report.maxMillis());
+                errors += report.errors();
+            }
+
+            assertTrue(node.getBean(PaymentJournal.class).awaitApplied(60_000));
+            Function<Long, LedgerBalance> ledgerBalances = null;
+            if (node.getBean(PaymentEngine.class).lockingMode() == LockingMode.LEDGER) {
+                // the wallet rows only hold the latest snapshots, so the balances are read from the ledger
+                LedgerService ledgerService = node.getBean(LedgerService.class);
+                WalletRepository walletRepository = node.getBean(WalletRepository.class);
+                ledgerBalances = walletId -> ledgerService.currentBalance(walletRepository.findById(walletId).orElseThrow());
+            }
+            assertBalancesMatchTransactions(jdbcTemplate, ledgerBalances);
+            assertSummariesMatchWallets(jdbcTemplate, ledgerBalances);
+            assertEquals(0, errors, "requests answered with a server error or not at all");
+        }
+    }
+
+    private static Map<LoadGenerator.Operation, Integer> mix() {
+        Map<LoadGenerator.Operation, Integer> mix = new EnumMap<>(LoadGenerator.Operation.class);
+        for (String entry : MIX.split(",")) {
+            String[] weight = entry.trim().split("=");
+            mix.put(LoadGenerator.Operation.valueOf(weight[0].trim().toUpperCase()), Integer.parseInt(weight[1].trim()));
+        }
+        return mix;
+    }
+
+    /**
+     * Checks every wallet's balances against its transactions.
+     *
+     * @param ledgerBalances Reads a wallet's balances from its ledger, or null to read them from the wallet row.
+     */
+    private static void assertBalancesMatchTransactions(JdbcTemplate jdbcTemplate, Function<Long, LedgerBalance> ledgerBalances) {
+        List<Map<String, Object>> wallets = jdbcTemplate.queryForList("""
+                select w.id, w.balance, w.usable_balance,
+                       coalesce(sum(case when t.status in ('APPROVED', 'PENDING')
+                                         then case t.type when 'DEPOSIT' then t.amount else -t.amount end end), 0) expected_balance,
+                       coalesce(sum(case when t.status = 'APPROVED'
+                                         then case t.type when 'DEPOSIT' then t.amount else -t.amount end end), 0) expected_usable
+                from wallet w
+                left join transaction t on t.wallet_id = w.id
+                where w.customer_id >= ?
+                group by w.id, w.balance, w.usable_balance
+                order by w.id
+                """, FIRST_CUSTOMER);
+        assertEquals(CUSTOMERS * WALLETS_PER_CUSTOMER, wallets.size());
+        for (Map<String, Object> wallet : wallets) {
+            Long walletId = ((Number) wallet.get("ID")).longValue();
+            BigDecimal balance = (BigDecimal) wallet.get("BALANCE");
+            BigDecimal usableBalance = (BigDecimal) wallet.get("USABLE_BALANCE");
+            if (ledgerBalances != null) {
+                LedgerBalance current = ledgerBalances.apply(walletId);
+                balance = current.balance();
+                usableBalance = current.usableBalance();
+            }
+            assertSameAmount((BigDecimal) wallet.get("EXPECTED_BALANCE"), balance, "balance of wallet " + walletId);
+            assertSameAmount((BigDecimal) wallet.get("EXPECTED_USABLE"), usableBalance, "usable balance of wallet " + walletId);
+        }
+    }
+
+    private static void assertSameAmount(BigDecimal expected, BigDecimal actual, String what) {
+        assertEquals(0, expected.compareTo(actual), () -> what + ": expected " + expected + ", but it is " + actual);
+    }
+
+    /**
+     * Checks every balance summary against the sum of its wallets' balances.
+     *
+     * @param ledgerBalances Reads a wallet's balances from its ledger, or null to read them from the wallet row.
+     */
+    private static void assertSummariesMatchWallets(JdbcTemplate jdbcTemplate, Function<Long, LedgerBalance> ledgerBalances) {
+        Map<String, BigDecimal[]> walletSums = new TreeMap<>();
+        for (Map<String, Object> wallet : jdbcTemplate.queryForList("""
+                select id, customer_id, currency, balance, usable_balance
+                from wallet
+                where customer_id >= ?
+                """, FIRST_CUSTOMER)) {
+            BigDecimal balance = (BigDecimal) wallet.get("BALANCE");
+            BigDecimal usableBalance = (BigDecimal) wallet.get("USABLE_BALANCE");
+            if (ledgerBalances != null) {
+                LedgerBalance current = ledgerBalances.apply(((Number) wallet.get("ID")).longValue());
+                balance = current.balance();
+                usableBalance = current.usableBalance();
+            }
+            BigDecimal[] sums = walletSums.computeIfAbsent(wallet.get("CUSTOMER_ID") + " " + wallet.get("CURRENCY"),
+                    summary -> new BigDecimal[]{BigDecimal.ZERO, BigDecimal.ZERO});
+            sums[0] = sums[0].add(balance);
+            sums[1] = sums[1].add(usableBalance);
+        }
+
+        List<Map<String, Object>> summaries = jdbcTemplate.queryForList("""
+                select customer_id, currency, balance, usable_balance
+                from customer_balance
+                where customer_id >= ?
+                """, FIRST_CUSTOMER);
+        assertEquals(walletSums.size(), summaries.size(), () -> "balance summaries " + summaries + " for wallets " + walletSums.keySet());
+        for (Map<String, Object> summary : summaries) {
+            String key = summary.get("CUSTOMER_ID") + " " + summary.get("CURRENCY");
+            BigDecimal[] sums = walletSums.get(key);
+            assertTrue(sums != null, () -> "balance summary " + key + " has no wallets");
+            assertSameAmount(sums[0], (BigDecimal) summary.get("BALANCE"), "balance summary " + key);
+            assertSameAmount(sums[1], (BigDecimal) summary.get("USABLE_BALANCE"), "usable balance summary " + key);
+        }
+    }
+}
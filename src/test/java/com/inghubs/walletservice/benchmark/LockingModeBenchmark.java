@@ -0,0 +1,89 @@
+package com.inghubs.walletservice.benchmark;
+
+import com.inghubs.walletservice.model.dto.CreateWalletRequest;
+import com.inghubs.walletservice.model.dto.Money;
+import com.inghubs.walletservice.model.dto.PaymentRequest;
+import com.inghubs.walletservice.model.dto.enums.Currency;
+import com.inghubs.walletservice.model.dto.enums.OppositePartyType;
+import com.inghubs.walletservice.repository.WalletRepository;
+import com.inghubs.walletservice.service.LedgerService;
+import com.inghubs.walletservice.service.WalletService;
+import com.inghubs.walletservice.service.engine.LockingMode;
+import com.inghubs.walletservice.service.engine.RetryExecutor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares deposit throughput of the locking modes.
+ * Two application nodes share one database, so writers in different nodes really conflict
+ * on the wallet row, or on the ledger position, and exercise version checks, row locks and retries.
+ */
+@Tag("benchmark")
+class LockingModeBenchmark {
+
+    private static final int THREADS = 16;
+    private static final int OPS_PER_THREAD = 500;
+
+    @ParameterizedTest(name = "{0} mode, {1} wallet(s)")
+    @CsvSource({
+            "OPTIMISTIC, 200",
+            "PESSIMISTIC, 200",
+            "CONDITIONAL_UPDATE, 200",
+            "LEDGER, 200",
+            "OPTIMISTIC, 1",
+            "PESSIMISTIC, 1",
+            "CONDITIONAL_UPDATE, 1",
+            "LEDGER, 1"
+    })
+    @DisplayName("deposit throughput across two nodes sharing one database")
+    void depositThroughput(LockingMode mode, int wallets) throws Exception {
+        String database = "locking-" + mode + "-" + wallets;
+        String modeProperty = "wallet.payment-engine.locking-mode=" + mode;
+        try (ConfigurableApplicationContext first = BenchmarkSupport.startNode(database, true, modeProperty);
+             ConfigurableApplicationContext second = BenchmarkSupport.startNode(database, false, modeProperty)) {
+            List<ConfigurableApplicationContext> nodes = List.of(first, second);
+            WalletService creator = first.getBean(WalletService.class);
+            List<Long> walletIds = IntStream.range(0, wallets)
+                    .mapToObj(i -> creator.createWallet(CreateWalletRequest.builder()
+                            .customerId(1L)
+                            .walletName("Benchmark " + i)
+                            .currency(Currency.TRY)
+                            .activeForShopping(true)
+                            .activeForWithdraw(true)
+                            .build()).getWalletId())
+                    .toList();
+
+            BenchmarkSupport.Result result = BenchmarkSupport.run(THREADS, OPS_PER_THREAD, (thread, i) -> {
+                WalletService node = nodes.get(thread % nodes.size()).getBean(WalletService.class);
+                Long walletId = walletIds.get(ThreadLocalRandom.current().nextInt(walletIds.size()));
+                node.makeDeposit(PaymentRequest.builder()
+                        .walletId(walletId)
+                        .amount(Money.of(10))
+                        .source(OppositePartyType.IBAN)
+                        .oppositeParty("TR1234567890987654321")
+                        .build());
+            });
+
+            long retries = nodes.stream().mapToLong(node -> node.getBean(RetryExecutor.class).getRetries()).sum();
+            LedgerService ledgerService = first.getBean(LedgerService.class);
+            BigDecimal total = first.getBean(WalletRepository.class).findAllById(walletIds).stream()
+                    .map(wallet -> mode == LockingMode.LEDGER ? ledgerService.currentBalance(wallet).balance() : wallet.getBalance().toBigDecimal())
+                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+            System.out.printf("%-18s wallets=%-4d ops/s=%10.1f mean=%7.3f ms retries=%6d failures=%d%n",
+                    mode, wallets, result.opsPerSecond(), result.meanMillis(), retries, result.failures());
+
+            long succeeded = result.operations() - result.failures();
+            assertEquals(0, BigDecimal.TEN.multiply(BigDecimal.valueOf(succeeded)).compareTo(total));
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.inghubs.walletservice.benchmark;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.Ordered;
+import org.springframework.core.PriorityOrdered;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Makes the in-memory database behave like one across a network: every statement execution first waits
+ * {@code benchmark.database.latency} (default 2 ms) while holding its connection.
+ * <p>
+ * Not a component, so that the application's component scan never picks it up; a benchmark adds it to a node with
+ * {@code spring.main.sources=com.inghubs.walletservice.benchmark.SimulatedDatabaseLatency}. It wraps the pooled
+ * data source before anything else does, so connection permits still wrap the slow connections.
+ */
+public class SimulatedDatabaseLatency implements BeanPostProcessor, PriorityOrdered, EnvironmentAware {
+
+    private long latencyNanos;
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        latencyNanos = environment.getProperty("benchmark.database.latency", Duration.class, Duration.ofMillis(2)).toNanos();
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource dataSource) || latencyNanos <= 0) {
+            return bean;
+        }
+        return new DelegatingDataSource(dataSource) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                return slow(super.getConnection());
+            }
+
+            @Override
+            public Connection getConnection(String username, String password) throws SQLException {
+                return slow(super.getConnection(username, password));
+            }
+        };
+    }
+
+    /**
+     * Wraps a connection so that the statements it creates wait before they execute.
+     */
+    private Connection slow(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(connection, method, args);
+                    if (result instanceof Statement statement && method.getReturnType().isInterface()) {
+                        return slowStatement(statement, method.getReturnType());
+                    }
+                    return result;
+                });
+    }
+
+    private Object slowStatement(Statement statement, Class<?> type) {
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    if (method.getName().startsWith("execute")) {
+                        LockSupport.parkNanos(latencyNanos);
+                    }
+                    return invoke(statement, method, args);
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.inghubs.walletservice.benchmark;
+
+import com.inghubs.walletservice.model.dto.CreateWalletRequest;
+import com.inghubs.walletservice.model.dto.enums.Currency;
+import com.inghubs.walletservice.model.dto.enums.ExportFormat;
+import com.inghubs.walletservice.service.WalletService;
+import com.inghubs.walletservice.service.export.TransactionExporter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.LongSummaryStatistics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Exports a wallet with a very large history and checks that heap usage stays flat while doing so.
+ * The database lives in a temporary file so that its rows do not share the heap being measured, and
+ * runs queries lazily so that, like a server-side cursor, it does not buffer the result set.
+ * The row count defaults to five million and can be lowered with {@code -Dbenchmark.rows}.
+ */
+@Tag("benchmark")
+class TransactionExportBenchmark {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 5_000_000);
+    private static final int INSERT_CHUNK = 100_000;
+    private static final int CHECKPOINTS = 10;
+    private static final long MAX_HEAP_GROWTH_BYTES = 64L * 1024 * 1024;
+
+    @TempDir
+    Path databaseDirectory;
+
+    @Test
+    @DisplayName("exporting a large wallet keeps retained heap flat")
+    void exportKeepsHeapFlat() {
+        String url = "jdbc:h2:file:" + databaseDirectory.resolve("export") + ";LAZY_QUERY_EXECUTION=TRUE";
+        try (ConfigurableApplicationContext node = BenchmarkSupport.startNode("export", true,
+                "spring.datasource.url=" + url)) {
+            Long walletId = node.getBean(WalletService.class).createWallet(CreateWalletRequest.builder()
+                    .customerId(1L)
+                    .walletName("Audited")
+                    .currency(Currency.TRY)
+                    .activeForShopping(true)
+                    .activeForWithdraw(true)
+                    .build()).getWalletId();
+            JdbcTemplate jdbcTemplate = node.getBean(JdbcTemplate.class);
+            for (long from = 0; from < ROWS; from += INSERT_CHUNK) {
+                jdbcTemplate.update("""
+                        insert into transaction (id, wallet_id, amount, type, opposite_party_type, opposite_party,
+                                                 status, version, created_date, created_by)
+                        select 1000000000 + x, ?, 10, 'DEPOSIT', 'IBAN', 'TR1234567890987654321', 'APPROVED', 0,
+                               current_timestamp, 'benchmark'
+                        from system_range(?, ?)
+                        """, walletId, from, Math.min(from + INSERT_CHUNK, ROWS) - 1);
+            }
+
+            HeapSamplingSink sink = new HeapSamplingSink(ROWS / CHECKPOINTS);
+            long start = System.nanoTime();
+            long exported = node.getBean(TransactionExporter.class).export(walletId, ExportFormat.NDJSON, sink);
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            LongSummaryStatistics heap = sink.samples.stream().mapToLong(Long::longValue).summaryStatistics();
+            System.out.printf("exported %d rows (%.1f MB) in %.1f s, %.0f rows/s%n",
+                    exported, sink.bytes / 1e6, seconds, exported / seconds);
+            System.out.printf("retained heap at %d checkpoints: min %.1f MB, max %.1f MB%n",
+                    heap.getCount(), heap.getMin() / 1e6, heap.getMax() / 1e6);
+
+            assertEquals(ROWS, exported);
+            assertTrue(heap.getMax() - heap.getMin() < MAX_HEAP_GROWTH_BYTES,
+                    "retained heap grew by " + (heap.getMax() - heap.getMin()) / 1e6 + " MB");
+        }
+    }
+
+    /**
+     * Discards the export while counting rows; every {@code interval} rows it forces a collection and
+     * records the retained heap.
+     */
+    private static final class HeapSamplingSink extends OutputStream {
+
+        private final long interval;
+        private final List<Long> samples = new ArrayList<>();
+        private long rows;
+        private long bytes;
+
+        private HeapSamplingSink(long interval) {
+            this.interval = Math.max(1, interval);
+        }
+
+        @Override
+        public void write(int b) {
+            count(b);
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length) {
+            for (int i = offset; i < offset + length; i++) {
+                count(buffer[i]);
+            }
+        }
+
+        private void count(int b) {
+            bytes++;
+            if (b == '\n' && ++rows % interval == 0) {
+                System.gc();
+                Runtime runtime = Runtime.getRuntime();
+                samples.add(runtime.totalMemory() - runtime.freeMemory());
+            }
+        }
+    }
+}
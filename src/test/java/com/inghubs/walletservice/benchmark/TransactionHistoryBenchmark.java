@@ -0,0 +1,97 @@
+package com.inghubs.walletservice.benchmark;
+
+import com.inghubs.walletservice.model.dto.CreateWalletRequest;
+import com.inghubs.walletservice.model.dto.enums.Currency;
+import com.inghubs.walletservice.model.entity.Transaction;
+import com.inghubs.walletservice.repository.TransactionRepository;
+import com.inghubs.walletservice.service.WalletService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares page latency of keyset pagination against offset pagination on one wallet with a large
+ * history. Keyset pages seek the (wallet_id, id) index directly, so their latency stays flat with
+ * depth. On most databases offset pages walk past every skipped row; H2's MVStore can skip by
+ * B-tree page counts, so on H2 the offset column degrades far less than it would in production.
+ * The row count defaults to one million and can be lowered with {@code -Dbenchmark.rows}.
+ */
+@Tag("benchmark")
+class TransactionHistoryBenchmark {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 1_000_000);
+    private static final int PAGE_SIZE = 50;
+    private static final int REPETITIONS = 50;
+    private static final long FIRST_ID = 1_000_000_000L;
+
+    @Test
+    @DisplayName("keyset versus offset page latency by depth")
+    void keysetVersusOffsetLatency() {
+        try (ConfigurableApplicationContext node = BenchmarkSupport.startNode("transaction-history", true)) {
+            Long walletId = node.getBean(WalletService.class).createWallet(CreateWalletRequest.builder()
+                    .customerId(1L)
+                    .walletName("Merchant")
+                    .currency(Currency.TRY)
+                    .activeForShopping(true)
+                    .activeForWithdraw(true)
+                    .build()).getWalletId();
+            node.getBean(JdbcTemplate.class).update("""
+                    insert into transaction (id, wallet_id, amount, type, opposite_party_type, opposite_party,
+                                             status, version, created_date, created_by)
+                    select ? + x, ?, 10, 'DEPOSIT', 'IBAN', 'TR1234567890987654321', 'APPROVED', 0,
+                           current_timestamp, 'benchmark'
+                    from system_range(0, ? - 1)
+                    """, FIRST_ID, walletId, ROWS);
+
+            TransactionRepository transactionRepository = node.getBean(TransactionRepository.class);
+            EntityManager entityManager = SharedEntityManagerCreator.createSharedEntityManager(
+                    node.getBean(EntityManagerFactory.class));
+            TransactionTemplate readOnly = new TransactionTemplate(node.getBean(PlatformTransactionManager.class));
+            readOnly.setReadOnly(true);
+            long newestId = FIRST_ID + ROWS - 1;
+
+            // warm up the JIT and Hibernate's query plan cache before any timing
+            for (int i = 0; i < 200; i++) {
+                readOnly.executeWithoutResult(status -> transactionRepository
+                        .findByWalletIdAndIdLessThanOrderByIdDesc(walletId, newestId, Limit.of(PAGE_SIZE + 1)));
+            }
+
+            System.out.printf("%12s %14s %14s%n", "depth (rows)", "keyset (ms)", "offset (ms)");
+            for (int depth : new int[]{0, ROWS / 100, ROWS / 10, ROWS / 2, ROWS - PAGE_SIZE}) {
+                long cursorId = newestId - depth + 1;
+                double keyset = meanMillis(readOnly, () -> transactionRepository
+                        .findByWalletIdAndIdLessThanOrderByIdDesc(walletId, cursorId, Limit.of(PAGE_SIZE + 1)));
+                double offset = meanMillis(readOnly, () -> entityManager.createQuery(
+                                "select t from Transaction t where t.wallet.id = :walletId order by t.wallet.id, t.id desc",
+                                Transaction.class)
+                        .setParameter("walletId", walletId)
+                        .setFirstResult(depth)
+                        .setMaxResults(PAGE_SIZE + 1)
+                        .getResultList());
+                System.out.printf("%12d %14.2f %14.2f%n", depth, keyset, offset);
+            }
+        }
+    }
+
+    private static double meanMillis(TransactionTemplate readOnly, Supplier<List<Transaction>> page) {
+        assertEquals(PAGE_SIZE, readOnly.execute(status -> page.get()).size(), 1);
+        long start = System.nanoTime();
+        for (int i = 0; i < REPETITIONS; i++) {
+            readOnly.executeWithoutResult(status -> page.get());
+        }
+        return (System.nanoTime() - start) / 1e6 / REPETITIONS;
+    }
+}
@@ -0,0 +1,108 @@
+package com.inghubs.walletservice.benchmark;
+
+import com.inghubs.walletservice.configuration.VelocityLimitProperties;
+import com.inghubs.walletservice.model.dto.Money;
+import com.inghubs.walletservice.model.dto.enums.TransactionType;
+import com.inghubs.walletservice.repository.WalletRepository;
+import com.inghubs.walletservice.security.WalletOwnershipIndex;
+import com.inghubs.walletservice.service.limit.VelocityLimiter;
+import com.inghubs.walletservice.service.limit.VelocityPermit;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Measures the cost of a velocity limit check with JMH, with limits disabled and with wallet and customer
+ * limits enabled, across 10,000 wallets of 1,000 customers. A single deposit through the database takes
+ * milliseconds (see {@link LockingModeBenchmark}), so a check of well under a microsecond adds no measurable
+ * overhead to a payment. Most of a check's cost is reading two windows that are not in the CPU cache.
+ */
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.Throughput})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class VelocityLimiterBenchmark {
+
+    private static final int WALLETS = 10_000;
+    private static final int WALLETS_PER_CUSTOMER = 10;
+
+    @Param({"false", "true"})
+    public boolean enabled;
+
+    private VelocityLimiter limiter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        WalletOwnershipIndex walletOwnershipIndex = new WalletOwnershipIndex(mock(WalletRepository.class));
+        for (long walletId = 1; walletId <= WALLETS; walletId++) {
+            walletOwnershipIndex.register(walletId, 1 + walletId / WALLETS_PER_CUSTOMER);
+        }
+        VelocityLimitProperties properties = new VelocityLimitProperties();
+        properties.setEnabled(enabled);
+        properties.setWindow(Duration.ofMinutes(1));
+        for (TransactionType type : TransactionType.values()) {
+            properties.getWallet().put(type, limit());
+            properties.getCustomer().put(type, limit());
+        }
+        limiter = new VelocityLimiter(properties, walletOwnershipIndex);
+    }
+
+    @Benchmark
+    public VelocityPermit acquire() {
+        long walletId = 1 + ThreadLocalRandom.current().nextInt(WALLETS);
+        return limiter.acquire(walletId, TransactionType.WITHDRAW, Money.of(10));
+    }
+
+    @Benchmark
+    public VelocityPermit acquireAndRelease() {
+        long walletId = 1 + ThreadLocalRandom.current().nextInt(WALLETS);
+        VelocityPermit permit = limiter.acquire(walletId, TransactionType.DEPOSIT, Money.of(10));
+        permit.release();
+        return permit;
+    }
+
+    @Test
+    @DisplayName("velocity limit check cost with JMH")
+    void run() throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(VelocityLimiterBenchmark.class.getName())
+                .forks(1)
+                .threads(Math.max(1, Runtime.getRuntime().availableProcessors()))
+                .warmupIterations(3)
+                .warmupTime(TimeValue.seconds(1))
+                .measurementIterations(5)
+                .measurementTime(TimeValue.seconds(1))
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+
+    /**
+     * A limit far above what the benchmark reaches, so that every check is admitted and does the full work.
+     */
+    private static VelocityLimitProperties.Limit limit() {
+        VelocityLimitProperties.Limit limit = new VelocityLimitProperties.Limit();
+        limit.setMaxCount(Long.MAX_VALUE / 2);
+        limit.setMaxAmount(BigDecimal.valueOf(Long.MAX_VALUE / 100_000));
+        return limit;
+    }
+}
@@ -0,0 +1,114 @@
+package com.inghubs.walletservice.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inghubs.walletservice.configuration.ConnectionPermitDataSource;
+import com.inghubs.walletservice.service.metrics.VirtualThreadPinningMonitor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares request handling on Tomcat's platform thread pool with the {@code virtual-threads} profile for a mix of
+ * deposits and wallet lists, with every statement delayed by a simulated database round trip, and reports the
+ * throughput and latency percentiles of both. Both nodes use the same connection pool size, so the difference
+ * comes from how waiting requests occupy threads. The virtual thread node must not pin in application code.
+ * <p>
+ * Tuned with system properties: {@code benchmark.virtual.users}, the number of concurrent users (400),
+ * {@code benchmark.virtual.seconds} per node (20), {@code benchmark.virtual.latency} per statement (2ms) and
+ * {@code benchmark.virtual.pool}, the connection pool size (20).
+ */
+@Tag("benchmark")
+class VirtualThreadBenchmark {
+
+    private static final long FIRST_CUSTOMER = 1_000;
+    private static final int CUSTOMERS = 50;
+    private static final int WALLETS_PER_CUSTOMER = 4;
+    private static final int USERS = Integer.getInteger("benchmark.virtual.users", 400);
+    private static final int SECONDS = Integer.getInteger("benchmark.virtual.seconds", 20);
+    private static final String LATENCY = System.getProperty("benchmark.virtual.latency", "2ms");
+    private static final int POOL = Integer.getInteger("benchmark.virtual.pool", 20);
+    private static final Map<LoadGenerator.Operation, Integer> MIX = Map.of(
+            LoadGenerator.Operation.DEPOSIT, 50,
+            LoadGenerator.Operation.LIST, 50);
+
+    @Test
+    @DisplayName("virtual threads serve a latency-bound deposit and list mix without pinning")
+    void platformVersusVirtualThreads() throws Exception {
+        Run platform = run("platform-threads");
+        Run virtual = run("virtual-threads", "spring.profiles.active=virtual-threads");
+
+        System.out.printf("%d users, %s per statement, %d connections, %d s per node%n", USERS, LATENCY, POOL, SECONDS);
+        System.out.printf("%-17s %-8s %9s %8s %9s %9s %9s%n", "threads", "endpoint", "req/s", "errors", "p50 ms", "p99 ms", "max ms");
+        for (Run run : List.of(platform, virtual)) {
+            for (LoadGenerator.EndpointReport report : run.reports()) {
+                System.out.printf("%-17s %-8s %9.1f %8d %9.2f %9.2f %9.2f%n", run.name(), report.endpoint(),
+                        report.requests() / run.seconds(), report.errors(), report.p50Millis(), report.p99Millis(),
+                        report.maxMillis());
+            }
+        }
+        System.out.printf("throughput: platform %.1f ops/s, virtual %.1f ops/s (%.2fx)%n",
+                platform.opsPerSecond(), virtual.opsPerSecond(), virtual.opsPerSecond() / platform.opsPerSecond());
+        System.out.printf("virtual threads pinned: %d, in application code: %d; permit timeouts: %d%n",
+                virtual.pinned(), virtual.pinnedInApplication(), virtual.permitTimeouts());
+
+        assertEquals(0, platform.errors(), "platform thread requests answered with a server error or not at all");
+        assertEquals(0, virtual.errors(), "virtual thread requests answered with a server error or not at all");
+        assertEquals(0, virtual.pinnedInApplication(), "virtual threads pinned in application code");
+    }
+
+    private static Run run(String name, String... properties) throws Exception {
+        List<String> all = new ArrayList<>(List.of(
+                "spring.main.sources=" + SimulatedDatabaseLatency.class.getName(),
+                "benchmark.database.latency=" + LATENCY,
+                "spring.datasource.hikari.maximum-pool-size=" + POOL,
+                "spring.datasource.hikari.minimum-idle=" + POOL,
+                "wallet.database.connection-permits=" + POOL));
+        all.addAll(List.of(properties));
+        try (ConfigurableApplicationContext node = BenchmarkSupport.startWebNode(name, all.toArray(String[]::new))) {
+            LoadGenerator.insertCustomers(node.getBean(JdbcTemplate.class), FIRST_CUSTOMER, CUSTOMERS);
+            LoadGenerator generator = new LoadGenerator(BenchmarkSupport.baseUrl(node), node.getBean(ObjectMapper.class),
+                    BenchmarkSupport.basicAuth("admin", "password"));
+            List<LoadGenerator.Account> accounts = new ArrayList<>();
+            for (int i = 0; i < CUSTOMERS; i++) {
+                accounts.add(generator.createAccount(FIRST_CUSTOMER + i, BenchmarkSupport.basicAuth("load" + i, "password"),
+                        WALLETS_PER_CUSTOMER));
+            }
+
+            long began = System.nanoTime();
+            long operations = generator.run(accounts, MIX, USERS, Duration.ofSeconds(SECONDS));
+            double seconds = (System.nanoTime() - began) / 1e9;
+
+            // the wallets created while setting up are not part of the measured traffic
+            List<LoadGenerator.EndpointReport> reports = generator.report().stream()
+                    .filter(report -> !report.endpoint().equals("create"))
+                    .toList();
+            VirtualThreadPinningMonitor monitor = node.getBean(VirtualThreadPinningMonitor.class);
+            long permitTimeouts = node.getBean(DataSource.class) instanceof ConnectionPermitDataSource permits
+                    ? permits.getTimeouts() : 0;
+            return new Run(name, operations, seconds, reports, monitor.getPinned(), monitor.getPinnedInApplication(),
+                    permitTimeouts);
+        }
+    }
+
+    private record Run(String name, long operations, double seconds, List<LoadGenerator.EndpointReport> reports,
+                       long pinned, long pinnedInApplication, long permitTimeouts) {
+
+        double opsPerSecond() {
+            return operations / seconds;
+        }
+
+        long errors() {
+            return reports.stream().mapToLong(LoadGenerator.EndpointReport::errors).sum();
+        }
+    }
+}
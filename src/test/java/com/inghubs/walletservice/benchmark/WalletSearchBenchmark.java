@@ -0,0 +1,147 @@
+package com.inghubs.walletservice.benchmark;
+
+import com.inghubs.walletservice.model.dto.WalletPageResponse;
+import com.inghubs.walletservice.model.dto.enums.Currency;
+import com.inghubs.walletservice.model.dto.enums.WalletSort;
+import com.inghubs.walletservice.service.WalletService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Measures the latency of filtered wallet searches over a large wallet table, for first pages and for
+ * pages continued from a random position deep in the result. The database lives in a temporary file.
+ * The wallet count defaults to ten million and can be lowered with {@code -Dbenchmark.wallets}.
+ */
+@Tag("benchmark")
+class WalletSearchBenchmark {
+
+    private static final int WALLETS = Integer.getInteger("benchmark.wallets", 10_000_000);
+    private static final int CUSTOMERS = Math.max(1, WALLETS / 10);
+    private static final int INSERT_CHUNK = 100_000;
+    private static final int WARMUP = 200;
+    private static final int SAMPLES = 500;
+    private static final double MAX_P99_MILLIS = 20.0;
+
+    @TempDir
+    Path databaseDirectory;
+
+    @Test
+    @DisplayName("filtered wallet searches stay under the latency budget at any depth")
+    void filteredSearchesStayUnderBudget() {
+        String url = "jdbc:h2:file:" + databaseDirectory.resolve("search");
+        try (ConfigurableApplicationContext node = BenchmarkSupport.startNode("search", true,
+                "spring.datasource.url=" + url)) {
+            JdbcTemplate jdbcTemplate = node.getBean(JdbcTemplate.class);
+            long start = System.nanoTime();
+            seed(jdbcTemplate);
+            System.out.printf("seeded %d wallets for %d customers in %.0f s%n",
+                    WALLETS, CUSTOMERS, (System.nanoTime() - start) / 1e9);
+
+            WalletService walletService = node.getBean(WalletService.class);
+            Map<String, Function<SplittableRandom, WalletPageResponse>> searches = new LinkedHashMap<>();
+            searches.put("currency + balance range, balance desc, first page", random ->
+                    walletService.searchWallets(null, Currency.TRY, BigDecimal.valueOf(1_000), BigDecimal.valueOf(5_000),
+                            WalletSort.BALANCE_DESC, null, 50));
+            searches.put("currency + balance range, balance desc, deep page", random ->
+                    walletService.searchWallets(null, Currency.TRY, BigDecimal.valueOf(1_000), BigDecimal.valueOf(5_000),
+                            WalletSort.BALANCE_DESC, cursor(WalletSort.BALANCE_DESC,
+                                    BigDecimal.valueOf(1_000 + random.nextInt(4_000)), randomWallet(random)), 50));
+            searches.put("currency, id desc, deep page", random ->
+                    walletService.searchWallets(null, Currency.EUR, null, null,
+                            WalletSort.ID_DESC, cursor(WalletSort.ID_DESC, null, randomWallet(random)), 50));
+            searches.put("customer, id asc", random ->
+                    walletService.searchWallets(1_000L + random.nextInt(CUSTOMERS), null, null, null,
+                            WalletSort.ID_ASC, null, 50));
+            searches.put("balance range, balance asc, deep page", random ->
+                    walletService.searchWallets(null, null, BigDecimal.valueOf(2_000), BigDecimal.valueOf(2_500),
+                            WalletSort.BALANCE_ASC, cursor(WalletSort.BALANCE_ASC,
+                                    BigDecimal.valueOf(2_000 + random.nextInt(500)), randomWallet(random)), 50));
+            searches.put("no filter, id asc, deep page", random ->
+                    walletService.searchWallets(null, null, null, null,
+                            WalletSort.ID_ASC, cursor(WalletSort.ID_ASC, null, randomWallet(random)), 50));
+
+            searches.forEach((name, search) -> {
+                double[] millis = measure(search);
+                System.out.printf("%-55s p50 %6.2f ms  p99 %6.2f ms  max %6.2f ms%n",
+                        name, percentile(millis, 50), percentile(millis, 99), millis[millis.length - 1]);
+                assertTrue(percentile(millis, 99) < MAX_P99_MILLIS, name + " p99 " + percentile(millis, 99) + " ms");
+            });
+        }
+    }
+
+    private static void seed(JdbcTemplate jdbcTemplate) {
+        for (long from = 0; from < CUSTOMERS; from += INSERT_CHUNK) {
+            jdbcTemplate.update("""
+                    insert into customer (id, username, password, firstname, lastname, tckn, created_date, created_by)
+                    select 1000 + x, 'bench' || x, 'x', 'Bench', 'Customer', lpad(cast(x as varchar), 11, '0'),
+                           current_timestamp, 'benchmark'
+                    from system_range(?, ?)
+                    """, from, Math.min(from + INSERT_CHUNK, CUSTOMERS) - 1);
+        }
+        // build the wallet search indexes once after loading instead of maintaining them row by row
+        List<String> indexes = jdbcTemplate.queryForList("script nodata table wallet", String.class).stream()
+                .filter(statement -> statement.startsWith("CREATE INDEX") && statement.contains("IDX_WALLET_"))
+                .toList();
+        indexes.forEach(index -> jdbcTemplate.execute("drop index " + index.split(" ")[2]));
+        for (long from = 0; from < WALLETS; from += INSERT_CHUNK) {
+            jdbcTemplate.update("""
+                    insert into wallet (id, customer_id, wallet_name, currency, active_for_shopping, active_for_withdraw,
+                                        balance, usable_balance, version, created_date, created_by)
+                    select 1000000 + x, 1000 + mod(x, ?), 'Bench',
+                           case mod(x, 3) when 0 then 'EUR' when 1 then 'TRY' else 'USD' end, true, true,
+                           mod(x * 7919, 1000000) / 100.0, mod(x * 7919, 1000000) / 100.0, 0,
+                           current_timestamp, 'benchmark'
+                    from system_range(?, ?)
+                    """, CUSTOMERS, from, Math.min(from + INSERT_CHUNK, WALLETS) - 1);
+        }
+        indexes.forEach(jdbcTemplate::execute);
+        jdbcTemplate.execute("analyze");
+    }
+
+    private static double[] measure(Function<SplittableRandom, WalletPageResponse> search) {
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < WARMUP; i++) {
+            search.apply(random);
+        }
+        double[] millis = new double[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            search.apply(random);
+            millis[i] = (System.nanoTime() - start) / 1e6;
+        }
+        Arrays.sort(millis);
+        return millis;
+    }
+
+    private static double percentile(double[] sorted, int percentile) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(percentile / 100.0 * sorted.length) - 1)];
+    }
+
+    private static long randomWallet(SplittableRandom random) {
+        return 1_000_000L + random.nextInt(WALLETS);
+    }
+
+    /**
+     * Builds the cursor the service would have returned for a page ending at the given wallet.
+     */
+    private static String cursor(WalletSort sort, BigDecimal balance, long walletId) {
+        String position = balance == null ? sort.name() + ":" + walletId : sort.name() + ":" + balance.toPlainString() + ":" + walletId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes());
+    }
+}
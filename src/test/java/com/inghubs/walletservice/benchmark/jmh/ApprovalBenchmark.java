@@ -0,0 +1,113 @@
+package com.inghubs.walletservice.benchmark.jmh;
+
+import com.inghubs.walletservice.benchmark.BenchmarkSupport;
+import com.inghubs.walletservice.model.dto.CreateWalletRequest;
+import com.inghubs.walletservice.model.dto.TransactionApprovalRequest;
+import com.inghubs.walletservice.model.dto.TransactionResponse;
+import com.inghubs.walletservice.model.dto.enums.Currency;
+import com.inghubs.walletservice.model.dto.enums.TransactionStatus;
+import com.inghubs.walletservice.service.TransactionService;
+import com.inghubs.walletservice.service.WalletService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures approving a single pending deposit with {@code TransactionServiceImpl.approveTransaction}.
+ * Before the run, a pool of pending deposits spread over 64 wallets is inserted directly, together with the
+ * balances they add to, so the pool does not have to be built through the service and its setup does not count
+ * towards the allocation rate. The pool must outlast the run; raise {@code pending} with longer or more iterations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ApprovalBenchmark {
+
+    private static final int WALLETS = 64;
+    private static final long FIRST_ID = 1_000_000_000L;
+    private static final int PENDING_AMOUNT = 1_001;
+
+    @Param({"PESSIMISTIC", "CONDITIONAL_UPDATE"})
+    public String lockingMode;
+
+    @Param({"200000"})
+    public int pending;
+
+    private ConfigurableApplicationContext node;
+    private TransactionService transactionService;
+    private JdbcTemplate jdbcTemplate;
+    private long firstWalletId;
+    private long lastWalletId;
+    private final AtomicLong nextId = new AtomicLong(FIRST_ID);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        node = BenchmarkSupport.startNode("jmh-approval", true, "wallet.payment-engine.locking-mode=" + lockingMode);
+        transactionService = node.getBean(TransactionService.class);
+        jdbcTemplate = node.getBean(JdbcTemplate.class);
+        WalletService walletService = node.getBean(WalletService.class);
+        for (int i = 0; i < WALLETS; i++) {
+            long walletId = walletService.createWallet(CreateWalletRequest.builder()
+                    .customerId(1L)
+                    .walletName("JMH " + i)
+                    .currency(Currency.TRY)
+                    .activeForShopping(true)
+                    .activeForWithdraw(true)
+                    .build()).getWalletId();
+            firstWalletId = i == 0 ? walletId : firstWalletId;
+            lastWalletId = walletId;
+        }
+        if (lastWalletId - firstWalletId != WALLETS - 1) {
+            throw new IllegalStateException("Expected consecutive wallet IDs");
+        }
+
+        long lastId = FIRST_ID + pending - 1;
+        jdbcTemplate.update("""
+                insert into transaction (id, wallet_id, amount, type, opposite_party_type, opposite_party, status,
+                                         version, created_date, created_by)
+                select x, ? + mod(x, ?), ?, 'DEPOSIT', 'IBAN', 'TR1234567890987654321', 'PENDING', 0,
+                       current_timestamp, 'benchmark'
+                from system_range(?, ?)
+                """, firstWalletId, WALLETS, PENDING_AMOUNT, FIRST_ID, lastId);
+        // pending deposits add to the total balance only, the approval adds them to the usable balance
+        jdbcTemplate.update("""
+                update wallet w set balance = balance + (
+                    select sum(t.amount) from transaction t where t.wallet_id = w.id and t.id between ? and ?)
+                where w.id between ? and ?
+                """, FIRST_ID, lastId, firstWalletId, lastWalletId);
+        jdbcTemplate.update("update customer_balance set balance = balance + ? where customer_id = 1 and currency = 'TRY'",
+                (long) PENDING_AMOUNT * pending);
+    }
+
+    @TearDown(Level.Iteration)
+    public void checkPool() {
+        if (nextId.get() > FIRST_ID + pending) {
+            throw new IllegalStateException("The pending pool ran out, raise the pending parameter");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        node.close();
+    }
+
+    @Benchmark
+    public TransactionResponse approve() {
+        TransactionApprovalRequest request = new TransactionApprovalRequest();
+        request.setTransactionId(nextId.getAndIncrement());
+        request.setStatus(TransactionStatus.APPROVED);
+        return transactionService.approveTransaction(request);
+    }
+}
@@ -0,0 +1,113 @@
+package com.inghubs.walletservice.benchmark.jmh;
+
+import com.inghubs.walletservice.model.dto.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the arithmetic a payment does on a wallet's balances in {@code WalletServiceImpl}: the amount check,
+ * the approval threshold, the withdraw check and the balance updates, once with {@link Money} and once with the
+ * BigDecimal arithmetic it replaced, along with reading the amount from the request text. Balances are read from
+ * the database at scale 4, while request amounts kept the scale they were sent with, so the {@code amount}
+ * parameter covers a whole amount, an amount of a different scale and an amount at the balance scale.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BalanceArithmeticBenchmark {
+
+    private static final BigDecimal APPROVAL_THRESHOLD = BigDecimal.valueOf(1000);
+    private static final Money MONEY_APPROVAL_THRESHOLD = Money.of(1000);
+
+    @Param({"10", "10.5", "999.9999"})
+    public String amount;
+
+    private BigDecimal paymentAmount;
+    private BigDecimal balance;
+    private BigDecimal usableBalance;
+    private Money moneyAmount;
+    private Money moneyBalance;
+    private Money moneyUsableBalance;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        paymentAmount = new BigDecimal(amount);
+        // large enough that no iteration exhausts it, small enough to keep the unscaled value in a long
+        balance = new BigDecimal("1000000000000.0000");
+        usableBalance = new BigDecimal("1000000000000.0000");
+        moneyAmount = Money.parse(amount);
+        moneyBalance = Money.parse("1000000000000.0000");
+        moneyUsableBalance = Money.parse("1000000000000.0000");
+    }
+
+    @Benchmark
+    public void deposit(Blackhole blackhole) {
+        BigDecimal amount = paymentAmount;
+        boolean approved = amount.compareTo(BigDecimal.ZERO) > 0 && amount.compareTo(APPROVAL_THRESHOLD) <= 0;
+        balance = balance.add(amount);
+        if (approved) {
+            usableBalance = usableBalance.add(amount);
+        }
+        blackhole.consume(approved);
+    }
+
+    @Benchmark
+    public void withdraw(Blackhole blackhole) {
+        BigDecimal amount = paymentAmount;
+        boolean approved = amount.compareTo(BigDecimal.ZERO) > 0 && amount.compareTo(APPROVAL_THRESHOLD) <= 0;
+        boolean covered = usableBalance.compareTo(amount) >= 0;
+        if (covered) {
+            balance = balance.subtract(amount);
+            if (approved) {
+                usableBalance = usableBalance.subtract(amount);
+            }
+        }
+        blackhole.consume(covered);
+    }
+
+    @Benchmark
+    public void moneyDeposit(Blackhole blackhole) {
+        Money amount = moneyAmount;
+        boolean approved = amount.isPositive() && !amount.isGreaterThan(MONEY_APPROVAL_THRESHOLD);
+        moneyBalance = moneyBalance.plus(amount);
+        if (approved) {
+            moneyUsableBalance = moneyUsableBalance.plus(amount);
+        }
+        blackhole.consume(approved);
+    }
+
+    @Benchmark
+    public void moneyWithdraw(Blackhole blackhole) {
+        Money amount = moneyAmount;
+        boolean approved = amount.isPositive() && !amount.isGreaterThan(MONEY_APPROVAL_THRESHOLD);
+        boolean covered = !moneyUsableBalance.isLessThan(amount);
+        if (covered) {
+            moneyBalance = moneyBalance.minus(amount);
+            if (approved) {
+                moneyUsableBalance = moneyUsableBalance.minus(amount);
+            }
+        }
+        blackhole.consume(covered);
+    }
+
+    @Benchmark
+    public BigDecimal parse() {
+        return new BigDecimal(amount);
+    }
+
+    @Benchmark
+    public Money moneyParse() {
+        return Money.parse(amount);
+    }
+}
@@ -0,0 +1,53 @@
+package com.inghubs.walletservice.benchmark.jmh;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.util.Collection;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Runs the JMH benchmarks of this package: payments, approvals, mapping, wallet filtering and balance arithmetic.
+ * Every benchmark reports throughput and a sampled latency distribution, and the GC profiler adds the allocation
+ * rate per operation. The application runs against an in-process H2 database, so the suite needs no network and
+ * no external service; {@code mvn -o test -Pjmh} runs it offline.
+ * <p>
+ * The run is tuned with system properties, defaulted by the {@code jmh} profile: {@code jmh.include} (a regular
+ * expression over benchmark names, e.g. {@code -Djmh.include=Payment}), {@code jmh.forks}, {@code jmh.threads},
+ * {@code jmh.warmupIterations}, {@code jmh.measurementIterations} and {@code jmh.iterationTime}. The results are
+ * written as JSON to {@code jmh.result}, {@code target/jmh-result.json} by default, to compare against an earlier run.
+ */
+@Tag("benchmark")
+class JmhBenchmarks {
+
+    @Test
+    @DisplayName("payment hot paths with JMH")
+    void run() throws Exception {
+        Collection<RunResult> results = new Runner(new OptionsBuilder()
+                .include(System.getProperty("jmh.include", JmhBenchmarks.class.getPackageName() + "."))
+                .forks(Integer.getInteger("jmh.forks", 1))
+                .threads(Integer.getInteger("jmh.threads", 1))
+                .warmupIterations(Integer.getInteger("jmh.warmupIterations", 3))
+                .warmupTime(iterationTime())
+                .measurementIterations(Integer.getInteger("jmh.measurementIterations", 5))
+                .measurementTime(iterationTime())
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(System.getProperty("jmh.result", "target/jmh-result.json"))
+                .build()).run();
+
+        assertFalse(results.isEmpty(), "no benchmark matches " + System.getProperty("jmh.include"));
+    }
+
+    private static TimeValue iterationTime() {
+        return TimeValue.fromString(System.getProperty("jmh.iterationTime", "1s"));
+    }
+}
@@ -0,0 +1,95 @@
+package com.inghubs.walletservice.benchmark.jmh;
+
+import com.inghubs.walletservice.mapper.TransactionMapper;
+import com.inghubs.walletservice.mapper.TransactionMapperImpl;
+import com.inghubs.walletservice.mapper.WalletMapper;
+import com.inghubs.walletservice.mapper.WalletMapperImpl;
+import com.inghubs.walletservice.model.dto.CreateWalletRequest;
+import com.inghubs.walletservice.model.dto.CreateWalletResponse;
+import com.inghubs.walletservice.model.dto.Money;
+import com.inghubs.walletservice.model.dto.TransactionResponse;
+import com.inghubs.walletservice.model.dto.enums.Currency;
+import com.inghubs.walletservice.model.dto.enums.OppositePartyType;
+import com.inghubs.walletservice.model.dto.enums.TransactionStatus;
+import com.inghubs.walletservice.model.dto.enums.TransactionType;
+import com.inghubs.walletservice.model.entity.Customer;
+import com.inghubs.walletservice.model.entity.Transaction;
+import com.inghubs.walletservice.model.entity.Wallet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the generated {@link WalletMapper} and {@link TransactionMapper} on fully populated objects,
+ * without a Spring context.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MappingBenchmark {
+
+    private final WalletMapper walletMapper = new WalletMapperImpl();
+    private final TransactionMapper transactionMapper = new TransactionMapperImpl();
+
+    private CreateWalletRequest createWalletRequest;
+    private Wallet wallet;
+    private Transaction transaction;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        createWalletRequest = CreateWalletRequest.builder()
+                .customerId(1L)
+                .walletName("Shopping")
+                .currency(Currency.TRY)
+                .activeForShopping(true)
+                .activeForWithdraw(false)
+                .build();
+
+        Customer customer = new Customer();
+        customer.setId(1L);
+        wallet = new Wallet();
+        wallet.setId(42L);
+        wallet.setCustomer(customer);
+        wallet.setWalletName("Shopping");
+        wallet.setCurrency(Currency.TRY);
+        wallet.setActiveForShopping(true);
+        wallet.setBalance(Money.parse("1234.5600"));
+        wallet.setUsableBalance(Money.parse("234.5600"));
+        wallet.setCreatedDate(LocalDateTime.now());
+        wallet.setCreatedBy("benchmark");
+
+        transaction = new Transaction();
+        transaction.setId(4242L);
+        transaction.setWallet(wallet);
+        transaction.setAmount(Money.parse("1001.0000"));
+        transaction.setType(TransactionType.DEPOSIT);
+        transaction.setOppositePartyType(OppositePartyType.IBAN);
+        transaction.setOppositeParty("TR1234567890987654321");
+        transaction.setStatus(TransactionStatus.PENDING);
+        transaction.setCreatedDate(LocalDateTime.now());
+        transaction.setCreatedBy("benchmark");
+    }
+
+    @Benchmark
+    public Wallet walletToEntity() {
+        return walletMapper.toEntity(createWalletRequest);
+    }
+
+    @Benchmark
+    public CreateWalletResponse walletToResponse() {
+        return walletMapper.toResponse(wallet);
+    }
+
+    @Benchmark
+    public TransactionResponse transactionToResponse() {
+        return transactionMapper.toTransactionResponse(transaction);
+    }
+}
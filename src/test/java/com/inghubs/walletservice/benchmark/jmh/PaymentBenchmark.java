@@ -0,0 +1,93 @@
+package com.inghubs.walletservice.benchmark.jmh;
+
+import com.inghubs.walletservice.benchmark.BenchmarkSupport;
+import com.inghubs.walletservice.model.dto.CreateWalletRequest;
+import com.inghubs.walletservice.model.dto.Money;
+import com.inghubs.walletservice.model.dto.PaymentRequest;
+import com.inghubs.walletservice.model.dto.PaymentResponse;
+import com.inghubs.walletservice.model.dto.enums.Currency;
+import com.inghubs.walletservice.model.dto.enums.OppositePartyType;
+import com.inghubs.walletservice.service.WalletService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a single deposit and a single withdraw through {@link WalletService}, which in the PESSIMISTIC mode
+ * loads the wallet and applies the payment in {@code WalletServiceImpl.processPayment}, and in the
+ * CONDITIONAL_UPDATE mode applies it with one conditional update. Payments go to random wallets out of 64, so
+ * concurrent threads rarely contend for a wallet.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PaymentBenchmark {
+
+    private static final int WALLETS = 64;
+
+    @Param({"PESSIMISTIC", "CONDITIONAL_UPDATE"})
+    public String lockingMode;
+
+    private ConfigurableApplicationContext node;
+    private WalletService walletService;
+    private Long[] walletIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        node = BenchmarkSupport.startNode("jmh-payment", true, "wallet.payment-engine.locking-mode=" + lockingMode);
+        walletService = node.getBean(WalletService.class);
+        walletIds = new Long[WALLETS];
+        for (int i = 0; i < WALLETS; i++) {
+            walletIds[i] = walletService.createWallet(CreateWalletRequest.builder()
+                    .customerId(1L + i % 2)
+                    .walletName("JMH " + i)
+                    .currency(Currency.TRY)
+                    .activeForShopping(true)
+                    .activeForWithdraw(true)
+                    .build()).getWalletId();
+            // enough usable balance for every withdraw of the run
+            for (int deposit = 0; deposit < 100; deposit++) {
+                walletService.makeDeposit(payment(walletIds[i], Money.of(1_000)));
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        node.close();
+    }
+
+    @Benchmark
+    public PaymentResponse deposit() {
+        return walletService.makeDeposit(payment(randomWallet(), Money.of(10)));
+    }
+
+    @Benchmark
+    public PaymentResponse withdraw() {
+        return walletService.makeWithdraw(payment(randomWallet(), Money.of(1)));
+    }
+
+    private Long randomWallet() {
+        return walletIds[ThreadLocalRandom.current().nextInt(WALLETS)];
+    }
+
+    private static PaymentRequest payment(Long walletId, Money amount) {
+        return PaymentRequest.builder()
+                .walletId(walletId)
+                .amount(amount)
+                .source(OppositePartyType.IBAN)
+                .oppositeParty("TR1234567890987654321")
+                .build();
+    }
+}
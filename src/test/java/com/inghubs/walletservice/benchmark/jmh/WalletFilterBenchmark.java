@@ -0,0 +1,94 @@
+package com.inghubs.walletservice.benchmark.jmh;
+
+import com.inghubs.walletservice.benchmark.BenchmarkSupport;
+import com.inghubs.walletservice.model.dto.CreateWalletResponse;
+import com.inghubs.walletservice.model.dto.enums.Currency;
+import com.inghubs.walletservice.repository.WalletRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the unpaged wallet filter query of {@code WalletRepositoryCriteriaImpl.findWalletResponsesByFilters},
+ * which backs the wallet list endpoint, over {@code wallets} wallets, ten per customer, with balances spread
+ * evenly at about ten wallets per unit of balance. Every filter shape matches at most about ten wallets.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class WalletFilterBenchmark {
+
+    private static final long FIRST_CUSTOMER = 1_000;
+    private static final long FIRST_WALLET = 1_000_000;
+
+    @Param({"100000"})
+    public int wallets;
+
+    private ConfigurableApplicationContext node;
+    private WalletRepository walletRepository;
+    private int customers;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        node = BenchmarkSupport.startNode("jmh-wallet-filter", true);
+        walletRepository = node.getBean(WalletRepository.class);
+        customers = Math.max(1, wallets / 10);
+        JdbcTemplate jdbcTemplate = node.getBean(JdbcTemplate.class);
+        jdbcTemplate.update("""
+                insert into customer (id, username, password, firstname, lastname, tckn, created_date, created_by)
+                select ? + x, 'bench' || x, 'x', 'Bench', 'Customer', lpad(cast(x as varchar), 11, '0'),
+                       current_timestamp, 'benchmark'
+                from system_range(0, ?)
+                """, FIRST_CUSTOMER, customers - 1);
+        jdbcTemplate.update("""
+                insert into wallet (id, customer_id, wallet_name, currency, active_for_shopping, active_for_withdraw,
+                                    balance, usable_balance, version, created_date, created_by)
+                select ? + x, ? + mod(x, ?), 'Bench',
+                       case mod(x, 3) when 0 then 'EUR' when 1 then 'TRY' else 'USD' end, true, true,
+                       mod(x * 7919, ?) / 100.0, mod(x * 7919, ?) / 100.0, 0,
+                       current_timestamp, 'benchmark'
+                from system_range(0, ?)
+                """, FIRST_WALLET, FIRST_CUSTOMER, customers, wallets * 10L, wallets * 10L, wallets - 1);
+        jdbcTemplate.execute("analyze");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        node.close();
+    }
+
+    @Benchmark
+    public List<CreateWalletResponse> byCustomer() {
+        return walletRepository.findWalletResponsesByFilters(randomCustomer(), null, null, null);
+    }
+
+    @Benchmark
+    public List<CreateWalletResponse> byCustomerCurrencyAndBalance() {
+        return walletRepository.findWalletResponsesByFilters(randomCustomer(), Currency.TRY,
+                BigDecimal.ZERO, BigDecimal.valueOf(10_000));
+    }
+
+    @Benchmark
+    public List<CreateWalletResponse> byBalanceRange() {
+        BigDecimal min = BigDecimal.valueOf(ThreadLocalRandom.current().nextInt(Math.max(1, wallets / 10 - 1)));
+        return walletRepository.findWalletResponsesByFilters(null, null, min, min.add(BigDecimal.ONE));
+    }
+
+    private long randomCustomer() {
+        return FIRST_CUSTOMER + ThreadLocalRandom.current().nextInt(customers);
+    }
+}
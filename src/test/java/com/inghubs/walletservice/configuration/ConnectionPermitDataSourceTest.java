@@ -0,0 +1,59 @@
+package com.inghubs.walletservice.configuration;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+class ConnectionPermitDataSourceTest {
+
+    private final DataSource target = mock(DataSource.class);
+    private final ConnectionPermitDataSource dataSource = new ConnectionPermitDataSource(target, 1, Duration.ofMillis(50));
+
+    @Test
+    @DisplayName("getConnection times out while every permit is held and succeeds once the connection is closed")
+    void getConnectionWaitsForClosedConnection() throws SQLException {
+        // given
+        Connection pooled = mock(Connection.class);
+        when(target.getConnection()).thenReturn(pooled);
+        Connection first = dataSource.getConnection();
+
+        // when
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+        first.close();
+        first.close();
+        Connection second = dataSource.getConnection();
+
+        // then
+        assertEquals(1, dataSource.getTimeouts());
+        verify(pooled, times(1)).close();
+        assertSame(second, second.unwrap(Connection.class));
+        verify(target, times(2)).getConnection();
+    }
+
+    @Test
+    @DisplayName("getConnection returns the permit when the pool fails to hand out a connection")
+    void getConnectionReleasesPermitOnFailure() throws SQLException {
+        // given
+        when(target.getConnection())
+                .thenThrow(new SQLTransientConnectionException("pool exhausted"))
+                .thenReturn(mock(Connection.class));
+
+        // when
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+        dataSource.getConnection();
+
+        // then
+        assertEquals(0, dataSource.getTimeouts());
+        verify(target, times(2)).getConnection();
+    }
+}
@@ -0,0 +1,66 @@
+package com.inghubs.walletservice.controller;
+
+import com.inghubs.walletservice.model.dto.CustomUserDetails;
+import com.inghubs.walletservice.model.dto.LoginRequest;
+import com.inghubs.walletservice.model.dto.LoginResponse;
+import com.inghubs.walletservice.security.SessionToken;
+import com.inghubs.walletservice.security.SessionTokenService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class AuthControllerTest {
+
+    private final AuthenticationManager authenticationManager = mock(AuthenticationManager.class);
+    private final SessionTokenService sessionTokenService = mock(SessionTokenService.class);
+    private final AuthController authController = new AuthController(authenticationManager, sessionTokenService);
+
+    @Test
+    @DisplayName("login issues a bearer token for valid credentials")
+    void loginIssuesTokenForValidCredentials() {
+        // given
+        CustomUserDetails user = new CustomUserDetails(1L, "customer1", "{bcrypt}hash",
+                List.of(new SimpleGrantedAuthority("ROLE_CUSTOMER")), "CUSTOMER");
+        Instant expiresAt = Instant.parse("2026-01-01T10:30:00Z");
+        when(authenticationManager.authenticate(any()))
+                .thenReturn(UsernamePasswordAuthenticationToken.authenticated(user, null, user.getAuthorities()));
+        when(sessionTokenService.issue(user)).thenReturn(new SessionToken("payload.signature", expiresAt));
+
+        // when
+        ResponseEntity<LoginResponse> response = authController.login(LoginRequest.builder()
+                .username("customer1")
+                .password("password")
+                .build());
+
+        // then
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals("payload.signature", response.getBody().getToken());
+        assertEquals("Bearer", response.getBody().getTokenType());
+        assertEquals(expiresAt, response.getBody().getExpiresAt());
+    }
+
+    @Test
+    @DisplayName("login does not issue a token for invalid credentials")
+    void loginRejectsInvalidCredentials() {
+        // given
+        when(authenticationManager.authenticate(any())).thenThrow(new BadCredentialsException("Bad credentials"));
+
+        // when & then
+        assertThrows(BadCredentialsException.class, () -> authController.login(LoginRequest.builder()
+                .username("customer1")
+                .password("wrong")
+                .build()));
+        verifyNoInteractions(sessionTokenService);
+    }
+}
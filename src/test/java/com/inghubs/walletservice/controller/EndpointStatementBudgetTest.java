@@ -0,0 +1,242 @@
+package com.inghubs.walletservice.controller;
+
+import com.inghubs.walletservice.model.dto.CreateWalletRequest;
+import com.inghubs.walletservice.model.dto.CustomUserDetails;
+import com.inghubs.walletservice.model.dto.Money;
+import com.inghubs.walletservice.model.dto.PaymentRequest;
+import com.inghubs.walletservice.model.dto.PaymentResponse;
+import com.inghubs.walletservice.model.dto.enums.Currency;
+import com.inghubs.walletservice.model.dto.enums.OppositePartyType;
+import com.inghubs.walletservice.repository.TransactionRepository;
+import com.inghubs.walletservice.security.SessionTokenService;
+import com.inghubs.walletservice.service.WalletService;
+import com.inghubs.walletservice.support.SqlStatementCounter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pins the exact number of select, insert, update and delete statements every wallet and transaction endpoint
+ * prepares, in the default locking mode, so that an extra round trip or a growing N+1 fails the build.
+ * Statements batched by JDBC count once, sequence reads are left out, and bearer tokens are used so that
+ * authentication itself issues no SQL. A budget that goes down is good news: lower it.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:endpoint-statement-budget",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.inghubs.walletservice.support.SqlStatementCounter"
+})
+@AutoConfigureMockMvc
+class EndpointStatementBudgetTest {
+
+    private static final String PAYMENT = """
+            {"walletId": %d, "amount": %s, "source": "IBAN", "oppositeParty": "TR1234567890987654321"}
+            """;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private SessionTokenService sessionTokenService;
+
+    private Long walletId;
+
+    @BeforeEach
+    void setUp() {
+        walletId = walletService.createWallet(CreateWalletRequest.builder()
+                .customerId(1L)
+                .walletName("Statement Budget")
+                .currency(Currency.TRY)
+                .activeForShopping(true)
+                .activeForWithdraw(true)
+                .build()).getWalletId();
+    }
+
+    @Test
+    @DisplayName("creating a wallet reads the customer, opens the balance summary and inserts the wallet")
+    void createWallet() throws Exception {
+        assertBudget(post("/api/wallets").header(HttpHeaders.AUTHORIZATION, customer())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"customerId": 1, "walletName": "Budget", "currency": "USD",
+                                 "activeForShopping": true, "activeForWithdraw": true}
+                                """),
+                new Budget(1, 2, 0));
+    }
+
+    @Test
+    @DisplayName("listing wallets issues one projection query")
+    void listWallets() throws Exception {
+        assertBudget(get("/api/wallets").param("customerId", "1").header(HttpHeaders.AUTHORIZATION, customer()),
+                new Budget(1, 0, 0));
+    }
+
+    @Test
+    @DisplayName("searching wallets issues one keyset query")
+    void searchWallets() throws Exception {
+        assertBudget(get("/api/wallets/search").param("customerId", "1").header(HttpHeaders.AUTHORIZATION, customer()),
+                new Budget(1, 0, 0));
+    }
+
+    @Test
+    @DisplayName("the balance summary issues one query")
+    void getBalanceSummary() throws Exception {
+        assertBudget(get("/api/wallets/balances").param("customerId", "1").header(HttpHeaders.AUTHORIZATION, customer()),
+                new Budget(1, 0, 0));
+    }
+
+    @Test
+    @DisplayName("a customer deposit reads the wallet once, inserts the transaction and updates the wallet and summary")
+    void makeDeposit() throws Exception {
+        assertBudget(post("/api/wallets/deposit").header(HttpHeaders.AUTHORIZATION, customer())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(PAYMENT.formatted(walletId, "100")),
+                new Budget(1, 1, 2));
+    }
+
+    @Test
+    @DisplayName("a customer withdraw reads the wallet once, inserts the transaction and updates the wallet and summary")
+    void makeWithdraw() throws Exception {
+        // given
+        deposit(Money.of(500));
+
+        assertBudget(post("/api/wallets/withdraw").header(HttpHeaders.AUTHORIZATION, customer())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(PAYMENT.formatted(walletId, "100")),
+                new Budget(1, 1, 2));
+    }
+
+    @Test
+    @DisplayName("a batch of payments costs the same statements as a single payment")
+    void makeBatchPayments() throws Exception {
+        assertBudget(post("/api/wallets/payments:batch").header(HttpHeaders.AUTHORIZATION, employee())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"items": [
+                                  {"type": "DEPOSIT", "walletId": %1$d, "amount": 100, "source": "IBAN", "oppositeParty": "TR1234567890987654321"},
+                                  {"type": "DEPOSIT", "walletId": %1$d, "amount": 200, "source": "IBAN", "oppositeParty": "TR1234567890987654321"},
+                                  {"type": "WITHDRAW", "walletId": %1$d, "amount": 50, "source": "IBAN", "oppositeParty": "TR1234567890987654321"}
+                                ]}
+                                """.formatted(walletId)),
+                new Budget(1, 1, 2));
+    }
+
+    @Test
+    @DisplayName("listing transactions issues one projection query")
+    void listTransactionsByWallet() throws Exception {
+        // given
+        deposit(Money.of(100));
+        deposit(Money.of(200));
+
+        assertBudget(get("/api/transactions").param("walletId", walletId.toString()).header(HttpHeaders.AUTHORIZATION, customer()),
+                new Budget(1, 0, 0));
+    }
+
+    @Test
+    @DisplayName("a page of transactions issues one keyset query")
+    void listTransactionPage() throws Exception {
+        // given
+        deposit(Money.of(100));
+        deposit(Money.of(200));
+
+        assertBudget(get("/api/transactions/page").param("walletId", walletId.toString()).header(HttpHeaders.AUTHORIZATION, customer()),
+                new Budget(1, 0, 0));
+    }
+
+    @Test
+    @DisplayName("approving a transaction reads it with its wallet once and updates it, the wallet and the summary")
+    void approveTransaction() throws Exception {
+        // given
+        Long transactionId = pendingTransaction();
+
+        assertBudget(post("/api/transactions/approve").header(HttpHeaders.AUTHORIZATION, employee())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"transactionId": %d, "status": "APPROVED"}
+                                """.formatted(transactionId)),
+                new Budget(1, 0, 3));
+    }
+
+    @Test
+    @DisplayName("approving listed transactions costs a fixed number of statements per chunk")
+    void approveTransactions() throws Exception {
+        // given
+        Long first = pendingTransaction();
+        Long second = pendingTransaction();
+
+        assertBudget(post("/api/transactions/approve/bulk").header(HttpHeaders.AUTHORIZATION, employee())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"status": "APPROVED", "transactionIds": [%d, %d]}
+                                """.formatted(first, second)),
+                new Budget(3, 0, 3));
+    }
+
+    /**
+     * The statements an endpoint may prepare.
+     */
+    private record Budget(long selects, long inserts, long updates) {
+    }
+
+    private void assertBudget(MockHttpServletRequestBuilder request, Budget budget) throws Exception {
+        // when
+        SqlStatementCounter.reset();
+        mockMvc.perform(request).andExpect(status().isOk());
+
+        // then
+        Budget actual = new Budget(SqlStatementCounter.count("select"), SqlStatementCounter.count("insert"),
+                SqlStatementCounter.count("update"));
+        assertEquals(budget, actual, () -> String.join("\n", SqlStatementCounter.statements()));
+        assertEquals(0, SqlStatementCounter.count("delete"), () -> String.join("\n", SqlStatementCounter.statements()));
+    }
+
+    private void deposit(Money amount) {
+        walletService.makeDeposit(PaymentRequest.builder()
+                .walletId(walletId)
+                .amount(amount)
+                .source(OppositePartyType.IBAN)
+                .oppositeParty("TR1234567890987654321")
+                .build());
+    }
+
+    private Long pendingTransaction() {
+        PaymentResponse response = walletService.makeDeposit(PaymentRequest.builder()
+                .walletId(walletId)
+                .amount(Money.of(1500))
+                .source(OppositePartyType.IBAN)
+                .oppositeParty("TR1234567890987654321")
+                .build());
+        assertEquals("PENDING", response.getTransactionStatus());
+        return transactionRepository.findMaxId();
+    }
+
+    private String customer() {
+        return "Bearer " + sessionTokenService.issue(new CustomUserDetails(1L, "customer1", null,
+                List.of(new SimpleGrantedAuthority("ROLE_CUSTOMER")), "CUSTOMER")).value();
+    }
+
+    private String employee() {
+        return "Bearer " + sessionTokenService.issue(new CustomUserDetails(1L, "admin", null,
+                List.of(new SimpleGrantedAuthority("ROLE_EMPLOYEE")), "EMPLOYEE")).value();
+    }
+}
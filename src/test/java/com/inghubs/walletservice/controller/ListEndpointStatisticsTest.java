@@ -0,0 +1,121 @@
+package com.inghubs.walletservice.controller;
+
+import com.inghubs.walletservice.model.dto.CreateWalletRequest;
+import com.inghubs.walletservice.model.dto.CustomUserDetails;
+import com.inghubs.walletservice.model.dto.Money;
+import com.inghubs.walletservice.model.dto.PaymentRequest;
+import com.inghubs.walletservice.model.dto.enums.Currency;
+import com.inghubs.walletservice.model.dto.enums.OppositePartyType;
+import com.inghubs.walletservice.security.SessionTokenService;
+import com.inghubs.walletservice.service.WalletService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Proves that the transaction and wallet listings are served by a single projection query
+ * without hydrating any entity. Bearer tokens are used so that authentication itself issues no SQL.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:list-endpoint-statistics",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureMockMvc
+class ListEndpointStatisticsTest {
+
+    private static final int DEPOSITS = 3;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private SessionTokenService sessionTokenService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private Long walletId;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        walletId = walletService.createWallet(CreateWalletRequest.builder()
+                .customerId(1L)
+                .walletName("Statistics")
+                .currency(Currency.EUR)
+                .activeForShopping(true)
+                .activeForWithdraw(true)
+                .build()).getWalletId();
+        for (int i = 0; i < DEPOSITS; i++) {
+            walletService.makeDeposit(PaymentRequest.builder()
+                    .walletId(walletId)
+                    .amount(Money.of(100))
+                    .source(OppositePartyType.IBAN)
+                    .oppositeParty("TR1234567890987654321")
+                    .build());
+        }
+    }
+
+    @Test
+    @DisplayName("listing transactions issues one statement and loads no entities")
+    void listTransactionsLoadsNoEntities() throws Exception {
+        // when
+        statistics.clear();
+        mockMvc.perform(get("/api/transactions")
+                        .param("walletId", walletId.toString())
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + customerToken()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(DEPOSITS))
+                .andExpect(jsonPath("$[0].walletId").value(walletId));
+
+        // then
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(0, statistics.getEntityFetchCount());
+    }
+
+    @Test
+    @DisplayName("listing wallets issues one statement and loads no entities")
+    void listWalletsLoadsNoEntities() throws Exception {
+        // when
+        statistics.clear();
+        mockMvc.perform(get("/api/wallets")
+                        .param("customerId", "1")
+                        .param("currency", "EUR")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + customerToken()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].customerId").value(1))
+                .andExpect(jsonPath("$[0].currency").value("EUR"));
+
+        // then
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(0, statistics.getEntityFetchCount());
+    }
+
+    private String customerToken() {
+        return sessionTokenService.issue(new CustomUserDetails(1L, "customer1", null,
+                List.of(new SimpleGrantedAuthority("ROLE_CUSTOMER")), "CUSTOMER")).value();
+    }
+}
@@ -0,0 +1,99 @@
+package com.inghubs.walletservice.controller;
+
+import com.inghubs.walletservice.model.dto.CreateWalletRequest;
+import com.inghubs.walletservice.model.dto.CustomUserDetails;
+import com.inghubs.walletservice.model.dto.enums.Currency;
+import com.inghubs.walletservice.security.SessionTokenService;
+import com.inghubs.walletservice.service.WalletService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Proves that a request is timed at every layer it passes, HTTP, authentication, service and repository,
+ * with histogram buckets, and that its outcome is counted, as scraped from the Prometheus endpoint.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:metrics-endpoint")
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class MetricsEndpointTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private SessionTokenService sessionTokenService;
+
+    @Test
+    @DisplayName("the prometheus endpoint publishes the latency histograms and outcomes of a payment")
+    void prometheusEndpointPublishesPaymentMetrics() throws Exception {
+        // given
+        Long walletId = walletService.createWallet(CreateWalletRequest.builder()
+                .customerId(1L)
+                .walletName("Metrics")
+                .currency(Currency.EUR)
+                .activeForShopping(true)
+                .activeForWithdraw(true)
+                .build()).getWalletId();
+
+        // when
+        pay("/api/wallets/deposit", walletId, 1500).andExpect(status().isOk());
+        pay("/api/wallets/withdraw", walletId, 100).andExpect(status().isForbidden());
+        String scrape = mockMvc.perform(get("/actuator/prometheus")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + employeeToken()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        // then
+        assertScraped(scrape, "http_server_requests_seconds_bucket{", "uri=\"/api/wallets/deposit\"");
+        assertScraped(scrape, "spring_security_authentications_seconds_bucket{");
+        assertScraped(scrape, "wallet_service_seconds_bucket{", "method=\"makeDeposit\"");
+        assertScraped(scrape, "spring_data_repository_invocations_seconds_bucket{", "repository=\"WalletRepository\"");
+        assertScraped(scrape, "wallet_payments_total{", "status=\"PENDING\"", "type=\"DEPOSIT\"");
+        assertScraped(scrape, "wallet_errors_total{", "exception=\"InsufficientBalanceException\"", "status=\"403\"");
+        assertScraped(scrape, "wallet_transactions_pending{", "currency=\"EUR\"");
+        assertScraped(scrape, "wallet_transactions_pending_amount{", "currency=\"EUR\"");
+    }
+
+    private ResultActions pay(String path, Long walletId, int amount) throws Exception {
+        // basic authentication, so that the request is also timed through the authentication manager
+        return mockMvc.perform(post(path)
+                .header(HttpHeaders.AUTHORIZATION, "Basic " + Base64.getEncoder()
+                        .encodeToString("customer1:password".getBytes(StandardCharsets.UTF_8)))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                        {"walletId": %d, "amount": %d, "source": "IBAN", "oppositeParty": "TR1234567890987654321"}
+                        """.formatted(walletId, amount)));
+    }
+
+    private static void assertScraped(String scrape, String meter, String... tags) {
+        boolean found = scrape.lines().anyMatch(line -> line.startsWith(meter)
+                && List.of(tags).stream().allMatch(line::contains));
+        assertTrue(found, () -> "no " + meter + " sample with " + List.of(tags) + " in:\n" + scrape);
+    }
+
+    private String employeeToken() {
+        return sessionTokenService.issue(new CustomUserDetails(1L, "admin", null,
+                List.of(new SimpleGrantedAuthority("ROLE_EMPLOYEE")), "EMPLOYEE")).value();
+    }
+}
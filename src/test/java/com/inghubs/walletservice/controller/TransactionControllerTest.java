@@ -1,6 +1,9 @@
 package com.inghubs.walletservice.controller;
 
+import com.inghubs.walletservice.model.dto.BulkApprovalRequest;
+import com.inghubs.walletservice.model.dto.BulkApprovalResponse;
 import com.inghubs.walletservice.model.dto.TransactionApprovalRequest;
+import com.inghubs.walletservice.model.dto.TransactionPageResponse;
 import com.inghubs.walletservice.model.dto.TransactionResponse;
 import com.inghubs.walletservice.model.dto.enums.TransactionStatus;
 import com.inghubs.walletservice.service.TransactionService;
@@ -54,6 +57,25 @@ class TransactionControllerTest {
         verify(transactionService, times(1)).findTransactionsByWalletId(walletId);
     }
 
+    @Test
+    @DisplayName("listTransactionPage returns the requested page")
+    void listTransactionPageReturnsRequestedPage() {
+        // given
+        Long walletId = 1L;
+        TransactionPageResponse expectedPage = TransactionPageResponse.builder()
+                .items(List.of(TransactionResponse.builder().id(5L).walletId(walletId).build()))
+                .nextCursor("NQ")
+                .build();
+        when(transactionService.findTransactionPage(walletId, "Ng", 1)).thenReturn(expectedPage);
+
+        // when
+        ResponseEntity<TransactionPageResponse> response = transactionController.listTransactionPage(walletId, "Ng", 1);
+
+        // then
+        assertEquals(ResponseEntity.ok(expectedPage), response);
+        verify(transactionService, times(1)).findTransactionPage(walletId, "Ng", 1);
+    }
+
     @Test
     @DisplayName("approveTransaction updates transaction status for valid request")
     void approveTransactionUpdatesTransactionStatusForValidRequest() {
@@ -95,4 +117,27 @@ class TransactionControllerTest {
 
         verify(transactionService, times(1)).approveTransaction(invalidRequest);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("approveTransactions returns the summary of the bulk decisions")
+    void approveTransactionsReturnsSummaryOfBulkDecisions() {
+        // given
+        BulkApprovalRequest request = BulkApprovalRequest.builder()
+                .status(TransactionStatus.APPROVED)
+                .transactionIds(List.of(1L, 2L))
+                .build();
+        BulkApprovalResponse expectedResponse = BulkApprovalResponse.builder()
+                .status("APPROVED")
+                .matched(2)
+                .decided(2)
+                .build();
+        when(transactionService.approveTransactions(request)).thenReturn(expectedResponse);
+
+        // when
+        ResponseEntity<BulkApprovalResponse> response = transactionController.approveTransactions(request);
+
+        // then
+        assertEquals(ResponseEntity.ok(expectedResponse), response);
+        verify(transactionService, times(1)).approveTransactions(request);
+    }
+}
@@ -1,10 +1,18 @@
 package com.inghubs.walletservice.controller;
 
+import com.inghubs.walletservice.model.dto.BatchPaymentItem;
+import com.inghubs.walletservice.model.dto.BatchPaymentRequest;
+import com.inghubs.walletservice.model.dto.BatchPaymentResponse;
 import com.inghubs.walletservice.model.dto.CreateWalletRequest;
 import com.inghubs.walletservice.model.dto.CreateWalletResponse;
+import com.inghubs.walletservice.model.dto.CustomerBalanceResponse;
+import com.inghubs.walletservice.model.dto.Money;
 import com.inghubs.walletservice.model.dto.PaymentRequest;
 import com.inghubs.walletservice.model.dto.PaymentResponse;
+import com.inghubs.walletservice.model.dto.WalletPageResponse;
 import com.inghubs.walletservice.model.dto.enums.Currency;
+import com.inghubs.walletservice.model.dto.enums.TransactionType;
+import com.inghubs.walletservice.model.dto.enums.WalletSort;
 import com.inghubs.walletservice.service.WalletService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -36,7 +44,7 @@ class WalletControllerTest {
                 .walletId(1L)
                 .walletName("My Wallet")
                 .currency("USD")
-                .balance(BigDecimal.valueOf(0.0))
+                .balance(Money.parse("0.0"))
                 .build();
         when(walletService.createWallet(request)).thenReturn(expectedResponse);
 
@@ -81,7 +89,7 @@ class WalletControllerTest {
                         .walletId(1L)
                         .walletName("Wallet 1")
                         .currency("USD")
-                        .balance(BigDecimal.valueOf(100.0))
+                        .balance(Money.parse("100.0"))
                         .build()
         );
         when(walletService.listWallets(customerId, null, null, null)).thenReturn(expectedWallets);
@@ -94,6 +102,47 @@ class WalletControllerTest {
         verify(walletService, times(1)).listWallets(customerId, null, null, null);
     }
 
+    @Test
+    @DisplayName("searchWallets returns the page from the service")
+    void searchWalletsReturnsPageFromService() {
+        // given
+        WalletPageResponse expectedPage = WalletPageResponse.builder()
+                .items(List.of(CreateWalletResponse.builder().walletId(1L).currency("TRY").build()))
+                .nextCursor("next")
+                .build();
+        when(walletService.searchWallets(null, Currency.TRY, null, null, WalletSort.BALANCE_DESC, "cursor", 20))
+                .thenReturn(expectedPage);
+
+        // when
+        ResponseEntity<WalletPageResponse> response = walletController.searchWallets(null, Currency.TRY, null, null,
+                WalletSort.BALANCE_DESC, "cursor", 20);
+
+        // then
+        assertEquals(ResponseEntity.ok(expectedPage), response);
+        verify(walletService, times(1)).searchWallets(null, Currency.TRY, null, null, WalletSort.BALANCE_DESC, "cursor", 20);
+    }
+
+    @Test
+    @DisplayName("getBalanceSummary returns the customer's balances per currency")
+    void getBalanceSummaryReturnsBalancesPerCurrency() {
+        // given
+        List<CustomerBalanceResponse> expectedBalances = List.of(
+                CustomerBalanceResponse.builder()
+                        .customerId(1L)
+                        .currency("EUR")
+                        .totalBalance(BigDecimal.valueOf(1500))
+                        .usableBalance(BigDecimal.valueOf(500))
+                        .build());
+        when(walletService.getBalanceSummary(1L)).thenReturn(expectedBalances);
+
+        // when
+        ResponseEntity<List<CustomerBalanceResponse>> response = walletController.getBalanceSummary(1L);
+
+        // then
+        assertEquals(ResponseEntity.ok(expectedBalances), response);
+        verify(walletService, times(1)).getBalanceSummary(1L);
+    }
+
     @Test
     @DisplayName("listWallets returns empty list when no wallets match filters")
     void listWalletsReturnsEmptyListWhenNoWalletsMatchFilters() {
@@ -115,11 +164,11 @@ class WalletControllerTest {
         // given
         PaymentRequest request = PaymentRequest.builder()
                 .walletId(1L)
-                .amount(BigDecimal.valueOf(50.0))
+                .amount(Money.parse("50.0"))
                 .build();
         PaymentResponse expectedResponse = PaymentResponse.builder()
                 .walletId(1L)
-                .totalBalance(BigDecimal.valueOf(50.0))
+                .totalBalance(Money.parse("50.0"))
                 .transactionStatus("SUCCESS")
                 .build();
         when(walletService.makeDeposit(request)).thenReturn(expectedResponse);
@@ -138,11 +187,11 @@ class WalletControllerTest {
         // given
         PaymentRequest request = PaymentRequest.builder()
                 .walletId(1L)
-                .amount(BigDecimal.valueOf(30.0))
+                .amount(Money.parse("30.0"))
                 .build();
         PaymentResponse expectedResponse = PaymentResponse.builder()
                 .walletId(1L)
-                .totalBalance(BigDecimal.valueOf(30.0))
+                .totalBalance(Money.parse("30.0"))
                 .transactionStatus("SUCCESS")
                 .build();
         when(walletService.makeWithdraw(request)).thenReturn(expectedResponse);
@@ -161,7 +210,7 @@ class WalletControllerTest {
         // given
         PaymentRequest request = PaymentRequest.builder()
                 .walletId(1L)
-                .amount(BigDecimal.valueOf(1000.0))
+                .amount(Money.parse("1000.0"))
                 .build();
         when(walletService.makeWithdraw(request)).thenThrow(new IllegalArgumentException("Insufficient balance"));
 
@@ -174,4 +223,30 @@ class WalletControllerTest {
 
         verify(walletService, times(1)).makeWithdraw(request);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("makeBatchPayments delegates the batch to the service")
+    void makeBatchPaymentsDelegatesBatchToService() {
+        // given
+        BatchPaymentRequest request = BatchPaymentRequest.builder()
+                .items(List.of(BatchPaymentItem.builder()
+                        .type(TransactionType.DEPOSIT)
+                        .walletId(1L)
+                        .amount(Money.of(10))
+                        .build()))
+                .build();
+        BatchPaymentResponse expectedResponse = BatchPaymentResponse.builder()
+                .total(1)
+                .succeeded(1)
+                .results(List.of())
+                .build();
+        when(walletService.makeBatchPayments(request)).thenReturn(expectedResponse);
+
+        // when
+        ResponseEntity<BatchPaymentResponse> response = walletController.makeBatchPayments(request);
+
+        // then
+        assertEquals(ResponseEntity.ok(expectedResponse), response);
+        verify(walletService, times(1)).makeBatchPayments(request);
+    }
+}
@@ -0,0 +1,159 @@
+package com.inghubs.walletservice.controller;
+
+import com.inghubs.walletservice.model.dto.CreateWalletRequest;
+import com.inghubs.walletservice.model.dto.CustomUserDetails;
+import com.inghubs.walletservice.model.dto.Money;
+import com.inghubs.walletservice.model.dto.PaymentRequest;
+import com.inghubs.walletservice.model.dto.enums.Currency;
+import com.inghubs.walletservice.model.dto.enums.OppositePartyType;
+import com.inghubs.walletservice.security.SessionTokenService;
+import com.inghubs.walletservice.service.WalletService;
+import com.inghubs.walletservice.support.SqlStatementCounter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Proves that authorizing and executing a payment reads the wallet row exactly once per request,
+ * in every locking mode. Bearer tokens are used so that authentication itself issues no SQL.
+ */
+class WalletEndpointStatementCountTest {
+
+    private static final String STATEMENT_INSPECTOR =
+            "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.inghubs.walletservice.support.SqlStatementCounter";
+
+    @Nested
+    @DisplayName("conditional update mode")
+    @SpringBootTest(properties = {
+            "spring.datasource.url=jdbc:h2:mem:statement-count-conditional",
+            "wallet.payment-engine.locking-mode=CONDITIONAL_UPDATE",
+            STATEMENT_INSPECTOR
+    })
+    @AutoConfigureMockMvc
+    class ConditionalUpdateMode extends PaymentScenarios {
+    }
+
+    @Nested
+    @DisplayName("optimistic mode")
+    @SpringBootTest(properties = {
+            "spring.datasource.url=jdbc:h2:mem:statement-count-optimistic",
+            "wallet.payment-engine.locking-mode=OPTIMISTIC",
+            STATEMENT_INSPECTOR
+    })
+    @AutoConfigureMockMvc
+    class OptimisticMode extends PaymentScenarios {
+    }
+
+    @Nested
+    @DisplayName("pessimistic mode")
+    @SpringBootTest(properties = {
+            "spring.datasource.url=jdbc:h2:mem:statement-count-pessimistic",
+            "wallet.payment-engine.locking-mode=PESSIMISTIC",
+            STATEMENT_INSPECTOR
+    })
+    @AutoConfigureMockMvc
+    class PessimisticMode extends PaymentScenarios {
+    }
+
+    @Nested
+    @DisplayName("ledger mode")
+    @SpringBootTest(properties = {
+            "spring.datasource.url=jdbc:h2:mem:statement-count-ledger",
+            "wallet.payment-engine.locking-mode=LEDGER",
+            STATEMENT_INSPECTOR
+    })
+    @AutoConfigureMockMvc
+    class LedgerMode extends PaymentScenarios {
+    }
+
+    abstract static class PaymentScenarios {
+
+        @Autowired
+        private MockMvc mockMvc;
+
+        @Autowired
+        private WalletService walletService;
+
+        @Autowired
+        private SessionTokenService sessionTokenService;
+
+        private Long walletId;
+
+        @BeforeEach
+        void setUp() {
+            walletId = walletService.createWallet(CreateWalletRequest.builder()
+                    .customerId(1L)
+                    .walletName("Statement Count")
+                    .currency(Currency.TRY)
+                    .activeForShopping(true)
+                    .activeForWithdraw(true)
+                    .build()).getWalletId();
+        }
+
+        @Test
+        @DisplayName("a customer deposit reads the wallet once")
+        void customerDepositReadsWalletOnce() throws Exception {
+            assertSingleWalletRead("/api/wallets/deposit", customerToken());
+        }
+
+        @Test
+        @DisplayName("a customer withdraw reads the wallet once")
+        void customerWithdrawReadsWalletOnce() throws Exception {
+            // given
+            walletService.makeDeposit(PaymentRequest.builder()
+                    .walletId(walletId)
+                    .amount(Money.of(500))
+                    .source(OppositePartyType.IBAN)
+                    .oppositeParty("TR1234567890987654321")
+                    .build());
+
+            assertSingleWalletRead("/api/wallets/withdraw", customerToken());
+        }
+
+        @Test
+        @DisplayName("an employee deposit reads the wallet once")
+        void employeeDepositReadsWalletOnce() throws Exception {
+            assertSingleWalletRead("/api/wallets/deposit", employeeToken());
+        }
+
+        private void assertSingleWalletRead(String path, String token) throws Exception {
+            // when
+            SqlStatementCounter.reset();
+            mockMvc.perform(post(path)
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("""
+                                    {"walletId": %d, "amount": 100, "source": "IBAN", "oppositeParty": "TR1234567890987654321"}
+                                    """.formatted(walletId)))
+                    .andExpect(status().isOk());
+
+            // then
+            assertEquals(1, SqlStatementCounter.selectsFrom("wallet"),
+                    () -> String.join("\n", SqlStatementCounter.statements()));
+        }
+
+        private String customerToken() {
+            return sessionTokenService.issue(new CustomUserDetails(1L, "customer1", null,
+                    List.of(new SimpleGrantedAuthority("ROLE_CUSTOMER")), "CUSTOMER")).value();
+        }
+
+        private String employeeToken() {
+            return sessionTokenService.issue(new CustomUserDetails(1L, "admin", null,
+                    List.of(new SimpleGrantedAuthority("ROLE_EMPLOYEE")), "EMPLOYEE")).value();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.inghubs.walletservice.model.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    @DisplayName("parse reads whole, fractional, signed and exponent amounts as ten-thousandths")
+    void parseReadsDecimalAmounts() {
+        // when & then
+        assertEquals(new Money(150_000), Money.parse("15"));
+        assertEquals(new Money(105_000), Money.parse("10.5"));
+        assertEquals(new Money(9_999_999), Money.parse("999.9999"));
+        assertEquals(new Money(-5), Money.parse("-0.0005"));
+        assertEquals(new Money(5_000), Money.parse("+.5"));
+        assertEquals(new Money(10_000_000), Money.parse("1e3"));
+        assertEquals(Money.of(new BigDecimal("1234.5678")), Money.parse("1234.5678"));
+    }
+
+    @Test
+    @DisplayName("parse and of round amounts with more than four decimals half up, as the database does")
+    void parseRoundsHalfUp() {
+        // when & then
+        assertEquals(new Money(1), Money.parse("0.00005"));
+        assertEquals(Money.ZERO, Money.parse("0.000049999"));
+        assertEquals(new Money(-1), Money.parse("-0.00005"));
+        assertEquals(new Money(100_000), Money.parse("9.99995"));
+        assertEquals(new Money(1), Money.of(new BigDecimal("0.00005")));
+        assertEquals(new Money(-1), Money.of(new BigDecimal("-0.00005")));
+    }
+
+    @Test
+    @DisplayName("parse rejects text that is not a decimal amount")
+    void parseRejectsInvalidText() {
+        // when & then
+        assertThrows(NumberFormatException.class, () -> Money.parse(""));
+        assertThrows(NumberFormatException.class, () -> Money.parse("-"));
+        assertThrows(NumberFormatException.class, () -> Money.parse("."));
+        assertThrows(NumberFormatException.class, () -> Money.parse("1.2.3"));
+        assertThrows(NumberFormatException.class, () -> Money.parse("12abc"));
+    }
+
+    @Test
+    @DisplayName("arithmetic fails instead of overflowing the long")
+    void arithmeticDetectsOverflow() {
+        // given
+        Money max = new Money(Long.MAX_VALUE);
+
+        // when & then
+        assertThrows(ArithmeticException.class, () -> max.plus(new Money(1)));
+        assertThrows(ArithmeticException.class, () -> new Money(Long.MIN_VALUE).minus(new Money(1)));
+        assertThrows(ArithmeticException.class, () -> new Money(Long.MIN_VALUE).negate());
+        assertThrows(ArithmeticException.class, () -> Money.of(Long.MAX_VALUE / 1_000));
+        assertThrows(ArithmeticException.class, () -> Money.parse("922337203685478"));
+        assertThrows(ArithmeticException.class, () -> Money.of(new BigDecimal("922337203685478")));
+        assertEquals(max, Money.parse("922337203685477.5807"));
+    }
+
+    @Test
+    @DisplayName("plus, minus and the comparisons work on the ten-thousandths")
+    void arithmeticAndComparisons() {
+        // given
+        Money balance = Money.parse("1000.0000");
+        Money amount = Money.parse("0.0001");
+
+        // when & then
+        assertEquals(Money.parse("1000.0001"), balance.plus(amount));
+        assertEquals(Money.parse("999.9999"), balance.minus(amount));
+        assertEquals(Money.parse("-0.0001"), amount.negate());
+        assertTrue(balance.isGreaterThan(amount));
+        assertTrue(amount.isLessThan(balance));
+        assertFalse(balance.isGreaterThan(Money.of(1000)));
+        assertTrue(amount.isPositive());
+        assertFalse(Money.ZERO.isPositive());
+        assertEquals(0, balance.compareTo(Money.of(1000)));
+    }
+
+    @Test
+    @DisplayName("toString and toBigDecimal give the amount with four decimals")
+    void formatsWithFourDecimals() {
+        // when & then
+        assertEquals("1500.0000", Money.of(1500).toString());
+        assertEquals("12.3400", Money.parse("12.34").toString());
+        assertEquals("-0.0005", new Money(-5).toString());
+        assertEquals("-12.0500", Money.parse("-12.05").toString());
+        assertEquals("0.0000", Money.ZERO.toString());
+        assertEquals(new BigDecimal("-12.0500"), Money.parse("-12.05").toBigDecimal());
+    }
+
+    @Test
+    @DisplayName("JSON keeps amounts as numbers with four decimals and reads numbers or strings")
+    void jsonRoundTrip() throws Exception {
+        // when
+        String json = objectMapper.writeValueAsString(PaymentResponse.builder().totalBalance(Money.parse("1500.5")).build());
+
+        // then
+        assertTrue(json.contains("\"totalBalance\":1500.5000"), json);
+        assertEquals(Money.parse("10.5"), objectMapper.readValue("10.5", Money.class));
+        assertEquals(Money.of(10), objectMapper.readValue("10", Money.class));
+        assertEquals(Money.of(10), objectMapper.readValue("\"10\"", Money.class));
+        assertNull(objectMapper.readValue("null", Money.class));
+        assertThrows(InvalidFormatException.class, () -> objectMapper.readValue("\"ten\"", Money.class));
+        assertThrows(InvalidFormatException.class, () -> objectMapper.readValue("1e20", Money.class));
+    }
+}
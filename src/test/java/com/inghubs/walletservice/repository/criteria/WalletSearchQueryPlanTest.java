@@ -0,0 +1,151 @@
+package com.inghubs.walletservice.repository.criteria;
+
+import com.inghubs.walletservice.model.dto.CreateWalletResponse;
+import com.inghubs.walletservice.model.dto.Money;
+import com.inghubs.walletservice.model.dto.WalletSearchCursor;
+import com.inghubs.walletservice.model.dto.enums.Currency;
+import com.inghubs.walletservice.model.dto.enums.WalletSort;
+import com.inghubs.walletservice.repository.WalletRepository;
+import com.inghubs.walletservice.support.SqlStatementCounter;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs EXPLAIN on the SQL that the wallet search actually generates and checks that every filter shape is
+ * answered from one of the wallet search indexes, already in sort order, so the page limit stops the scan.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:wallet-search-plan",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.inghubs.walletservice.support.SqlStatementCounter"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class WalletSearchQueryPlanTest {
+
+    private static final int WALLETS = 3_000;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @BeforeAll
+    void seedWallets() {
+        jdbcTemplate.update("""
+                insert into wallet (id, customer_id, wallet_name, currency, active_for_shopping, active_for_withdraw,
+                                    balance, usable_balance, version, created_date, created_by)
+                select 100000 + x, 1 + mod(x, 2), 'Plan ' || x,
+                       case mod(x, 3) when 0 then 'EUR' when 1 then 'TRY' else 'USD' end, true, true,
+                       mod(x * 7919, 1000), mod(x * 7919, 1000), 0, current_timestamp, 'test'
+                from system_range(1, ?)
+                """, WALLETS);
+        jdbcTemplate.execute("analyze");
+    }
+
+    @Test
+    @DisplayName("a currency search sorted by balance reads the currency and balance index in order")
+    void currencyByBalanceUsesCurrencyBalanceIndex() throws SQLException {
+        assertPlan(() -> walletRepository.searchWallets(null, Currency.TRY, BigDecimal.valueOf(100), BigDecimal.valueOf(500),
+                        WalletSort.BALANCE_DESC, new WalletSearchCursor(Money.of(400), 100_500L), 51),
+                "IDX_WALLET_CURRENCY_BALANCE_ID");
+    }
+
+    @Test
+    @DisplayName("a currency search sorted by id reads the currency and id index in order")
+    void currencyByIdUsesCurrencyIdIndex() throws SQLException {
+        assertPlan(() -> walletRepository.searchWallets(null, Currency.EUR, null, null,
+                WalletSort.ID_DESC, new WalletSearchCursor(null, 101_000L), 51), "IDX_WALLET_CURRENCY_ID");
+    }
+
+    @Test
+    @DisplayName("a balance range search reads the balance index in order")
+    void balanceRangeUsesBalanceIndex() throws SQLException {
+        assertPlan(() -> walletRepository.searchWallets(null, null, BigDecimal.valueOf(10), BigDecimal.valueOf(20),
+                WalletSort.BALANCE_ASC, null, 51), "IDX_WALLET_BALANCE_ID");
+    }
+
+    @Test
+    @DisplayName("a customer search reads the customer index in order")
+    void customerUsesCustomerIndex() throws SQLException {
+        assertPlan(() -> walletRepository.searchWallets(2L, null, null, null,
+                WalletSort.ID_ASC, new WalletSearchCursor(null, 100_010L), 51), "IDX_WALLET_CUSTOMER_ID_ID");
+    }
+
+    @Test
+    @DisplayName("walking every page by keyset returns each wallet once in sort order")
+    void keysetPagesCoverEveryWalletInOrder() {
+        // given
+        List<CreateWalletResponse> expected = walletRepository.findWalletResponsesByFilters(null, Currency.USD, null, null)
+                .stream()
+                .sorted(Comparator.comparing(CreateWalletResponse::getBalance).reversed()
+                        .thenComparing(CreateWalletResponse::getWalletId, Comparator.reverseOrder()))
+                .toList();
+
+        // when
+        List<CreateWalletResponse> walked = new ArrayList<>();
+        WalletSearchCursor after = null;
+        List<CreateWalletResponse> page;
+        do {
+            page = walletRepository.searchWallets(null, Currency.USD, null, null, WalletSort.BALANCE_DESC, after, 97);
+            walked.addAll(page);
+            if (!page.isEmpty()) {
+                CreateWalletResponse last = page.get(page.size() - 1);
+                after = new WalletSearchCursor(last.getBalance(), last.getWalletId());
+            }
+        } while (!page.isEmpty());
+
+        // then
+        assertEquals(expected.stream().map(CreateWalletResponse::getWalletId).toList(),
+                walked.stream().map(CreateWalletResponse::getWalletId).toList());
+    }
+
+    private void assertPlan(Runnable search, String index) throws SQLException {
+        // when
+        SqlStatementCounter.reset();
+        search.run();
+        String plan = explain(SqlStatementCounter.statements().get(0));
+
+        // then
+        assertTrue(plan.contains("PUBLIC." + index), plan);
+        assertTrue(plan.contains("/* INDEX SORTED */"), plan);
+    }
+
+    /**
+     * Explains a statement without binding its parameters; H2 plans a prepared statement before any value
+     * is known, so the plan is the one every execution of that statement uses.
+     */
+    private String explain(String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("explain " + sql)) {
+            for (int i = 1; i <= statement.getParameterMetaData().getParameterCount(); i++) {
+                statement.setObject(i, null);
+            }
+            try (ResultSet plan = statement.executeQuery()) {
+                plan.next();
+                return plan.getString(1).toUpperCase(Locale.ROOT);
+            }
+        }
+    }
+}
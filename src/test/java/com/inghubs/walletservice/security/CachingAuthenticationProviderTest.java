@@ -0,0 +1,112 @@
+package com.inghubs.walletservice.security;
+
+import com.inghubs.walletservice.configuration.AuthenticationCacheProperties;
+import com.inghubs.walletservice.model.dto.CustomUserDetails;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class CachingAuthenticationProviderTest {
+
+    private static final CustomUserDetails CUSTOMER = new CustomUserDetails(1L, "customer1", "{bcrypt}hash",
+            List.of(new SimpleGrantedAuthority("ROLE_CUSTOMER")), "CUSTOMER");
+
+    private AuthenticationProvider delegate;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(AuthenticationProvider.class);
+        when(delegate.authenticate(any())).thenAnswer(invocation -> {
+            Authentication request = invocation.getArgument(0);
+            if (!"password".equals(request.getCredentials())) {
+                throw new BadCredentialsException("Bad credentials");
+            }
+            return UsernamePasswordAuthenticationToken.authenticated(CUSTOMER, null, CUSTOMER.getAuthorities());
+        });
+    }
+
+    @Test
+    @DisplayName("authenticate verifies the password once and answers repeated attempts from the cache")
+    void authenticateServesRepeatedAttemptsFromCache() {
+        // given
+        AuthenticationCache cache = new AuthenticationCache(new AuthenticationCacheProperties());
+        CachingAuthenticationProvider provider = new CachingAuthenticationProvider(delegate, cache);
+
+        // when
+        Authentication first = provider.authenticate(login("password"));
+        Authentication second = provider.authenticate(login("password"));
+
+        // then
+        assertTrue(first.isAuthenticated());
+        assertTrue(second.isAuthenticated());
+        assertSame(CUSTOMER, second.getPrincipal());
+        assertEquals(CUSTOMER.getAuthorities(), second.getAuthorities());
+        verify(delegate, times(1)).authenticate(any());
+        assertEquals(0.5, cache.hitRatio());
+    }
+
+    @Test
+    @DisplayName("authenticate does not accept a different password for a cached user")
+    void authenticateRejectsDifferentPasswordForCachedUser() {
+        // given
+        AuthenticationCache cache = new AuthenticationCache(new AuthenticationCacheProperties());
+        CachingAuthenticationProvider provider = new CachingAuthenticationProvider(delegate, cache);
+        provider.authenticate(login("password"));
+
+        // when & then
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(login("wrong")));
+        verify(delegate, times(2)).authenticate(any());
+    }
+
+    @Test
+    @DisplayName("a password change drops the cached verification")
+    void passwordChangeInvalidatesCachedVerification() {
+        // given
+        AuthenticationCache cache = new AuthenticationCache(new AuthenticationCacheProperties());
+        CachingAuthenticationProvider provider = new CachingAuthenticationProvider(delegate, cache);
+        provider.authenticate(login("password"));
+        cache.putUserInCache(CUSTOMER);
+
+        // when
+        cache.onPasswordChanged(new PasswordChangedEvent("customer1"));
+        provider.authenticate(login("password"));
+
+        // then
+        assertNull(cache.getUserFromCache("customer1"));
+        verify(delegate, times(2)).authenticate(any());
+    }
+
+    @Test
+    @DisplayName("authenticate always delegates when the cache is disabled")
+    void authenticateAlwaysDelegatesWhenDisabled() {
+        // given
+        AuthenticationCacheProperties properties = new AuthenticationCacheProperties();
+        properties.setEnabled(false);
+        AuthenticationCache cache = new AuthenticationCache(properties);
+        CachingAuthenticationProvider provider = new CachingAuthenticationProvider(delegate, cache);
+
+        // when
+        provider.authenticate(login("password"));
+        provider.authenticate(login("password"));
+        cache.putUserInCache(CUSTOMER);
+
+        // then
+        verify(delegate, times(2)).authenticate(any());
+        assertNull(cache.getUserFromCache("customer1"));
+    }
+
+    private static UsernamePasswordAuthenticationToken login(String password) {
+        return UsernamePasswordAuthenticationToken.unauthenticated("customer1", password);
+    }
+}
@@ -0,0 +1,91 @@
+package com.inghubs.walletservice.security;
+
+import com.inghubs.walletservice.configuration.SessionTokenProperties;
+import com.inghubs.walletservice.model.dto.CustomUserDetails;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionTokenServiceTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T10:00:00Z");
+    private static final String SECRET = "c2Vzc2lvbi10b2tlbi10ZXN0LXNlY3JldC0zMi1ieXRlcw==";
+
+    private static final CustomUserDetails CUSTOMER = new CustomUserDetails(7L, "customer7", "{bcrypt}hash",
+            List.of(new SimpleGrantedAuthority("ROLE_CUSTOMER")), "CUSTOMER");
+
+    private final SessionTokenService sessionTokenService = newService(Clock.fixed(NOW, ZoneOffset.UTC));
+
+    @Test
+    @DisplayName("verify returns the id, username and role the token was issued for")
+    void verifyReturnsIssuedUser() {
+        // given
+        SessionToken token = sessionTokenService.issue(CUSTOMER);
+
+        // when
+        Optional<CustomUserDetails> user = sessionTokenService.verify(token.value());
+
+        // then
+        assertTrue(user.isPresent());
+        assertEquals(7L, user.get().getId());
+        assertEquals("customer7", user.get().getUsername());
+        assertEquals("CUSTOMER", user.get().getRole());
+        assertEquals(List.of(new SimpleGrantedAuthority("ROLE_CUSTOMER")), List.copyOf(user.get().getAuthorities()));
+        assertNull(user.get().getPassword());
+        assertEquals(NOW.plus(Duration.ofMinutes(30)), token.expiresAt());
+    }
+
+    @Test
+    @DisplayName("verify rejects a token whose payload was altered")
+    void verifyRejectsTamperedToken() {
+        // given
+        String token = sessionTokenService.issue(CUSTOMER).value();
+        SessionToken employeeToken = sessionTokenService.issue(new CustomUserDetails(1L, "admin", null,
+                List.of(new SimpleGrantedAuthority("ROLE_EMPLOYEE")), "EMPLOYEE"));
+        String forged = employeeToken.value().substring(0, employeeToken.value().indexOf('.'))
+                + token.substring(token.indexOf('.'));
+
+        // when & then
+        assertTrue(sessionTokenService.verify(forged).isEmpty());
+        assertTrue(sessionTokenService.verify("not-a-token").isEmpty());
+        assertTrue(sessionTokenService.verify("e30.%%%").isEmpty());
+    }
+
+    @Test
+    @DisplayName("verify rejects an expired token")
+    void verifyRejectsExpiredToken() {
+        // given
+        String token = sessionTokenService.issue(CUSTOMER).value();
+        SessionTokenService later = newService(Clock.fixed(NOW.plus(Duration.ofMinutes(31)), ZoneOffset.UTC));
+
+        // when & then
+        assertTrue(later.verify(token).isEmpty());
+    }
+
+    @Test
+    @DisplayName("verify rejects a token signed with a different key")
+    void verifyRejectsTokenSignedWithDifferentKey() {
+        // given
+        SessionTokenService otherNode = new SessionTokenService(new SessionTokenProperties(),
+                Clock.fixed(NOW, ZoneOffset.UTC));
+        String token = otherNode.issue(CUSTOMER).value();
+
+        // when & then
+        assertTrue(sessionTokenService.verify(token).isEmpty());
+    }
+
+    private static SessionTokenService newService(Clock clock) {
+        SessionTokenProperties properties = new SessionTokenProperties();
+        properties.setSecret(SECRET);
+        return new SessionTokenService(properties, clock);
+    }
+}
@@ -0,0 +1,89 @@
+package com.inghubs.walletservice.security;
+
+import com.inghubs.walletservice.model.dto.WalletOwnership;
+import com.inghubs.walletservice.repository.WalletRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class WalletOwnershipIndexTest {
+
+    private final WalletRepository walletRepository = mock(WalletRepository.class);
+    private final WalletOwnershipIndex walletOwnershipIndex = new WalletOwnershipIndex(walletRepository);
+
+    @Test
+    @DisplayName("isOwnedBy answers from the index loaded at startup without querying wallets")
+    void isOwnedByAnswersFromStartupIndex() {
+        // given
+        when(walletRepository.findAllOwnerships()).thenReturn(List.of(
+                new WalletOwnership(1L, 10L),
+                new WalletOwnership(2L, 20L)));
+        walletOwnershipIndex.afterSingletonsInstantiated();
+
+        // when & then
+        assertTrue(walletOwnershipIndex.isOwnedBy(1L, 10L));
+        assertFalse(walletOwnershipIndex.isOwnedBy(1L, 20L));
+        assertTrue(walletOwnershipIndex.isOwnedBy(2L, 20L));
+        verify(walletRepository, never()).findCustomerIdById(anyLong());
+        verify(walletRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    @DisplayName("isOwnedBy sees wallets registered after startup")
+    void isOwnedBySeesRegisteredWallets() {
+        // given
+        walletOwnershipIndex.register(5L, 50L);
+
+        // when & then
+        assertTrue(walletOwnershipIndex.isOwnedBy(5L, 50L));
+        verify(walletRepository, never()).findCustomerIdById(anyLong());
+    }
+
+    @Test
+    @DisplayName("isOwnedBy looks up an unknown wallet once and caches its owner")
+    void isOwnedByFallsBackOnceForUnknownWallet() {
+        // given
+        when(walletRepository.findCustomerIdById(7L)).thenReturn(Optional.of(70L));
+
+        // when
+        boolean first = walletOwnershipIndex.isOwnedBy(7L, 70L);
+        boolean second = walletOwnershipIndex.isOwnedBy(7L, 71L);
+
+        // then
+        assertTrue(first);
+        assertFalse(second);
+        verify(walletRepository, times(1)).findCustomerIdById(7L);
+    }
+
+    @Test
+    @DisplayName("isOwnedBy returns false for a wallet that does not exist")
+    void isOwnedByReturnsFalseForMissingWallet() {
+        // given
+        when(walletRepository.findCustomerIdById(99L)).thenReturn(Optional.empty());
+
+        // when & then
+        assertFalse(walletOwnershipIndex.isOwnedBy(99L, 1L));
+        assertFalse(walletOwnershipIndex.isOwnedBy(null, 1L));
+        assertFalse(walletOwnershipIndex.isOwnedBy(1L, null));
+    }
+
+    @Test
+    @DisplayName("the index keeps every owner while it grows")
+    void indexKeepsOwnersWhileGrowing() {
+        // given
+        LongStream.rangeClosed(1, 10_000).forEach(id -> walletOwnershipIndex.register(id, id % 97 + 1));
+
+        // when & then
+        assertEquals(10_000, walletOwnershipIndex.size());
+        LongStream.rangeClosed(1, 10_000)
+                .forEach(id -> assertTrue(walletOwnershipIndex.isOwnedBy(id, id % 97 + 1)));
+        verify(walletRepository, never()).findCustomerIdById(anyLong());
+    }
+}
@@ -0,0 +1,130 @@
+package com.inghubs.walletservice.service.engine;
+
+import com.inghubs.walletservice.configuration.PaymentEngineProperties;
+import com.inghubs.walletservice.exception.ConcurrentWalletUpdateException;
+import com.inghubs.walletservice.exception.InsufficientBalanceException;
+import com.inghubs.walletservice.model.dto.Money;
+import com.inghubs.walletservice.model.dto.PaymentRequest;
+import com.inghubs.walletservice.model.dto.PaymentResponse;
+import com.inghubs.walletservice.model.dto.enums.TransactionType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaymentCoalescerTest {
+
+    @Test
+    @DisplayName("submit processes concurrent payments as one group once the group is full")
+    void submitProcessesConcurrentPaymentsAsOneGroup() throws Exception {
+        // given
+        PaymentCoalescer coalescer = newCoalescer(Duration.ofSeconds(30), 4);
+        List<Integer> groupSizes = new CopyOnWriteArrayList<>();
+        Consumer<List<CoalescedPayment>> processor = group -> {
+            groupSizes.add(group.size());
+            group.forEach(payment -> payment.response().complete(response(payment)));
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<PaymentResponse>> responses = new ArrayList<>();
+
+        // when
+        for (long walletId = 1; walletId <= 4; walletId++) {
+            PaymentRequest request = request(walletId);
+            responses.add(executor.submit(() -> coalescer.submit(request, TransactionType.DEPOSIT, processor)));
+        }
+
+        // then
+        for (int i = 0; i < responses.size(); i++) {
+            assertEquals(i + 1L, responses.get(i).get(10, TimeUnit.SECONDS).getWalletId());
+        }
+        assertEquals(List.of(4), groupSizes);
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("submit closes a group that does not fill up once its window has passed")
+    void submitClosesGroupAfterWindow() {
+        // given
+        PaymentCoalescer coalescer = newCoalescer(Duration.ofMillis(20), 100);
+        List<Integer> groupSizes = new ArrayList<>();
+
+        // when
+        long began = System.nanoTime();
+        PaymentResponse response = coalescer.submit(request(7L), TransactionType.DEPOSIT, group -> {
+            groupSizes.add(group.size());
+            group.forEach(payment -> payment.response().complete(response(payment)));
+        });
+        long waitedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - began);
+
+        // then
+        assertEquals(7L, response.getWalletId());
+        assertEquals(List.of(1), groupSizes);
+        assertTrue(waitedMillis >= 20, "waited " + waitedMillis + " ms");
+    }
+
+    @Test
+    @DisplayName("submit rethrows the rejection of its own payment without failing the rest of the group")
+    void submitRethrowsOwnRejectionOnly() throws Exception {
+        // given
+        PaymentCoalescer coalescer = newCoalescer(Duration.ofSeconds(30), 2);
+        Consumer<List<CoalescedPayment>> processor = group -> group.forEach(payment -> {
+            if (payment.type() == TransactionType.WITHDRAW) {
+                payment.response().completeExceptionally(new InsufficientBalanceException("Insufficient balance for withdrawal"));
+            } else {
+                payment.response().complete(response(payment));
+            }
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        // when
+        Future<PaymentResponse> deposit = executor.submit(() -> coalescer.submit(request(1L), TransactionType.DEPOSIT, processor));
+        Future<PaymentResponse> withdraw = executor.submit(() -> coalescer.submit(request(2L), TransactionType.WITHDRAW, processor));
+
+        // then
+        assertEquals(1L, deposit.get(10, TimeUnit.SECONDS).getWalletId());
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> withdraw.get(10, TimeUnit.SECONDS));
+        assertInstanceOf(InsufficientBalanceException.class, exception.getCause());
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("submit fails payments the processor leaves incomplete instead of waiting forever")
+    void submitFailsPaymentsLeftIncomplete() {
+        // given
+        PaymentCoalescer coalescer = newCoalescer(Duration.ZERO, 10);
+
+        // when
+        ConcurrentWalletUpdateException exception = assertThrows(ConcurrentWalletUpdateException.class,
+                () -> coalescer.submit(request(1L), TransactionType.DEPOSIT, group -> { }));
+
+        // then
+        assertEquals("Payment was not processed, please retry", exception.getMessage());
+    }
+
+    private static PaymentCoalescer newCoalescer(Duration window, int maxBatchSize) {
+        PaymentEngineProperties properties = new PaymentEngineProperties();
+        properties.getCoalescing().setEnabled(true);
+        properties.getCoalescing().setWindow(window);
+        properties.getCoalescing().setMaxBatchSize(maxBatchSize);
+        return new PaymentCoalescer(properties);
+    }
+
+    private static PaymentRequest request(Long walletId) {
+        return PaymentRequest.builder()
+                .walletId(walletId)
+                .amount(Money.of(10))
+                .build();
+    }
+
+    private static PaymentResponse response(CoalescedPayment payment) {
+        return PaymentResponse.builder()
+                .walletId(payment.request().getWalletId())
+                .build();
+    }
+}
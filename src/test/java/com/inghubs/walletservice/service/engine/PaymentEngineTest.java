@@ -0,0 +1,153 @@
+package com.inghubs.walletservice.service.engine;
+
+import com.inghubs.walletservice.configuration.PaymentEngineProperties;
+import com.inghubs.walletservice.exception.ConcurrentWalletUpdateException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class PaymentEngineTest {
+
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+
+    @Test
+    @DisplayName("execute serializes concurrent mutations on one hot wallet without lost updates")
+    void executeSerializesConcurrentMutationsOnOneHotWallet() throws Exception {
+        // given
+        PaymentEngine engine = newEngine(stripedProperties());
+        int threads = 16;
+        int opsPerThread = 5_000;
+        long[] balance = {0};
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        // when
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < opsPerThread; i++) {
+                    engine.execute(1L, () -> {
+                        long read = balance[0];
+                        Thread.onSpinWait();
+                        balance[0] = read + 1;
+                        return null;
+                    });
+                }
+                return null;
+            }));
+        }
+        long began = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        double seconds = (System.nanoTime() - began) / 1e9;
+        executor.shutdown();
+
+        // then
+        long expected = (long) threads * opsPerThread;
+        assertEquals(expected, balance[0]);
+        assertEquals(expected, engine.stats().getAcquisitions());
+        assertEquals(0, engine.stats().getQueueDepth());
+        assertTrue(expected / seconds > 1_000, "expected thousands of ops/sec on one wallet but got " + expected / seconds);
+    }
+
+    @Test
+    @DisplayName("execute lets payments on a different wallet proceed while one wallet is held")
+    void executeLetsDifferentWalletsProceedInParallel() throws Exception {
+        // given
+        PaymentEngine engine = newEngine(stripedProperties());
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<?> holder = executor.submit(() -> engine.execute(1L, () -> {
+            held.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }));
+        held.await();
+
+        // when
+        String result = engine.execute(2L, () -> "done");
+
+        // then
+        assertEquals("done", result);
+        assertEquals(0, engine.stats().getContendedAcquisitions());
+        release.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("execute rejects a payment when the wallet stays busy beyond the lock timeout")
+    void executeRejectsPaymentWhenWalletStaysBusy() throws Exception {
+        // given
+        PaymentEngineProperties properties = stripedProperties();
+        properties.setLockTimeout(Duration.ofMillis(50));
+        PaymentEngine engine = newEngine(properties);
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<?> holder = executor.submit(() -> engine.execute(1L, () -> {
+            held.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }));
+        held.await();
+
+        // when
+        ConcurrentWalletUpdateException exception = assertThrows(ConcurrentWalletUpdateException.class,
+                () -> engine.execute(1L, () -> null));
+
+        // then
+        assertEquals("Wallet is busy, please retry", exception.getMessage());
+        assertEquals(1, engine.stats().getTimeouts());
+        assertEquals(1, engine.stats().getContendedAcquisitions());
+        release.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("execute takes no wallet stripe in conditional update mode")
+    void executeTakesNoStripeInConditionalUpdateMode() {
+        // given
+        PaymentEngineProperties properties = new PaymentEngineProperties();
+        properties.setLockingMode(LockingMode.CONDITIONAL_UPDATE);
+        PaymentEngine engine = newEngine(properties);
+
+        // when
+        String result = engine.execute(1L, () -> "done");
+
+        // then
+        assertEquals("done", result);
+        assertEquals(0, engine.stats().getAcquisitions());
+    }
+
+    private static PaymentEngineProperties stripedProperties() {
+        PaymentEngineProperties properties = new PaymentEngineProperties();
+        properties.setLockingMode(LockingMode.OPTIMISTIC);
+        return properties;
+    }
+
+    private PaymentEngine newEngine(PaymentEngineProperties properties) {
+        return new PaymentEngine(transactionManager, new RetryExecutor(properties), properties);
+    }
+}
@@ -0,0 +1,81 @@
+package com.inghubs.walletservice.service.engine;
+
+import com.inghubs.walletservice.configuration.PaymentEngineProperties;
+import com.inghubs.walletservice.exception.ConcurrentWalletUpdateException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RetryExecutorTest {
+
+    private final RetryExecutor retryExecutor = new RetryExecutor(properties(3));
+
+    @Test
+    @DisplayName("execute retries an optimistic locking failure and returns the first successful result")
+    void executeRetriesOptimisticLockingFailure() {
+        // given
+        AtomicInteger attempts = new AtomicInteger();
+
+        // when
+        String result = retryExecutor.execute(() -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new ObjectOptimisticLockingFailureException("Wallet", 1L);
+            }
+            return "ok";
+        });
+
+        // then
+        assertEquals("ok", result);
+        assertEquals(3, attempts.get());
+        assertEquals(2, retryExecutor.getRetries());
+        assertEquals(0, retryExecutor.getExhausted());
+    }
+
+    @Test
+    @DisplayName("execute gives up after max attempts and reports a concurrent update")
+    void executeGivesUpAfterMaxAttempts() {
+        // given
+        AtomicInteger attempts = new AtomicInteger();
+
+        // when
+        ConcurrentWalletUpdateException exception = assertThrows(ConcurrentWalletUpdateException.class,
+                () -> retryExecutor.execute(() -> {
+                    attempts.incrementAndGet();
+                    throw new ObjectOptimisticLockingFailureException("Wallet", 1L);
+                }));
+
+        // then
+        assertEquals("Wallet was modified concurrently, please retry", exception.getMessage());
+        assertEquals(3, attempts.get());
+        assertEquals(1, retryExecutor.getExhausted());
+    }
+
+    @Test
+    @DisplayName("execute does not retry failures unrelated to concurrency")
+    void executeDoesNotRetryUnrelatedFailures() {
+        // given
+        AtomicInteger attempts = new AtomicInteger();
+
+        // when
+        assertThrows(IllegalStateException.class, () -> retryExecutor.execute(() -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("boom");
+        }));
+
+        // then
+        assertEquals(1, attempts.get());
+        assertEquals(0, retryExecutor.getRetries());
+    }
+
+    private static PaymentEngineProperties properties(int maxAttempts) {
+        PaymentEngineProperties properties = new PaymentEngineProperties();
+        properties.getRetry().setMaxAttempts(maxAttempts);
+        properties.getRetry().setInitialBackoff(Duration.ofMillis(1));
+        return properties;
+    }
+}
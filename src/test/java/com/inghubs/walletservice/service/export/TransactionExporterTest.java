@@ -0,0 +1,149 @@
+package com.inghubs.walletservice.service.export;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.inghubs.walletservice.configuration.ExportProperties;
+import com.inghubs.walletservice.mapper.TransactionMapper;
+import com.inghubs.walletservice.model.dto.Money;
+import com.inghubs.walletservice.model.dto.TransactionResponse;
+import com.inghubs.walletservice.model.dto.enums.ExportFormat;
+import com.inghubs.walletservice.model.dto.enums.OppositePartyType;
+import com.inghubs.walletservice.model.dto.enums.TransactionStatus;
+import com.inghubs.walletservice.model.dto.enums.TransactionType;
+import com.inghubs.walletservice.model.entity.Transaction;
+import com.inghubs.walletservice.repository.TransactionRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class TransactionExporterTest {
+
+    private final TransactionRepository transactionRepository = mock(TransactionRepository.class);
+    private final TransactionMapper transactionMapper = mock(TransactionMapper.class);
+    private final EntityManager entityManager = mock(EntityManager.class);
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private TransactionExporter transactionExporter;
+
+    @BeforeEach
+    void setUp() {
+        ExportProperties properties = new ExportProperties();
+        properties.setClearInterval(2);
+        transactionExporter = new TransactionExporter(transactionRepository, transactionMapper, entityManager,
+                mock(PlatformTransactionManager.class), objectMapper, properties);
+        when(transactionMapper.toTransactionResponse(any())).thenAnswer(invocation -> {
+            Transaction transaction = invocation.getArgument(0);
+            return TransactionResponse.builder()
+                    .id(transaction.getId())
+                    .walletId(1L)
+                    .amount(Money.parse("10.5000"))
+                    .type(TransactionType.DEPOSIT)
+                    .oppositePartyType(OppositePartyType.PAYMENT)
+                    .oppositeParty(transaction.getOppositeParty())
+                    .status(TransactionStatus.APPROVED)
+                    .build();
+        });
+    }
+
+    @Test
+    @DisplayName("export writes one JSON object per line and clears the persistence context periodically")
+    void exportWritesNdjson() throws Exception {
+        // given
+        when(transactionRepository.streamByWalletId(1L)).thenReturn(transactions(3, 2, 1));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // when
+        long exported = transactionExporter.export(1L, ExportFormat.NDJSON, output);
+
+        // then
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, exported);
+        assertEquals(3, lines.length);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertEquals(3, first.get("id").asLong());
+        assertEquals("DEPOSIT", first.get("type").asText());
+        verify(entityManager, times(1)).clear();
+    }
+
+    @Test
+    @DisplayName("export writes a CSV header and escapes values containing separators or quotes")
+    void exportWritesCsv() {
+        // given
+        Transaction transaction = new Transaction();
+        transaction.setId(7L);
+        transaction.setOppositeParty("ACME, \"Ltd\"");
+        when(transactionRepository.streamByWalletId(1L)).thenReturn(Stream.of(transaction));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // when
+        transactionExporter.export(1L, ExportFormat.CSV, output);
+
+        // then
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals("id,walletId,amount,type,oppositePartyType,oppositeParty,status,createdDate,createdBy,updatedDate,updatedBy",
+                lines[0]);
+        assertEquals("7,1,10.5000,DEPOSIT,PAYMENT,\"ACME, \"\"Ltd\"\"\",APPROVED,,,,", lines[1]);
+    }
+
+    @Test
+    @DisplayName("export neutralizes CSV values a spreadsheet would read as formulas")
+    void exportNeutralizesCsvFormulas() {
+        // given
+        Stream<Transaction> transactions = Stream.of("=HYPERLINK(\"http://evil\",\"x\")", "+cmd|' /C calc'!A0", "-1+1", "@SUM(A1)",
+                "\tTR1", "TR-1=2").map(oppositeParty -> {
+                    Transaction transaction = new Transaction();
+                    transaction.setId(7L);
+                    transaction.setOppositeParty(oppositeParty);
+                    return transaction;
+                });
+        when(transactionRepository.streamByWalletId(1L)).thenReturn(transactions);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // when
+        transactionExporter.export(1L, ExportFormat.CSV, output);
+
+        // then
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals("7,1,10.5000,DEPOSIT,PAYMENT,\"'=HYPERLINK(\"\"http://evil\"\",\"\"x\"\")\",APPROVED,,,,", lines[1]);
+        assertEquals("7,1,10.5000,DEPOSIT,PAYMENT,\"'+cmd|' /C calc'!A0\",APPROVED,,,,", lines[2]);
+        assertEquals("7,1,10.5000,DEPOSIT,PAYMENT,\"'-1+1\",APPROVED,,,,", lines[3]);
+        assertEquals("7,1,10.5000,DEPOSIT,PAYMENT,\"'@SUM(A1)\",APPROVED,,,,", lines[4]);
+        assertEquals("7,1,10.5000,DEPOSIT,PAYMENT,\"'\tTR1\",APPROVED,,,,", lines[5]);
+        assertEquals("7,1,10.5000,DEPOSIT,PAYMENT,TR-1=2,APPROVED,,,,", lines[6]);
+    }
+
+    @Test
+    @DisplayName("export closes the database cursor")
+    void exportClosesCursor() {
+        // given
+        AtomicBoolean closed = new AtomicBoolean();
+        when(transactionRepository.streamByWalletId(1L)).thenReturn(transactions(1).onClose(() -> closed.set(true)));
+
+        // when
+        transactionExporter.export(1L, ExportFormat.NDJSON, new ByteArrayOutputStream());
+
+        // then
+        assertTrue(closed.get());
+    }
+
+    private static Stream<Transaction> transactions(long... ids) {
+        return LongStream.of(ids).mapToObj(id -> {
+            Transaction transaction = new Transaction();
+            transaction.setId(id);
+            transaction.setOppositeParty("TR1234567890987654321");
+            return transaction;
+        });
+    }
+}
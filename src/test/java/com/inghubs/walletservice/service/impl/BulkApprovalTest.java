@@ -0,0 +1,301 @@
+package com.inghubs.walletservice.service.impl;
+
+import com.inghubs.walletservice.model.dto.BulkApprovalRequest;
+import com.inghubs.walletservice.model.dto.BulkApprovalResponse;
+import com.inghubs.walletservice.model.dto.CreateWalletRequest;
+import com.inghubs.walletservice.model.dto.Money;
+import com.inghubs.walletservice.model.dto.PaymentRequest;
+import com.inghubs.walletservice.model.dto.TransactionApprovalRequest;
+import com.inghubs.walletservice.model.dto.enums.Currency;
+import com.inghubs.walletservice.model.dto.enums.OppositePartyType;
+import com.inghubs.walletservice.model.dto.enums.TransactionStatus;
+import com.inghubs.walletservice.repository.WalletRepository;
+import com.inghubs.walletservice.service.LedgerService;
+import com.inghubs.walletservice.service.TransactionService;
+import com.inghubs.walletservice.service.WalletService;
+import com.inghubs.walletservice.service.journal.PaymentJournal;
+import com.inghubs.walletservice.support.SqlStatementCounter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Decides pending deposits in bulk, by ID and by criteria, then checks that wallets, balance summaries and
+ * transactions agree, that a repeated request decides nothing, and, in the set-based modes, that a chunk
+ * costs the same number of statements however many transactions it decides.
+ */
+class BulkApprovalTest {
+
+    @Nested
+    @DisplayName("conditional update mode")
+    @SpringBootTest(properties = {
+            "spring.datasource.url=jdbc:h2:mem:bulk-approval-conditional",
+            "wallet.payment-engine.locking-mode=CONDITIONAL_UPDATE",
+            "wallet.bulk-approval.chunk-size=7",
+            "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.inghubs.walletservice.support.SqlStatementCounter"
+    })
+    class ConditionalUpdateMode extends BulkApprovalScenario {
+
+        @Test
+        @DisplayName("a chunk costs the same number of statements however many transactions it decides")
+        void chunkStatementCountDoesNotGrowWithChunkSize() throws Exception {
+            // given
+            Long walletId = createWallet(1L, Currency.USD);
+            List<Long> few = pendingDeposits(walletId, 2);
+            List<Long> many = pendingDeposits(walletId, 7);
+
+            // when
+            SqlStatementCounter.reset();
+            transactionService.approveTransactions(byIds(TransactionStatus.APPROVED, few));
+            int fewStatements = SqlStatementCounter.statements().size();
+            SqlStatementCounter.reset();
+            transactionService.approveTransactions(byIds(TransactionStatus.APPROVED, many));
+            int manyStatements = SqlStatementCounter.statements().size();
+
+            // then
+            assertEquals(fewStatements, manyStatements, SqlStatementCounter.statements().toString());
+            assertTrue(manyStatements <= 8, SqlStatementCounter.statements().toString());
+        }
+    }
+
+    @Nested
+    @DisplayName("pessimistic mode")
+    @SpringBootTest(properties = {
+            "spring.datasource.url=jdbc:h2:mem:bulk-approval-pessimistic",
+            "wallet.payment-engine.locking-mode=PESSIMISTIC",
+            "wallet.bulk-approval.chunk-size=7"
+    })
+    class PessimisticMode extends BulkApprovalScenario {
+    }
+
+    @Nested
+    @DisplayName("ledger mode")
+    @SpringBootTest(properties = {
+            "spring.datasource.url=jdbc:h2:mem:bulk-approval-ledger",
+            "wallet.payment-engine.locking-mode=LEDGER",
+            "wallet.ledger.snapshot-interval=5",
+            "wallet.bulk-approval.chunk-size=7"
+    })
+    class LedgerMode extends BulkApprovalScenario {
+
+        @Autowired
+        private LedgerService ledgerService;
+
+        @Autowired
+        private WalletRepository walletRepository;
+
+        @Override
+        protected BigDecimal usableBalance(Long walletId) {
+            // the wallet row only holds the latest snapshot
+            return ledgerService.currentBalance(walletRepository.findById(walletId).orElseThrow()).usableBalance();
+        }
+    }
+
+    @Nested
+    @DisplayName("journal mode")
+    @SpringBootTest(properties = {
+            "spring.datasource.url=jdbc:h2:mem:bulk-approval-journal",
+            "wallet.journal.enabled=true",
+            "wallet.bulk-approval.chunk-size=7"
+    })
+    class JournalMode extends BulkApprovalScenario {
+
+        @DynamicPropertySource
+        static void journalDirectory(DynamicPropertyRegistry registry) {
+            try {
+                String directory = Files.createTempDirectory("bulk-approval-journal").toString();
+                registry.add("wallet.journal.directory", () -> directory);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    abstract static class BulkApprovalScenario {
+
+        @Autowired
+        protected WalletService walletService;
+
+        @Autowired
+        protected TransactionService transactionService;
+
+        @Autowired
+        private PaymentJournal paymentJournal;
+
+        @Autowired
+        private JdbcTemplate jdbcTemplate;
+
+        @Test
+        @DisplayName("approving by ID decides pending transactions only and can be repeated")
+        void approveByIdsDecidesPendingTransactionsOnce() throws Exception {
+            // given
+            Long walletId = createWallet(1L, Currency.EUR);
+            List<Long> pending = pendingDeposits(walletId, 20);
+            TransactionApprovalRequest single = new TransactionApprovalRequest();
+            single.setTransactionId(pending.get(0));
+            single.setStatus(TransactionStatus.DENIED);
+            transactionService.approveTransaction(single);
+            List<Long> ids = new ArrayList<>(pending);
+            ids.add(Long.MAX_VALUE);
+
+            // when
+            BulkApprovalResponse first = transactionService.approveTransactions(byIds(TransactionStatus.APPROVED, ids));
+            BulkApprovalResponse repeated = transactionService.approveTransactions(byIds(TransactionStatus.APPROVED, ids));
+
+            // then
+            assertEquals(21, first.getMatched());
+            assertEquals(19, first.getDecided());
+            assertEquals(1, first.getAlreadyDecided());
+            assertEquals(1, first.getNotFound());
+            assertEquals(0, repeated.getDecided());
+            assertEquals(20, repeated.getAlreadyDecided());
+            assertTrue(paymentJournal.awaitApplied(30_000));
+            assertEquals(19, count("select count(*) from transaction where wallet_id = ? and status = 'APPROVED'", walletId));
+            BigDecimal approved = pendingAmounts(pending).subtract(amountOf(pending.get(0)));
+            assertEquals(0, approved.compareTo(usableBalance(walletId)));
+            assertBalancesReconcile();
+        }
+
+        @Test
+        @DisplayName("deciding by criteria selects only the matching pending transactions")
+        void decideByCriteriaSelectsMatchingTransactions() throws Exception {
+            // given
+            Long approvedWallet = createWallet(2L, Currency.TRY);
+            Long deniedWallet = createWallet(2L, Currency.TRY);
+            List<Long> approvedPending = pendingDeposits(approvedWallet, 16);
+            List<Long> deniedPending = pendingDeposits(deniedWallet, 9);
+
+            // when
+            BulkApprovalResponse approved = transactionService.approveTransactions(BulkApprovalRequest.builder()
+                    .status(TransactionStatus.APPROVED)
+                    .walletId(approvedWallet)
+                    .minAmount(BigDecimal.valueOf(1_001))
+                    .build());
+            BulkApprovalResponse denied = transactionService.approveTransactions(BulkApprovalRequest.builder()
+                    .status(TransactionStatus.DENIED)
+                    .walletId(deniedWallet)
+                    .build());
+            BulkApprovalResponse repeated = transactionService.approveTransactions(BulkApprovalRequest.builder()
+                    .status(TransactionStatus.DENIED)
+                    .walletId(deniedWallet)
+                    .build());
+
+            // then
+            assertEquals(16, approved.getDecided());
+            assertEquals(9, denied.getDecided());
+            assertEquals(0, repeated.getDecided());
+            assertTrue(paymentJournal.awaitApplied(30_000));
+            assertEquals(0, pendingAmounts(approvedPending).compareTo(usableBalance(approvedWallet)));
+            assertEquals(0, BigDecimal.ZERO.compareTo(usableBalance(deniedWallet)));
+            assertEquals(9, count("select count(*) from transaction where wallet_id = ? and status = 'DENIED'", deniedWallet));
+            assertFalse(deniedPending.isEmpty());
+            assertBalancesReconcile();
+        }
+
+        protected Long createWallet(Long customerId, Currency currency) {
+            return walletService.createWallet(CreateWalletRequest.builder()
+                    .customerId(customerId)
+                    .walletName("Bulk " + currency)
+                    .currency(currency)
+                    .activeForShopping(true)
+                    .activeForWithdraw(true)
+                    .build()).getWalletId();
+        }
+
+        /**
+         * Makes deposits above the approval threshold, which stay pending.
+         */
+        protected List<Long> pendingDeposits(Long walletId, int count) throws InterruptedException {
+            List<Long> before = pendingIds(walletId);
+            for (int i = 0; i < count; i++) {
+                walletService.makeDeposit(PaymentRequest.builder()
+                        .walletId(walletId)
+                        .amount(Money.of(1_001 + i))
+                        .source(OppositePartyType.IBAN)
+                        .oppositeParty("TR1234567890987654321")
+                        .build());
+            }
+            assertTrue(paymentJournal.awaitApplied(30_000));
+            List<Long> ids = new ArrayList<>(pendingIds(walletId));
+            ids.removeAll(before);
+            assertEquals(count, ids.size());
+            return ids;
+        }
+
+        private List<Long> pendingIds(Long walletId) {
+            return jdbcTemplate.queryForList("select id from transaction where wallet_id = ? and status = 'PENDING' order by id",
+                    Long.class, walletId);
+        }
+
+        protected static BulkApprovalRequest byIds(TransactionStatus status, List<Long> ids) {
+            return BulkApprovalRequest.builder()
+                    .status(status)
+                    .transactionIds(ids)
+                    .build();
+        }
+
+        private BigDecimal pendingAmounts(List<Long> ids) {
+            return ids.stream().map(this::amountOf).reduce(BigDecimal.ZERO, BigDecimal::add);
+        }
+
+        private BigDecimal amountOf(Long transactionId) {
+            return jdbcTemplate.queryForObject("select amount from transaction where id = ?", BigDecimal.class, transactionId);
+        }
+
+        protected BigDecimal usableBalance(Long walletId) {
+            return jdbcTemplate.queryForObject("select usable_balance from wallet where id = ?", BigDecimal.class, walletId);
+        }
+
+        private long count(String sql, Long walletId) {
+            return jdbcTemplate.queryForObject(sql, Long.class, walletId);
+        }
+
+        /**
+         * Checks every balance summary against its wallets, each wallet's row plus its ledger entries after the
+         * snapshot the row holds.
+         */
+        private void assertBalancesReconcile() {
+            List<Map<String, Object>> walletSums = jdbcTemplate.queryForList("""
+                    select w.customer_id, w.currency, sum(w.balance + coalesce(e.balance_delta, 0)) balance,
+                           sum(w.usable_balance + coalesce(e.usable_delta, 0)) usable_balance
+                    from wallet w
+                    left join (select e.wallet_id, sum(e.balance_delta) balance_delta, sum(e.usable_delta) usable_delta
+                               from ledger_entry e
+                               join wallet s on s.id = e.wallet_id and e.sequence_number > s.ledger_sequence
+                               group by e.wallet_id) e on e.wallet_id = w.id
+                    group by w.customer_id, w.currency
+                    order by w.customer_id, w.currency
+                    """);
+            List<Map<String, Object>> summaries = jdbcTemplate.queryForList("""
+                    select b.customer_id, b.currency, b.balance, b.usable_balance
+                    from customer_balance b
+                    order by b.customer_id, b.currency
+                    """);
+            assertEquals(walletSums.size(), summaries.size());
+            for (int i = 0; i < walletSums.size(); i++) {
+                Map<String, Object> expected = walletSums.get(i);
+                Map<String, Object> actual = summaries.get(i);
+                String row = expected.get("CUSTOMER_ID") + "/" + expected.get("CURRENCY");
+                assertEquals(0, ((BigDecimal) expected.get("BALANCE")).compareTo((BigDecimal) actual.get("BALANCE")), row);
+                assertEquals(0, ((BigDecimal) expected.get("USABLE_BALANCE")).compareTo((BigDecimal) actual.get("USABLE_BALANCE")), row);
+            }
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.inghubs.walletservice.service.impl;
+
+import com.inghubs.walletservice.model.dto.BatchPaymentItem;
+import com.inghubs.walletservice.model.dto.BatchPaymentRequest;
+import com.inghubs.walletservice.model.dto.CreateWalletRequest;
+import com.inghubs.walletservice.model.dto.Money;
+import com.inghubs.walletservice.model.dto.PaymentRequest;
+import com.inghubs.walletservice.model.dto.TransactionApprovalRequest;
+import com.inghubs.walletservice.model.dto.enums.Currency;
+import com.inghubs.walletservice.model.dto.enums.OppositePartyType;
+import com.inghubs.walletservice.model.dto.enums.TransactionStatus;
+import com.inghubs.walletservice.model.dto.enums.TransactionType;
+import com.inghubs.walletservice.service.TransactionService;
+import com.inghubs.walletservice.service.WalletService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Runs concurrent deposits, withdrawals, pending payments, approvals and batches across the wallets of two
+ * customers in several currencies, then checks that every balance summary row equals the sum of the wallets
+ * it covers, in every locking mode. A wallet's balance is recomputed as its row plus the ledger entries after
+ * its snapshot, so in ledger mode the summary is checked against the ledger rather than the lagging wallet rows.
+ */
+class CustomerBalanceReconciliationTest {
+
+    @Nested
+    @DisplayName("conditional update mode")
+    @SpringBootTest(properties = {
+            "spring.datasource.url=jdbc:h2:mem:balance-reconciliation-conditional",
+            "wallet.payment-engine.locking-mode=CONDITIONAL_UPDATE"
+    })
+    class ConditionalUpdateMode extends ReconciliationScenario {
+    }
+
+    @Nested
+    @DisplayName("optimistic mode")
+    @SpringBootTest(properties = {
+            "spring.datasource.url=jdbc:h2:mem:balance-reconciliation-optimistic",
+            "wallet.payment-engine.locking-mode=OPTIMISTIC"
+    })
+    class OptimisticMode extends ReconciliationScenario {
+    }
+
+    @Nested
+    @DisplayName("pessimistic mode")
+    @SpringBootTest(properties = {
+            "spring.datasource.url=jdbc:h2:mem:balance-reconciliation-pessimistic",
+            "wallet.payment-engine.locking-mode=PESSIMISTIC"
+    })
+    class PessimisticMode extends ReconciliationScenario {
+    }
+
+    @Nested
+    @DisplayName("ledger mode")
+    @SpringBootTest(properties = {
+            "spring.datasource.url=jdbc:h2:mem:balance-reconciliation-ledger",
+            "wallet.payment-engine.locking-mode=LEDGER",
+            "wallet.ledger.snapshot-interval=5"
+    })
+    class LedgerMode extends ReconciliationScenario {
+    }
+
+    @Nested
+    @DisplayName("coalesced conditional update mode")
+    @SpringBootTest(properties = {
+            "spring.datasource.url=jdbc:h2:mem:balance-reconciliation-coalesced",
+            "wallet.payment-engine.locking-mode=CONDITIONAL_UPDATE",
+            "wallet.payment-engine.coalescing.enabled=true",
+            "wallet.payment-engine.coalescing.window=2ms"
+    })
+    class CoalescedMode extends ReconciliationScenario {
+    }
+
+    abstract static class ReconciliationScenario {
+
+        private static final int THREADS = 6;
+        private static final int OPS_PER_THREAD = 60;
+
+        @Autowired
+        private WalletService walletService;
+
+        @Autowired
+        private TransactionService transactionService;
+
+        @Autowired
+        private JdbcTemplate jdbcTemplate;
+
+        @Test
+        @DisplayName("balance summaries equal the sum of the wallets' current balances after concurrent payments")
+        void summariesMatchWalletSumsAfterConcurrentPayments() throws Exception {
+            // given
+            List<Long> walletIds = new ArrayList<>();
+            for (long customerId = 1; customerId <= 2; customerId++) {
+                for (Currency currency : List.of(Currency.EUR, Currency.TRY)) {
+                    for (int i = 0; i < 2; i++) {
+                        walletIds.add(walletService.createWallet(CreateWalletRequest.builder()
+                                .customerId(customerId)
+                                .walletName("Reconciled " + currency + " " + i)
+                                .currency(currency)
+                                .activeForShopping(true)
+                                .activeForWithdraw(true)
+                                .build()).getWalletId());
+                    }
+                }
+            }
+            ExecutorService executor = Executors.newFixedThreadPool(THREADS + 1);
+            CountDownLatch start = new CountDownLatch(1);
+            AtomicBoolean paying = new AtomicBoolean(true);
+            List<Future<?>> payers = new ArrayList<>();
+
+            // when
+            for (int t = 0; t < THREADS; t++) {
+                SplittableRandom random = new SplittableRandom(t);
+                payers.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < OPS_PER_THREAD; i++) {
+                        Long walletId = walletIds.get(random.nextInt(walletIds.size()));
+                        try {
+                            switch (random.nextInt(4)) {
+                                case 0 -> walletService.makeDeposit(payment(walletId, 10 + random.nextInt(90)));
+                                case 1 -> walletService.makeDeposit(payment(walletId, 1_001 + random.nextInt(500)));
+                                case 2 -> walletService.makeWithdraw(payment(walletId, 1 + random.nextInt(60)));
+                                default -> walletService.makeBatchPayments(BatchPaymentRequest.builder()
+                                        .items(List.of(
+                                                batchItem(TransactionType.DEPOSIT, walletIds.get(random.nextInt(walletIds.size())), 25),
+                                                batchItem(TransactionType.WITHDRAW, walletId, 1_200),
+                                                batchItem(TransactionType.WITHDRAW, walletIds.get(random.nextInt(walletIds.size())), 5)))
+                                        .build());
+                            }
+                        } catch (RuntimeException ignored) {
+                            // withdrawals may legitimately exceed the balance
+                        }
+                    }
+                    return null;
+                }));
+            }
+            Future<?> approver = executor.submit(() -> {
+                start.await();
+                SplittableRandom random = new SplittableRandom(THREADS);
+                while (paying.get()) {
+                    for (Long transactionId : pendingTransactions()) {
+                        TransactionApprovalRequest request = new TransactionApprovalRequest();
+                        request.setTransactionId(transactionId);
+                        request.setStatus(random.nextBoolean() ? TransactionStatus.APPROVED : TransactionStatus.DENIED);
+                        try {
+                            transactionService.approveTransaction(request);
+                        } catch (RuntimeException ignored) {
+                            // a decision may be rejected by the current state of the wallet
+                        }
+                    }
+                }
+                return null;
+            });
+            start.countDown();
+            for (Future<?> payer : payers) {
+                payer.get(120, TimeUnit.SECONDS);
+            }
+            paying.set(false);
+            approver.get(120, TimeUnit.SECONDS);
+            executor.shutdown();
+
+            // then
+            List<Map<String, Object>> walletSums = jdbcTemplate.queryForList("""
+                    select w.customer_id, w.currency, sum(w.balance + coalesce(e.balance_delta, 0)) balance,
+                           sum(w.usable_balance + coalesce(e.usable_delta, 0)) usable_balance
+                    from wallet w
+                    left join (select e.wallet_id, sum(e.balance_delta) balance_delta, sum(e.usable_delta) usable_delta
+                               from ledger_entry e
+                               join wallet s on s.id = e.wallet_id and e.sequence_number > s.ledger_sequence
+                               group by e.wallet_id) e on e.wallet_id = w.id
+                    where w.customer_id in (1, 2)
+                    group by w.customer_id, w.currency
+                    order by w.customer_id, w.currency
+                    """);
+            List<Map<String, Object>> summaries = jdbcTemplate.queryForList("""
+                    select b.customer_id, b.currency, b.balance, b.usable_balance
+                    from customer_balance b
+                    where b.customer_id in (1, 2)
+                    order by b.customer_id, b.currency
+                    """);
+            assertFalse(walletSums.isEmpty());
+            assertEquals(walletSums.size(), summaries.size());
+            for (int i = 0; i < walletSums.size(); i++) {
+                Map<String, Object> expected = walletSums.get(i);
+                Map<String, Object> actual = summaries.get(i);
+                String row = expected.get("CUSTOMER_ID") + "/" + expected.get("CURRENCY");
+                assertEquals(expected.get("CUSTOMER_ID"), actual.get("CUSTOMER_ID"), row);
+                assertEquals(expected.get("CURRENCY"), actual.get("CURRENCY"), row);
+                assertEquals(0, ((BigDecimal) expected.get("BALANCE")).compareTo((BigDecimal) actual.get("BALANCE")), row);
+                assertEquals(0, ((BigDecimal) expected.get("USABLE_BALANCE")).compareTo((BigDecimal) actual.get("USABLE_BALANCE")), row);
+            }
+        }
+
+        private List<Long> pendingTransactions() {
+            return jdbcTemplate.queryForList("select id from transaction where status = 'PENDING' order by id", Long.class);
+        }
+
+        private static PaymentRequest payment(Long walletId, long amount) {
+            return PaymentRequest.builder()
+                    .walletId(walletId)
+                    .amount(Money.of(amount))
+                    .source(OppositePartyType.IBAN)
+                    .oppositeParty("TR1234567890987654321")
+                    .build();
+        }
+
+        private static BatchPaymentItem batchItem(TransactionType type, Long walletId, long amount) {
+            return BatchPaymentItem.builder()
+                    .type(type)
+                    .walletId(walletId)
+                    .amount(Money.of(amount))
+                    .source(OppositePartyType.IBAN)
+                    .oppositeParty("TR1234567890987654321")
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.inghubs.walletservice.service.impl;
+
+import com.inghubs.walletservice.mapper.CustomerBalanceMapper;
+import com.inghubs.walletservice.model.dto.BalanceChange;
+import com.inghubs.walletservice.model.dto.enums.Currency;
+import com.inghubs.walletservice.repository.CustomerBalanceRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class CustomerBalanceServiceImplTest {
+
+    private final CustomerBalanceRepository customerBalanceRepository = mock(CustomerBalanceRepository.class);
+    private final CustomerBalanceMapper customerBalanceMapper = mock(CustomerBalanceMapper.class);
+    private final CustomerBalanceServiceImpl customerBalanceService =
+            new CustomerBalanceServiceImpl(customerBalanceRepository, customerBalanceMapper);
+
+    @Test
+    @DisplayName("applyChanges combines changes of the same row and updates rows in key order")
+    void applyChangesCombinesChangesAndUpdatesRowsInKeyOrder() {
+        // given
+        List<BalanceChange> changes = List.of(
+                new BalanceChange(2L, Currency.TRY, BigDecimal.valueOf(10), BigDecimal.valueOf(10)),
+                new BalanceChange(1L, Currency.USD, BigDecimal.valueOf(5), BigDecimal.ZERO),
+                new BalanceChange(2L, Currency.TRY, BigDecimal.valueOf(-4), BigDecimal.valueOf(-4)),
+                new BalanceChange(1L, Currency.EUR, BigDecimal.valueOf(7), BigDecimal.valueOf(7)));
+
+        // when
+        customerBalanceService.applyChanges(changes);
+
+        // then
+        InOrder inOrder = inOrder(customerBalanceRepository);
+        inOrder.verify(customerBalanceRepository).addToBalances(1L, Currency.USD, BigDecimal.valueOf(5), BigDecimal.ZERO);
+        inOrder.verify(customerBalanceRepository).addToBalances(1L, Currency.EUR, BigDecimal.valueOf(7), BigDecimal.valueOf(7));
+        inOrder.verify(customerBalanceRepository).addToBalances(2L, Currency.TRY, BigDecimal.valueOf(6), BigDecimal.valueOf(6));
+        verifyNoMoreInteractions(customerBalanceRepository);
+    }
+
+    @Test
+    @DisplayName("applyChange skips changes that leave both balances untouched")
+    void applyChangeSkipsEmptyChanges() {
+        // when
+        customerBalanceService.applyChange(new BalanceChange(1L, Currency.EUR, BigDecimal.ZERO, BigDecimal.ZERO));
+
+        // then
+        verify(customerBalanceRepository, never()).addToBalances(any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("openBalance tolerates a row inserted concurrently by another wallet creation")
+    void openBalanceToleratesConcurrentlyInsertedRow() {
+        // given
+        when(customerBalanceRepository.insertIfAbsent(1L, "EUR"))
+                .thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+        // when & then
+        assertDoesNotThrow(() -> customerBalanceService.openBalance(1L, Currency.EUR));
+    }
+}
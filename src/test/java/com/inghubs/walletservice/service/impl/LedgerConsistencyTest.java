@@ -0,0 +1,204 @@
+package com.inghubs.walletservice.service.impl;
+
+import com.inghubs.walletservice.model.dto.CreateWalletRequest;
+import com.inghubs.walletservice.model.dto.LedgerBalance;
+import com.inghubs.walletservice.model.dto.Money;
+import com.inghubs.walletservice.model.dto.PaymentRequest;
+import com.inghubs.walletservice.model.dto.TransactionApprovalRequest;
+import com.inghubs.walletservice.model.dto.enums.Currency;
+import com.inghubs.walletservice.model.dto.enums.OppositePartyType;
+import com.inghubs.walletservice.model.dto.enums.TransactionStatus;
+import com.inghubs.walletservice.model.entity.Wallet;
+import com.inghubs.walletservice.repository.WalletRepository;
+import com.inghubs.walletservice.service.LedgerService;
+import com.inghubs.walletservice.service.TransactionService;
+import com.inghubs.walletservice.service.WalletService;
+import com.inghubs.walletservice.support.SqlStatementCounter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the ledger locking mode end to end: payments only insert rows between snapshots, and after
+ * concurrent payments and approvals every wallet's ledger is gapless, agrees with its transactions and
+ * with its latest snapshot, which the wallet row mirrors.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:ledger-consistency",
+        "wallet.payment-engine.locking-mode=LEDGER",
+        "wallet.ledger.snapshot-interval=" + LedgerConsistencyTest.SNAPSHOT_INTERVAL,
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.inghubs.walletservice.support.SqlStatementCounter"
+})
+class LedgerConsistencyTest {
+
+    static final int SNAPSHOT_INTERVAL = 7;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("payments between snapshots insert ledger entries without updating the wallet row")
+    void paymentsBetweenSnapshotsDoNotUpdateWalletRow() {
+        // given
+        Long walletId = createWallet("Append Only");
+
+        // when
+        SqlStatementCounter.reset();
+        for (int i = 1; i < SNAPSHOT_INTERVAL; i++) {
+            walletService.makeDeposit(payment(walletId, 10));
+        }
+        List<String> beforeSnapshot = SqlStatementCounter.statements();
+        SqlStatementCounter.reset();
+        walletService.makeDeposit(payment(walletId, 10));
+        List<String> atSnapshot = SqlStatementCounter.statements();
+
+        // then
+        assertEquals(0, beforeSnapshot.stream().filter(LedgerConsistencyTest::updatesWallet).count(),
+                () -> String.join("\n", beforeSnapshot));
+        assertEquals(1, atSnapshot.stream().filter(LedgerConsistencyTest::updatesWallet).count(),
+                () -> String.join("\n", atSnapshot));
+        Wallet wallet = walletRepository.findById(walletId).orElseThrow();
+        assertEquals(SNAPSHOT_INTERVAL, wallet.getLedgerSequence());
+        assertEquals(0, Money.of(10L * SNAPSHOT_INTERVAL).compareTo(wallet.getBalance()));
+    }
+
+    @Test
+    @DisplayName("concurrent payments and approvals leave every ledger gapless and in line with its transactions")
+    void concurrentPaymentsKeepLedgersConsistent() throws Exception {
+        // given
+        List<Long> walletIds = List.of(createWallet("Ledger 1"), createWallet("Ledger 2"), createWallet("Ledger 3"));
+        int threads = 6;
+        int opsPerThread = 80;
+        ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean paying = new AtomicBoolean(true);
+        List<Future<?>> payers = new ArrayList<>();
+
+        // when
+        for (int t = 0; t < threads; t++) {
+            SplittableRandom random = new SplittableRandom(t);
+            payers.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < opsPerThread; i++) {
+                    Long walletId = walletIds.get(random.nextInt(walletIds.size()));
+                    try {
+                        switch (random.nextInt(3)) {
+                            case 0 -> walletService.makeDeposit(payment(walletId, 10 + random.nextInt(90)));
+                            case 1 -> walletService.makeDeposit(payment(walletId, 1_001 + random.nextInt(500)));
+                            default -> walletService.makeWithdraw(payment(walletId, 1 + random.nextInt(120)));
+                        }
+                    } catch (RuntimeException ignored) {
+                        // withdrawals may legitimately exceed the balance
+                    }
+                }
+                return null;
+            }));
+        }
+        Future<?> approver = executor.submit(() -> {
+            start.await();
+            while (paying.get()) {
+                for (Long transactionId : jdbcTemplate.queryForList(
+                        "select id from transaction where status = 'PENDING' order by id", Long.class)) {
+                    TransactionApprovalRequest request = new TransactionApprovalRequest();
+                    request.setTransactionId(transactionId);
+                    request.setStatus(TransactionStatus.APPROVED);
+                    transactionService.approveTransaction(request);
+                }
+            }
+            return null;
+        });
+        start.countDown();
+        for (Future<?> payer : payers) {
+            payer.get(120, TimeUnit.SECONDS);
+        }
+        paying.set(false);
+        approver.get(120, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        // then
+        for (Long walletId : walletIds) {
+            Wallet wallet = walletRepository.findById(walletId).orElseThrow();
+            LedgerBalance balance = ledgerService.currentBalance(wallet);
+            Map<String, Object> ledger = jdbcTemplate.queryForMap("""
+                    select count(*) entries, coalesce(max(sequence_number), 0) last_sequence,
+                           coalesce(sum(balance_delta), 0) balance, coalesce(sum(usable_delta), 0) usable_balance
+                    from ledger_entry where wallet_id = ?
+                    """, walletId);
+            Map<String, Object> transactions = jdbcTemplate.queryForMap("""
+                    select coalesce(sum(case when type = 'DEPOSIT' then amount else -amount end), 0) balance,
+                           coalesce(sum(case when status <> 'APPROVED' then 0
+                                             when type = 'DEPOSIT' then amount else -amount end), 0) usable_balance
+                    from transaction where wallet_id = ?
+                    """, walletId);
+            long entries = ((Number) ledger.get("ENTRIES")).longValue();
+            Integer snapshots = jdbcTemplate.queryForObject(
+                    "select count(*) from wallet_snapshot where wallet_id = ?", Integer.class, walletId);
+
+            assertTrue(entries > SNAPSHOT_INTERVAL);
+            assertEquals(entries, ((Number) ledger.get("LAST_SEQUENCE")).longValue());
+            assertEquals(entries, balance.sequence());
+            assertEquals(0, ((BigDecimal) ledger.get("BALANCE")).compareTo(balance.balance()));
+            assertEquals(0, ((BigDecimal) ledger.get("USABLE_BALANCE")).compareTo(balance.usableBalance()));
+            assertEquals(0, ((BigDecimal) transactions.get("BALANCE")).compareTo(balance.balance()));
+            assertEquals(0, ((BigDecimal) transactions.get("USABLE_BALANCE")).compareTo(balance.usableBalance()));
+            assertEquals(entries / SNAPSHOT_INTERVAL, snapshots.longValue());
+            assertEquals(entries / SNAPSHOT_INTERVAL * SNAPSHOT_INTERVAL, wallet.getLedgerSequence());
+            assertEquals(0, jdbcTemplate.queryForObject("""
+                    select balance from wallet_snapshot where wallet_id = ? and sequence_number = ?
+                    """, BigDecimal.class, walletId, wallet.getLedgerSequence()).compareTo(wallet.getBalance().toBigDecimal()));
+        }
+    }
+
+    private Long createWallet(String name) {
+        return walletService.createWallet(CreateWalletRequest.builder()
+                .customerId(1L)
+                .walletName(name)
+                .currency(Currency.USD)
+                .activeForShopping(true)
+                .activeForWithdraw(true)
+                .build()).getWalletId();
+    }
+
+    private static PaymentRequest payment(Long walletId, long amount) {
+        return PaymentRequest.builder()
+                .walletId(walletId)
+                .amount(Money.of(amount))
+                .source(OppositePartyType.IBAN)
+                .oppositeParty("TR1234567890987654321")
+                .build();
+    }
+
+    private static boolean updatesWallet(String sql) {
+        return sql.toLowerCase(Locale.ROOT).matches("(?s)^\\s*update\\s+wallet\\b.*");
+    }
+}
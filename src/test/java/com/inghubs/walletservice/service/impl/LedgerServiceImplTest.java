@@ -0,0 +1,132 @@
+package com.inghubs.walletservice.service.impl;
+
+import com.inghubs.walletservice.configuration.LedgerProperties;
+import com.inghubs.walletservice.model.dto.BalanceChange;
+import com.inghubs.walletservice.model.dto.LedgerBalance;
+import com.inghubs.walletservice.model.dto.LedgerTail;
+import com.inghubs.walletservice.model.dto.Money;
+import com.inghubs.walletservice.model.dto.enums.Currency;
+import com.inghubs.walletservice.model.entity.Customer;
+import com.inghubs.walletservice.model.entity.LedgerEntry;
+import com.inghubs.walletservice.model.entity.Transaction;
+import com.inghubs.walletservice.model.entity.Wallet;
+import com.inghubs.walletservice.model.entity.WalletSnapshot;
+import com.inghubs.walletservice.repository.LedgerEntryRepository;
+import com.inghubs.walletservice.repository.WalletSnapshotRepository;
+import com.inghubs.walletservice.service.CustomerBalanceService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class LedgerServiceImplTest {
+
+    private final LedgerEntryRepository ledgerEntryRepository = mock(LedgerEntryRepository.class);
+    private final WalletSnapshotRepository walletSnapshotRepository = mock(WalletSnapshotRepository.class);
+    private final CustomerBalanceService customerBalanceService = mock(CustomerBalanceService.class);
+    private final LedgerProperties ledgerProperties = new LedgerProperties();
+    private final LedgerServiceImpl ledgerService =
+            new LedgerServiceImpl(ledgerEntryRepository, walletSnapshotRepository, customerBalanceService, ledgerProperties);
+
+    @Test
+    @DisplayName("currentBalance adds the entries after the snapshot to the wallet row")
+    void currentBalanceAddsEntriesAfterSnapshot() {
+        // given
+        Wallet wallet = wallet(1L, 200, "1000", "800");
+        when(ledgerEntryRepository.sumAfter(1L, 200))
+                .thenReturn(Optional.of(new LedgerTail(1L, 203L, BigDecimal.valueOf(-50), BigDecimal.valueOf(25))));
+
+        // when
+        LedgerBalance balance = ledgerService.currentBalance(wallet);
+
+        // then
+        assertEquals(new LedgerBalance(203, new BigDecimal("950.0000"), new BigDecimal("825.0000")), balance);
+    }
+
+    @Test
+    @DisplayName("currentBalances falls back to the snapshot for wallets without newer entries")
+    void currentBalancesFallsBackToSnapshot() {
+        // given
+        Wallet active = wallet(1L, 0, "0", "0");
+        Wallet idle = wallet(2L, 100, "70", "70");
+        when(ledgerEntryRepository.sumAfterSnapshots(List.of(1L, 2L)))
+                .thenReturn(List.of(new LedgerTail(1L, 2L, BigDecimal.TEN, BigDecimal.ONE)));
+
+        // when
+        Map<Long, LedgerBalance> balances = ledgerService.currentBalances(List.of(active, idle));
+
+        // then
+        assertEquals(new LedgerBalance(2, new BigDecimal("10.0000"), new BigDecimal("1.0000")), balances.get(1L));
+        assertEquals(new LedgerBalance(100, new BigDecimal("70.0000"), new BigDecimal("70.0000")), balances.get(2L));
+    }
+
+    @Test
+    @DisplayName("append inserts an entry at the next position, adds it to the summary and leaves the wallet row alone between snapshots")
+    void appendInsertsEntryAtNextPosition() {
+        // given
+        Wallet wallet = wallet(1L, 0, "0", "0");
+        Transaction transaction = new Transaction();
+        LedgerBalance current = new LedgerBalance(41, BigDecimal.valueOf(300), BigDecimal.valueOf(300));
+
+        // when
+        LedgerBalance next = ledgerService.append(wallet, current, transaction, BigDecimal.valueOf(20), BigDecimal.ZERO);
+
+        // then
+        ArgumentCaptor<LedgerEntry> entry = ArgumentCaptor.forClass(LedgerEntry.class);
+        verify(ledgerEntryRepository).save(entry.capture());
+        assertEquals(42, entry.getValue().getSequence());
+        assertSame(transaction, entry.getValue().getTransaction());
+        assertEquals(BigDecimal.valueOf(20), entry.getValue().getBalanceDelta());
+        assertEquals(new LedgerBalance(42, BigDecimal.valueOf(320), BigDecimal.valueOf(300)), next);
+        assertEquals(0, wallet.getLedgerSequence());
+        verify(walletSnapshotRepository, never()).save(any());
+        verify(customerBalanceService).applyChange(new BalanceChange(7L, Currency.TRY, BigDecimal.valueOf(20), BigDecimal.ZERO));
+    }
+
+    @Test
+    @DisplayName("append snapshots the balances onto the wallet every snapshot interval without correcting the summary")
+    void appendTakesSnapshotEveryInterval() {
+        // given
+        ledgerProperties.setSnapshotInterval(10);
+        Wallet wallet = wallet(1L, 10, "100", "100");
+        LedgerBalance current = new LedgerBalance(19, BigDecimal.valueOf(160), BigDecimal.valueOf(140));
+
+        // when
+        ledgerService.append(wallet, current, new Transaction(), BigDecimal.valueOf(-10), BigDecimal.valueOf(-10));
+
+        // then
+        ArgumentCaptor<WalletSnapshot> snapshot = ArgumentCaptor.forClass(WalletSnapshot.class);
+        verify(walletSnapshotRepository).save(snapshot.capture());
+        assertEquals(20, snapshot.getValue().getSequence());
+        assertEquals(BigDecimal.valueOf(150), snapshot.getValue().getBalance());
+        assertEquals(20, wallet.getLedgerSequence());
+        assertEquals(Money.of(150), wallet.getBalance());
+        assertEquals(Money.of(130), wallet.getUsableBalance());
+        // the summary already holds every entry, so only the appended one is added
+        verify(customerBalanceService).applyChange(new BalanceChange(7L, Currency.TRY,
+                BigDecimal.valueOf(-10), BigDecimal.valueOf(-10)));
+        verifyNoMoreInteractions(customerBalanceService);
+    }
+
+    private static Wallet wallet(Long id, long ledgerSequence, String balance, String usableBalance) {
+        Customer customer = new Customer();
+        customer.setId(7L);
+        Wallet wallet = new Wallet();
+        wallet.setId(id);
+        wallet.setCustomer(customer);
+        wallet.setCurrency(Currency.TRY);
+        wallet.setLedgerSequence(ledgerSequence);
+        wallet.setBalance(Money.parse(balance));
+        wallet.setUsableBalance(Money.parse(usableBalance));
+        return wallet;
+    }
+}
@@ -1,25 +1,50 @@
 package com.inghubs.walletservice.service.impl;
 
+import com.inghubs.walletservice.configuration.BulkApprovalProperties;
+import com.inghubs.walletservice.configuration.PaymentEngineProperties;
+import com.inghubs.walletservice.configuration.TransactionHistoryProperties;
+import com.inghubs.walletservice.exception.InvalidCursorException;
 import com.inghubs.walletservice.exception.WalletNotFoundException;
+import com.inghubs.walletservice.exception.WalletTransactionException;
 import com.inghubs.walletservice.mapper.TransactionMapper;
+import com.inghubs.walletservice.model.dto.BalanceChange;
+import com.inghubs.walletservice.model.dto.BulkApprovalRequest;
+import com.inghubs.walletservice.model.dto.BulkApprovalResponse;
+import com.inghubs.walletservice.model.dto.LedgerBalance;
+import com.inghubs.walletservice.model.dto.Money;
 import com.inghubs.walletservice.model.dto.PaymentRequest;
 import com.inghubs.walletservice.model.dto.TransactionApprovalRequest;
+import com.inghubs.walletservice.model.dto.TransactionPageResponse;
 import com.inghubs.walletservice.model.dto.TransactionResponse;
+import com.inghubs.walletservice.model.dto.enums.Currency;
 import com.inghubs.walletservice.model.dto.enums.OppositePartyType;
 import com.inghubs.walletservice.model.dto.enums.TransactionStatus;
 import com.inghubs.walletservice.model.dto.enums.TransactionType;
+import com.inghubs.walletservice.model.entity.Customer;
 import com.inghubs.walletservice.model.entity.Transaction;
 import com.inghubs.walletservice.model.entity.Wallet;
 import com.inghubs.walletservice.repository.TransactionRepository;
 import com.inghubs.walletservice.repository.WalletRepository;
+import com.inghubs.walletservice.service.CustomerBalanceService;
+import com.inghubs.walletservice.service.LedgerService;
+import com.inghubs.walletservice.service.engine.LockingMode;
+import com.inghubs.walletservice.service.engine.PaymentEngine;
+import com.inghubs.walletservice.service.engine.RetryExecutor;
+import com.inghubs.walletservice.service.journal.PaymentJournal;
+import com.inghubs.walletservice.service.metrics.PaymentMetrics;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.LongStream;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 class TransactionServiceImplTest {
@@ -27,7 +52,94 @@ class TransactionServiceImplTest {
     private final TransactionRepository transactionRepository = mock(TransactionRepository.class);
     private final WalletRepository walletRepository = mock(WalletRepository.class);
     private final TransactionMapper transactionMapper = mock(TransactionMapper.class);
-    private final TransactionServiceImpl transactionService = new TransactionServiceImpl(transactionRepository, walletRepository, transactionMapper);
+    private final CustomerBalanceService customerBalanceService = mock(CustomerBalanceService.class);
+    private final LedgerService ledgerService = mock(LedgerService.class);
+    private final PaymentJournal paymentJournal = mock(PaymentJournal.class);
+    private final BulkApprovalProperties bulkApprovalProperties = new BulkApprovalProperties();
+    private final PaymentMetrics paymentMetrics = new PaymentMetrics();
+    private final PaymentEngineProperties properties = new PaymentEngineProperties();
+    private final PaymentEngine paymentEngine = new PaymentEngine(mock(PlatformTransactionManager.class), new RetryExecutor(properties), properties);
+    private final TransactionServiceImpl transactionService = new TransactionServiceImpl(transactionRepository, walletRepository, transactionMapper, paymentEngine,
+            new TransactionHistoryProperties(), customerBalanceService, ledgerService, paymentJournal, bulkApprovalProperties, paymentMetrics);
+
+    @Test
+    @DisplayName("approveTransactions approves pending transactions set-based per chunk and skips decided and unknown ones")
+    void approveTransactionsApprovesPendingTransactionsPerChunk() {
+        // given
+        bulkApprovalProperties.setChunkSize(2);
+        BulkApprovalRequest request = BulkApprovalRequest.builder()
+                .status(TransactionStatus.APPROVED)
+                .transactionIds(List.of(1L, 2L, 3L, 99L, 1L))
+                .build();
+        List<BalanceChange> changes = List.of(new BalanceChange(7L, Currency.EUR, BigDecimal.ZERO, BigDecimal.valueOf(2500)));
+        when(transactionRepository.countByIdIn(List.of(1L, 2L))).thenReturn(2L);
+        when(transactionRepository.countByIdIn(List.of(3L, 99L))).thenReturn(1L);
+        when(transactionRepository.lockPendingIds(List.of(1L, 2L))).thenReturn(List.of(1L, 2L));
+        when(transactionRepository.lockPendingIds(List.of(3L, 99L))).thenReturn(List.of());
+        when(transactionRepository.sumApprovalChanges(List.of(1L, 2L))).thenReturn(changes);
+
+        // when
+        BulkApprovalResponse response = transactionService.approveTransactions(request);
+
+        // then
+        assertEquals("APPROVED", response.getStatus());
+        assertEquals(4, response.getMatched());
+        assertEquals(2, response.getDecided());
+        assertEquals(1, response.getAlreadyDecided());
+        assertEquals(1, response.getNotFound());
+        verify(transactionRepository, times(1)).updateStatuses(eq(List.of(1L, 2L)), eq(TransactionStatus.APPROVED), any(), any());
+        verify(customerBalanceService, times(1)).applyChanges(changes);
+        verify(walletRepository, times(1)).addApprovedAmounts(eq(List.of(1L, 2L)), any(), any());
+        verify(transactionRepository, never()).findById(any());
+        verify(transactionRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("approveTransactions denies the transactions selected by criteria without changing balances")
+    void approveTransactionsDeniesTransactionsSelectedByCriteria() {
+        // given
+        BulkApprovalRequest request = BulkApprovalRequest.builder()
+                .status(TransactionStatus.DENIED)
+                .walletId(5L)
+                .minAmount(BigDecimal.valueOf(1000))
+                .build();
+        when(transactionRepository.findMaxId()).thenReturn(20L);
+        when(transactionRepository.findPendingIds(5L, BigDecimal.valueOf(1000), null, null, 0L, 20L, 100))
+                .thenReturn(List.of(10L, 11L));
+        when(transactionRepository.findPendingIds(5L, BigDecimal.valueOf(1000), null, null, 11L, 20L, 100))
+                .thenReturn(List.of());
+        when(transactionRepository.lockPendingIds(List.of(10L, 11L))).thenReturn(List.of(10L, 11L));
+
+        // when
+        BulkApprovalResponse response = transactionService.approveTransactions(request);
+
+        // then
+        assertEquals(2, response.getMatched());
+        assertEquals(2, response.getDecided());
+        assertEquals(0, response.getAlreadyDecided());
+        assertEquals(0, response.getNotFound());
+        verify(transactionRepository, times(1)).updateStatuses(eq(List.of(10L, 11L)), eq(TransactionStatus.DENIED), any(), any());
+        verify(transactionRepository, never()).sumApprovalChanges(any());
+        verify(walletRepository, never()).addApprovedAmounts(any(), any(), any());
+        verifyNoInteractions(customerBalanceService);
+    }
+
+    @Test
+    @DisplayName("approveTransactions rejects a request that selects no transactions")
+    void approveTransactionsRejectsRequestWithoutSelection() {
+        // given
+        BulkApprovalRequest request = BulkApprovalRequest.builder()
+                .status(TransactionStatus.APPROVED)
+                .build();
+
+        // when
+        WalletTransactionException exception = assertThrows(WalletTransactionException.class,
+                () -> transactionService.approveTransactions(request));
+
+        // then
+        assertEquals("Either transaction IDs or selection criteria are required", exception.getMessage());
+        verifyNoInteractions(transactionRepository, walletRepository, customerBalanceService);
+    }
 
     @Test
     @DisplayName("createTransaction saves and returns the transaction")
@@ -50,14 +162,14 @@ class TransactionServiceImplTest {
         // given
         Wallet wallet = new Wallet();
         PaymentRequest request = PaymentRequest.builder()
-                .amount(BigDecimal.valueOf(100))
+                .amount(Money.of(100))
                 .source(OppositePartyType.IBAN)
                 .oppositeParty("OPPOSITE_PARTY")
                 .build();
         Transaction transaction = new Transaction();
         transaction.setWallet(wallet);
         transaction.setType(TransactionType.DEPOSIT);
-        transaction.setAmount(BigDecimal.valueOf(100));
+        transaction.setAmount(Money.of(100));
         when(transactionRepository.save(any(Transaction.class))).thenReturn(transaction);
 
         // when
@@ -66,19 +178,17 @@ class TransactionServiceImplTest {
         // then
         assertEquals(wallet, result.getWallet());
         assertEquals(TransactionType.DEPOSIT, result.getType());
-        assertEquals(BigDecimal.valueOf(100), result.getAmount());
+        assertEquals(Money.of(100), result.getAmount());
         verify(transactionRepository, times(1)).save(any(Transaction.class));
     }
 
     @Test
-    @DisplayName("findTransactionsByWalletId returns mapped responses")
+    @DisplayName("findTransactionsByWalletId returns the projected responses")
     void findTransactionsByWalletIdReturnsMappedResponses() {
         // given
         Long walletId = 1L;
-        Transaction transaction = new Transaction();
         TransactionResponse response = new TransactionResponse();
-        when(transactionRepository.findByWalletId(walletId)).thenReturn(List.of(transaction));
-        when(transactionMapper.toTransactionResponse(transaction)).thenReturn(response);
+        when(transactionRepository.findResponsesByWalletId(walletId)).thenReturn(List.of(response));
 
         // when
         List<TransactionResponse> responses = transactionService.findTransactionsByWalletId(walletId);
@@ -86,8 +196,73 @@ class TransactionServiceImplTest {
         // then
         assertEquals(1, responses.size());
         assertEquals(response, responses.get(0));
-        verify(transactionRepository, times(1)).findByWalletId(walletId);
-        verify(transactionMapper, times(1)).toTransactionResponse(transaction);
+        verify(transactionRepository, times(1)).findResponsesByWalletId(walletId);
+        verify(transactionRepository, never()).findByWalletId(walletId);
+        verifyNoInteractions(transactionMapper);
+    }
+
+    @Test
+    @DisplayName("findTransactionPage returns the first page and a cursor when more rows exist")
+    void findTransactionPageReturnsFirstPageWithCursor() {
+        // given
+        Long walletId = 1L;
+        List<Transaction> rows = transactions(10, 9, 8);
+        when(transactionRepository.findByWalletIdOrderByIdDesc(walletId, Limit.of(3))).thenReturn(rows);
+        when(transactionMapper.toTransactionResponse(any())).thenAnswer(invocation ->
+                TransactionResponse.builder().id(((Transaction) invocation.getArgument(0)).getId()).build());
+
+        // when
+        TransactionPageResponse page = transactionService.findTransactionPage(walletId, null, 2);
+
+        // then
+        assertEquals(List.of(10L, 9L), page.getItems().stream().map(TransactionResponse::getId).toList());
+        assertNotNull(page.getNextCursor());
+        verify(transactionRepository, never()).findByWalletId(walletId);
+    }
+
+    @Test
+    @DisplayName("findTransactionPage continues after the cursor and ends without a cursor")
+    void findTransactionPageContinuesAfterCursor() {
+        // given
+        Long walletId = 1L;
+        when(transactionRepository.findByWalletIdOrderByIdDesc(walletId, Limit.of(3))).thenReturn(transactions(10, 9, 8));
+        when(transactionRepository.findByWalletIdAndIdLessThanOrderByIdDesc(walletId, 9L, Limit.of(3)))
+                .thenReturn(transactions(8));
+        when(transactionMapper.toTransactionResponse(any())).thenAnswer(invocation ->
+                TransactionResponse.builder().id(((Transaction) invocation.getArgument(0)).getId()).build());
+        String cursor = transactionService.findTransactionPage(walletId, null, 2).getNextCursor();
+
+        // when
+        TransactionPageResponse page = transactionService.findTransactionPage(walletId, cursor, 2);
+
+        // then
+        assertEquals(List.of(8L), page.getItems().stream().map(TransactionResponse::getId).toList());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    @DisplayName("findTransactionPage caps the page size and uses the default when none is given")
+    void findTransactionPageCapsPageSize() {
+        // given
+        Long walletId = 1L;
+        when(transactionRepository.findByWalletIdOrderByIdDesc(eq(walletId), any())).thenReturn(List.of());
+
+        // when
+        transactionService.findTransactionPage(walletId, null, 10_000);
+        transactionService.findTransactionPage(walletId, null, null);
+
+        // then
+        verify(transactionRepository, times(1)).findByWalletIdOrderByIdDesc(walletId, Limit.of(501));
+        verify(transactionRepository, times(1)).findByWalletIdOrderByIdDesc(walletId, Limit.of(51));
+    }
+
+    @Test
+    @DisplayName("findTransactionPage rejects a malformed cursor")
+    void findTransactionPageRejectsMalformedCursor() {
+        // when & then
+        InvalidCursorException exception = assertThrows(InvalidCursorException.class,
+                () -> transactionService.findTransactionPage(1L, "not a cursor!", 10));
+        assertEquals("Invalid cursor", exception.getMessage());
     }
 
     @Test
@@ -116,23 +291,96 @@ class TransactionServiceImplTest {
         // given
         Transaction transaction = new Transaction();
         transaction.setType(TransactionType.DEPOSIT);
-        transaction.setAmount(BigDecimal.valueOf(100));
+        transaction.setAmount(Money.of(100));
+        transaction.setStatus(TransactionStatus.PENDING);
+        Customer customer = new Customer();
+        customer.setId(7L);
         Wallet wallet = new Wallet();
-        wallet.setUsableBalance(BigDecimal.valueOf(200));
+        wallet.setUsableBalance(Money.of(200));
+        wallet.setCurrency(Currency.EUR);
+        wallet.setCustomer(customer);
         transaction.setWallet(wallet);
         TransactionApprovalRequest request = new TransactionApprovalRequest();
         request.setTransactionId(1L);
         request.setStatus(TransactionStatus.APPROVED);
-        when(transactionRepository.findById(1L)).thenReturn(Optional.of(transaction));
+        when(transactionRepository.findWithWalletById(1L)).thenReturn(Optional.of(transaction));
 
         // when
         TransactionResponse response = transactionService.approveTransaction(request);
 
         // then
-        assertEquals(BigDecimal.valueOf(300), wallet.getUsableBalance());
+        assertEquals(Money.of(300), wallet.getUsableBalance());
         assertEquals(TransactionStatus.APPROVED, transaction.getStatus());
         verify(walletRepository, times(1)).save(wallet);
-        verify(transactionRepository, times(1)).save(transaction);
+        verify(transactionRepository, times(1)).saveAndFlush(transaction);
+        verify(customerBalanceService, times(1)).applyChange(
+                new BalanceChange(7L, Currency.EUR, BigDecimal.ZERO, new BigDecimal("100.0000")));
+        assertEquals(1, paymentMetrics.getDecisions(TransactionStatus.APPROVED));
+    }
+
+    @Test
+    @DisplayName("approveTransaction in ledger mode appends the usable balance change to the ledger")
+    void approveTransactionInLedgerModeAppendsUsableBalanceChange() {
+        // given
+        PaymentEngineProperties ledgerProperties = new PaymentEngineProperties();
+        ledgerProperties.setLockingMode(LockingMode.LEDGER);
+        TransactionServiceImpl ledgerTransactionService = new TransactionServiceImpl(transactionRepository, walletRepository,
+                transactionMapper, new PaymentEngine(mock(PlatformTransactionManager.class), new RetryExecutor(ledgerProperties), ledgerProperties),
+                new TransactionHistoryProperties(), customerBalanceService, ledgerService, paymentJournal, bulkApprovalProperties, paymentMetrics);
+        Transaction transaction = new Transaction();
+        transaction.setType(TransactionType.WITHDRAW);
+        transaction.setAmount(Money.of(1500));
+        transaction.setStatus(TransactionStatus.PENDING);
+        Wallet wallet = new Wallet();
+        wallet.setUsableBalance(Money.of(2000));
+        transaction.setWallet(wallet);
+        LedgerBalance current = new LedgerBalance(4, BigDecimal.valueOf(500), BigDecimal.valueOf(2000));
+        TransactionApprovalRequest request = new TransactionApprovalRequest();
+        request.setTransactionId(1L);
+        request.setStatus(TransactionStatus.APPROVED);
+        when(transactionRepository.findWithWalletById(1L)).thenReturn(Optional.of(transaction));
+        when(transactionRepository.findWalletIdById(1L)).thenReturn(Optional.of(3L));
+        when(ledgerService.currentBalance(wallet)).thenReturn(current);
+
+        // when
+        ledgerTransactionService.approveTransaction(request);
+
+        // then
+        assertEquals(Money.of(2000), wallet.getUsableBalance());
+        assertEquals(TransactionStatus.APPROVED, transaction.getStatus());
+        verify(ledgerService, times(1)).append(wallet, current, transaction, BigDecimal.ZERO, new BigDecimal("-1500.0000"));
+        verifyNoInteractions(customerBalanceService);
+    }
+
+    @Test
+    @DisplayName("approveTransaction keeps the status and balances of an already decided transaction")
+    void approveTransactionKeepsAlreadyDecidedTransaction() {
+        // given
+        Transaction transaction = new Transaction();
+        transaction.setType(TransactionType.DEPOSIT);
+        transaction.setAmount(Money.of(100));
+        transaction.setStatus(TransactionStatus.APPROVED);
+        Wallet wallet = new Wallet();
+        wallet.setUsableBalance(Money.of(300));
+        transaction.setWallet(wallet);
+        TransactionApprovalRequest request = new TransactionApprovalRequest();
+        request.setTransactionId(1L);
+        request.setStatus(TransactionStatus.APPROVED);
+        TransactionResponse response = new TransactionResponse();
+        when(transactionRepository.findWithWalletById(1L)).thenReturn(Optional.of(transaction));
+        when(transactionMapper.toTransactionResponse(transaction)).thenReturn(response);
+
+        // when
+        TransactionResponse result = transactionService.approveTransaction(request);
+
+        // then
+        assertEquals(response, result);
+        assertEquals(Money.of(300), wallet.getUsableBalance());
+        assertEquals(TransactionStatus.APPROVED, transaction.getStatus());
+        verify(walletRepository, never()).save(any());
+        verify(transactionRepository, never()).saveAndFlush(any());
+        verifyNoInteractions(customerBalanceService, ledgerService);
+        assertEquals(0, paymentMetrics.getDecisions(TransactionStatus.APPROVED));
     }
 
     @Test
@@ -141,13 +389,21 @@ class TransactionServiceImplTest {
         // given
         TransactionApprovalRequest request = new TransactionApprovalRequest();
         request.setTransactionId(1L);
-        when(transactionRepository.findById(1L)).thenReturn(Optional.empty());
+        when(transactionRepository.findWithWalletById(1L)).thenReturn(Optional.empty());
 
         // when
         WalletNotFoundException exception = assertThrows(WalletNotFoundException.class, () -> transactionService.approveTransaction(request));
 
         // then
         assertEquals("Transaction not found", exception.getMessage());
-        verify(transactionRepository, times(1)).findById(1L);
+        verify(transactionRepository, times(1)).findWithWalletById(1L);
+    }
+
+    private static List<Transaction> transactions(long... ids) {
+        return LongStream.of(ids).mapToObj(id -> {
+            Transaction transaction = new Transaction();
+            transaction.setId(id);
+            return transaction;
+        }).toList();
     }
-}
\ No newline at end of file
+}
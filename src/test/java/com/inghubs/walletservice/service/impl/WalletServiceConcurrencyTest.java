@@ -0,0 +1,96 @@
+package com.inghubs.walletservice.service.impl;
+
+import com.inghubs.walletservice.model.dto.CreateWalletRequest;
+import com.inghubs.walletservice.model.dto.Money;
+import com.inghubs.walletservice.model.dto.PaymentRequest;
+import com.inghubs.walletservice.model.dto.enums.Currency;
+import com.inghubs.walletservice.model.dto.enums.OppositePartyType;
+import com.inghubs.walletservice.model.dto.enums.TransactionType;
+import com.inghubs.walletservice.model.entity.Transaction;
+import com.inghubs.walletservice.model.entity.Wallet;
+import com.inghubs.walletservice.repository.TransactionRepository;
+import com.inghubs.walletservice.repository.WalletRepository;
+import com.inghubs.walletservice.service.WalletService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+class WalletServiceConcurrencyTest {
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Test
+    @DisplayName("concurrent deposits and withdrawals on one hot wallet lose no updates")
+    void concurrentPaymentsOnOneHotWalletLoseNoUpdates() throws Exception {
+        // given
+        Long walletId = walletService.createWallet(CreateWalletRequest.builder()
+                .customerId(1L)
+                .walletName("Hot Wallet")
+                .currency(Currency.TRY)
+                .activeForShopping(true)
+                .activeForWithdraw(true)
+                .build()).getWalletId();
+        int threads = 8;
+        int opsPerThread = 200;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        // when
+        for (int t = 0; t < threads; t++) {
+            boolean withdrawer = t % 4 == 0;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < opsPerThread; i++) {
+                    PaymentRequest request = PaymentRequest.builder()
+                            .walletId(walletId)
+                            .amount(withdrawer ? Money.of(1) : Money.of(10))
+                            .source(OppositePartyType.IBAN)
+                            .oppositeParty("TR1234567890987654321")
+                            .build();
+                    if (withdrawer) {
+                        try {
+                            walletService.makeWithdraw(request);
+                        } catch (RuntimeException ignored) {
+                            // early withdrawals may legitimately hit an empty wallet
+                        }
+                    } else {
+                        walletService.makeDeposit(request);
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // then
+        Wallet wallet = walletRepository.findById(walletId).orElseThrow();
+        List<Transaction> transactions = transactionRepository.findByWalletId(walletId);
+        Money expected = transactions.stream()
+                .map(tx -> tx.getType() == TransactionType.DEPOSIT ? tx.getAmount() : tx.getAmount().negate())
+                .reduce(Money.ZERO, Money::plus);
+        long deposits = transactions.stream().filter(tx -> tx.getType() == TransactionType.DEPOSIT).count();
+        assertEquals((long) (threads - threads / 4) * opsPerThread, deposits);
+        assertEquals(0, expected.compareTo(wallet.getBalance()));
+        assertEquals(0, expected.compareTo(wallet.getUsableBalance()));
+    }
+}
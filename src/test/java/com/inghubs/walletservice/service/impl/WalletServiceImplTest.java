@@ -1,29 +1,64 @@
 package com.inghubs.walletservice.service.impl;
 
+import com.inghubs.walletservice.configuration.BatchPaymentProperties;
+import com.inghubs.walletservice.configuration.PaymentEngineProperties;
+import com.inghubs.walletservice.configuration.VelocityLimitProperties;
+import com.inghubs.walletservice.configuration.WalletSearchProperties;
 import com.inghubs.walletservice.exception.CustomerNotFoundException;
+import com.inghubs.walletservice.exception.InsufficientBalanceException;
+import com.inghubs.walletservice.exception.InvalidCursorException;
+import com.inghubs.walletservice.exception.InvalidPaymentAmountException;
+import com.inghubs.walletservice.exception.VelocityLimitExceededException;
+import com.inghubs.walletservice.exception.WalletNotFoundException;
 import com.inghubs.walletservice.exception.WithdrawNotAllowedException;
 import com.inghubs.walletservice.mapper.WalletMapper;
+import com.inghubs.walletservice.model.dto.BalanceChange;
+import com.inghubs.walletservice.model.dto.BatchPaymentItem;
+import com.inghubs.walletservice.model.dto.BatchPaymentRequest;
+import com.inghubs.walletservice.model.dto.BatchPaymentResponse;
 import com.inghubs.walletservice.model.dto.CreateWalletRequest;
 import com.inghubs.walletservice.model.dto.CreateWalletResponse;
+import com.inghubs.walletservice.model.dto.LedgerBalance;
+import com.inghubs.walletservice.model.dto.Money;
 import com.inghubs.walletservice.model.dto.PaymentRequest;
 import com.inghubs.walletservice.model.dto.PaymentResponse;
+import com.inghubs.walletservice.model.dto.WalletPageResponse;
+import com.inghubs.walletservice.model.dto.WalletSearchCursor;
 import com.inghubs.walletservice.model.dto.enums.Currency;
 import com.inghubs.walletservice.model.dto.enums.TransactionStatus;
 import com.inghubs.walletservice.model.dto.enums.TransactionType;
+import com.inghubs.walletservice.model.dto.enums.WalletSort;
 import com.inghubs.walletservice.model.entity.Customer;
+import com.inghubs.walletservice.model.entity.Transaction;
 import com.inghubs.walletservice.model.entity.Wallet;
 import com.inghubs.walletservice.repository.CustomerRepository;
 import com.inghubs.walletservice.repository.WalletRepository;
+import com.inghubs.walletservice.security.WalletOwnershipIndex;
+import com.inghubs.walletservice.service.CustomerBalanceService;
+import com.inghubs.walletservice.service.LedgerService;
 import com.inghubs.walletservice.service.TransactionService;
+import com.inghubs.walletservice.service.engine.LockingMode;
+import com.inghubs.walletservice.service.engine.PaymentCoalescer;
+import com.inghubs.walletservice.service.engine.PaymentEngine;
+import com.inghubs.walletservice.service.engine.RetryExecutor;
+import com.inghubs.walletservice.service.journal.JournalReceipt;
+import com.inghubs.walletservice.service.journal.PaymentJournal;
+import com.inghubs.walletservice.service.limit.VelocityLimiter;
+import com.inghubs.walletservice.service.metrics.PaymentMetrics;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.mockito.Mockito.times;
 
@@ -33,7 +68,15 @@ class WalletServiceImplTest {
     private final CustomerRepository customerRepository = mock(CustomerRepository.class);
     private final TransactionService transactionService = mock(TransactionService.class);
     private final WalletMapper walletMapper = mock(WalletMapper.class);
-    private final WalletServiceImpl walletService = new WalletServiceImpl(walletRepository, customerRepository, transactionService, walletMapper);
+    private final BatchPaymentProperties batchPaymentProperties = new BatchPaymentProperties();
+    private final WalletOwnershipIndex walletOwnershipIndex = mock(WalletOwnershipIndex.class);
+    private final CustomerBalanceService customerBalanceService = mock(CustomerBalanceService.class);
+    private final LedgerService ledgerService = mock(LedgerService.class);
+    private final PaymentJournal paymentJournal = mock(PaymentJournal.class);
+    private final PaymentMetrics paymentMetrics = new PaymentMetrics();
+    private final WalletServiceImpl walletService = newWalletService(LockingMode.OPTIMISTIC);
+    private final WalletServiceImpl conditionalWalletService = newWalletService(LockingMode.CONDITIONAL_UPDATE);
+    private final WalletServiceImpl ledgerWalletService = newWalletService(LockingMode.LEDGER);
 
     @Test
     @DisplayName("createWallet successfully creates wallet for valid customer")
@@ -47,13 +90,16 @@ class WalletServiceImplTest {
                 .activeForWithdraw(true)
                 .build();
         Customer customer = new Customer();
+        customer.setId(1L);
         Wallet wallet = new Wallet();
+        wallet.setCurrency(Currency.EUR);
         Wallet savedWallet = new Wallet();
+        savedWallet.setId(1L);
         CreateWalletResponse expectedResponse = CreateWalletResponse.builder()
                 .walletId(1L)
                 .walletName("My Wallet")
                 .currency("USD")
-                .balance(BigDecimal.valueOf(0.0))
+                .balance(Money.parse("0.0"))
                 .build();
         when(customerRepository.findById(1L)).thenReturn(Optional.of(customer));
         when(walletMapper.toEntity(request)).thenReturn(wallet);
@@ -68,6 +114,8 @@ class WalletServiceImplTest {
         verify(customerRepository, times(1)).findById(1L);
         verify(walletMapper, times(1)).toEntity(request);
         verify(walletRepository, times(1)).save(wallet);
+        verify(walletOwnershipIndex, times(1)).register(1L, 1L);
+        verify(customerBalanceService, times(1)).openBalance(1L, Currency.EUR);
         verify(walletMapper, times(1)).toResponse(savedWallet);
     }
 
@@ -109,13 +157,13 @@ class WalletServiceImplTest {
         Customer customer = new Customer();
         Wallet wallet = new Wallet();
         Wallet savedWallet = new Wallet();
-        savedWallet.setBalance(BigDecimal.ZERO);
-        savedWallet.setUsableBalance(BigDecimal.ZERO);
+        savedWallet.setBalance(Money.ZERO);
+        savedWallet.setUsableBalance(Money.ZERO);
         CreateWalletResponse expectedResponse = CreateWalletResponse.builder()
                 .walletId(1L)
                 .walletName("My Wallet")
                 .currency("USD")
-                .balance(BigDecimal.ZERO)
+                .balance(Money.ZERO)
                 .build();
         when(customerRepository.findById(1L)).thenReturn(Optional.of(customer));
         when(walletMapper.toEntity(request)).thenReturn(wallet);
@@ -126,8 +174,8 @@ class WalletServiceImplTest {
         CreateWalletResponse response = walletService.createWallet(request);
 
         // then
-        assertEquals(BigDecimal.ZERO, savedWallet.getBalance());
-        assertEquals(BigDecimal.ZERO, savedWallet.getUsableBalance());
+        assertEquals(Money.ZERO, savedWallet.getBalance());
+        assertEquals(Money.ZERO, savedWallet.getUsableBalance());
         assertEquals(expectedResponse, response);
         verify(customerRepository, times(1)).findById(1L);
         verify(walletMapper, times(1)).toEntity(request);
@@ -136,24 +184,20 @@ class WalletServiceImplTest {
     }
 
     @Test
-    @DisplayName("listWallets returns filtered wallets")
+    @DisplayName("listWallets returns the projected wallet responses")
     void listWalletsReturnsFilteredWallets() {
         // given
         Long customerId = 1L;
         Currency currency = Currency.EUR;
         BigDecimal minAmount = BigDecimal.valueOf(100);
         BigDecimal maxAmount = BigDecimal.valueOf(1000);
-        Wallet wallet = new Wallet();
-        wallet.setId(1L);
-        wallet.setCurrency(currency);
-        wallet.setBalance(BigDecimal.valueOf(500));
-        List<Wallet> wallets = List.of(wallet);
-        when(walletRepository.findWalletsByFilters(customerId, currency, minAmount, maxAmount)).thenReturn(wallets);
-        when(walletMapper.toResponse(wallet)).thenReturn(CreateWalletResponse.builder()
-                .walletId(wallet.getId())
-                .currency(wallet.getCurrency().name())
-                .balance(wallet.getBalance())
-                .build());
+        CreateWalletResponse wallet = CreateWalletResponse.builder()
+                .walletId(1L)
+                .currency(currency.name())
+                .balance(Money.of(500))
+                .customerId(customerId)
+                .build();
+        when(walletRepository.findWalletResponsesByFilters(customerId, currency, minAmount, maxAmount)).thenReturn(List.of(wallet));
 
         // when
         List<CreateWalletResponse> responses = walletService.listWallets(customerId, currency, minAmount, maxAmount);
@@ -161,8 +205,60 @@ class WalletServiceImplTest {
         // then
         assertEquals(1, responses.size());
         assertEquals("EUR", responses.get(0).getCurrency());
-        verify(walletRepository, times(1)).findWalletsByFilters(customerId, currency, minAmount, maxAmount);
-        verify(walletMapper, times(1)).toResponse(wallet);
+        verify(walletRepository, times(1)).findWalletResponsesByFilters(customerId, currency, minAmount, maxAmount);
+        verifyNoInteractions(walletMapper);
+    }
+
+    @Test
+    @DisplayName("searchWallets returns a cursor that continues after the last wallet of the page")
+    void searchWalletsReturnsCursorThatContinuesAfterLastWallet() {
+        // given
+        when(walletRepository.searchWallets(null, Currency.TRY, null, null, WalletSort.BALANCE_DESC, null, 3))
+                .thenReturn(List.of(wallet(9L, "900.5000"), wallet(4L, "700.0000"), wallet(7L, "700.0000")));
+        when(walletRepository.searchWallets(null, Currency.TRY, null, null, WalletSort.BALANCE_DESC,
+                new WalletSearchCursor(Money.parse("700.0000"), 4L), 3))
+                .thenReturn(List.of(wallet(7L, "700.0000")));
+
+        // when
+        WalletPageResponse first = walletService.searchWallets(null, Currency.TRY, null, null, WalletSort.BALANCE_DESC, null, 2);
+        WalletPageResponse second = walletService.searchWallets(null, Currency.TRY, null, null, WalletSort.BALANCE_DESC,
+                first.getNextCursor(), 2);
+
+        // then
+        assertEquals(List.of(9L, 4L), first.getItems().stream().map(CreateWalletResponse::getWalletId).toList());
+        assertNotNull(first.getNextCursor());
+        assertEquals(List.of(7L), second.getItems().stream().map(CreateWalletResponse::getWalletId).toList());
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    @DisplayName("searchWallets rejects a cursor issued for another sort")
+    void searchWalletsRejectsCursorOfAnotherSort() {
+        // given
+        when(walletRepository.searchWallets(null, null, null, null, WalletSort.ID_ASC, null, 2))
+                .thenReturn(List.of(wallet(1L, "0.0000"), wallet(2L, "0.0000")));
+        String cursor = walletService.searchWallets(null, null, null, null, null, null, 1).getNextCursor();
+
+        // when / then
+        assertThrows(InvalidCursorException.class,
+                () -> walletService.searchWallets(null, null, null, null, WalletSort.BALANCE_ASC, cursor, 1));
+        assertThrows(InvalidCursorException.class,
+                () -> walletService.searchWallets(null, null, null, null, WalletSort.ID_ASC, "not a cursor", 1));
+    }
+
+    @Test
+    @DisplayName("searchWallets defaults to ascending id and caps the page size")
+    void searchWalletsDefaultsSortAndCapsPageSize() {
+        // given
+        when(walletRepository.searchWallets(any(), any(), any(), any(), any(), any(), anyInt())).thenReturn(List.of());
+
+        // when
+        walletService.searchWallets(1L, null, null, null, null, null, 10_000);
+        walletService.searchWallets(1L, null, null, null, null, null, null);
+
+        // then
+        verify(walletRepository, times(1)).searchWallets(1L, null, null, null, WalletSort.ID_ASC, null, 501);
+        verify(walletRepository, times(1)).searchWallets(1L, null, null, null, WalletSort.ID_ASC, null, 51);
     }
 
     @Test
@@ -171,13 +267,14 @@ class WalletServiceImplTest {
         // given
         PaymentRequest request = PaymentRequest.builder()
                 .walletId(1L)
-                .amount(BigDecimal.valueOf(500))
+                .amount(Money.of(500))
                 .build();
         Wallet wallet = new Wallet();
         wallet.setId(1L);
-        wallet.setBalance(BigDecimal.valueOf(1000));
-        wallet.setUsableBalance(BigDecimal.valueOf(1000));
+        wallet.setBalance(Money.of(1000));
+        wallet.setUsableBalance(Money.of(1000));
         wallet.setCurrency(Currency.EUR);
+        wallet.setCustomer(customer(7L));
         when(walletRepository.findById(1L)).thenReturn(Optional.of(wallet));
         when(transactionService.processTransaction(wallet, request, TransactionStatus.APPROVED, TransactionType.DEPOSIT))
                 .thenReturn(null);
@@ -186,10 +283,38 @@ class WalletServiceImplTest {
         PaymentResponse response = walletService.makeDeposit(request);
 
         // then
-        assertEquals(BigDecimal.valueOf(1500), wallet.getBalance());
-        assertEquals(BigDecimal.valueOf(1500), wallet.getUsableBalance());
+        assertEquals(Money.of(1500), wallet.getBalance());
+        assertEquals(Money.of(1500), wallet.getUsableBalance());
         verify(walletRepository, times(1)).save(wallet);
         verify(transactionService, times(1)).processTransaction(wallet, request, TransactionStatus.APPROVED, TransactionType.DEPOSIT);
+        verify(customerBalanceService, times(1)).applyChange(
+                new BalanceChange(7L, Currency.EUR, new BigDecimal("500.0000"), new BigDecimal("500.0000")));
+        assertEquals(1, paymentMetrics.getPayments(TransactionType.DEPOSIT, TransactionStatus.APPROVED));
+    }
+
+    @Test
+    @DisplayName("makeDeposit answers from the journal receipt without writing to the database when the journal is enabled")
+    void makeDepositAnswersFromJournalReceiptWhenJournalIsEnabled() {
+        // given
+        PaymentRequest request = PaymentRequest.builder()
+                .walletId(1L)
+                .amount(Money.of(500))
+                .build();
+        when(paymentJournal.isEnabled()).thenReturn(true);
+        when(paymentJournal.append(eq(1L), any())).thenReturn(CompletableFuture.completedFuture(
+                new JournalReceipt(42L, 1L, Currency.EUR, Money.of(1500), Money.of(1500))));
+
+        // when
+        PaymentResponse response = walletService.makeDeposit(request);
+
+        // then
+        assertEquals(1L, response.getWalletId());
+        assertEquals("EUR", response.getCurrency());
+        assertEquals(Money.of(1500), response.getTotalBalance());
+        assertEquals(Money.of(1500), response.getUsableBalance());
+        assertEquals(TransactionStatus.APPROVED.name(), response.getTransactionStatus());
+        verify(paymentJournal, times(1)).append(eq(1L), any());
+        verifyNoInteractions(walletRepository, transactionService, customerBalanceService);
     }
 
     @Test
@@ -198,7 +323,7 @@ class WalletServiceImplTest {
         // given
         PaymentRequest request = PaymentRequest.builder()
                 .walletId(1L)
-                .amount(BigDecimal.valueOf(500))
+                .amount(Money.of(500))
                 .build();
         Wallet wallet = new Wallet();
         wallet.setId(1L);
@@ -220,19 +345,14 @@ class WalletServiceImplTest {
         // given
         Long walletId = 1L;
         Long customerId = 1L;
-        Customer customer = new Customer();
-        customer.setId(customerId);
-        Wallet wallet = new Wallet();
-        wallet.setId(walletId);
-        wallet.setCustomer(customer);
-        when(walletRepository.findById(walletId)).thenReturn(Optional.of(wallet));
+        when(walletOwnershipIndex.isOwnedBy(walletId, customerId)).thenReturn(true);
 
         // when
         boolean result = walletService.isWalletOwnedBy(walletId, customerId);
 
         // then
         assertTrue(result);
-        verify(walletRepository, times(1)).findById(walletId);
+        verify(walletRepository, never()).findById(walletId);
     }
 
     @Test
@@ -241,19 +361,395 @@ class WalletServiceImplTest {
         // given
         Long walletId = 1L;
         Long customerId = 2L;
-        Customer customer = new Customer();
-        customer.setId(1L);
-        Wallet wallet = new Wallet();
-        wallet.setId(walletId);
-        wallet.setCustomer(customer);
-        when(walletRepository.findById(walletId)).thenReturn(Optional.of(wallet));
+        when(walletOwnershipIndex.isOwnedBy(walletId, customerId)).thenReturn(false);
 
         // when
         boolean result = walletService.isWalletOwnedBy(walletId, customerId);
 
         // then
         assertFalse(result);
-        verify(walletRepository, times(1)).findById(walletId);
+        verify(walletRepository, never()).findById(walletId);
+    }
+
+    @Test
+    @DisplayName("makeWithdraw rejects non-positive amounts")
+    void makeWithdrawRejectsNonPositiveAmounts() {
+        // given
+        PaymentRequest request = PaymentRequest.builder()
+                .walletId(1L)
+                .amount(Money.of(-500))
+                .build();
+
+        // when
+        InvalidPaymentAmountException exception = assertThrows(InvalidPaymentAmountException.class, () -> walletService.makeWithdraw(request));
+
+        // then
+        assertEquals("Payment amount must be greater than zero.", exception.getMessage());
+        verify(walletRepository, never()).findById(any());
+        verify(transactionService, never()).processTransaction(any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("makeDeposit in conditional update mode applies the delta without loading the wallet first")
+    void makeDepositInConditionalModeAppliesDeltaWithoutLoadingWallet() {
+        // given
+        PaymentRequest request = PaymentRequest.builder()
+                .walletId(1L)
+                .amount(Money.of(500))
+                .build();
+        Wallet updated = new Wallet();
+        updated.setId(1L);
+        updated.setBalance(Money.of(1500));
+        updated.setUsableBalance(Money.of(1500));
+        updated.setCurrency(Currency.EUR);
+        when(walletRepository.addToBalance(eq(1L), eq(Money.of(500)), eq(Money.of(500)), any(), any())).thenReturn(1);
+        when(walletRepository.getReferenceById(1L)).thenReturn(updated);
+
+        // when
+        PaymentResponse response = conditionalWalletService.makeDeposit(request);
+
+        // then
+        assertEquals(Money.of(1500), response.getTotalBalance());
+        assertEquals(Money.of(1500), response.getUsableBalance());
+        assertEquals("APPROVED", response.getTransactionStatus());
+        verify(walletRepository, never()).findById(any());
+        verify(walletRepository, never()).save(any());
+        verify(transactionService, times(1)).processTransaction(updated, request, TransactionStatus.APPROVED, TransactionType.DEPOSIT);
+        verify(customerBalanceService, times(1)).applyWalletChange(1L, new BigDecimal("500.0000"), new BigDecimal("500.0000"));
+    }
+
+    @Test
+    @DisplayName("makeDeposit in conditional update mode leaves usable balance untouched for pending amounts")
+    void makeDepositInConditionalModeLeavesUsableBalanceForPendingAmounts() {
+        // given
+        PaymentRequest request = PaymentRequest.builder()
+                .walletId(1L)
+                .amount(Money.of(1500))
+                .build();
+        Wallet updated = new Wallet();
+        updated.setId(1L);
+        updated.setBalance(Money.of(1500));
+        updated.setUsableBalance(Money.ZERO);
+        updated.setCurrency(Currency.EUR);
+        when(walletRepository.addToBalance(eq(1L), eq(Money.of(1500)), eq(Money.ZERO), any(), any())).thenReturn(1);
+        when(walletRepository.getReferenceById(1L)).thenReturn(updated);
+
+        // when
+        PaymentResponse response = conditionalWalletService.makeDeposit(request);
+
+        // then
+        assertEquals("PENDING", response.getTransactionStatus());
+        verify(transactionService, times(1)).processTransaction(updated, request, TransactionStatus.PENDING, TransactionType.DEPOSIT);
+    }
+
+    @Test
+    @DisplayName("makeDeposit in conditional update mode throws exception when wallet does not exist")
+    void makeDepositInConditionalModeThrowsExceptionWhenWalletDoesNotExist() {
+        // given
+        PaymentRequest request = PaymentRequest.builder()
+                .walletId(99L)
+                .amount(Money.of(500))
+                .build();
+        when(walletRepository.addToBalance(eq(99L), any(), any(), any(), any())).thenReturn(0);
+        when(walletRepository.findById(99L)).thenReturn(Optional.empty());
+
+        // when
+        WalletNotFoundException exception = assertThrows(WalletNotFoundException.class, () -> conditionalWalletService.makeDeposit(request));
+
+        // then
+        assertEquals("Wallet not found", exception.getMessage());
+        verify(transactionService, never()).processTransaction(any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("makeWithdraw in conditional update mode reports insufficient balance when no row matches")
+    void makeWithdrawInConditionalModeReportsInsufficientBalance() {
+        // given
+        PaymentRequest request = PaymentRequest.builder()
+                .walletId(1L)
+                .amount(Money.of(500))
+                .build();
+        Wallet wallet = new Wallet();
+        wallet.setId(1L);
+        wallet.setActiveForWithdraw(true);
+        when(walletRepository.subtractFromBalanceIfAvailable(eq(1L), any(), any(), any(), any())).thenReturn(0);
+        when(walletRepository.findById(1L)).thenReturn(Optional.of(wallet));
+
+        // when
+        InsufficientBalanceException exception = assertThrows(InsufficientBalanceException.class, () -> conditionalWalletService.makeWithdraw(request));
+
+        // then
+        assertEquals("Insufficient balance for withdrawal", exception.getMessage());
+        verify(transactionService, never()).processTransaction(any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("makeWithdraw rejects a withdrawal over the wallet velocity limit before touching the database")
+    void makeWithdrawRejectsWithdrawalOverVelocityLimit() {
+        // given
+        VelocityLimitProperties.Limit limit = new VelocityLimitProperties.Limit();
+        limit.setMaxAmount(BigDecimal.valueOf(100));
+        VelocityLimitProperties velocityLimitProperties = new VelocityLimitProperties();
+        velocityLimitProperties.setEnabled(true);
+        velocityLimitProperties.getWallet().put(TransactionType.WITHDRAW, limit);
+        WalletServiceImpl limitedWalletService = newWalletService(LockingMode.CONDITIONAL_UPDATE, velocityLimitProperties);
+        PaymentRequest request = PaymentRequest.builder()
+                .walletId(1L)
+                .amount(Money.of(500))
+                .build();
+
+        // when
+        VelocityLimitExceededException exception = assertThrows(VelocityLimitExceededException.class,
+                () -> limitedWalletService.makeWithdraw(request));
+
+        // then
+        assertEquals("Wallet withdraw limit exceeded, please retry later", exception.getMessage());
+        verifyNoInteractions(walletRepository, transactionService, customerBalanceService);
+    }
+
+    @Test
+    @DisplayName("makeWithdraw stops counting a rejected withdrawal against the velocity limit")
+    void makeWithdrawReleasesVelocityLimitOfRejectedWithdrawal() {
+        // given
+        VelocityLimitProperties.Limit limit = new VelocityLimitProperties.Limit();
+        limit.setMaxCount(1L);
+        VelocityLimitProperties velocityLimitProperties = new VelocityLimitProperties();
+        velocityLimitProperties.setEnabled(true);
+        velocityLimitProperties.getWallet().put(TransactionType.WITHDRAW, limit);
+        WalletServiceImpl limitedWalletService = newWalletService(LockingMode.CONDITIONAL_UPDATE, velocityLimitProperties);
+        PaymentRequest request = PaymentRequest.builder()
+                .walletId(1L)
+                .amount(Money.of(500))
+                .build();
+        Wallet wallet = new Wallet();
+        wallet.setId(1L);
+        wallet.setActiveForWithdraw(true);
+        when(walletRepository.subtractFromBalanceIfAvailable(eq(1L), any(), any(), any(), any())).thenReturn(0);
+        when(walletRepository.findById(1L)).thenReturn(Optional.of(wallet));
+
+        // when
+        assertThrows(InsufficientBalanceException.class, () -> limitedWalletService.makeWithdraw(request));
+        InsufficientBalanceException exception = assertThrows(InsufficientBalanceException.class,
+                () -> limitedWalletService.makeWithdraw(request));
+
+        // then
+        assertEquals("Insufficient balance for withdrawal", exception.getMessage());
+        verify(walletRepository, times(2)).subtractFromBalanceIfAvailable(eq(1L), any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("makeWithdraw in conditional update mode reports withdraw not allowed for inactive wallets")
+    void makeWithdrawInConditionalModeReportsWithdrawNotAllowed() {
+        // given
+        PaymentRequest request = PaymentRequest.builder()
+                .walletId(1L)
+                .amount(Money.of(500))
+                .build();
+        Wallet wallet = new Wallet();
+        wallet.setId(1L);
+        wallet.setActiveForWithdraw(false);
+        when(walletRepository.subtractFromBalanceIfAvailable(eq(1L), any(), any(), any(), any())).thenReturn(0);
+        when(walletRepository.findById(1L)).thenReturn(Optional.of(wallet));
+
+        // when
+        WithdrawNotAllowedException exception = assertThrows(WithdrawNotAllowedException.class, () -> conditionalWalletService.makeWithdraw(request));
+
+        // then
+        assertEquals("Withdraw is not allowed for this wallet", exception.getMessage());
+        verify(transactionService, never()).processTransaction(any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("makeDeposit in ledger mode appends an entry without updating the wallet")
+    void makeDepositInLedgerModeAppendsEntryWithoutUpdatingWallet() {
+        // given
+        PaymentRequest request = PaymentRequest.builder()
+                .walletId(1L)
+                .amount(Money.of(500))
+                .build();
+        Wallet wallet = new Wallet();
+        wallet.setId(1L);
+        wallet.setCurrency(Currency.EUR);
+        Transaction transaction = new Transaction();
+        LedgerBalance current = new LedgerBalance(7, BigDecimal.valueOf(1000), BigDecimal.valueOf(1000));
+        LedgerBalance next = new LedgerBalance(8, BigDecimal.valueOf(1500), BigDecimal.valueOf(1500));
+        when(walletRepository.findById(1L)).thenReturn(Optional.of(wallet));
+        when(ledgerService.currentBalance(wallet)).thenReturn(current);
+        when(transactionService.processTransaction(wallet, request, TransactionStatus.APPROVED, TransactionType.DEPOSIT))
+                .thenReturn(transaction);
+        when(ledgerService.append(wallet, current, transaction, new BigDecimal("500.0000"), new BigDecimal("500.0000"))).thenReturn(next);
+
+        // when
+        PaymentResponse response = ledgerWalletService.makeDeposit(request);
+
+        // then
+        assertEquals(Money.of(1500), response.getTotalBalance());
+        assertEquals(Money.of(1500), response.getUsableBalance());
+        assertEquals("APPROVED", response.getTransactionStatus());
+        verify(walletRepository, never()).save(any());
+        verifyNoInteractions(customerBalanceService);
+    }
+
+    @Test
+    @DisplayName("makeWithdraw in ledger mode checks the ledger balance rather than the wallet row")
+    void makeWithdrawInLedgerModeChecksLedgerBalance() {
+        // given
+        PaymentRequest request = PaymentRequest.builder()
+                .walletId(1L)
+                .amount(Money.of(500))
+                .build();
+        Wallet wallet = new Wallet();
+        wallet.setId(1L);
+        wallet.setActiveForWithdraw(true);
+        wallet.setBalance(Money.of(1000));
+        wallet.setUsableBalance(Money.of(1000));
+        when(walletRepository.findById(1L)).thenReturn(Optional.of(wallet));
+        when(ledgerService.currentBalance(wallet)).thenReturn(new LedgerBalance(3, BigDecimal.valueOf(400), BigDecimal.valueOf(400)));
+
+        // when
+        InsufficientBalanceException exception = assertThrows(InsufficientBalanceException.class, () -> ledgerWalletService.makeWithdraw(request));
+
+        // then
+        assertEquals("Insufficient balance for withdrawal", exception.getMessage());
+        verify(transactionService, never()).processTransaction(any(), any(), any(), any());
+        verify(ledgerService, never()).append(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("makeBatchPayments in ledger mode reads the ledger once per chunk and chains the items of a wallet")
+    void makeBatchPaymentsInLedgerModeChainsItemsOfWallet() {
+        // given
+        Wallet wallet = new Wallet();
+        wallet.setId(1L);
+        wallet.setCurrency(Currency.TRY);
+        wallet.setActiveForWithdraw(true);
+        LedgerBalance start = new LedgerBalance(0, BigDecimal.valueOf(100), BigDecimal.valueOf(100));
+        LedgerBalance afterDeposit = new LedgerBalance(1, BigDecimal.valueOf(150), BigDecimal.valueOf(150));
+        LedgerBalance afterWithdraw = new LedgerBalance(2, BigDecimal.valueOf(30), BigDecimal.valueOf(30));
+        when(walletRepository.findAllById(any())).thenReturn(List.of(wallet));
+        when(ledgerService.currentBalances(List.of(wallet))).thenReturn(Map.of(1L, start));
+        when(ledgerService.append(eq(wallet), eq(start), any(), eq(new BigDecimal("50.0000")), eq(new BigDecimal("50.0000")))).thenReturn(afterDeposit);
+        when(ledgerService.append(eq(wallet), eq(afterDeposit), any(), eq(new BigDecimal("-120.0000")), eq(new BigDecimal("-120.0000")))).thenReturn(afterWithdraw);
+        BatchPaymentRequest request = BatchPaymentRequest.builder()
+                .items(List.of(
+                        batchItem(TransactionType.DEPOSIT, 1L, 50),
+                        batchItem(TransactionType.WITHDRAW, 1L, 500),
+                        batchItem(TransactionType.WITHDRAW, 1L, 120)))
+                .build();
+
+        // when
+        BatchPaymentResponse response = ledgerWalletService.makeBatchPayments(request);
+
+        // then
+        assertEquals(2, response.getSucceeded());
+        assertEquals("Insufficient balance for withdrawal", response.getResults().get(1).getError());
+        assertEquals(Money.of(30), response.getResults().get(2).getPayment().getTotalBalance());
+        verify(ledgerService, times(1)).currentBalances(List.of(wallet));
+        verifyNoInteractions(customerBalanceService);
+    }
+
+    @Test
+    @DisplayName("makeBatchPayments applies items in order and reports rejected items without failing the batch")
+    void makeBatchPaymentsAppliesItemsInOrderAndReportsRejectedItems() {
+        // given
+        Wallet wallet = new Wallet();
+        wallet.setId(1L);
+        wallet.setBalance(Money.of(100));
+        wallet.setUsableBalance(Money.of(100));
+        wallet.setCurrency(Currency.TRY);
+        wallet.setActiveForWithdraw(true);
+        wallet.setCustomer(customer(7L));
+        when(walletRepository.findAllById(any())).thenReturn(List.of(wallet));
+        BatchPaymentRequest request = BatchPaymentRequest.builder()
+                .items(List.of(
+                        batchItem(TransactionType.DEPOSIT, 1L, 50),
+                        batchItem(TransactionType.WITHDRAW, 1L, 500),
+                        batchItem(TransactionType.WITHDRAW, 2L, 10),
+                        batchItem(TransactionType.WITHDRAW, 1L, 120)))
+                .build();
+
+        // when
+        BatchPaymentResponse response = walletService.makeBatchPayments(request);
+
+        // then
+        assertEquals(4, response.getTotal());
+        assertEquals(2, response.getSucceeded());
+        assertEquals(2, response.getFailed());
+        assertTrue(response.getResults().get(0).isSucceeded());
+        assertEquals(Money.of(150), response.getResults().get(0).getPayment().getTotalBalance());
+        assertEquals("Insufficient balance for withdrawal", response.getResults().get(1).getError());
+        assertEquals("Wallet not found", response.getResults().get(2).getError());
+        assertEquals(Money.of(30), response.getResults().get(3).getPayment().getUsableBalance());
+        assertEquals(Money.of(30), wallet.getBalance());
+        verify(walletRepository, times(1)).findAllById(any());
+        verify(transactionService, times(2)).processTransaction(eq(wallet), any(), eq(TransactionStatus.APPROVED), any());
+        verify(customerBalanceService, times(1)).applyChanges(List.of(
+                new BalanceChange(7L, Currency.TRY, new BigDecimal("50.0000"), new BigDecimal("50.0000")),
+                new BalanceChange(7L, Currency.TRY, new BigDecimal("-120.0000"), new BigDecimal("-120.0000"))));
+    }
+
+    @Test
+    @DisplayName("makeBatchPayments loads wallets once per chunk")
+    void makeBatchPaymentsLoadsWalletsOncePerChunk() {
+        // given
+        batchPaymentProperties.setChunkSize(2);
+        Wallet wallet = new Wallet();
+        wallet.setId(1L);
+        wallet.setBalance(Money.ZERO);
+        wallet.setUsableBalance(Money.ZERO);
+        wallet.setCurrency(Currency.TRY);
+        wallet.setCustomer(customer(7L));
+        when(walletRepository.findAllById(any())).thenReturn(List.of(wallet));
+        BatchPaymentRequest request = BatchPaymentRequest.builder()
+                .items(List.of(
+                        batchItem(TransactionType.DEPOSIT, 1L, 10),
+                        batchItem(TransactionType.DEPOSIT, 1L, 10),
+                        batchItem(TransactionType.DEPOSIT, 1L, 10),
+                        batchItem(TransactionType.DEPOSIT, 1L, 10),
+                        batchItem(TransactionType.DEPOSIT, 1L, 10)))
+                .build();
+
+        // when
+        BatchPaymentResponse response = walletService.makeBatchPayments(request);
+
+        // then
+        assertEquals(5, response.getSucceeded());
+        assertEquals(Money.of(50), wallet.getBalance());
+        verify(walletRepository, times(3)).findAllById(any());
+    }
+
+    private static BatchPaymentItem batchItem(TransactionType type, Long walletId, long amount) {
+        return BatchPaymentItem.builder()
+                .type(type)
+                .walletId(walletId)
+                .amount(Money.of(amount))
+                .build();
+    }
+
+    private static Customer customer(Long id) {
+        Customer customer = new Customer();
+        customer.setId(id);
+        return customer;
+    }
+
+    private static CreateWalletResponse wallet(Long id, String balance) {
+        return CreateWalletResponse.builder()
+                .walletId(id)
+                .currency("TRY")
+                .balance(Money.parse(balance))
+                .build();
     }
 
+    private WalletServiceImpl newWalletService(LockingMode lockingMode) {
+        return newWalletService(lockingMode, new VelocityLimitProperties());
+    }
+
+    private WalletServiceImpl newWalletService(LockingMode lockingMode, VelocityLimitProperties velocityLimitProperties) {
+        PaymentEngineProperties properties = new PaymentEngineProperties();
+        properties.setLockingMode(lockingMode);
+        PaymentEngine paymentEngine = new PaymentEngine(mock(PlatformTransactionManager.class), new RetryExecutor(properties), properties);
+        return new WalletServiceImpl(walletRepository, customerRepository, transactionService, walletMapper, paymentEngine, batchPaymentProperties,
+                walletOwnershipIndex, new WalletSearchProperties(), customerBalanceService, ledgerService, paymentJournal,
+                new PaymentCoalescer(properties), new VelocityLimiter(velocityLimitProperties, walletOwnershipIndex), paymentMetrics);
+    }
 }
@@ -0,0 +1,185 @@
+package com.inghubs.walletservice.service.journal;
+
+import com.inghubs.walletservice.model.dto.Money;
+import com.inghubs.walletservice.model.dto.enums.Currency;
+import com.inghubs.walletservice.model.dto.enums.OppositePartyType;
+import com.inghubs.walletservice.model.dto.enums.TransactionStatus;
+import com.inghubs.walletservice.model.dto.enums.TransactionType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JournalLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("appended records are acknowledged in groups and recovered in order after reopening")
+    void recordsAreGroupCommittedAndRecovered() throws Exception {
+        // given
+        List<JournalEntry> durable = new CopyOnWriteArrayList<>();
+        JournalLog log = JournalLog.open(directory, 1 << 20, 10, Duration.ofMillis(200), 0);
+        log.start(durable::addAll);
+
+        // when
+        List<CompletableFuture<Long>> acknowledgements = new ArrayList<>();
+        for (int i = 1; i <= 100; i++) {
+            acknowledgements.add(log.append(record(i)));
+        }
+        for (CompletableFuture<Long> acknowledgement : acknowledgements) {
+            acknowledgement.get(5, TimeUnit.SECONDS);
+        }
+        log.close();
+        List<JournalEntry> recovered = recover(JournalLog.open(directory, 1 << 20, 10, Duration.ofMillis(200), 0), 0);
+
+        // then
+        // every group but the last one waits for at least ten records
+        assertTrue(log.groupCommits() <= 10, "group commits: " + log.groupCommits());
+        assertEquals(100, durable.size());
+        assertEquals(durable, recovered);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i + 1, recovered.get(i).sequence());
+            assertEquals(Money.of(i + 1), recovered.get(i).record().amount());
+        }
+    }
+
+    @Test
+    @DisplayName("a group commit is triggered by the latency bound when the group does not fill up")
+    void groupCommitIsTriggeredByLatency() throws Exception {
+        // given
+        JournalLog log = JournalLog.open(directory, 1 << 20, 1_000, Duration.ofMillis(5), 0);
+        log.start(entries -> { });
+
+        // when
+        long sequence = log.append(record(1)).get(5, TimeUnit.SECONDS);
+        log.close();
+
+        // then
+        assertEquals(1, sequence);
+        assertEquals(1, log.groupCommits());
+    }
+
+    @Test
+    @DisplayName("a torn last record is discarded and its sequence is reused by the next append")
+    void tornRecordIsDiscarded() throws Exception {
+        // given
+        JournalLog log = JournalLog.open(directory, 1 << 20, 1, Duration.ZERO, 0);
+        log.start(entries -> { });
+        for (int i = 1; i <= 5; i++) {
+            log.append(record(i)).get(5, TimeUnit.SECONDS);
+        }
+        log.close();
+        tearLastRecord(segments().get(0));
+
+        // when
+        JournalLog reopened = JournalLog.open(directory, 1 << 20, 1, Duration.ZERO, 0);
+        List<JournalEntry> recovered = recover(reopened, 0);
+        reopened.start(entries -> { });
+        long next = reopened.append(record(6)).get(5, TimeUnit.SECONDS);
+        reopened.close();
+
+        // then
+        assertEquals(4, recovered.size());
+        assertEquals(5, next);
+        List<JournalEntry> afterwards = recover(JournalLog.open(directory, 1 << 20, 1, Duration.ZERO, 0), 0);
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), afterwards.stream().map(JournalEntry::sequence).toList());
+        assertEquals(Money.of(6), afterwards.get(4).record().amount());
+    }
+
+    @Test
+    @DisplayName("full segments roll over and are deleted once their records are applied")
+    void segmentsRollAndAreReleased() throws Exception {
+        // given
+        JournalLog log = JournalLog.open(directory, 1_024, 1, Duration.ZERO, 0);
+        log.start(entries -> { });
+        for (int i = 1; i <= 60; i++) {
+            log.append(record(i)).get(5, TimeUnit.SECONDS);
+        }
+        int rolled = segments().size();
+
+        // when
+        log.release(40);
+        int released = segments().size();
+        log.close();
+        JournalLog reopened = JournalLog.open(directory, 1_024, 1, Duration.ZERO, 40);
+        List<JournalEntry> unapplied = recover(reopened, 40);
+
+        // then
+        assertTrue(rolled > 5, "segments: " + rolled);
+        assertTrue(released < rolled, "segments after release: " + released);
+        assertEquals(20, unapplied.size());
+        assertEquals(41, unapplied.get(0).sequence());
+        assertEquals(60, reopened.lastSequence());
+        reopened.close();
+    }
+
+    @Test
+    @DisplayName("sequences continue after the applied sequence when no segment is left")
+    void sequencesContinueAfterAppliedSequence() throws Exception {
+        // given
+        JournalLog log = JournalLog.open(directory, 1 << 20, 1, Duration.ZERO, 250);
+        log.start(entries -> { });
+
+        // when
+        long sequence = log.append(record(1)).get(5, TimeUnit.SECONDS);
+        log.close();
+
+        // then
+        assertEquals(251, sequence);
+    }
+
+    private static List<JournalEntry> recover(JournalLog log, long after) {
+        List<JournalEntry> entries = new ArrayList<>();
+        log.forEachAfter(after, entries::add);
+        return entries;
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    /**
+     * Flips the last byte of the last record, as a crash between two pages of the record would.
+     */
+    private static void tearLastRecord(Path segment) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            long end = 0;
+            while (true) {
+                file.seek(end);
+                int length = file.readInt();
+                if (length == 0) {
+                    break;
+                }
+                end += 16 + length;
+            }
+            file.seek(end - 1);
+            int last = file.read();
+            file.seek(end - 1);
+            file.write(last ^ 0xFF);
+        }
+    }
+
+    private static JournalRecord record(long amount) {
+        return new JournalRecord(1L, 1L, Currency.TRY, null, TransactionType.DEPOSIT, Money.of(amount),
+                OppositePartyType.IBAN, "TR1234567890987654321", TransactionStatus.APPROVED,
+                Money.of(amount), Money.of(amount), "customer1", LocalDateTime.of(2025, 1, 1, 12, 0));
+    }
+}
@@ -0,0 +1,292 @@
+package com.inghubs.walletservice.service.journal;
+
+import com.inghubs.walletservice.exception.InsufficientBalanceException;
+import com.inghubs.walletservice.model.dto.BatchPaymentItem;
+import com.inghubs.walletservice.model.dto.BatchPaymentRequest;
+import com.inghubs.walletservice.model.dto.BatchPaymentResponse;
+import com.inghubs.walletservice.model.dto.BatchPaymentResult;
+import com.inghubs.walletservice.model.dto.CreateWalletRequest;
+import com.inghubs.walletservice.model.dto.Money;
+import com.inghubs.walletservice.model.dto.PaymentRequest;
+import com.inghubs.walletservice.model.dto.PaymentResponse;
+import com.inghubs.walletservice.model.dto.TransactionApprovalRequest;
+import com.inghubs.walletservice.model.dto.enums.Currency;
+import com.inghubs.walletservice.model.dto.enums.OppositePartyType;
+import com.inghubs.walletservice.model.dto.enums.TransactionStatus;
+import com.inghubs.walletservice.model.dto.enums.TransactionType;
+import com.inghubs.walletservice.service.TransactionService;
+import com.inghubs.walletservice.service.WalletService;
+import com.inghubs.walletservice.support.SqlStatementCounter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs concurrent journaled deposits, withdrawals, batches and approvals, then checks that once the journal
+ * is applied every wallet row agrees with its transactions and every balance summary row with its wallets,
+ * that the applier writes a wallet row once per group of records rather than once per payment, and that a
+ * wallet evicted from memory once its records are applied is reloaded with all of them.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:payment-journal",
+        "wallet.journal.enabled=true",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.inghubs.walletservice.support.SqlStatementCounter"
+})
+class PaymentJournalConsistencyTest {
+
+    private static final int THREADS = 6;
+    private static final int OPS_PER_THREAD = 60;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private PaymentJournal paymentJournal;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void journalDirectory(DynamicPropertyRegistry registry) {
+        try {
+            String directory = Files.createTempDirectory("payment-journal").toString();
+            registry.add("wallet.journal.directory", () -> directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Test
+    @DisplayName("applied journal agrees with transactions and balance summaries after concurrent payments")
+    void appliedJournalIsConsistentAfterConcurrentPayments() throws Exception {
+        // given
+        List<Long> walletIds = new ArrayList<>();
+        for (long customerId = 1; customerId <= 2; customerId++) {
+            for (Currency currency : List.of(Currency.EUR, Currency.TRY)) {
+                walletIds.add(createWallet(customerId, "Journaled " + currency, currency));
+            }
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean paying = new AtomicBoolean(true);
+        List<Future<?>> payers = new ArrayList<>();
+
+        // when
+        for (int t = 0; t < THREADS; t++) {
+            SplittableRandom random = new SplittableRandom(t);
+            payers.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < OPS_PER_THREAD; i++) {
+                    Long walletId = walletIds.get(random.nextInt(walletIds.size()));
+                    try {
+                        switch (random.nextInt(4)) {
+                            case 0 -> walletService.makeDeposit(payment(walletId, 10 + random.nextInt(90)));
+                            case 1 -> walletService.makeDeposit(payment(walletId, 1_001 + random.nextInt(500)));
+                            case 2 -> walletService.makeWithdraw(payment(walletId, 1 + random.nextInt(60)));
+                            default -> walletService.makeBatchPayments(BatchPaymentRequest.builder()
+                                    .items(List.of(
+                                            batchItem(TransactionType.DEPOSIT, walletIds.get(random.nextInt(walletIds.size())), 25),
+                                            batchItem(TransactionType.WITHDRAW, walletId, 1_200),
+                                            batchItem(TransactionType.WITHDRAW, walletIds.get(random.nextInt(walletIds.size())), 5)))
+                                    .build());
+                        }
+                    } catch (RuntimeException ignored) {
+                        // withdrawals may legitimately exceed the balance
+                    }
+                }
+                return null;
+            }));
+        }
+        Future<?> approver = executor.submit(() -> {
+            start.await();
+            SplittableRandom random = new SplittableRandom(THREADS);
+            while (paying.get()) {
+                // the database lags the journal, so a transaction is usually seen pending after its decision
+                for (Long transactionId : jdbcTemplate.queryForList(
+                        "select id from transaction where status = 'PENDING' order by id", Long.class)) {
+                    TransactionApprovalRequest request = new TransactionApprovalRequest();
+                    request.setTransactionId(transactionId);
+                    request.setStatus(random.nextBoolean() ? TransactionStatus.APPROVED : TransactionStatus.DENIED);
+                    transactionService.approveTransaction(request);
+                }
+            }
+            return null;
+        });
+        start.countDown();
+        for (Future<?> payer : payers) {
+            payer.get(120, TimeUnit.SECONDS);
+        }
+        paying.set(false);
+        approver.get(120, TimeUnit.SECONDS);
+        executor.shutdown();
+        assertTrue(paymentJournal.awaitApplied(30_000));
+
+        // then
+        for (Long walletId : walletIds) {
+            Map<String, Object> wallet = jdbcTemplate.queryForMap(
+                    "select balance, usable_balance from wallet where id = ?", walletId);
+            Map<String, Object> transactions = jdbcTemplate.queryForMap("""
+                    select coalesce(sum(case when type = 'DEPOSIT' then amount else -amount end), 0) balance,
+                           coalesce(sum(case when status <> 'APPROVED' then 0
+                                             when type = 'DEPOSIT' then amount else -amount end), 0) usable_balance
+                    from transaction where wallet_id = ?
+                    """, walletId);
+            assertEquals(0, ((BigDecimal) transactions.get("BALANCE")).compareTo((BigDecimal) wallet.get("BALANCE")));
+            assertEquals(0, ((BigDecimal) transactions.get("USABLE_BALANCE")).compareTo((BigDecimal) wallet.get("USABLE_BALANCE")));
+        }
+        List<Map<String, Object>> walletSums = jdbcTemplate.queryForList("""
+                select w.customer_id, w.currency, sum(w.balance) balance, sum(w.usable_balance) usable_balance
+                from wallet w
+                where w.customer_id in (1, 2)
+                group by w.customer_id, w.currency
+                order by w.customer_id, w.currency
+                """);
+        List<Map<String, Object>> summaries = jdbcTemplate.queryForList("""
+                select b.customer_id, b.currency, b.balance, b.usable_balance
+                from customer_balance b
+                where b.customer_id in (1, 2)
+                order by b.customer_id, b.currency
+                """);
+        assertFalse(walletSums.isEmpty());
+        assertEquals(walletSums.size(), summaries.size());
+        for (int i = 0; i < walletSums.size(); i++) {
+            Map<String, Object> expected = walletSums.get(i);
+            Map<String, Object> actual = summaries.get(i);
+            String row = expected.get("CUSTOMER_ID") + "/" + expected.get("CURRENCY");
+            assertEquals(0, ((BigDecimal) expected.get("BALANCE")).compareTo((BigDecimal) actual.get("BALANCE")), row);
+            assertEquals(0, ((BigDecimal) expected.get("USABLE_BALANCE")).compareTo((BigDecimal) actual.get("USABLE_BALANCE")), row);
+        }
+
+        // a journaled response reports the balance the database reaches once the journal is applied
+        for (Long walletId : walletIds) {
+            PaymentResponse response = walletService.makeDeposit(payment(walletId, 1));
+            assertTrue(paymentJournal.awaitApplied(30_000));
+            BigDecimal balance = jdbcTemplate.queryForObject("select balance from wallet where id = ?", BigDecimal.class, walletId);
+            assertEquals(0, response.getTotalBalance().compareTo(Money.of(balance)));
+        }
+    }
+
+    @Test
+    @DisplayName("the applier writes a wallet row once per group of journaled payments")
+    void applierCoalescesWalletUpdates() throws Exception {
+        // given
+        Long walletId = createWallet(1L, "Coalesced", Currency.USD);
+        int payments = 50;
+        List<BatchPaymentItem> items = Collections.nCopies(payments, batchItem(TransactionType.DEPOSIT, walletId, 2));
+
+        // when
+        SqlStatementCounter.reset();
+        BatchPaymentResponse response = walletService.makeBatchPayments(BatchPaymentRequest.builder().items(items).build());
+        assertTrue(paymentJournal.awaitApplied(30_000));
+        List<String> statements = SqlStatementCounter.statements();
+
+        // then
+        assertEquals(payments, response.getResults().stream().filter(BatchPaymentResult::isSucceeded).count());
+        long walletUpdates = statements.stream()
+                .filter(sql -> sql.toLowerCase(Locale.ROOT).matches("(?s)^\\s*update\\s+wallet\\b.*"))
+                .count();
+        assertTrue(walletUpdates < payments, () -> walletUpdates + " wallet updates:\n" + String.join("\n", statements));
+        assertEquals(payments, jdbcTemplate.queryForObject(
+                "select count(*) from transaction where wallet_id = ?", Integer.class, walletId));
+        assertEquals(0, BigDecimal.valueOf(2L * payments).compareTo(jdbcTemplate.queryForObject(
+                "select balance from wallet where id = ?", BigDecimal.class, walletId)));
+        IntStream.range(0, payments).forEach(i ->
+                assertEquals(0, Money.of(2L * (i + 1)).compareTo(response.getResults().get(i).getPayment().getTotalBalance())));
+    }
+
+    @Test
+    @DisplayName("a wallet evicted once its records are applied is reloaded without losing or repeating a payment")
+    void evictedWalletIsReloadedWithEveryAppliedPayment() throws Exception {
+        // given
+        Long walletId = createWallet(2L, "Evicted", Currency.USD);
+        walletService.makeDeposit(payment(walletId, 100));
+        walletService.makeDeposit(payment(walletId, 2_000));
+        assertTrue(paymentJournal.awaitApplied(30_000));
+        assertFalse(paymentJournal.holdsWallet(walletId));
+        Long pendingId = jdbcTemplate.queryForObject(
+                "select id from transaction where wallet_id = ? and status = 'PENDING'", Long.class, walletId);
+
+        // when
+        TransactionApprovalRequest approval = new TransactionApprovalRequest();
+        approval.setTransactionId(pendingId);
+        approval.setStatus(TransactionStatus.APPROVED);
+        transactionService.approveTransaction(approval);
+        assertTrue(paymentJournal.awaitApplied(30_000));
+        assertFalse(paymentJournal.holdsWallet(walletId));
+        walletService.makeWithdraw(payment(walletId, 1_000));
+        assertTrue(paymentJournal.awaitApplied(30_000));
+        walletService.makeWithdraw(payment(walletId, 1_000));
+        PaymentResponse withdraw = walletService.makeWithdraw(payment(walletId, 100));
+        assertTrue(paymentJournal.awaitApplied(30_000));
+
+        // then
+        assertEquals(Money.ZERO, withdraw.getTotalBalance());
+        assertThrows(InsufficientBalanceException.class, () -> walletService.makeWithdraw(payment(walletId, 1)));
+        assertTrue(paymentJournal.awaitApplied(30_000));
+        Map<String, Object> wallet = jdbcTemplate.queryForMap(
+                "select balance, usable_balance from wallet where id = ?", walletId);
+        assertEquals(0, BigDecimal.ZERO.compareTo((BigDecimal) wallet.get("BALANCE")));
+        assertEquals(0, BigDecimal.ZERO.compareTo((BigDecimal) wallet.get("USABLE_BALANCE")));
+        assertEquals(5, jdbcTemplate.queryForObject(
+                "select count(*) from transaction where wallet_id = ?", Integer.class, walletId));
+    }
+
+    private Long createWallet(long customerId, String name, Currency currency) {
+        return walletService.createWallet(CreateWalletRequest.builder()
+                .customerId(customerId)
+                .walletName(name)
+                .currency(currency)
+                .activeForShopping(true)
+                .activeForWithdraw(true)
+                .build()).getWalletId();
+    }
+
+    private static PaymentRequest payment(Long walletId, long amount) {
+        return PaymentRequest.builder()
+                .walletId(walletId)
+                .amount(Money.of(amount))
+                .source(OppositePartyType.IBAN)
+                .oppositeParty("TR1234567890987654321")
+                .build();
+    }
+
+    private static BatchPaymentItem batchItem(TransactionType type, Long walletId, long amount) {
+        return BatchPaymentItem.builder()
+                .type(type)
+                .walletId(walletId)
+                .amount(Money.of(amount))
+                .source(OppositePartyType.IBAN)
+                .oppositeParty("TR1234567890987654321")
+                .build();
+    }
+}
@@ -0,0 +1,187 @@
+package com.inghubs.walletservice.service.journal;
+
+import com.inghubs.walletservice.InghubsWalletServiceApplication;
+import com.inghubs.walletservice.model.dto.BatchPaymentItem;
+import com.inghubs.walletservice.model.dto.BatchPaymentRequest;
+import com.inghubs.walletservice.model.dto.BatchPaymentResponse;
+import com.inghubs.walletservice.model.dto.CreateWalletRequest;
+import com.inghubs.walletservice.model.dto.Money;
+import com.inghubs.walletservice.model.dto.PaymentRequest;
+import com.inghubs.walletservice.model.dto.enums.Currency;
+import com.inghubs.walletservice.model.dto.enums.OppositePartyType;
+import com.inghubs.walletservice.model.dto.enums.TransactionType;
+import com.inghubs.walletservice.service.WalletService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Kills a node that is taking journaled payments and checks that a restarted node replays the journal into
+ * the database exactly once: every acknowledged payment is there, none is written twice, and the wallet,
+ * its transactions, the balance summary and the journal checkpoint agree.
+ */
+class PaymentJournalRecoveryTest {
+
+    private static final int PAYERS = 8;
+    private static final int BATCH_SIZE = 10;
+    private static final long ACKNOWLEDGED_BEFORE_CRASH = 500;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("acknowledged payments survive a crash and are applied exactly once after restart")
+    void acknowledgedPaymentsSurviveCrash() throws Exception {
+        // given
+        String database = "jdbc:h2:file:" + directory.resolve("wallet") + ";FILE_LOCK=NO";
+        Path journal = directory.resolve("journal");
+        Process node = new ProcessBuilder(Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", System.getProperty("java.class.path"), CrashingNode.class.getName(), database, journal.toString())
+                .redirectErrorStream(true)
+                .start();
+        CompletableFuture<Long> walletId = new CompletableFuture<>();
+        AtomicLong acknowledged = new AtomicLong();
+        Thread reader = Thread.ofPlatform().daemon().start(() -> readOutput(node, walletId, acknowledged));
+
+        // when
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(3);
+        while (acknowledged.get() < ACKNOWLEDGED_BEFORE_CRASH && node.isAlive() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(node.isAlive(), "the node exited before the crash");
+        node.destroyForcibly().waitFor(30, TimeUnit.SECONDS);
+        reader.join(TimeUnit.SECONDS.toMillis(10));
+        long acknowledgedBeforeCrash = acknowledged.get();
+        Long wallet = walletId.getNow(null);
+
+        // then
+        assertTrue(acknowledgedBeforeCrash >= ACKNOWLEDGED_BEFORE_CRASH, "acknowledged: " + acknowledgedBeforeCrash);
+        try (ConfigurableApplicationContext restarted = start(database, journal, false)) {
+            PaymentJournal paymentJournal = restarted.getBean(PaymentJournal.class);
+            JdbcTemplate jdbcTemplate = restarted.getBean(JdbcTemplate.class);
+            assertTrue(paymentJournal.replayedRecords() > 0, "nothing was replayed");
+
+            long transactions = jdbcTemplate.queryForObject(
+                    "select count(*) from transaction where wallet_id = ?", Long.class, wallet);
+            BigDecimal balance = jdbcTemplate.queryForObject(
+                    "select balance from wallet where id = ?", BigDecimal.class, wallet);
+            assertTrue(transactions >= acknowledgedBeforeCrash, transactions + " < " + acknowledgedBeforeCrash);
+            assertEquals(0, BigDecimal.valueOf(transactions).compareTo(balance));
+            assertEquals(transactions, paymentJournal.appliedSequence());
+            Map<String, Object> summary = jdbcTemplate.queryForMap("""
+                    select b.balance, (select sum(w.balance) from wallet w
+                                       where w.customer_id = b.customer_id and w.currency = b.currency) wallets
+                    from customer_balance b
+                    where b.customer_id = 1 and b.currency = 'USD'
+                    """);
+            assertEquals(0, ((BigDecimal) summary.get("WALLETS")).compareTo((BigDecimal) summary.get("BALANCE")));
+
+            BigDecimal after = restarted.getBean(WalletService.class).makeDeposit(payment(wallet)).getTotalBalance().toBigDecimal();
+            assertEquals(0, balance.add(BigDecimal.ONE).compareTo(after));
+        }
+    }
+
+    private static void readOutput(Process node, CompletableFuture<Long> walletId, AtomicLong acknowledged) {
+        try (BufferedReader output = new BufferedReader(new InputStreamReader(node.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = output.readLine()) != null) {
+                if (line.startsWith("WALLET ")) {
+                    walletId.complete(Long.parseLong(line.substring("WALLET ".length())));
+                } else if (line.startsWith("ACKED ")) {
+                    acknowledged.accumulateAndGet(Long.parseLong(line.substring("ACKED ".length())), Math::max);
+                }
+            }
+        } catch (Exception ignored) {
+            // the stream breaks when the node is killed
+        }
+    }
+
+    private static ConfigurableApplicationContext start(String database, Path journal, boolean initializeSchema,
+                                                        String... properties) {
+        List<String> arguments = new ArrayList<>(List.of(
+                "--spring.datasource.url=" + database,
+                "--spring.sql.init.mode=" + (initializeSchema ? "always" : "never"),
+                "--spring.jmx.enabled=false",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN",
+                "--wallet.journal.enabled=true",
+                "--wallet.journal.directory=" + journal));
+        arguments.addAll(List.of(properties));
+        return new SpringApplicationBuilder(InghubsWalletServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(arguments.toArray(String[]::new));
+    }
+
+    private static PaymentRequest payment(Long walletId) {
+        return PaymentRequest.builder()
+                .walletId(walletId)
+                .amount(Money.of(1))
+                .source(OppositePartyType.IBAN)
+                .oppositeParty("TR1234567890987654321")
+                .build();
+    }
+
+    /**
+     * The node that is killed: it creates a wallet, then deposits into it in batches from several threads and
+     * prints the number of acknowledged payments until it is stopped. The applier writes one record per
+     * group so that a backlog of unapplied records builds up.
+     */
+    static final class CrashingNode {
+
+        public static void main(String[] args) {
+            ConfigurableApplicationContext context = start(args[0], Path.of(args[1]), true,
+                    "--wallet.journal.apply-batch-size=1");
+            WalletService walletService = context.getBean(WalletService.class);
+            Long walletId = walletService.createWallet(CreateWalletRequest.builder()
+                    .customerId(1L)
+                    .walletName("Crashing")
+                    .currency(Currency.USD)
+                    .activeForShopping(true)
+                    .activeForWithdraw(true)
+                    .build()).getWalletId();
+            // the wallet must be on disk before its payments are, as it would be on any database that syncs commits
+            context.getBean(JdbcTemplate.class).execute("CHECKPOINT SYNC");
+            System.out.println("WALLET " + walletId);
+
+            BatchPaymentItem item = BatchPaymentItem.builder()
+                    .type(TransactionType.DEPOSIT)
+                    .walletId(walletId)
+                    .amount(Money.of(1))
+                    .source(OppositePartyType.IBAN)
+                    .oppositeParty("TR1234567890987654321")
+                    .build();
+            BatchPaymentRequest request = BatchPaymentRequest.builder()
+                    .items(Collections.nCopies(BATCH_SIZE, item))
+                    .build();
+            AtomicLong acknowledged = new AtomicLong();
+            for (int t = 0; t < PAYERS; t++) {
+                Thread.ofPlatform().start(() -> {
+                    while (true) {
+                        BatchPaymentResponse response = walletService.makeBatchPayments(request);
+                        System.out.println("ACKED " + acknowledged.addAndGet(response.getSucceeded()));
+                    }
+                });
+            }
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.inghubs.walletservice.service.limit;
+
+import com.inghubs.walletservice.configuration.VelocityLimitProperties;
+import com.inghubs.walletservice.exception.VelocityLimitExceededException;
+import com.inghubs.walletservice.model.dto.Money;
+import com.inghubs.walletservice.model.dto.enums.TransactionType;
+import com.inghubs.walletservice.security.WalletOwnershipIndex;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class VelocityLimiterTest {
+
+    private final WalletOwnershipIndex walletOwnershipIndex = mock(WalletOwnershipIndex.class);
+    private final AtomicLong clock = new AtomicLong(1_000);
+
+    private long nanos() {
+        return TimeUnit.SECONDS.toNanos(clock.get());
+    }
+
+    @Test
+    @DisplayName("acquire rejects payments over the wallet count limit until they leave the window")
+    void acquireRejectsPaymentsOverCountLimitUntilWindowSlides() {
+        // given
+        VelocityLimitProperties properties = properties(Duration.ofSeconds(10));
+        properties.setBuckets(10);
+        properties.getWallet().put(TransactionType.WITHDRAW, limit(2L, null));
+        VelocityLimiter limiter = new VelocityLimiter(properties, walletOwnershipIndex, this::nanos);
+
+        // when
+        limiter.acquire(1L, TransactionType.WITHDRAW, Money.of(10));
+        clock.addAndGet(5);
+        limiter.acquire(1L, TransactionType.WITHDRAW, Money.of(10));
+        VelocityLimitExceededException exception = assertThrows(VelocityLimitExceededException.class,
+                () -> limiter.acquire(1L, TransactionType.WITHDRAW, Money.of(10)));
+        clock.addAndGet(5);
+
+        // then
+        assertEquals("Wallet withdraw limit exceeded, please retry later", exception.getMessage());
+        assertDoesNotThrow(() -> limiter.acquire(1L, TransactionType.WITHDRAW, Money.of(10)));
+        assertDoesNotThrow(() -> limiter.acquire(2L, TransactionType.WITHDRAW, Money.of(10)));
+        assertDoesNotThrow(() -> limiter.acquire(1L, TransactionType.DEPOSIT, Money.of(10)));
+    }
+
+    @Test
+    @DisplayName("acquire applies the customer amount limit across the customer's wallets")
+    void acquireAppliesCustomerAmountLimitAcrossWallets() {
+        // given
+        VelocityLimitProperties properties = properties(Duration.ofMinutes(1));
+        properties.getCustomer().put(TransactionType.DEPOSIT, limit(null, new BigDecimal("100.50")));
+        when(walletOwnershipIndex.ownerOf(1L)).thenReturn(7L);
+        when(walletOwnershipIndex.ownerOf(2L)).thenReturn(7L);
+        when(walletOwnershipIndex.ownerOf(3L)).thenReturn(8L);
+        VelocityLimiter limiter = new VelocityLimiter(properties, walletOwnershipIndex, this::nanos);
+
+        // when
+        limiter.acquire(1L, TransactionType.DEPOSIT, Money.parse("60.25"));
+        limiter.acquire(2L, TransactionType.DEPOSIT, Money.parse("40.25"));
+        VelocityLimitExceededException exception = assertThrows(VelocityLimitExceededException.class,
+                () -> limiter.acquire(2L, TransactionType.DEPOSIT, Money.parse("0.01")));
+
+        // then
+        assertEquals("Customer deposit limit exceeded, please retry later", exception.getMessage());
+        assertDoesNotThrow(() -> limiter.acquire(3L, TransactionType.DEPOSIT, Money.parse("100.50")));
+    }
+
+    @Test
+    @DisplayName("release stops counting a payment against its wallet and customer limits")
+    void releaseStopsCountingPayment() {
+        // given
+        VelocityLimitProperties properties = properties(Duration.ofMinutes(1));
+        properties.getWallet().put(TransactionType.WITHDRAW, limit(1L, null));
+        properties.getCustomer().put(TransactionType.WITHDRAW, limit(1L, null));
+        when(walletOwnershipIndex.ownerOf(1L)).thenReturn(7L);
+        when(walletOwnershipIndex.ownerOf(2L)).thenReturn(7L);
+        VelocityLimiter limiter = new VelocityLimiter(properties, walletOwnershipIndex, this::nanos);
+        VelocityPermit permit = limiter.acquire(1L, TransactionType.WITHDRAW, Money.of(1));
+        assertThrows(VelocityLimitExceededException.class, () -> limiter.acquire(2L, TransactionType.WITHDRAW, Money.of(1)));
+
+        // when
+        permit.release();
+
+        // then
+        assertDoesNotThrow(() -> limiter.acquire(2L, TransactionType.WITHDRAW, Money.of(1)));
+    }
+
+    @Test
+    @DisplayName("acquire does not count payments when velocity limits are disabled")
+    void acquireDoesNotCountWhenDisabled() {
+        // given
+        VelocityLimitProperties properties = properties(Duration.ofMinutes(1));
+        properties.setEnabled(false);
+        properties.getWallet().put(TransactionType.WITHDRAW, limit(0L, null));
+        VelocityLimiter limiter = new VelocityLimiter(properties, walletOwnershipIndex, this::nanos);
+
+        // when & then
+        assertDoesNotThrow(() -> limiter.acquire(1L, TransactionType.WITHDRAW, Money.of(10)));
+    }
+
+    @Test
+    @DisplayName("concurrent acquisitions never admit more payments than the limit")
+    void concurrentAcquisitionsNeverExceedLimit() throws Exception {
+        // given
+        VelocityLimitProperties properties = properties(Duration.ofMinutes(1));
+        properties.getWallet().put(TransactionType.DEPOSIT, limit(500L, null));
+        VelocityLimiter limiter = new VelocityLimiter(properties, walletOwnershipIndex, this::nanos);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger admitted = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        // when
+        for (int t = 0; t < 8; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 1_000; i++) {
+                    try {
+                        limiter.acquire(1L, TransactionType.DEPOSIT, Money.of(1));
+                        admitted.incrementAndGet();
+                    } catch (VelocityLimitExceededException ignored) {
+                        // expected once the limit is reached
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // then
+        assertTrue(admitted.get() <= 500, "admitted " + admitted.get());
+        assertTrue(admitted.get() > 0);
+        assertThrows(VelocityLimitExceededException.class, () -> limiter.acquire(1L, TransactionType.DEPOSIT, Money.of(1)),
+                () -> "admitted " + admitted.get());
+    }
+
+    private static VelocityLimitProperties properties(Duration window) {
+        VelocityLimitProperties properties = new VelocityLimitProperties();
+        properties.setEnabled(true);
+        properties.setWindow(window);
+        return properties;
+    }
+
+    private static VelocityLimitProperties.Limit limit(Long maxCount, BigDecimal maxAmount) {
+        VelocityLimitProperties.Limit limit = new VelocityLimitProperties.Limit();
+        limit.setMaxCount(maxCount);
+        limit.setMaxAmount(maxAmount);
+        return limit;
+    }
+}
@@ -0,0 +1,79 @@
+package com.inghubs.walletservice.service.metrics;
+
+import com.inghubs.walletservice.configuration.MetricsProperties;
+import com.inghubs.walletservice.model.dto.PendingTotal;
+import com.inghubs.walletservice.model.dto.enums.Currency;
+import com.inghubs.walletservice.repository.TransactionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+class PendingTransactionMetricsTest {
+
+    private final TransactionRepository transactionRepository = mock(TransactionRepository.class);
+    private final AtomicLong clock = new AtomicLong(1_000);
+    private final PendingTransactionMetrics metrics = new PendingTransactionMetrics(transactionRepository, properties(),
+            () -> TimeUnit.SECONDS.toNanos(clock.get()));
+
+    @Test
+    @DisplayName("gauges publish the pending count and amount of every currency from one query")
+    void gaugesPublishPendingTotalsPerCurrency() {
+        // given
+        when(transactionRepository.sumPendingByCurrency()).thenReturn(List.of(
+                new PendingTotal(Currency.EUR, 3, new BigDecimal("4500.0000")),
+                new PendingTotal(Currency.TRY, 1, new BigDecimal("1200.5000"))));
+        MeterRegistry registry = new SimpleMeterRegistry();
+        metrics.bindTo(registry);
+
+        // when
+        double eurCount = registry.get("wallet.transactions.pending").tag("currency", "EUR").gauge().value();
+        double eurAmount = registry.get("wallet.transactions.pending.amount").tag("currency", "EUR").gauge().value();
+        double tryAmount = registry.get("wallet.transactions.pending.amount").tag("currency", "TRY").gauge().value();
+        double usdCount = registry.get("wallet.transactions.pending").tag("currency", "USD").gauge().value();
+
+        // then
+        assertEquals(3, eurCount);
+        assertEquals(4500, eurAmount);
+        assertEquals(1200.5, tryAmount);
+        assertEquals(0, usdCount);
+        verify(transactionRepository, times(1)).sumPendingByCurrency();
+    }
+
+    @Test
+    @DisplayName("pendingTotal queries the totals again once the refresh interval has passed")
+    void pendingTotalRefreshesAfterInterval() {
+        // given
+        when(transactionRepository.sumPendingByCurrency())
+                .thenReturn(List.of(new PendingTotal(Currency.EUR, 3, BigDecimal.TEN)))
+                .thenReturn(List.of(new PendingTotal(Currency.EUR, 5, BigDecimal.TEN)));
+
+        // when
+        long first = metrics.pendingTotal(Currency.EUR).count();
+        clock.addAndGet(4);
+        long cached = metrics.pendingTotal(Currency.EUR).count();
+        clock.addAndGet(1);
+        long refreshed = metrics.pendingTotal(Currency.EUR).count();
+
+        // then
+        assertEquals(3, first);
+        assertEquals(3, cached);
+        assertEquals(5, refreshed);
+        verify(transactionRepository, times(2)).sumPendingByCurrency();
+    }
+
+    private static MetricsProperties properties() {
+        MetricsProperties properties = new MetricsProperties();
+        properties.setPendingRefreshInterval(Duration.ofSeconds(5));
+        return properties;
+    }
+}
@@ -0,0 +1,188 @@
+package com.inghubs.walletservice.service.metrics;
+
+import com.inghubs.walletservice.configuration.ConnectionPermitDataSource;
+import com.inghubs.walletservice.model.dto.CreateWalletRequest;
+import com.inghubs.walletservice.model.dto.CustomUserDetails;
+import com.inghubs.walletservice.model.dto.enums.Currency;
+import com.inghubs.walletservice.model.dto.enums.TransactionStatus;
+import com.inghubs.walletservice.model.entity.Transaction;
+import com.inghubs.walletservice.repository.TransactionRepository;
+import com.inghubs.walletservice.security.SessionTokenService;
+import com.inghubs.walletservice.service.WalletService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Runs deposits, wallet lists and approvals on virtual threads under the {@code virtual-threads} profile and
+ * proves that none of them blocks while pinned in application code, while a deliberately pinned thread is
+ * detected. JFR hands events to the stream about once a second, so detection is awaited.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:virtual-thread-pinning",
+        "wallet.metrics.pinning.threshold=10ms"})
+@AutoConfigureMockMvc
+@ActiveProfiles("virtual-threads")
+class VirtualThreadPinningMonitorTest {
+
+    private static final Object MONITOR = new Object();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private SessionTokenService sessionTokenService;
+
+    @Autowired
+    private VirtualThreadPinningMonitor monitor;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    @DisplayName("payments, lists and approvals on virtual threads are not pinned in application code")
+    void workloadIsNotPinnedInApplicationCode() throws Exception {
+        // given
+        List<Long> walletIds = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            walletIds.add(walletService.createWallet(CreateWalletRequest.builder()
+                    .customerId(1L)
+                    .walletName("Virtual " + i)
+                    .currency(Currency.TRY)
+                    .activeForShopping(true)
+                    .activeForWithdraw(true)
+                    .build()).getWalletId());
+        }
+        String customer = "Bearer " + token("customer1", "CUSTOMER");
+        String employee = "Bearer " + token("admin", "EMPLOYEE");
+        long before = monitor.getPinnedInApplication();
+
+        // when
+        // concurrent payments on one wallet may be answered with a conflict, but never with a server error
+        runOnVirtualThreads(200, i -> {
+            Long walletId = walletIds.get(i % walletIds.size());
+            switch (i % 4) {
+                case 0 -> assertHandled(mockMvc.perform(payment("/api/wallets/deposit", walletId, 1500, customer)));
+                case 1 -> assertHandled(mockMvc.perform(payment("/api/wallets/deposit", walletId, 300, customer)));
+                case 2 -> assertHandled(mockMvc.perform(payment("/api/wallets/withdraw", walletId, 10, customer)));
+                default -> mockMvc.perform(get("/api/wallets").param("customerId", "1")
+                                .header(HttpHeaders.AUTHORIZATION, customer))
+                        .andExpect(status().isOk());
+            }
+        });
+        List<Long> pending = transactionRepository.findAll().stream()
+                .filter(transaction -> transaction.getStatus() == TransactionStatus.PENDING
+                        && walletIds.contains(transaction.getWallet().getId()))
+                .map(Transaction::getId)
+                .toList();
+        runOnVirtualThreads(pending.size(), i -> assertHandled(mockMvc.perform(post("/api/transactions/approve")
+                .header(HttpHeaders.AUTHORIZATION, employee)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                        {"transactionId": %d, "status": "APPROVED"}
+                        """.formatted(pending.get(i))))));
+        // a park still being recorded is reported with the next flush
+        TimeUnit.SECONDS.sleep(2);
+
+        // then
+        assertTrue(monitor.isEnabled());
+        assertInstanceOf(ConnectionPermitDataSource.class, dataSource);
+        assertEquals(0, ((ConnectionPermitDataSource) dataSource).getTimeouts());
+        assertEquals(before, monitor.getPinnedInApplication());
+    }
+
+    @Test
+    @DisplayName("a virtual thread sleeping inside a synchronized block is reported as pinned in application code")
+    void pinnedVirtualThreadIsDetected() throws Exception {
+        // given
+        long before = monitor.getPinnedInApplication();
+
+        // when
+        Thread.ofVirtual().start(() -> {
+            synchronized (MONITOR) {
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }).join();
+
+        // then
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (monitor.getPinnedInApplication() == before && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(100);
+        }
+        assertEquals(before + 1, monitor.getPinnedInApplication());
+    }
+
+    private void runOnVirtualThreads(int tasks, Task task) throws Exception {
+        List<Future<?>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < tasks; i++) {
+                int index = i;
+                futures.add(executor.submit(() -> {
+                    task.run(index);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+        }
+    }
+
+    private static void assertHandled(ResultActions result) {
+        int status = result.andReturn().getResponse().getStatus();
+        assertTrue(status < 500, () -> "answered with " + status);
+    }
+
+    private static RequestBuilder payment(String path, Long walletId, int amount, String authorization) {
+        return post(path)
+                .header(HttpHeaders.AUTHORIZATION, authorization)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                        {"walletId": %d, "amount": %d, "source": "IBAN", "oppositeParty": "TR1234567890987654321"}
+                        """.formatted(walletId, amount));
+    }
+
+    private String token(String username, String role) {
+        return sessionTokenService.issue(new CustomUserDetails(1L, username, null,
+                List.of(new SimpleGrantedAuthority("ROLE_" + role)), role)).value();
+    }
+
+    @FunctionalInterface
+    private interface Task {
+        void run(int index) throws Exception;
+    }
+}
@@ -0,0 +1,62 @@
+package com.inghubs.walletservice.support;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Pattern;
+
+/**
+ * Hibernate statement inspector that records every SQL statement the application prepares.
+ * Register it with {@code spring.jpa.properties.hibernate.session_factory.statement_inspector} and
+ * call {@link #reset()} before the code under measurement.
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+        STATEMENTS.add(sql);
+        return sql;
+    }
+
+    public static void reset() {
+        STATEMENTS.clear();
+    }
+
+    public static List<String> statements() {
+        return List.copyOf(STATEMENTS);
+    }
+
+    /**
+     * Counts the recorded selects that read the given table.
+     *
+     * @param table The table name.
+     * @return The number of selects whose {@code from} clause starts with the table.
+     */
+    public static long selectsFrom(String table) {
+        Pattern pattern = Pattern.compile("^\\s*select\\b.*\\bfrom\\s+" + Pattern.quote(table.toLowerCase(Locale.ROOT)) + "\\b",
+                Pattern.DOTALL);
+        return STATEMENTS.stream()
+                .filter(sql -> pattern.matcher(sql.toLowerCase(Locale.ROOT)).find())
+                .count();
+    }
+
+    /**
+     * Counts the recorded statements of one kind. Sequence reads are left out: the pooled ID optimizer issues
+     * one for every allocation block, so whether a given request issues one depends on the requests before it.
+     *
+     * @param verb The leading SQL keyword, such as {@code select}, {@code insert}, {@code update} or {@code delete}.
+     * @return The number of statements of that kind.
+     */
+    public static long count(String verb) {
+        Pattern pattern = Pattern.compile("^\\s*" + Pattern.quote(verb.toLowerCase(Locale.ROOT)) + "\\b");
+        return STATEMENTS.stream()
+                .map(sql -> sql.toLowerCase(Locale.ROOT))
+                .filter(sql -> !sql.contains("next value for"))
+                .filter(sql -> pattern.matcher(sql).find())
+                .count();
+    }
+}